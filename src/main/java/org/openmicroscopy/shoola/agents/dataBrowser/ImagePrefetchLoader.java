@@ -0,0 +1,114 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.agents.dataBrowser;
+
+import java.util.List;
+
+import org.openmicroscopy.shoola.agents.dataBrowser.view.DataBrowser;
+import org.openmicroscopy.shoola.env.data.views.CallHandle;
+import org.openmicroscopy.shoola.env.data.views.ImageDataView;
+
+import omero.gateway.SecurityContext;
+import omero.log.LogMessage;
+
+/**
+ * Loads, in the background, the rendering controls of the images next to
+ * the selected one so that stepping through the images does not wait for
+ * the server. The images are kept for the viewer so that they are released
+ * when it is discarded. Nothing is reported to the user.
+ * This class calls the <code>prefetchImages</code> method in the
+ * <code>ImageDataView</code>.
+ *
+ * @since 5.8
+ */
+public class ImagePrefetchLoader
+    extends DataBrowserLoader
+{
+
+    /** The IDs of the pixels sets to load. */
+    private final List<Long> pixelsIDs;
+
+    /** Handle to the asynchronous call so that we can cancel it. */
+    private CallHandle handle;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param viewer The viewer this data loader is for.
+     *               Mustn't be <code>null</code>.
+     * @param ctx The security context.
+     * @param pixelsIDs The IDs of the pixels sets, the most likely to be
+     *                  viewed first.
+     */
+    public ImagePrefetchLoader(DataBrowser viewer, SecurityContext ctx,
+            List<Long> pixelsIDs)
+    {
+        super(viewer, ctx);
+        if (pixelsIDs == null)
+            throw new IllegalArgumentException("No images specified.");
+        this.pixelsIDs = pixelsIDs;
+    }
+
+    /**
+     * Cancels the data loading.
+     * @see DataBrowserLoader#cancel()
+     */
+    public void cancel() { if (handle != null) handle.cancel(); }
+
+    /**
+     * Loads the images.
+     * @see DataBrowserLoader#load()
+     */
+    public void load()
+    {
+        ImageDataView view = (ImageDataView)
+                registry.getDataServicesView(ImageDataView.class);
+        handle = view.prefetchImages(ctx, pixelsIDs, viewer, this);
+    }
+
+    /** Overridden so the status is not displayed. */
+    public void onEnd() {}
+
+    /** Overridden so that the user is not notified. */
+    public void handleNullResult() {}
+
+    /** Overridden so that the user is not notified. */
+    public void handleCancellation() {}
+
+    /**
+     * Logs the error, the images will be loaded when viewed.
+     * @see DataBrowserLoader#handleException(Throwable)
+     */
+    public void handleException(Throwable exc)
+    {
+        LogMessage msg = new LogMessage();
+        msg.print("Cannot prefetch the images "+pixelsIDs);
+        msg.print(exc);
+        registry.getLogger().debug(this, msg);
+    }
+
+    /**
+     * Nothing to feed back, the images are kept by the service.
+     * @see DataBrowserLoader#handleResult(Object)
+     */
+    public void handleResult(Object result) {}
+
+}
@@ -41,6 +41,7 @@ import javax.swing.filechooser.FileFilter;
 import org.openmicroscopy.shoola.agents.dataBrowser.DataBrowserAgent;
 import org.openmicroscopy.shoola.agents.dataBrowser.IconManager;
 import org.openmicroscopy.shoola.agents.dataBrowser.view.DataBrowser;
+import org.openmicroscopy.shoola.util.file.ExcelWriter;
 import org.openmicroscopy.shoola.util.filter.file.ExcelFilter;
 import org.openmicroscopy.shoola.util.ui.UIUtilities;
 import org.openmicroscopy.shoola.util.ui.filechooser.FileChooser;
@@ -113,9 +114,14 @@ public class SaveAction
 		
 		int option = chooser.centerDialog();
 		if (option != JFileChooser.APPROVE_OPTION) return;
-		File  file = chooser.getFormattedSelectedFile();
-		if (file != null)
-    		model.saveThumbnails(file); 
+		File  file = ExcelWriter.getOutputFile(chooser.getSelectedFile());
+		if (file == null) {
+			DataBrowserAgent.getRegistry().getUserNotifier().notifyInfo(
+					"Save thumbnails", "Excel templates and macro-enabled " +
+					"workbooks are not supported.");
+			return;
+		}
+		model.saveThumbnails(file); 
     }
     
 }
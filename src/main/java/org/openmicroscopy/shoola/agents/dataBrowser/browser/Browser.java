@@ -25,6 +25,7 @@ import java.awt.Point;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.regex.Pattern;
 import javax.swing.JComponent;
 
 import org.openmicroscopy.shoola.agents.dataBrowser.layout.Layout;
@@ -330,6 +331,16 @@ public interface Browser
 	 */
 	public void setFilterNodes(Collection<ImageDisplay> nodes);
 	
+	/**
+	 * Returns the nodes whose name or description matches the specified
+	 * pattern. The nodes are looked up in an index maintained as the nodes
+	 * are added, removed or updated, the trees are not visited.
+	 * 
+	 * @param pattern The pattern to find.
+	 * @return See above.
+	 */
+	public Set<ImageDisplay> findNodes(Pattern pattern);
+	
 	/** Shows all the nodes. */
 	public void showAll();
 	
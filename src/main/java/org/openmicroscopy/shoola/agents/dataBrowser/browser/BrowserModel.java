@@ -31,6 +31,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.regex.Pattern;
 import javax.swing.JComponent;
 import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
@@ -42,6 +43,7 @@ import org.openmicroscopy.shoola.agents.dataBrowser.layout.Layout;
 import org.openmicroscopy.shoola.agents.dataBrowser.layout.LayoutFactory;
 import org.openmicroscopy.shoola.agents.dataBrowser.visitor.FilesetVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.visitor.NodesFinder;
+import org.openmicroscopy.shoola.agents.dataBrowser.visitor.RegexFinder;
 import org.openmicroscopy.shoola.agents.dataBrowser.visitor.ResetNodesVisitor;
 import org.openmicroscopy.shoola.util.ui.component.AbstractComponent;
 import omero.gateway.model.DataObject;
@@ -606,6 +608,15 @@ class BrowserModel
 		accept(visitor);
 	}
 	
+	/**
+	 * Implemented as specified by the {@link Browser} interface.
+	 * @see Browser#findNodes(Pattern)
+	 */
+	public Set<ImageDisplay> findNodes(Pattern pattern)
+	{
+		return RegexFinder.find(rootDisplay.getTextIndex(), pattern);
+	}
+	
 	/**
 	 * Implemented as specified by the {@link Browser} interface.
 	 * @see Browser#setFilterNodes(Collection)
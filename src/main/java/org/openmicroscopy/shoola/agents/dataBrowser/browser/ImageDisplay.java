@@ -243,6 +243,7 @@ public abstract class ImageDisplay
         child.parentDisplay = this;
         childrenDisplay.add(child);
         ((JLayeredPane) getInternalDesktop()).add(child, Integer.valueOf(0));
+        onNodeAdded(child);
     }
     
     /**
@@ -259,6 +260,7 @@ public abstract class ImageDisplay
     {
         if (child == null) throw new NullPointerException("No child.");
         if (childrenDisplay.contains(child)) {
+            onNodeRemoved(child);
             //NOTE: parentDisplay != null b/c child has been added through
             //the add method.
             child.parentDisplay.childrenDisplay.remove(child);
@@ -291,6 +293,43 @@ public abstract class ImageDisplay
             throw new NullPointerException("No hierarchy object.");
         hierarchyObject = ho;
         setToolTipText(toString());
+        onNodeUpdated(this);
+    }
+    
+    /**
+     * Invoked when the specified node, and its descendants, has been added
+     * to the visualization tree. The call is forwarded to the parent so that
+     * the root of the tree can keep track of the nodes.
+     * 
+     * @param node The added node.
+     */
+    void onNodeAdded(ImageDisplay node)
+    {
+        if (parentDisplay != null) parentDisplay.onNodeAdded(node);
+    }
+    
+    /**
+     * Invoked when the specified node, and its descendants, is about to be
+     * removed from the visualization tree. The call is forwarded to the
+     * parent.
+     * 
+     * @param node The removed node.
+     */
+    void onNodeRemoved(ImageDisplay node)
+    {
+        if (parentDisplay != null) parentDisplay.onNodeRemoved(node);
+    }
+    
+    /**
+     * Invoked when the hierarchy object of the specified node has been
+     * replaced e.g. the object has been renamed. The call is forwarded to
+     * the parent.
+     * 
+     * @param node The updated node.
+     */
+    void onNodeUpdated(ImageDisplay node)
+    {
+        if (parentDisplay != null) parentDisplay.onNodeUpdated(node);
     }
     
     /**
@@ -24,11 +24,14 @@ package org.openmicroscopy.shoola.agents.dataBrowser.browser;
 
 
 //Java imports
+import java.util.Iterator;
 
 //Third-party libraries
 
 //Application-internal dependencies
 import org.openmicroscopy.shoola.agents.dataBrowser.Colors;
+import org.openmicroscopy.shoola.agents.dataBrowser.visitor.RegexFinder;
+import org.openmicroscopy.shoola.util.ui.TextIndex;
 
 /** 
  * UI component that contains all the visualization trees hosted by the
@@ -60,6 +63,30 @@ class RootDisplay
      */
     static final Object FAKE_HIERARCHY_OBJECT = new Object();
     
+    /** 
+     * The index of the names and descriptions of the nodes in the trees,
+     * kept up to date as nodes are added, removed or updated.
+     */
+    private final TextIndex<ImageDisplay> textIndex =
+    		new TextIndex<ImageDisplay>(RegexFinder.FIELDS);
+    
+    /**
+     * Indexes or removes from the index the specified node and its
+     * descendants.
+     * 
+     * @param node The node to handle.
+     * @param add Pass <code>true</code> to index the node,
+     *            <code>false</code> to remove it.
+     */
+    private void index(ImageDisplay node, boolean add)
+    {
+    	if (add) RegexFinder.update(textIndex, node);
+    	else textIndex.remove(node);
+    	Iterator<ImageDisplay> i = node.getChildrenDisplay().iterator();
+    	while (i.hasNext())
+    		index(i.next(), add);
+    }
+    
     /** Creates a new root display. */
     RootDisplay()  
     {
@@ -69,5 +96,33 @@ class RootDisplay
          setTitleBarType(STATIC_BAR);
          setListenToBorder(false);
     }
+    
+    /**
+     * Returns the index of the names and descriptions of the nodes.
+     * 
+     * @return See above.
+     */
+    TextIndex<ImageDisplay> getTextIndex() { return textIndex; }
+    
+    /**
+     * Overridden to index the added nodes.
+     * @see ImageDisplay#onNodeAdded(ImageDisplay)
+     */
+    void onNodeAdded(ImageDisplay node) { index(node, true); }
+    
+    /**
+     * Overridden to remove the nodes from the index.
+     * @see ImageDisplay#onNodeRemoved(ImageDisplay)
+     */
+    void onNodeRemoved(ImageDisplay node) { index(node, false); }
+    
+    /**
+     * Overridden to index the new values of the node.
+     * @see ImageDisplay#onNodeUpdated(ImageDisplay)
+     */
+    void onNodeUpdated(ImageDisplay node)
+    {
+    	if (node != this) RegexFinder.update(textIndex, node);
+    }
 
 }
@@ -52,7 +52,6 @@ import org.openmicroscopy.shoola.agents.dataBrowser.browser.WellImageSet;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.WellSampleNode;
 import org.openmicroscopy.shoola.agents.dataBrowser.visitor.FlushVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.visitor.NodesFinder;
-import org.openmicroscopy.shoola.agents.dataBrowser.visitor.RegexFinder;
 import org.openmicroscopy.shoola.agents.dataBrowser.visitor.ResetNodesVisitor;
 import org.openmicroscopy.shoola.agents.events.hiviewer.LaunchViewer;
 import org.openmicroscopy.shoola.agents.events.iviewer.ViewImageObject;
@@ -112,6 +111,10 @@ class DataBrowserComponent
 	/** The maximum number of entries before switching to the table view. */
 	private static final String MAX_ENTRIES = "/views/MAX_ENTRIES";
 
+	/** The number of images to prefetch on each side of the selected one. */
+	private static final String PREFETCH_NEIGHBOURS =
+			"/views/PREFETCH_NEIGHBOURS";
+
 	/* The filtering message to display in modal dialogs. */
 	private static final String FILTERING_MSG = "Currently filtering data. Please wait.";
 	
@@ -145,6 +148,21 @@ class DataBrowserComponent
 		UIUtilities.centerAndShow(wizard);
 	}
 
+	/**
+	 * Loads ahead of time the images next to the selected node.
+	 *
+	 * @param node The selected node.
+	 * @param nodes The nodes in the order they are displayed.
+	 */
+	private void firePrefetch(ImageDisplay node,
+			List<? extends ImageNode> nodes)
+	{
+		Integer neighbours = (Integer) DataBrowserAgent.getRegistry().lookup(
+				PREFETCH_NEIGHBOURS);
+		if (neighbours != null)
+			model.firePrefetch(node, nodes, neighbours.intValue());
+	}
+
 	/**
 	 * Creates a new instance.
 	 * The {@link #initialize() initialize} method should be called straight 
@@ -314,6 +332,13 @@ class DataBrowserComponent
                     others.add(n.isWell() ? n.getParentWell()
                             .getHierarchyObject() : n.getHierarchyObject());
                 }
+                if (l.size() == 1) {
+                    //Wells step in the grid, fields in the fields view.
+                    WellSampleNode n = l.get(0);
+                    firePrefetch(n, n.isWell() ?
+                            model.getBrowser().getVisibleImageNodes() :
+                            view.getFieldNodes());
+                }
                 
                 firePropertyChange(
                         SELECTED_DATA_BROWSER_NODES_DISPLAY_PROPERTY, null,
@@ -383,6 +408,10 @@ class DataBrowserComponent
 			return;
 		}
 		
+		Browser browser = model.getBrowser();
+		firePrefetch(node, browser == null ? null :
+			browser.getVisibleImageNodes());
+		
         if (!(node instanceof WellSampleNode)
                 || ((WellSampleNode) node).isWell())
             model.getBrowser().scrollToNode(node);
@@ -560,9 +589,7 @@ class DataBrowserComponent
             return;
         }
 		//view.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-		RegexFinder finder = new RegexFinder(pattern);
-		browser.accept(finder);
-		List<ImageDisplay> nodes = finder.getFoundNodes();
+		Set<ImageDisplay> nodes = browser.findNodes(pattern);
 		browser.setFilterNodes(nodes);
 		view.layoutUI();
 		view.setNumberOfImages(nodes.size());
@@ -619,9 +646,12 @@ class DataBrowserComponent
 	            un.notifyInfo("Find", "Some characters are not recognised.");
 	            return;
 	        }
-			RegexFinder finder = new RegexFinder(pattern);
-			finder.analyse(nodes);
-			nodes = finder.getFoundNodes();
+			Set<ImageDisplay> found = browser.findNodes(pattern);
+			List<ImageDisplay> l = new ArrayList<ImageDisplay>(found.size());
+			for (ImageDisplay node : nodes) {
+				if (found.contains(node)) l.add(node);
+			}
+			nodes = l;
 		}
 		browser.setFilterNodes(nodes);
 		view.layoutUI();
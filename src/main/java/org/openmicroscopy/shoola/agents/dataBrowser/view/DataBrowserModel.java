@@ -38,6 +38,7 @@ import org.openmicroscopy.shoola.agents.dataBrowser.DataFilter;
 import org.openmicroscopy.shoola.agents.dataBrowser.DataObjectCreator;
 import org.openmicroscopy.shoola.agents.dataBrowser.DataObjectSaver;
 import org.openmicroscopy.shoola.agents.dataBrowser.DatasetsLoader;
+import org.openmicroscopy.shoola.agents.dataBrowser.ImagePrefetchLoader;
 import org.openmicroscopy.shoola.agents.dataBrowser.RateFilter;
 import org.openmicroscopy.shoola.agents.dataBrowser.ReportLoader;
 import org.openmicroscopy.shoola.agents.dataBrowser.TabularDataLoader;
@@ -70,6 +71,7 @@ import omero.gateway.model.PlateData;
 import omero.gateway.model.ProjectData;
 import omero.gateway.model.ScreenData;
 import omero.gateway.model.TagAnnotationData;
+import omero.gateway.model.WellSampleData;
 
 /** 
  * The Model component in the <code>DataBrowser</code> MVC triad.
@@ -142,6 +144,9 @@ abstract class DataBrowserModel
     /** The current data loader. */
     private DataBrowserLoader	loader;
     
+    /** The loader warming the images next to the selected one. */
+    private DataBrowserLoader	prefetchLoader;
+    
     /** The collection of existing tags. */
     private Collection			existingTags;
     
@@ -187,6 +192,26 @@ abstract class DataBrowserModel
 	/** The display mode.*/
     protected int displayMode;
     
+    /**
+	 * Returns the ID of the pixels set of the image displayed by the node
+	 * or <code>-1</code> if none.
+	 * 
+	 * @param node The node to handle.
+	 * @return See above.
+	 */
+	private long getPixelsID(ImageNode node)
+	{
+		Object ho = node.getHierarchyObject();
+		if (ho instanceof WellSampleData) ho = ((WellSampleData) ho).getImage();
+		if (!(ho instanceof ImageData)) return -1;
+		try {
+			return ((ImageData) ho).getDefaultPixels().getId();
+		} catch (Exception e) {
+			//image not loaded or without pixels
+		}
+		return -1;
+	}
+	
     /**
 	 * Invokes the value is not set. 
 	 */
@@ -533,7 +558,13 @@ abstract class DataBrowserModel
     /** Discards any on-going data loading. */
 	void discard()
 	{
-		
+		if (prefetchLoader != null) {
+			prefetchLoader.cancel();
+			prefetchLoader = null;
+		}
+		//The images still loading are released when loaded.
+		DataBrowserAgent.getRegistry().getImageService()
+			.releasePrefetchedImages(component, null);
 	}
 	
 	void cancelFiltering()
@@ -626,6 +657,46 @@ abstract class DataBrowserModel
 		loader.load();
 	}
 	
+	/**
+	 * Starts an asynchronous call to load, at low priority, the images next
+	 * to the selected node so that they can be viewed without delay.
+	 * The previous call is cancelled.
+	 * 
+	 * @param node The selected node.
+	 * @param nodes The nodes in the order they are displayed, e.g. the
+	 *              visible images or the fields of a well.
+	 * @param neighbours The number of images to load on each side of the
+	 *                   node.
+	 */
+	void firePrefetch(ImageDisplay node, List<? extends ImageNode> nodes,
+			int neighbours)
+	{
+		if (prefetchLoader != null) prefetchLoader.cancel();
+		prefetchLoader = null;
+		if (neighbours <= 0 || !(node instanceof ImageNode) || nodes == null)
+			return;
+		int index = nodes.indexOf(node);
+		if (index < 0) return;
+		List<Long> ids = new ArrayList<Long>();
+		int j;
+		long id;
+		for (int k = 1; k <= neighbours; k++) {
+			j = index+k;
+			if (j < nodes.size()) {
+				id = getPixelsID(nodes.get(j));
+				if (id >= 0 && !ids.contains(id)) ids.add(id);
+			}
+			j = index-k;
+			if (j >= 0) {
+				id = getPixelsID(nodes.get(j));
+				if (id >= 0 && !ids.contains(id)) ids.add(id);
+			}
+		}
+		if (ids.isEmpty()) return;
+		prefetchLoader = new ImagePrefetchLoader(component, ctx, ids);
+		prefetchLoader.load();
+	}
+	
 	/** Starts an asynchronous call to load the existing tags. */
 	void fireTagsLoading()
 	{
@@ -67,6 +67,7 @@ import org.openmicroscopy.shoola.agents.util.SelectionWizard;
 import org.openmicroscopy.shoola.agents.util.ui.EditorDialog;
 import org.openmicroscopy.shoola.env.config.Registry;
 import org.openmicroscopy.shoola.env.data.util.FilterContext;
+import org.openmicroscopy.shoola.util.file.ExcelWriter;
 import org.openmicroscopy.shoola.util.filter.file.ExcelFilter;
 import org.openmicroscopy.shoola.util.ui.RatingComponent;
 import org.openmicroscopy.shoola.util.ui.UIUtilities;
@@ -671,7 +672,13 @@ class DataBrowserToolBar
 		} catch (Exception ex) {}
 		int option = chooser.centerDialog();
 		if (option != JFileChooser.APPROVE_OPTION) return;
-		File  file = chooser.getFormattedSelectedFile();
+		File  file = ExcelWriter.getOutputFile(chooser.getSelectedFile());
+		if (file == null) {
+			DataBrowserAgent.getRegistry().getUserNotifier().notifyInfo(
+					"Create a report", "Excel templates and macro-enabled " +
+					"workbooks are not supported.");
+			return;
+		}
 		controller.createReport(file.getAbsolutePath());
 	}
 	
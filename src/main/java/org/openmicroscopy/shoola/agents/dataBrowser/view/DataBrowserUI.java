@@ -726,6 +726,18 @@ class DataBrowserUI
         fieldsView.loadFields(wm.getSelectedWells());
 	}
 	
+	/**
+	 * Returns the fields of the selected wells in the order they are
+	 * displayed or <code>null</code> if the model is not a plate.
+	 * 
+	 * @return See above.
+	 */
+	List<WellSampleNode> getFieldNodes()
+	{
+		if (fieldsView == null) return null;
+		return fieldsView.getNodes();
+	}
+	
 	/** Invokes when the parent has been set. */
 	void onExperimenterSet() { toolBar.onExperimenterSet(); }
 	
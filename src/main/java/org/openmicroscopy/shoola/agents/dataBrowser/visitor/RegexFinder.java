@@ -22,15 +22,17 @@ package org.openmicroscopy.shoola.agents.dataBrowser.visitor;
 
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplay;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplayVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageSet;
-import org.openmicroscopy.shoola.util.ui.RegExFactory;
+import org.openmicroscopy.shoola.util.ui.TextIndex;
 import omero.gateway.model.DatasetData;
 import omero.gateway.model.ImageData;
 import omero.gateway.model.PlateData;
@@ -51,19 +53,34 @@ public class RegexFinder
 	implements ImageDisplayVisitor
 {
 
+    /** Index of the name field in the {@link TextIndex}. */
+    private static final int	NAME = 0;
+    
+    /** Index of the description field in the {@link TextIndex}. */
+    private static final int	DESCRIPTION = 1;
+    
+    /** The number of fields indexed. */
+    public static final int		FIELDS = 2;
+    
     /** The pattern to find. */
     private Pattern				pattern;
-
-    /** The collection of found nodes. */
+    
+    /** The collection of found nodes, computed on demand. */
     private List<ImageDisplay>	foundNodes;
     
+    /** The visited nodes, in the order they were visited. */
+    private List<ImageDisplay>	visitedNodes;
+    
+    /** The index of the name and description of the nodes. */
+    private TextIndex<ImageDisplay>	index;
+    
     /**
      * Returns the name of the specified object.
      * 
      * @param userObject The <code>DataObject</code> hosted by the visited node.
      * @return See above.
      */
-    private String getName(Object userObject)
+    private static String getName(Object userObject)
     {
         if (userObject instanceof ProjectData) 
             return ((ProjectData) userObject).getName();
@@ -84,7 +101,7 @@ public class RegexFinder
      * @param userObject The <code>DataObject</code> hosted by the visited node.
      * @return See above.
      */
-    private String getDescription(Object userObject)
+    private static String getDescription(Object userObject)
     {
         if (userObject instanceof ProjectData) 
             return ((ProjectData) userObject).getDescription();
@@ -100,27 +117,41 @@ public class RegexFinder
     }
     
     /**
-     * Finds the pattern.
+     * Indexes the specified node.
      * 
      * @param node The node to visit.
      */
     private void foundNode(ImageDisplay node)
+    {
+        update(index, node);
+        visitedNodes.add(node);
+        foundNodes = null;
+    }
+    
+    /**
+     * Indexes the name and description of the specified node.
+     * 
+     * @param index The index to update.
+     * @param node The node to index.
+     */
+    public static void update(TextIndex<ImageDisplay> index, ImageDisplay node)
     {
         Object userObject = node.getHierarchyObject();
-        String name = getName(userObject);
-        if (name != null) {
-        	name = name.trim();
-        	if (RegExFactory.find(pattern, name) && !foundNodes.contains(node))
-        		foundNodes.add(node);
-        }
-        	
-        String description = getDescription(userObject);
-        if (description != null) {
-        	description = description.trim();
-        	if (RegExFactory.find(pattern, description) 
-        			&& !foundNodes.contains(node))
-        		foundNodes.add(node);
-        } 
+        index.update(node, getName(userObject), getDescription(userObject));
+    }
+    
+    /**
+     * Returns the indexed nodes whose name or description matches the
+     * specified pattern.
+     * 
+     * @param index The index to search.
+     * @param pattern The pattern to find.
+     * @return See above.
+     */
+    public static Set<ImageDisplay> find(TextIndex<ImageDisplay> index,
+    		Pattern pattern)
+    {
+        return index.find(pattern, NAME, DESCRIPTION);
     }
     
     /**
@@ -129,11 +160,25 @@ public class RegexFinder
      * @param pattern The pattern to search for.
      */
     public RegexFinder(Pattern pattern)
+    {
+    	this(pattern, null);
+    }
+    
+    /**
+     * Creates a new instance.
+     * 
+     * @param pattern The pattern to search for.
+     * @param index The index of the nodes, kept between searches.
+     * 				A new index is created if <code>null</code>.
+     */
+    public RegexFinder(Pattern pattern, TextIndex<ImageDisplay> index)
     {
     	if (pattern == null)
     		throw new IllegalArgumentException("No pattern specified.");
     	this.pattern = pattern;
-    	foundNodes = new ArrayList<ImageDisplay>();
+    	if (index == null) index = new TextIndex<ImageDisplay>(FIELDS);
+    	this.index = index;
+    	visitedNodes = new ArrayList<ImageDisplay>();
     }
     
     /** 
@@ -150,12 +195,32 @@ public class RegexFinder
 		}
     }
     
+    /**
+     * Returns the nodes visited or analysed.
+     * 
+     * @return See above.
+     */
+    public List<ImageDisplay> getVisitedNodes() { return visitedNodes; }
+    
 	/**
 	 * Returns the collection of found nodes.
 	 * 
 	 * @return See above.
 	 */
-    public List<ImageDisplay> getFoundNodes() { return foundNodes; }
+    public List<ImageDisplay> getFoundNodes()
+    {
+    	if (foundNodes != null) return foundNodes;
+    	Set<ImageDisplay> found = find(index, pattern);
+    	foundNodes = new ArrayList<ImageDisplay>(found.size());
+    	Set<ImageDisplay> added = new HashSet<ImageDisplay>(found.size());
+    	Iterator<ImageDisplay> i = visitedNodes.iterator();
+    	ImageDisplay node;
+    	while (i.hasNext()) {
+    		node = i.next();
+    		if (found.contains(node) && added.add(node)) foundNodes.add(node);
+    	}
+    	return foundNodes;
+    }
     
     /** 
      * Implemented as specified by {@link ImageDisplayVisitor}. 
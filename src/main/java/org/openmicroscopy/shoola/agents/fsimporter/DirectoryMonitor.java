@@ -22,10 +22,16 @@ package org.openmicroscopy.shoola.agents.fsimporter;
 
 
 import java.io.File;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.openmicroscopy.shoola.agents.fsimporter.view.Importer;
 import omero.gateway.SecurityContext;
+import org.openmicroscopy.shoola.env.data.events.DSCallFeedbackEvent;
+import org.openmicroscopy.shoola.env.data.model.ImportableFile;
 import org.openmicroscopy.shoola.env.data.views.CallHandle;
+import omero.log.LogMessage;
 
 import omero.gateway.model.DataObject;
 
@@ -87,6 +93,30 @@ public class DirectoryMonitor
 	 */
 	public void cancel() { handle.cancel(); }
 
+	/** 
+     * Logs the files imported from the monitored directory.
+     * @see DataImporterLoader#update(DSCallFeedbackEvent)
+     */
+    public void update(DSCallFeedbackEvent fe) 
+    {
+        if (viewer.getState() == Importer.DISCARDED) return;  //Async cancel.
+        Map m = (Map) fe.getPartialResult();
+        if (m == null) return;
+        Entry entry;
+        LogMessage msg;
+        Iterator i = m.entrySet().iterator();
+        while (i.hasNext()) {
+        	entry = (Entry) i.next();
+        	msg = new LogMessage();
+        	msg.print("Monitored import of "+
+        			((ImportableFile) entry.getKey()).getFile().getAbsolutePath());
+        	if (entry.getValue() instanceof Throwable) {
+        		msg.print((Throwable) entry.getValue());
+        		registry.getLogger().error(this, msg);
+        	} else registry.getLogger().info(this, msg);
+        }
+    }
+    
 	/** 
      * Feeds the result back to the viewer.
      * @see DataImporterLoader#handleResult(Object)
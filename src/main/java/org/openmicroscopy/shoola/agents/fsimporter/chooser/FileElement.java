@@ -26,6 +26,7 @@ import java.util.List;
 
 import org.openmicroscopy.shoola.agents.fsimporter.view.Importer;
 import org.openmicroscopy.shoola.env.data.model.FileObject;
+import org.openmicroscopy.shoola.util.file.DirectoryScanner;
 import org.openmicroscopy.shoola.util.ui.UIUtilities;
 
 import omero.gateway.model.ExperimenterData;
@@ -53,8 +54,17 @@ class FileElement
 	/** The name of the imported file. */
 	private String name;
 	
-	/** The size of the file. */
-	private long length;
+	/** The size of the file or of the files found so far in the directory.*/
+	private volatile long length;
+	
+	/** Flag indicating that the file is a non-empty directory. */
+	private boolean directory;
+	
+	/** Scans the directory or <code>null</code> if not scanned. */
+	private DirectoryScanner scanner;
+	
+	/** Flag indicating that the directory is being scanned. */
+	private volatile boolean scanning;
 	
 	/** 
 	 * Flag indicating that it is allowed to modify the container location.
@@ -88,6 +98,11 @@ class FileElement
 		this.group = group;
 		this.user = user;
 		length = -1;
+		if (file.getFile() instanceof File) {
+			File f = (File) file.getFile();
+			directory = f.isDirectory() &&
+					!DirectoryScanner.isEmptyDirectory(f);
+		}
 		if (type == Importer.SCREEN_TYPE)
 			this.toggleContainer = false;
 	}
@@ -131,10 +146,54 @@ class FileElement
 	 */
 	long getFileLength()
 	{
-		if (length > 0) return length;
-		return file.getLength();
+		if (length >= 0 || directory) return length;
+		length = file.getLength();
+		return length;
+	}
+	
+	/**
+	 * Starts scanning the directory. The length is updated as the files
+	 * are found. Does nothing if the element is not a directory.
+	 * 
+	 * @param depth The number of levels of sub-directories to scan.
+	 * @return The scanner or <code>null</code>.
+	 */
+	DirectoryScanner startScan(int depth)
+	{
+		if (!directory || scanner != null) return null;
+		scanner = new DirectoryScanner((File) file.getFile(), depth);
+		length = 0;
+		scanning = true;
+		return scanner;
 	}
 	
+	/**
+	 * Sets the size of the files found so far in the directory.
+	 * 
+	 * @param length The value to set.
+	 * @param scanning Pass <code>true</code> if the directory is still
+	 *                 being scanned, <code>false</code> otherwise.
+	 */
+	void setFileLength(long length, boolean scanning)
+	{
+		this.length = length;
+		this.scanning = scanning;
+	}
+	
+	/** Cancels the scan of the directory if any. */
+	void cancelScan()
+	{
+		if (scanner != null) scanner.cancel();
+	}
+	
+	/**
+	 * Returns <code>true</code> if the directory is being scanned,
+	 * <code>false</code> otherwise.
+	 * 
+	 * @return See above.
+	 */
+	boolean isScanning() { return scanning; }
+	
 	/**
 	 * Returns the length of the file in as a formatted string.
 	 * 
@@ -143,7 +202,9 @@ class FileElement
 	String getFileLengthAsString()
 	{
         final long l = getFileLength();
-        if (l > 0) {
+        if (scanning) {
+            return UIUtilities.formatFileSize(l)+"...";
+        } else if (l > 0) {
             return UIUtilities.formatFileSize(l);
         } else if (l == 0) {
             return "empty";
@@ -158,17 +219,7 @@ class FileElement
 	 * 
 	 * @return See above.
 	 */
-	boolean isDirectory()
-	{
-	    if (file.getFile() instanceof File) {
-	        File f = (File) file.getFile();
-	        if (f.isFile()) return false;
-	        File[] list = f.listFiles();
-	        if (list == null || list.length == 0) return false;
-	        return true;
-	    }
-		return false;
-	}
+	boolean isDirectory() { return directory; }
 	
 	/**
 	 * Returns the files within the directory.
@@ -34,6 +34,9 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -41,6 +44,7 @@ import javax.swing.JButton;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
+import javax.swing.SwingUtilities;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
@@ -53,6 +57,7 @@ import org.openmicroscopy.shoola.agents.util.browser.DataNode;
 import org.openmicroscopy.shoola.env.LookupNames;
 import org.openmicroscopy.shoola.env.data.model.FileObject;
 import org.openmicroscopy.shoola.env.data.model.ImportableFile;
+import org.openmicroscopy.shoola.util.file.DirectoryScanner;
 import org.openmicroscopy.shoola.util.ui.IconManager;
 import org.openmicroscopy.shoola.util.ui.MultilineHeaderSelectionRenderer;
 import org.openmicroscopy.shoola.util.ui.TooltipTableHeader;
@@ -145,6 +150,20 @@ class FileSelectionTable
 	/** The owner of the imported data. */
 	private static final String OWNER_TEXT = "Owner";
 
+	/** The minimum delay, in milliseconds, between two size updates. */
+	private static final long REFRESH_DELAY = 250;
+
+	/** Runs the scans of the directories added to the queue. */
+	private static final ExecutorService SCANNERS =
+	        Executors.newFixedThreadPool(2, new ThreadFactory() {
+	            public Thread newThread(Runnable r)
+	            {
+	                Thread t = new Thread(r, "Import scanner");
+	                t.setDaemon(true);
+	                return t;
+	            }
+	        });
+
 	/** The button to move an item from the remaining items to current items. */
 	private JButton addButton;
 
@@ -351,6 +370,84 @@ class FileSelectionTable
 	    add(buildTablePane(), "0, 0");
 	}
 
+	/**
+	 * Updates the size displayed for the specified element.
+	 * 
+	 * @param element The element to handle.
+	 */
+	private void refreshSize(FileElement element)
+	{
+	    if (this.sizeIndex == null) return;
+	    DefaultTableModel dtm = (DefaultTableModel) table.getModel();
+	    for (int i = 0; i < dtm.getRowCount(); i++) {
+	        if (dtm.getValueAt(i, this.fileIndex) == element) {
+	            dtm.setValueAt(element.getFileLengthAsString(), i,
+	                    this.sizeIndex);
+	            return;
+	        }
+	    }
+	}
+	
+	/**
+	 * Scans the directory in the background, the size displayed being
+	 * updated as the files are found.
+	 * 
+	 * @param element The element to handle.
+	 */
+	private void scanDirectory(final FileElement element)
+	{
+	    final DirectoryScanner scanner = element.startScan(
+	            ImporterAgent.getScanningDepth());
+	    if (scanner == null) return;
+	    SCANNERS.execute(new Runnable() {
+	        
+	        /** The time of the last update of the display. */
+	        private volatile long lastUpdate;
+	        
+	        /** Updates the size on the EDT. */
+	        private void update(final boolean done)
+	        {
+	            element.setFileLength(scanner.getSize(), !done);
+	            SwingUtilities.invokeLater(new Runnable() {
+	                public void run()
+	                {
+	                    refreshSize(element);
+	                    if (done) model.onSelectionChanged();
+	                }
+	            });
+	        }
+	        
+	        public void run()
+	        {
+	            scanner.scan(new DirectoryScanner.Listener() {
+	                public void fileFound(File file, long size)
+	                {
+	                    long now = System.currentTimeMillis();
+	                    if (now-lastUpdate < REFRESH_DELAY) return;
+	                    lastUpdate = now;
+	                    update(false);
+	                }
+	            });
+	            update(true);
+	        }
+	    });
+	}
+	
+	/**
+	 * Cancels the scan of the directories of the specified rows.
+	 * 
+	 * @param rows The rows of the table model.
+	 */
+	private void cancelScans(List<?> rows)
+	{
+	    Iterator<?> i = rows.iterator();
+	    Object o;
+	    while (i.hasNext()) {
+	        o = ((Vector<?>) i.next()).get(this.fileIndex);
+	        if (o instanceof FileElement) ((FileElement) o).cancelScan();
+	    }
+	}
+	
 	/** Removes the selected files from the queue. */
 	private void removeSelectedFiles()
 	{
@@ -364,6 +461,7 @@ class FileSelectionTable
 	        if (table.isRowSelected(i))
 	            indexes.add(v.get(i));
 	    }
+	    cancelScans(indexes);
 	    v.removeAll(indexes);
 	    dtm.setDataVector(v, this.columnHeadings);
 	    table.clearSelection();
@@ -533,6 +631,7 @@ class FileSelectionTable
 	    int n = table.getRowCount();
 	    if (n == 0) return;
 	    DefaultTableModel dtm = (DefaultTableModel) table.getModel();
+	    cancelScans(dtm.getDataVector());
 	    dtm.getDataVector().clear();
 	    table.clearSelection();
 	    formatTableModel();
@@ -614,6 +713,7 @@ class FileSelectionTable
 	                row.set(this.sizeIndex, element.getFileLengthAsString());
 	            }
 	            dtm.addRow(row);
+	            scanDirectory(element);
 	        }
 	    }
 	    model.onSelectionChanged();
@@ -631,7 +731,7 @@ class FileSelectionTable
 	    long size = 0;
 	    for (int i = 0; i < table.getRowCount(); i++) {
 	        element = (FileElement) dtm.getValueAt(i, this.fileIndex);
-	        size += element.getFileLength();
+	        size += Math.max(0, element.getFileLength());
 	    }
 	    return size;
 	}
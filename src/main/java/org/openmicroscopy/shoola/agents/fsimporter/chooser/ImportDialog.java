@@ -98,6 +98,7 @@ import org.openmicroscopy.shoola.env.data.model.FileObject;
 import org.openmicroscopy.shoola.env.data.model.ImportableFile;
 import org.openmicroscopy.shoola.env.data.model.ImportableObject;
 import org.openmicroscopy.shoola.env.rnd.RenderingControl;
+import org.openmicroscopy.shoola.util.file.DirectoryScanner;
 import org.openmicroscopy.shoola.util.ui.ClosableTabbedPaneComponent;
 import org.openmicroscopy.shoola.util.ui.NotificationDialog;
 import org.openmicroscopy.shoola.util.ui.NumericalTextField;
@@ -458,28 +459,6 @@ public class ImportDialog extends ClosableTabbedPaneComponent
 		}
 	}
 
-        /**
-         * Counts the files within the given directory (and sub directories)
-         *
-         * @param file
-         *            The directory or file
-         * @return The number of files within the directory (and sub directories) or
-         *         <code>1</code> if the provided argument is a file instead of a
-         *         directory
-         */
-        private int countFiles(File file) {
-
-            if (file.isDirectory()) {
-                int count = 0;
-                for (File child : file.listFiles()) {
-                    count += countFiles(child);
-                }
-                return count;
-            }
-
-            return 1;
-        }
-
 	/**
 	 * Handles <code>Enter</code> key pressed.
 	 *
@@ -1326,8 +1305,7 @@ public class ImportDialog extends ClosableTabbedPaneComponent
                 }
             }
 		} else if (f.isDirectory()) {
-			File[] list = f.listFiles();
-			if (list != null && list.length > 0) {
+			if (!DirectoryScanner.isEmptyDirectory(f)) {
                 if (isFileImportable(f)) {
                     try {
                         f.length();
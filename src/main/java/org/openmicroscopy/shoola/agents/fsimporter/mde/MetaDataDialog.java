@@ -82,6 +82,7 @@ import org.openmicroscopy.shoola.agents.fsimporter.mde.util.ExportDialog;
 import org.openmicroscopy.shoola.agents.fsimporter.mde.util.FNode;
 import org.openmicroscopy.shoola.agents.fsimporter.mde.util.ImportUserData;
 import org.openmicroscopy.shoola.agents.fsimporter.mde.util.MapAnnotationObject;
+import org.openmicroscopy.shoola.agents.fsimporter.mde.util.MetadataExtractor;
 import org.openmicroscopy.shoola.agents.fsimporter.mde.util.NodeContainer;
 import org.openmicroscopy.shoola.agents.fsimporter.mde.util.TagData;
 import org.openmicroscopy.shoola.agents.fsimporter.mde.util.TemplateDialog;
@@ -94,13 +95,6 @@ import org.openmicroscopy.shoola.env.data.model.ImportableFile;
 import org.openmicroscopy.shoola.util.ui.ClosableTabbedPaneComponent;
 import org.openmicroscopy.shoola.util.ui.UIUtilities;
 
-import loci.common.services.ServiceFactory;
-import loci.formats.ImageReader;
-import loci.formats.meta.MetadataRetrieve;
-import loci.formats.meta.MetadataStore;
-import loci.formats.services.OMEXMLService;
-import ome.xml.meta.IMetadata;
-import ome.xml.model.OME;
 
 
 /**
@@ -181,11 +175,16 @@ implements ActionListener,  TreeSelectionListener, TreeExpansionListener, ListSe
 
 	private static final int MENU=18;
 
+	/** The number of files whose metadata are read ahead of selection. */
+	private static final int PREFETCH_COUNT=2;
+
 	private ModuleController controller;
 
 	private ModuleList fileInstrumentList;
 	/** template file handle */
 	private File tempFile;
+	/** Extracts the metadata of the files off the EDT.*/
+	private MetadataExtractor extractor;
 	private String mdeConfigPath;
 
 	/**
@@ -222,6 +221,7 @@ implements ActionListener,  TreeSelectionListener, TreeExpansionListener, ListSe
 		// read last selected mic from Preferences
 		microscope=getMicroscopeName();
 		controller = ModuleController.getInstance();
+		extractor = MetadataExtractor.getInstance();
 
 		// microscope of preferences available
 		if(controller.getMicIndex(microscope)==-1) {
@@ -1099,6 +1099,7 @@ implements ActionListener,  TreeSelectionListener, TreeExpansionListener, ListSe
 			DefaultMutableTreeNode pTree= loadDataForSelection(selectedNode, false);
 			updateObjectConf(selectedNode);
 			showMDE(selectedNode.getContainer(),pTree);
+			prefetchMetadata(selectedNode);
 
 			revalidate();
 			repaint();
@@ -1197,7 +1198,12 @@ implements ActionListener,  TreeSelectionListener, TreeExpansionListener, ListSe
 
 			if(!container.isDir()) {
 				//load file data
-				content = new MDEContent(createMetadataReader(container.getNodeObject()),objectTree,controller,this);
+				String path=container.getNodeObject();
+				if(!extractor.isCached(path)) {
+					showMetadataLoading(container, pTree);
+					return;
+				}
+				content = new MDEContent(extractor.getCached(path),objectTree,controller,this);
 			}else {
 				content = new MDEContent(objectTree,controller,container.isDir(),null,this);
 			}
@@ -1363,45 +1369,51 @@ implements ActionListener,  TreeSelectionListener, TreeExpansionListener, ListSe
 
 
 	/**
-	 * Read meta data from given file into OMEXMLMetadata format and set it as the MetadataStore
-	 * for given reader. Set global ome as MetadataRetrieve OMEXMLRoot.
-	 * @param fName of source image file
-	 * @return metadata as OMEXMLMetadata format
+	 * Shows a message while the metadata of the file are read in the
+	 * background and shows the content once read if the file is still
+	 * selected.
+	 * @param container for current node
+	 * @param pTree parent object tree of current node
 	 */
-	private OME createMetadataReader(String fName)
+	private void showMetadataLoading(final NodeContainer container,
+			final DefaultMutableTreeNode pTree)
 	{
-		ImageReader reader = new ImageReader();
-		OME ome=null;
-		// show load cursor
-		Cursor cursor=this.getCursor();
-		this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+		final String path=container.getNodeObject();
+		JLabel label=new JLabel("Reading metadata of "+new File(path).getName()+"...",
+				SwingConstants.CENTER);
+		metaPanel.add(label,BorderLayout.CENTER);
+		extractor.load(path, new Runnable() {
+			public void run() {
+				FNode node=(FNode)fileTree.getLastSelectedPathComponent();
+				if(node!=null && node.getContainer()==container
+						&& container.getTreeNode()==null)
+					showMDE(container,pTree);
+			}
+		});
+		revalidate();
+		repaint();
+	}
 
-		try{
-			//record metadata to ome-xml format
-			ServiceFactory factory=new ServiceFactory();
-			OMEXMLService service = factory.getInstance(OMEXMLService.class);
-			IMetadata metadata =  service.createOMEXMLMetadata();
-			reader.setMetadataStore((MetadataStore) metadata);
-
-
-			reader.setId(fName);
-			ImporterAgent.getRegistry().getLogger().debug(this,"[MDE] -- use READER: "+reader.getReader().getClass().getName());
-			ImporterAgent.getRegistry().getLogger().debug(this, "-- Use Reader: "+reader.getReader().getClass().getSimpleName());
-
-			//load original data
-			//			series = reader.getSeriesMetadata();
-			//load ome
-			String xml = service.getOMEXML((MetadataRetrieve) metadata);
-			ome = (OME) service.createOMEXMLRoot(xml);
-			//			companionFiles=reader.getUsedFiles();
-		}catch(Exception e){
-			// not a bioFormat readable file
-			ImporterAgent.getRegistry().getLogger().warn(this,"[MDE] file format of "+fName+"not readable by bio-formats!");
-			if(cursor!=null) this.setCursor(cursor);
+	/**
+	 * Reads in the background the metadata of the files following the
+	 * selected node, or of the first files of the selected directory.
+	 * @param node selected node in the filetree
+	 */
+	private void prefetchMetadata(FNode node)
+	{
+		FNode next;
+		if(node.isLeaf())
+			next=(FNode) node.getNextSibling();
+		else
+			next=node.getChildCount()>0?(FNode) node.getChildAt(0):null;
+		int n=0;
+		while(next!=null && n<PREFETCH_COUNT) {
+			if(next.isLeaf() && next.getFile()!=null) {
+				extractor.prefetch(next.getAbsolutePath());
+				n++;
+			}
+			next=(FNode) next.getNextSibling();
 		}
-		//reset cursor
-		if(cursor!=null) this.setCursor(cursor);
-		return ome;
 	}
 
 	/**
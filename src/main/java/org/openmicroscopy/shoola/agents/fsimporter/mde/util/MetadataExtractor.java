@@ -0,0 +1,390 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.agents.fsimporter.mde.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+import javax.swing.SwingUtilities;
+
+import org.openmicroscopy.shoola.agents.fsimporter.ImporterAgent;
+import org.openmicroscopy.shoola.env.LookupNames;
+import org.openmicroscopy.shoola.env.config.Registry;
+
+import loci.common.services.ServiceFactory;
+import loci.formats.IFormatReader;
+import loci.formats.ImageReader;
+import loci.formats.Memoizer;
+import loci.formats.meta.MetadataRetrieve;
+import loci.formats.meta.MetadataStore;
+import loci.formats.services.OMEXMLService;
+import ome.xml.meta.OMEXMLMetadata;
+import ome.xml.model.OME;
+import omero.log.LogMessage;
+
+/**
+ * Extracts the metadata of the image files in background threads and
+ * caches the <code>OME</code> model of each file until the file is
+ * modified. The file selected by the user is extracted before the files
+ * prefetched. The readers are wrapped into a {@link Memoizer} so that
+ * reopening a file already parsed, e.g. in a later session, is fast.
+ *
+ * @since 5.8
+ */
+public class MetadataExtractor
+{
+
+    /** The number of threads extracting the metadata. */
+    private static final int WORKERS = 2;
+
+    /** The maximum number of files waiting to be extracted. */
+    private static final int QUEUE_SIZE = 32;
+
+    /** The maximum number of models cached. */
+    private static final int CACHE_SIZE = 64;
+
+    /**
+     * The minimum time, in milliseconds, taken by the initialization of a
+     * reader for the memo file to be written.
+     */
+    private static final long MEMO_MINIMUM_ELAPSED = 100;
+
+    /** The name of the directory where the memo files are written. */
+    private static final String MEMO_DIRECTORY = "mdeMemo";
+
+    /** The unique instance. */
+    private static final MetadataExtractor SINGLETON =
+            new MetadataExtractor();
+
+    /** The model extracted from a file. */
+    private static class Entry
+    {
+
+        /** The size of the file when extracted. */
+        private final long size;
+
+        /** The last modification time of the file when extracted. */
+        private final long lastModified;
+
+        /** The model or <code>null</code> if the file cannot be read. */
+        private final OME ome;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param file The file the model was extracted from.
+         * @param ome The model.
+         */
+        Entry(File file, OME ome)
+        {
+            size = file.length();
+            lastModified = file.lastModified();
+            this.ome = ome;
+        }
+
+        /**
+         * Returns <code>true</code> if the file has not been modified since
+         * the model was extracted, <code>false</code> otherwise.
+         *
+         * @param file The file to check.
+         * @return See above.
+         */
+        boolean isValid(File file)
+        {
+            return file.length() == size && file.lastModified() == lastModified;
+        }
+    }
+
+    /** The models extracted, the least recently used first. */
+    private final Map<String, Entry> cache;
+
+    /** The files waiting to be extracted, the selected file first. */
+    private final BlockingDeque<String> queue;
+
+    /** The files being extracted. */
+    private final Set<String> inProgress;
+
+    /** The callbacks to run on the EDT once a file has been extracted. */
+    private final Map<String, List<Runnable>> callbacks;
+
+    /** The directory where the memo files are written or <code>null</code>. */
+    private final File memoDirectory;
+
+    /**
+     * Returns the unique instance of this class.
+     *
+     * @return See above.
+     */
+    public static MetadataExtractor getInstance() { return SINGLETON; }
+
+    /**
+     * Returns the directory where to write the memo files or
+     * <code>null</code> if it cannot be created. The directory is in the
+     * <code>omero</code> directory of the user and only accessible to the
+     * user, the memo files being deserialized when a file is reopened.
+     *
+     * @return See above.
+     */
+    private static File createMemoDirectory()
+    {
+        Registry reg = ImporterAgent.getRegistry();
+        if (reg == null) return null;
+        String home = (String) reg.lookup(LookupNames.USER_HOME_OMERO);
+        if (home == null) return null;
+        File dir = new File(home, MEMO_DIRECTORY);
+        try {
+            Path path = dir.toPath();
+            if (FileSystems.getDefault().supportedFileAttributeViews()
+                    .contains("posix")) {
+                Set<PosixFilePermission> owner =
+                        PosixFilePermissions.fromString("rwx------");
+                if (!dir.isDirectory())
+                    Files.createDirectories(path,
+                            PosixFilePermissions.asFileAttribute(owner));
+                Files.setPosixFilePermissions(path, owner);
+            } else {
+                Files.createDirectories(path);
+                if (!(dir.setReadable(false, false) &&
+                        dir.setReadable(true, true) &&
+                        dir.setWritable(false, false) &&
+                        dir.setWritable(true, true) &&
+                        dir.setExecutable(false, false) &&
+                        dir.setExecutable(true, true)))
+                    return null;
+            }
+        } catch (Exception e) {
+            return null;
+        }
+        return dir.canWrite() ? dir : null;
+    }
+
+    /**
+     * Reads the metadata of the file. The reader is closed once the
+     * metadata has been read.
+     *
+     * @param path The absolute path of the file.
+     * @return The model or <code>null</code> if the file cannot be read.
+     */
+    private OME extract(String path)
+    {
+        IFormatReader reader = new ImageReader();
+        if (memoDirectory != null)
+            reader = new Memoizer(reader, MEMO_MINIMUM_ELAPSED, memoDirectory);
+        try {
+            ServiceFactory factory = new ServiceFactory();
+            OMEXMLService service = factory.getInstance(OMEXMLService.class);
+            reader.setMetadataStore(service.createOMEXMLMetadata());
+            reader.setId(path);
+            ImporterAgent.getRegistry().getLogger().debug(this,
+                    "[MDE] -- use READER: "+reader.getFormat());
+            MetadataStore store = reader.getMetadataStore();
+            if (store instanceof OMEXMLMetadata)
+                return (OME) ((OMEXMLMetadata) store).getRoot();
+            String xml = service.getOMEXML((MetadataRetrieve) store);
+            return (OME) service.createOMEXMLRoot(xml);
+        } catch (Exception e) {
+            LogMessage msg = new LogMessage();
+            msg.print("[MDE] file format of "+path+
+                    " not readable by bio-formats!");
+            msg.print(e);
+            ImporterAgent.getRegistry().getLogger().warn(this, msg);
+            return null;
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                ImporterAgent.getRegistry().getLogger().debug(this,
+                        "[MDE] cannot close the reader of "+path);
+            }
+        }
+    }
+
+    /**
+     * Runs the callbacks registered for the specified file on the EDT.
+     *
+     * @param path The absolute path of the file.
+     */
+    private void notifyLoaded(String path)
+    {
+        final List<Runnable> l;
+        synchronized (callbacks) {
+            l = callbacks.remove(path);
+        }
+        if (l == null) return;
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run()
+            {
+                Iterator<Runnable> i = l.iterator();
+                while (i.hasNext())
+                    i.next().run();
+            }
+        });
+    }
+
+    /** Extracts the files queued until the application exits. */
+    private void work()
+    {
+        String path;
+        while (true) {
+            try {
+                path = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (queue) {
+                if (!inProgress.add(path)) continue;
+            }
+            try {
+                if (!isCached(path)) {
+                    OME ome = extract(path);
+                    synchronized (cache) {
+                        cache.put(path, new Entry(new File(path), ome));
+                    }
+                }
+            } finally {
+                synchronized (queue) {
+                    inProgress.remove(path);
+                }
+            }
+            notifyLoaded(path);
+        }
+    }
+
+    /** Creates a new instance. */
+    @SuppressWarnings("serial")
+    private MetadataExtractor()
+    {
+        cache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> e)
+            {
+                return size() > CACHE_SIZE;
+            }
+        };
+        queue = new LinkedBlockingDeque<String>(QUEUE_SIZE);
+        callbacks = new HashMap<String, List<Runnable>>();
+        inProgress = new HashSet<String>();
+        memoDirectory = createMemoDirectory();
+        Thread t;
+        for (int i = 0; i < WORKERS; i++) {
+            t = new Thread(new Runnable() {
+                public void run() { work(); }
+            }, "MDE metadata "+i);
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the metadata of the file has been
+     * extracted and the file has not been modified since,
+     * <code>false</code> otherwise.
+     *
+     * @param path The absolute path of the file.
+     * @return See above.
+     */
+    public boolean isCached(String path)
+    {
+        if (path == null) return false;
+        synchronized (cache) {
+            Entry e = cache.get(path);
+            return e != null && e.isValid(new File(path));
+        }
+    }
+
+    /**
+     * Returns the model extracted from the file or <code>null</code> if the
+     * file has not been extracted or cannot be read.
+     *
+     * @param path The absolute path of the file.
+     * @return See above.
+     */
+    public OME getCached(String path)
+    {
+        if (path == null) return null;
+        synchronized (cache) {
+            Entry e = cache.get(path);
+            if (e == null || !e.isValid(new File(path))) return null;
+            return e.ome;
+        }
+    }
+
+    /**
+     * Extracts the metadata of the file ahead of the files prefetched and
+     * runs the callback on the EDT once done.
+     *
+     * @param path The absolute path of the file.
+     * @param callback The callback to run or <code>null</code>.
+     */
+    public void load(String path, Runnable callback)
+    {
+        if (path == null) return;
+        if (callback != null) {
+            synchronized (callbacks) {
+                List<Runnable> l = callbacks.get(path);
+                if (l == null) {
+                    l = new ArrayList<Runnable>();
+                    callbacks.put(path, l);
+                }
+                l.add(callback);
+            }
+        }
+        if (isCached(path)) {
+            notifyLoaded(path);
+            return;
+        }
+        synchronized (queue) {
+            if (inProgress.contains(path)) return;
+            queue.remove(path);
+            while (!queue.offerFirst(path))
+                queue.pollLast();
+        }
+    }
+
+    /**
+     * Extracts the metadata of the file if there is room in the queue.
+     *
+     * @param path The absolute path of the file.
+     */
+    public void prefetch(String path)
+    {
+        if (path == null || isCached(path)) return;
+        synchronized (queue) {
+            if (!inProgress.contains(path) && !queue.contains(path))
+                queue.offerLast(path);
+        }
+    }
+
+}
@@ -92,6 +92,7 @@ import org.openmicroscopy.shoola.env.data.model.ImportableFile;
 import org.openmicroscopy.shoola.env.data.model.ImportableObject;
 import org.openmicroscopy.shoola.env.ui.TaskBar;
 import org.openmicroscopy.shoola.env.ui.TopWindow;
+import org.openmicroscopy.shoola.util.file.DirectoryScanner;
 import org.openmicroscopy.shoola.util.ui.ClosableTabbedPane;
 import org.openmicroscopy.shoola.util.ui.ClosableTabbedPaneComponent;
 import org.openmicroscopy.shoola.util.ui.TitlePanel;
@@ -545,7 +546,7 @@ class ImporterUI extends TopWindow
 		int n = tabs.getComponentCount();
 		String title = "Import #"+total;
 		ImporterUIElement element = null;
-        if (fileCount(object) > maxFiles) {
+        if (fileCount(object, maxFiles+1) > maxFiles) {
             element = new ImporterUIElementLight(controller, model, this,
                     uiElementID, n, title, object);
         } else {
@@ -563,28 +564,34 @@ class ImporterUI extends TopWindow
 		return element;
 	}
 
-    private int fileCount(ImportableObject obj) {
-        int count = 0;
+    /**
+     * Counts the files to import, scanning the directories up to the
+     * scanning depth of the import. Stops once the limit is reached.
+     *
+     * @param obj The object hosting the files to import.
+     * @param limit The number of files after which to stop counting.
+     * @return See above.
+     */
+    private long fileCount(ImportableObject obj, long limit) {
+        long count = 0;
+        File file;
+        DirectoryScanner scanner;
+        //depth not set: count the whole tree
+        int depth = obj.getScanningDepth() > 0 ? obj.getScanningDepth() : -1;
         for (ImportableFile f : obj.getFiles()) {
-            count += fileCount(f.getOriginalFile().getTrueFile());
+            file = f.getOriginalFile().getTrueFile();
+            if (file == null)
+                continue;
+            scanner = new DirectoryScanner(file, depth);
+            scanner.setLimit(limit-count);
+            scanner.scan(null);
+            count += scanner.getFileCount();
+            if (count >= limit)
+                break;
         }
         return count;
     }
 
-    private int fileCount(File file) {
-        if (file == null)
-            return 0;
-
-        if (file.isDirectory()) {
-            int count = 0;
-            for (File f : file.listFiles()) {
-                count += fileCount(f);
-            }
-            return count;
-        }
-        return 1;
-    }
-
 	/** Resets the import.*/
 	void reset()
 	{
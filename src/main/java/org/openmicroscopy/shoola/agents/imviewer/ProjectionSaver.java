@@ -25,6 +25,7 @@ import java.util.List;
 
 import org.openmicroscopy.shoola.agents.imviewer.view.ImViewer;
 import org.openmicroscopy.shoola.env.data.events.DSCallAdapter;
+import org.openmicroscopy.shoola.env.data.events.DSCallFeedbackEvent;
 import org.openmicroscopy.shoola.env.data.model.ProjectionParam;
 import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.views.CallHandle;
@@ -170,6 +171,18 @@ public class ProjectionSaver
 		}
     }
     
+    /** 
+     * Feeds the preview of the sections projected so far back to the viewer.
+     * @see DataLoader#update(DSCallFeedbackEvent)
+     */
+    public void update(DSCallFeedbackEvent fe)
+    {
+        if (viewer.getState() == ImViewer.DISCARDED) return;  //Async cancel.
+        if (index != PREVIEW) return;
+        Object partial = fe.getPartialResult();
+        if (partial != null) viewer.setPartialProjectionPreview(partial);
+    }
+    
     /** 
      * Feeds the result back to the viewer. 
      * @see DataLoader#handleResult(Object)
@@ -28,9 +28,11 @@ import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBuffer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.swing.Icon;
 
@@ -59,6 +61,7 @@ import org.openmicroscopy.shoola.env.rnd.data.Region;
 import org.openmicroscopy.shoola.env.rnd.data.Tile;
 import org.openmicroscopy.shoola.env.ui.UserNotifier;
 import org.openmicroscopy.shoola.util.image.geom.Factory;
+import org.openmicroscopy.shoola.util.image.geom.ImagePool;
 import org.openmicroscopy.shoola.util.ui.UIUtilities;
 
 import omero.gateway.model.ChannelData;
@@ -139,6 +142,14 @@ class BrowserModel
     /** Collection of images composing the grid. */
     private List<SplitImage>	splitImages;
     
+    /**
+     * The magnified images taken from the pool i.e. the zoomed and the grid
+     * images. They are released as soon as they are no longer displayed.
+     * The rendered and projected images are not released, they are shared
+     * with other components e.g. the measurement tool.
+     */
+    private Set<BufferedImage>	pooledImages;
+    
     /** The magnification factor used to render the annotate image. */
    private double 				ratio;
     
@@ -165,6 +176,58 @@ class BrowserModel
     	return parent.isMappedImageRGB(channels);
     }
     
+    /**
+     * Magnifies the passed image into an image taken from the pool.
+     * 
+     * @param f The magnification factor.
+     * @param img The image to magnify.
+     * @return See above.
+     */
+    private BufferedImage magnifyImage(double f, BufferedImage img)
+    {
+    	return addPooledImage(Factory.magnifyImage(f, img,
+    			ImagePool.getDefault()));
+    }
+    
+    /**
+     * Magnifies the passed image into an image taken from the pool,
+     * using the interpolation set for the viewer.
+     * 
+     * @param img The image to magnify.
+     * @param f The magnification factor.
+     * @return See above.
+     */
+    private BufferedImage magnifyImage(BufferedImage img, double f)
+    {
+    	return addPooledImage(Factory.magnifyImage(img, f, 0,
+    			isInterpolation(), ImagePool.getDefault()));
+    }
+    
+    /**
+     * Keeps track of the passed image taken from the pool.
+     * 
+     * @param img The image to handle.
+     * @return See above.
+     */
+    private BufferedImage addPooledImage(BufferedImage img)
+    {
+    	if (img != null) pooledImages.add(img);
+    	return img;
+    }
+    
+    /**
+     * Releases the passed image to the pool if it has been taken from it.
+     * The images sharing the buffer of a pooled image e.g. the band images
+     * of the grid are not released.
+     * 
+     * @param img The image to release.
+     */
+    private void releaseImage(BufferedImage img)
+    {
+    	if (img != null && pooledImages.remove(img))
+    		ImagePool.getDefault().release(img);
+    }
+    
     /**
      * Handles the exception thrown if any while creating the images for the
      * split view.
@@ -179,7 +242,7 @@ class BrowserModel
         msg.print("Grid Images creation");
         msg.print(e);
         ImViewerAgent.getRegistry().getLogger().error(this, msg);
-        gridImages.clear();
+        clearList(gridImages);
     }
     
     /** 
@@ -192,12 +255,12 @@ class BrowserModel
     	List l = parent.getActiveChannelsInGrid();
 		int n = l.size();	
 		clearList(gridImages);
-		if (combinedImage != null) combinedImage.flush();
+		releaseImage(combinedImage);
+		combinedImage = null;
 		switch (n) {
 			case 0:
 				for (int i = 0; i < maxC; i++) 
 					gridImages.add(null);
-				combinedImage = null;
 				break;
 			case 1:
 			case 2:
@@ -209,7 +272,7 @@ class BrowserModel
 							gridImages.add(null);
 						break;
 					}
-					combinedImage = Factory.magnifyImage(gridRatio, image);
+					combinedImage = magnifyImage(gridRatio, image);
 					
 					int w = combinedImage.getWidth();
 		        	int h = combinedImage.getHeight();
@@ -264,8 +327,8 @@ class BrowserModel
     	List<BufferedImage> images = parent.getGridImages();
     	if (images != null) {
     		int last = images.size()-1;
-    		combinedImage = Factory.magnifyImage(gridRatio, 
-								images.get(last));
+    		releaseImage(combinedImage);
+    		combinedImage = magnifyImage(gridRatio, images.get(last));
     		images.remove(last);
     		Iterator<BufferedImage> i = images.iterator();
     		boolean b = originalGridImages.size() == 0 &&
@@ -273,7 +336,7 @@ class BrowserModel
     		BufferedImage img;
         	while (i.hasNext()) {
         		img = i.next();
-        		gridImages.add(Factory.magnifyImage(gridRatio, img));
+        		gridImages.add(magnifyImage(gridRatio, img));
         		if (b) originalGridImages.add(img);
     		}
     	}
@@ -293,15 +356,16 @@ class BrowserModel
     		BufferedImage img;
         	while (i.hasNext()) {
         		img = i.next();
-        		gridImages.add(Factory.magnifyImage(img, gridRatio, 0, isInterpolation()));
+        		gridImages.add(magnifyImage(img, gridRatio));
         		if (b) originalGridImages.add(img);
     		}
-        	combinedImage = Factory.magnifyImage(renderedImage, gridRatio, 0, isInterpolation());
+        	releaseImage(combinedImage);
+        	combinedImage = magnifyImage(renderedImage, gridRatio);
     	}
     }
 
     /**
-     * Clears the list and frees space.
+     * Clears the list and releases the images taken from the pool.
      * 
      * @param l The list to handle.
      */
@@ -309,11 +373,8 @@ class BrowserModel
     {
     	if (l == null) return;
     	Iterator<BufferedImage> k = l.iterator();
-    	BufferedImage img;
-    	while (k.hasNext()) {
-    		img = k.next();
-			img = null;
-		}
+    	while (k.hasNext())
+    		releaseImage(k.next());
     	l.clear();
     }
     
@@ -339,9 +400,8 @@ class BrowserModel
 			case 2:
 			case 3:
 				if (isImageMappedRGB(l) && !parent.isCompressed()) {
-					combinedImage = null;
-					combinedImage = Factory.magnifyImage(gridRatio, 
-								renderedImage);
+					releaseImage(combinedImage);
+					combinedImage = magnifyImage(gridRatio, renderedImage);
 					int w = combinedImage.getWidth();
 		        	int h = combinedImage.getHeight();
 		        	DataBuffer buf = combinedImage.getRaster().getDataBuffer();
@@ -423,6 +483,7 @@ class BrowserModel
         unitBarColor = ImagePaintingFactory.UNIT_BAR_COLOR;
         backgroundColor = ImagePaintingFactory.DEFAULT_BACKGROUND;
         gridImages = new ArrayList<BufferedImage>();
+        pooledImages = new HashSet<BufferedImage>();
         zoomFactor = ZoomAction.DEFAULT_ZOOM_FACTOR;
         if (pref != null) {
         	if (pref.getBackgroundColor() != null)
@@ -464,9 +525,11 @@ class BrowserModel
     void setRenderedImage(BufferedImage image)
     {
     	renderedImage = null;
+    	releaseImage(displayedImage);
     	displayedImage = null;
-    	combinedImage = null;
     	clearList(gridImages);
+    	releaseImage(combinedImage);
+    	combinedImage = null;
         renderedImage = image;
         
         if (renderedImage != null) {
@@ -596,11 +659,13 @@ class BrowserModel
     void createDisplayedImage()
     {
     	if (renderedImage == null) return;
+    	//released first so that it can be reused for the new zoomed image.
+    	releaseImage(displayedImage);
     	displayedImage = null;
     	if (zoomFactor != ZoomAction.DEFAULT_ZOOM_FACTOR) {
     		BufferedImage img = null;
     		try {
-    			img = Factory.magnifyImage(renderedImage, zoomFactor, 0, isInterpolation());
+    			img = magnifyImage(renderedImage, zoomFactor);
     			renderedImage.flush();
     		} catch (Throwable e) {
     			UserNotifier un = ImViewerAgent.getRegistry().getUserNotifier();
@@ -618,11 +683,12 @@ class BrowserModel
     void createDisplayedProjectedImage()
     {
         if (projectedImage == null) return;
-        if (displayedProjectedImage != null) displayedProjectedImage.flush();
+        releaseImage(displayedProjectedImage);
+        displayedProjectedImage = null;
         if (zoomFactor != ZoomAction.DEFAULT_ZOOM_FACTOR) {
         	BufferedImage img = null;
         	try {
-				img = Factory.magnifyImage(projectedImage, zoomFactor, 0, isInterpolation());
+				img = magnifyImage(projectedImage, zoomFactor);
 			} catch (Throwable e) {
 				UserNotifier un = ImViewerAgent.getRegistry().getUserNotifier();
 				un.notifyInfo("Magnification", 
@@ -1074,23 +1140,20 @@ class BrowserModel
 						handleGridImageCreationException(e);
 					}
 				} else {
-					combinedImage = null;
-					combinedImage = Factory.magnifyImage(gridRatio,
-							renderedImage);
+					releaseImage(combinedImage);
+					combinedImage = magnifyImage(gridRatio, renderedImage);
 					Iterator<BufferedImage> i = originalGridImages.iterator();
 					while (i.hasNext()) {
-						gridImages.add(Factory.magnifyImage(gridRatio,
-								i.next()));
+						gridImages.add(magnifyImage(gridRatio, i.next()));
 					}
 				}
 				break;
 			default:
-				combinedImage = null;
-				combinedImage = Factory.magnifyImage(gridRatio, renderedImage);
+				releaseImage(combinedImage);
+				combinedImage = magnifyImage(gridRatio, renderedImage);
 				Iterator<BufferedImage> i = originalGridImages.iterator();
 				while (i.hasNext()) {
-					gridImages.add(Factory.magnifyImage(gridRatio,
-							i.next()));
+					gridImages.add(magnifyImage(gridRatio, i.next()));
 				}
 		}
 	}
@@ -1264,13 +1327,17 @@ class BrowserModel
 	/** Removes references to images.*/ 
 	void discard()
 	{
+		clearList(gridImages);
+		clearList(originalGridImages);
+		Iterator<BufferedImage> i = pooledImages.iterator();
+		while (i.hasNext())
+			ImagePool.getDefault().release(i.next());
+		pooledImages.clear();
 		combinedImage = null;
 		displayedImage = null;
 		displayedProjectedImage = null;
 		projectedImage = null;
 		renderedImage = null;
-		clearList(gridImages);
-		clearList(originalGridImages);
 		System.gc();//force garbage collection
 	}
 
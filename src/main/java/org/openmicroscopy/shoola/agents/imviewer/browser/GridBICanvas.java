@@ -228,6 +228,7 @@ class GridBICanvas
         int x = 0, y = 0;
         SplitImage channel;
         BufferedImage original = model.getCombinedImage();
+        if (original == null) return null;
     	int w = original.getWidth(), h = original.getHeight();
     	Rectangle imageRectangle;
         for (int i = 0; i < n; ++i) {
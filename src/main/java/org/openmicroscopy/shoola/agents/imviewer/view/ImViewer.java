@@ -501,7 +501,8 @@ public interface ImViewer
 	public List getImageComponents(String colorModel, boolean includeROI);
 
 	/**
-	 * Returns the image currently displayed.
+	 * Returns the image currently displayed. A zoomed image is returned as
+	 * a copy since the browser reuses it once replaced.
 	 * 
 	 * @param includeROI Passed <code>true</code> to add ROI, 
 	 * 					 <code>false</code> otherwise.
@@ -733,7 +734,8 @@ public interface ImViewer
 	public BufferedImage getGridImage();
 	
 	/**
-	 * Returns a projected version of the image (preview).
+	 * Returns a projected version of the image (preview). A zoomed image is
+	 * returned as a copy since the browser reuses it once replaced.
 	 * 
 	 * @return See above.
 	 */
@@ -998,6 +1000,14 @@ public interface ImViewer
 	 */
 	public void setProjectionPreview(Object image);
 	
+	/**
+	 * Sets the preview of the projection over the sections projected so far
+	 * while the projection is in progress.
+	 * 
+	 * @param image The value to display.
+	 */
+	public void setPartialProjectionPreview(Object image);
+	
 	/**
 	 * Sets the newly created projected image.
 	 * 
@@ -1619,11 +1619,13 @@ class ImViewerComponent
 			case DISCARDED:
 				return null;
 		}
-		if (includeROI) {
-			if (layers == null) return model.getDisplayedImage();
-			return createImageWithROI(model.getDisplayedImage());
-		}
-		return model.getDisplayedImage();
+		BufferedImage img = model.getDisplayedImage();
+		if (includeROI && layers != null) return createImageWithROI(img);
+		//The browser reuses a zoomed image once replaced, return a copy.
+		if (img != null && img != model.getOriginalImage() &&
+				!model.isBigImage())
+			return Factory.copyBufferedImage(img);
+		return img;
 	}
 	
 	/** 
@@ -1639,7 +1641,11 @@ class ImViewerComponent
 			case DISCARDED:
 				return null;
 		}
-		return model.getBrowser().getDisplayedProjectedImage();
+		BufferedImage img = model.getBrowser().getDisplayedProjectedImage();
+		//The browser reuses a zoomed image once replaced, return a copy.
+		if (img != null && img != model.getProjectedImage())
+			return Factory.copyBufferedImage(img);
+		return img;
 	}
 	
 	/** 
@@ -2632,6 +2638,17 @@ class ImViewerComponent
 		fireStateChange();
 	}
 
+	/** 
+	 * Implemented as specified by the {@link ImViewer} interface.
+	 * @see ImViewer#setPartialProjectionPreview(Object)
+	 */
+	public void setPartialProjectionPreview(Object image)
+	{
+		if (image == null) return;
+		if (model.getTabbedIndex() != PROJECTION_INDEX) return;
+		model.setPartialRenderProjected(image);
+	}
+
 	/** 
 	 * Implemented as specified by the {@link ImViewer} interface.
 	 * @see ImViewer#setProjectionPreview(Object)
@@ -3196,7 +3213,8 @@ class ImViewerComponent
 					postViewerState(ViewerState.CLOSE);
 					ImViewerRecentObject object = new ImViewerRecentObject(
 						model.getSecurityContext(),
-						model.getImageID(), model.getImageTitle(),
+						model.getImageID(), model.getPixelsID(),
+						model.getImageTitle(),
 						getImageIcon());
 					firePropertyChange(RECENT_VIEWER_PROPERTY, null, object);
 				}
@@ -31,6 +31,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Set;
 import java.util.prefs.Preferences;
 import javax.swing.JMenu;
@@ -44,6 +45,11 @@ import org.openmicroscopy.shoola.agents.imviewer.ImViewerAgent;
 import org.openmicroscopy.shoola.agents.imviewer.actions.ActivateRecentAction;
 import org.openmicroscopy.shoola.agents.imviewer.actions.ActivationAction;
 import omero.gateway.SecurityContext;
+import org.openmicroscopy.shoola.env.config.Registry;
+import org.openmicroscopy.shoola.env.data.views.CallHandle;
+import org.openmicroscopy.shoola.env.data.views.ImageDataView;
+import org.openmicroscopy.shoola.env.event.AgentEvent;
+import org.openmicroscopy.shoola.env.event.AgentEventListener;
 import org.openmicroscopy.shoola.env.rnd.RndProxyDef;
 import org.openmicroscopy.shoola.env.ui.TaskBar;
 import omero.gateway.model.DataObject;
@@ -93,6 +99,12 @@ public class ImViewerFactory
 	/** The maximum number of recent items. */
 	private static final int	MAX_RECENT = 10;
 	
+	/** 
+	 * The number of images recently viewed whose rendering settings and
+	 * first plane are kept loaded.
+	 */
+	private static final String PREFETCH_RECENT = "/views/PREFETCH_RECENT";
+	
 	/** The sole instance. */
 	private static final ImViewerFactory  singleton = new ImViewerFactory();
 
@@ -480,6 +492,7 @@ public class ImViewerFactory
 				toRemove.add(recent);
 		}
 		singleton.recentViewers.removeAll(toRemove);
+		singleton.prefetchRecentViewers();
 	}
 	
 	/** All the tracked components. */
@@ -512,6 +525,9 @@ public class ImViewerFactory
 	/** The user preferences for the viewer. */
 	private ViewerPreferences				pref;
 	
+	/** Handle to the call loading the images recently viewed. */
+	private CallHandle						prefetchHandle;
+	
 	/** Creates a new instance. */
 	private ImViewerFactory()
 	{
@@ -526,10 +542,50 @@ public class ImViewerFactory
 			public void actionPerformed(ActionEvent e) {
 				
 				singleton.recentViewers.clear();
+				singleton.prefetchRecentViewers();
 			}
 		});
 	}
 
+	/**
+	 * Loads in the background the last images recently viewed in the same
+	 * group as the last one so that they open without delay from the
+	 * <code>Open Recent</code> menu. The images previously loaded and no
+	 * longer in the list are released.
+	 */
+	private void prefetchRecentViewers()
+	{
+		if (prefetchHandle != null) prefetchHandle.cancel();
+		prefetchHandle = null;
+		Registry reg = ImViewerAgent.getRegistry();
+		Integer value = (Integer) reg.lookup(PREFETCH_RECENT);
+		int n = value == null ? 0 : value.intValue();
+		List<Long> ids = new ArrayList<Long>();
+		SecurityContext ctx = null;
+		ListIterator<ImViewerRecentObject> i =
+			recentViewers.listIterator(recentViewers.size());
+		ImViewerRecentObject recent;
+		while (i.hasPrevious() && ids.size() < n) {
+			recent = i.previous();
+			if (recent.getPixelsID() < 0) continue;
+			if (ctx == null) ctx = recent.getSecurityContext();
+			else if (ctx.getGroupID() !=
+				recent.getSecurityContext().getGroupID()) continue;
+			ids.add(recent.getPixelsID());
+		}
+		if (ids.isEmpty()) {
+			//The images still loading are released when loaded.
+			reg.getImageService().releasePrefetchedImages(this, null);
+			return;
+		}
+		ImageDataView view = (ImageDataView)
+			reg.getDataServicesView(ImageDataView.class);
+		prefetchHandle = view.prefetchImages(ctx, ids, this,
+			new AgentEventListener() {
+				public void eventFired(AgentEvent e) {}
+			});
+	}
+
 	/** Clears the collection of tracked viewers. */
 	private void clear()
 	{
@@ -542,6 +598,7 @@ public class ImViewerFactory
 		}
 		singleton.viewers.clear();
 		singleton.recentViewers.clear();
+		prefetchRecentViewers();
 		handleViewerDiscarded();
 	}
 	
@@ -589,6 +646,7 @@ public class ImViewerFactory
 			obj = j.next();
 			if (obj.getImageID() == id) toRemove = obj;
 		}
+		//Still loaded ahead of time so that the viewer uses it.
 		if (toRemove != null) recentViewers.remove(toRemove);
 		return comp;
 	}
@@ -636,6 +694,7 @@ public class ImViewerFactory
 			if (recentViewers.size() >= MAX_RECENT)
 				recentViewers.remove(0);
 			recentViewers.add(v);
+			prefetchRecentViewers();
 			handleViewerDiscarded();
 		}
 	}
@@ -89,6 +89,7 @@ import org.openmicroscopy.shoola.env.rnd.data.Tile;
 import org.openmicroscopy.shoola.util.CommonsLangUtils;
 import org.openmicroscopy.shoola.util.file.modulo.ModuloInfo;
 import org.openmicroscopy.shoola.util.image.geom.Factory;
+import org.openmicroscopy.shoola.util.image.geom.ImagePool;
 import org.openmicroscopy.shoola.util.ui.UIUtilities;
 
 import omero.gateway.model.ChannelData;
@@ -2408,6 +2409,17 @@ class ImViewerModel
 		browser.setRenderProjected(image);
 	}
 
+	/**
+	 * Sets the preview of the projection over the sections projected so
+	 * far. The state is left unchanged since the projection is in progress.
+	 * 
+	 * @param image The projected image.
+	 */
+	void setPartialRenderProjected(Object image)
+	{
+		browser.setRenderProjected(image);
+	}
+
 	/**
 	 * Sets the collections of containers hosting the image.
 	 * 
@@ -2983,6 +2995,8 @@ class ImViewerModel
 
 	/**
 	 * Clears the images hosted by the tile if not <code>null</code>.
+	 * The images are released to the pool so that they can be reused to
+	 * decode the tiles loaded next.
 	 * 
 	 * @param toClear The collection to handle.
 	 */
@@ -3000,6 +3014,7 @@ class ImViewerModel
 			    bi = (BufferedImage) image;
                 bi.getGraphics().dispose();
                 bi.flush();
+                ImagePool.getDefault().release(bi);
                 tile.setImage(null);
 			}
 		}
@@ -55,6 +55,9 @@ public class ImViewerRecentObject
 	/** Reference to an image recently viewed. */
 	private String		imageName;
 	
+	/** The id of the pixels set viewed. */
+	private long		pixelsID;
+	
 	/** A thumbnail representation of the image. */
 	private ImageIcon	icon;
 	
@@ -66,13 +69,15 @@ public class ImViewerRecentObject
 	 * 
 	 * @param ctx The security context.
 	 * @param imageID The id of image viewed.
+	 * @param pixelsID The id of the pixels set viewed.
 	 * @param imageName The name of image viewed
 	 * @param icon A icon of the last image.
 	 */
-	ImViewerRecentObject(SecurityContext ctx, long imageID, String imageName,
-			ImageIcon icon)
+	ImViewerRecentObject(SecurityContext ctx, long imageID, long pixelsID,
+			String imageName, ImageIcon icon)
 	{
 		this.imageID = imageID;
+		this.pixelsID = pixelsID;
 		this.imageName = imageName;
 		this.ctx = ctx;
 		if (icon == null) {
@@ -89,6 +94,13 @@ public class ImViewerRecentObject
 	 */
 	public long getImageID() { return imageID; }
 	
+	/**
+	 * Returns the id of the pixels set recently viewed.
+	 * 
+	 * @return See above.
+	 */
+	public long getPixelsID() { return pixelsID; }
+	
 	/**
 	 * Returns the name of image recently viewed.
 	 * 
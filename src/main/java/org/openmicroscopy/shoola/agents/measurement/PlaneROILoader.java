@@ -0,0 +1,114 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.agents.measurement;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.openmicroscopy.shoola.agents.measurement.view.MeasurementViewer;
+import org.openmicroscopy.shoola.env.data.views.CallHandle;
+import org.openmicroscopy.shoola.util.roi.model.util.Coord3D;
+
+import omero.gateway.SecurityContext;
+import omero.log.LogMessage;
+
+/**
+ * Loads the ROIs on the specified planes when the ROIs of the image are
+ * loaded plane by plane.
+ *
+ * @since 5.8
+ */
+public class PlaneROILoader
+    extends MeasurementViewerLoader
+{
+
+    /** The id of the image the ROIs are related to. */
+    private final long imageID;
+
+    /** The planes to load. */
+    private final List<Coord3D> planes;
+
+    /** Handle to the asynchronous call so that we can cancel it. */
+    private CallHandle handle;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param viewer The viewer this data loader is for.
+     *               Mustn't be <code>null</code>.
+     * @param ctx The security context.
+     * @param imageID The id of the image the ROIs are related to.
+     * @param planes The planes to load, the displayed plane first.
+     */
+    public PlaneROILoader(MeasurementViewer viewer, SecurityContext ctx,
+            long imageID, List<Coord3D> planes)
+    {
+        super(viewer, ctx);
+        if (imageID < 0)
+            throw new IllegalArgumentException("No image specified.");
+        if (planes == null || planes.isEmpty())
+            throw new IllegalArgumentException("No planes specified.");
+        this.imageID = imageID;
+        this.planes = planes;
+    }
+
+    /**
+     * Loads the ROI.
+     * @see MeasurementViewerLoader#load()
+     */
+    public void load()
+    {
+        handle = idView.loadROIByPlane(ctx, imageID, planes, this);
+    }
+
+    /**
+     * Cancels the data loading.
+     * @see MeasurementViewerLoader#cancel()
+     */
+    public void cancel() { handle.cancel(); }
+
+    /**
+     * Feeds the result back to the viewer.
+     * @see MeasurementViewerLoader#handleResult(Object)
+     */
+    public void handleResult(Object result)
+    {
+        if (viewer.getState() == MeasurementViewer.DISCARDED) return;
+        viewer.setPlaneROI(planes, (Map<Coord3D, Collection>) result);
+    }
+
+    /**
+     * Logs the error and notifies the viewer that the planes have not been
+     * loaded so that they can be requested again.
+     * @see MeasurementViewerLoader#handleException(Throwable)
+     */
+    public void handleException(Throwable exc)
+    {
+        LogMessage msg = new LogMessage();
+        msg.print("Cannot load the ROIs on the planes "+planes);
+        msg.print(exc);
+        registry.getLogger().error(this, msg);
+        if (viewer.getState() != MeasurementViewer.DISCARDED)
+            viewer.setPlaneROI(planes, null);
+    }
+
+}
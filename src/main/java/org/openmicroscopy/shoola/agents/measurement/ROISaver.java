@@ -27,6 +27,7 @@ import java.util.List;
 import org.openmicroscopy.shoola.agents.events.measurement.ROIEvent;
 import org.openmicroscopy.shoola.agents.measurement.view.MeasurementViewer;
 import org.openmicroscopy.shoola.env.data.events.DSCallAdapter;
+import org.openmicroscopy.shoola.env.data.events.DSCallFeedbackEvent;
 import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.views.CallHandle;
 import omero.log.LogMessage;
@@ -61,6 +62,9 @@ public class ROISaver
     /** Indicates to discard if an error occurred.*/
     private boolean close;
     
+    /** The number of ROIs sent per call. */
+    private int batchSize;
+    
     /**
      * Creates a new instance. 
      * 
@@ -73,6 +77,26 @@ public class ROISaver
      */
 	public ROISaver(MeasurementViewer viewer, SecurityContext ctx,
 			long imageID, long userID, List<ROIData> roiList, boolean close)
+	{
+		this(viewer, ctx, imageID, userID, roiList, close, 0);
+	}
+	
+    /**
+     * Creates a new instance. 
+     * 
+     * @param viewer	The viewer this data loader is for.
+     *                  Mustn't be <code>null</code>.
+     * @param ctx The security context.
+     * @param imageID	The id of the image the ROIs are related to.
+     * @param userID	The id of the user.
+     * @param roiList	The list of the roi to save.
+     * @param close Indicates to discard the viewer if an error occurred.
+     * @param batchSize The number of ROIs sent per call, pass a value 
+     * 					<code>&lt;= 0</code> to send all the ROIs in one call.
+     */
+	public ROISaver(MeasurementViewer viewer, SecurityContext ctx,
+			long imageID, long userID, List<ROIData> roiList, boolean close,
+			int batchSize)
 	{
 		super(viewer, ctx);
 		if (imageID < 0) 
@@ -81,6 +105,7 @@ public class ROISaver
 		this.userID = userID;
 		this.roiList = roiList;
 		this.close = close;
+		this.batchSize = batchSize;
 	}
 	
 	/**
@@ -89,7 +114,20 @@ public class ROISaver
      */
     public void load()
     {
-    	handle = idView.saveROI(ctx, imageID, userID, roiList , this);
+    	handle = idView.saveROI(ctx, imageID, userID, roiList, batchSize,
+    			this);
+    }
+    
+    /**
+     * Marks the ROIs of each batch saved so that only the ROIs not saved are
+     * sent again if a batch fails.
+     * @see MeasurementViewerLoader#update(DSCallFeedbackEvent)
+     */
+    public void update(DSCallFeedbackEvent fe)
+    {
+    	if (viewer.getState() == MeasurementViewer.DISCARDED) return;
+    	List<ROIData> saved = (List<ROIData>) fe.getPartialResult();
+    	if (saved != null) viewer.setROISaved(saved);
     }
     
     /**
@@ -25,6 +25,9 @@ package org.openmicroscopy.shoola.agents.measurement;
 
 //Java imports
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 //Third-party libraries
 
@@ -34,11 +37,14 @@ import org.openmicroscopy.shoola.env.data.events.DSCallAdapter;
 import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.views.CallHandle;
 import omero.log.LogMessage;
+import org.openmicroscopy.shoola.util.roi.model.util.Coord3D;
 
 /**
  * Loads the server side ROIs into the measurement tool. Also if there are no
  * ROI it will check to see if there is an ROI.xml file and try and load from
- * it.
+ * it. If a plane is specified and the image has more than
+ * {@link #MAX_ROI} ROIs, only the ROIs on that plane are loaded and the
+ * other planes are loaded on demand.
  * 
  * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  * 	<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -54,11 +60,19 @@ public class ServerSideROILoader
 	extends MeasurementViewerLoader
 {
 
+	/**
+	 * The number of ROIs above which the ROIs are loaded plane by plane.
+	 */
+	public static final int MAX_ROI = 5000;
+	
 	/** The id of the image the ROIs are related to. */
 	private long		imageID;
 	
 	/** The id of the user. */
 	private long		userID;
+	
+	/** The displayed plane or <code>null</code> to load all the ROIs. */
+	private Coord3D		plane;
 		
 	/** Handle to the asynchronous call so that we can cancel it. */
     private CallHandle  handle;
@@ -83,6 +97,25 @@ public class ServerSideROILoader
 		this.imageID = imageID;
 		this.userID = userID;
 	}
+	
+	/**
+	 * Creates a new instance. The number of ROIs is checked first and the
+	 * ROIs on the specified plane only are loaded if the image has too
+	 * many ROIs.
+	 * 
+	 * @param viewer	The viewer this data loader is for.
+	 *                  Mustn't be <code>null</code>.
+	 * @param ctx The security context.
+	 * @param imageID	The id of the image the ROIs are related to.
+	 * @param userID	The id of the user.
+	 * @param plane		The displayed plane.
+	 */
+	public ServerSideROILoader(MeasurementViewer viewer, SecurityContext ctx,
+			long imageID, long userID, Coord3D plane)
+	{
+		this(viewer, ctx, imageID, userID);
+		this.plane = plane;
+	}
     
 	/**
      * Loads the ROI.
@@ -90,7 +123,9 @@ public class ServerSideROILoader
      */
     public void load()
     {
-    	handle = idView.loadROIFromServer(ctx, imageID, userID, this);
+    	if (plane == null)
+    		handle = idView.loadROIFromServer(ctx, imageID, userID, this);
+    	else handle = idView.getROICount(ctx, imageID, this);
     }
     
     /**
@@ -106,6 +141,19 @@ public class ServerSideROILoader
     public void handleResult(Object result)
     {
     	if (viewer.getState() == MeasurementViewer.DISCARDED) return;  //Async cancel.
+    	if (result instanceof Integer) {
+    		if (((Integer) result).intValue() > MAX_ROI) {
+    			List<Coord3D> planes = Collections.singletonList(plane);
+    			viewer.setROIPlanesLoading(planes);
+    			handle = idView.loadROIByPlane(ctx, imageID, planes, this);
+    		} else
+    			handle = idView.loadROIFromServer(ctx, imageID, userID, this);
+    		return;
+    	}
+    	if (result instanceof Map) {
+    		//ROIs of the displayed plane.
+    		result = ((Map) result).get(plane);
+    	}
     	viewer.setLoadingFromServerClient((Collection) result);
     }
     
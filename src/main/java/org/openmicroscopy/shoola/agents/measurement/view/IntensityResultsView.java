@@ -481,7 +481,8 @@ class IntensityResultsView
 		FileChooser chooser = view.createSaveToExcelChooser();
 		
 		if (chooser.showDialog() != JFileChooser.APPROVE_OPTION) return;
-		File  file = chooser.getFormattedSelectedFile();
+		File  file = view.getSelectedExcelFile(chooser);
+		if (file == null) return;
 		ExcelWriter writer = null;
 		try
 		{
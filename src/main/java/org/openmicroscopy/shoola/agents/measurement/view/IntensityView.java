@@ -834,7 +834,8 @@ class IntensityView
 		chooser.addComponentToControls(channelsSelectionForm);
 		
 		if (chooser.showDialog() != JFileChooser.APPROVE_OPTION) return;
-		File  file = chooser.getFormattedSelectedFile();
+		File  file = view.getSelectedExcelFile(chooser);
+		if (file == null) return;
 		
 		List<Integer> channels = channelsSelectionForm.getUserSelection();
 		if (channels == null || channels.size() == 0) {
@@ -67,7 +67,6 @@ import omero.gateway.model.FolderData;
 import omero.log.Logger;
 import org.openmicroscopy.shoola.env.ui.UserNotifier;
 import org.openmicroscopy.shoola.util.file.ExcelWriter;
-import org.openmicroscopy.shoola.util.filter.file.ExcelFilter;
 import org.openmicroscopy.shoola.util.image.geom.Factory;
 import org.openmicroscopy.shoola.util.roi.figures.ROIFigure;
 import org.openmicroscopy.shoola.util.roi.model.ROI;
@@ -530,12 +529,8 @@ class MeasurementResults
 		FileChooser chooser = view.createSaveToExcelChooser();
 		int choice = chooser.showDialog();
 		if (choice != JFileChooser.APPROVE_OPTION) return false;
-		File file = chooser.getSelectedFile();
-		if (!file.getAbsolutePath().endsWith(ExcelFilter.EXCEL))
-		{
-			String fileName = file.getAbsolutePath()+"."+ExcelFilter.EXCEL;
-			file = new File(fileName);
-		}
+		File file = view.getSelectedExcelFile(chooser);
+		if (file == null) return false;
 		String filename = file.getAbsolutePath();
 		MeasurementTableModel tm = (MeasurementTableModel) results.getModel();
 		tm = tm.copy();
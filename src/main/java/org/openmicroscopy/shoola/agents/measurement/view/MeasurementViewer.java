@@ -44,6 +44,7 @@ import org.openmicroscopy.shoola.env.data.views.calls.ROIFolderSaver.ROIFolderAc
 import org.openmicroscopy.shoola.util.roi.figures.ROIFigure;
 import org.openmicroscopy.shoola.util.roi.model.ROI;
 import org.openmicroscopy.shoola.util.roi.model.ROIShape;
+import org.openmicroscopy.shoola.util.roi.model.util.Coord3D;
 import org.openmicroscopy.shoola.util.ui.component.ObservableComponent;
 
 
@@ -323,6 +324,25 @@ public interface MeasurementViewer
 	 */
 	public void setLoadingFromServerClient(Collection result);
 
+	/**
+	 * Indicates that the ROIs are loaded plane by plane, the specified
+	 * planes being loaded first.
+	 * 
+	 * @param planes The planes being loaded.
+	 */
+	public void setROIPlanesLoading(List<Coord3D> planes);
+
+	/**
+	 * Adds the ROIs loaded for the specified planes when the ROIs are
+	 * loaded plane by plane.
+	 * 
+	 * @param planes The planes requested.
+	 * @param result The ROIs on each plane or <code>null</code> if the
+	 * 				 planes could not be loaded.
+	 */
+	public void setPlaneROI(List<Coord3D> planes,
+			Map<Coord3D, Collection> result);
+
 	/**
 	 * The return result after the ROI has been saved to the server. 
 	 * 
@@ -330,6 +350,14 @@ public interface MeasurementViewer
 	 */
 	public void setUpdateROIComponent(Collection result);
 	
+	/**
+	 * Sets the ids given by the server to the ROIs saved and marks them as
+	 * saved so that they are not sent again if the following ROIs fail.
+	 * 
+	 * @param rois The ROIs returned by the server.
+	 */
+	public void setROISaved(Collection<ROIData> rois);
+	
     /**
      * The return result after the ROI has been saved to the server.
      * 
@@ -411,6 +411,7 @@ class MeasurementViewerComponent
 			if (!model.isBigImage()) return;
 		}
 		model.setPlane(defaultZ, defaultT);
+		model.firePlaneROILoading();
 		Drawing drawing = model.getDrawing();
 		drawing.removeDrawingListener(controller);
 		drawing.clear();
@@ -924,6 +925,46 @@ class MeasurementViewerComponent
 		//Now we are ready to go. We can post an event to add component to
 		//Viewer
 		postEvent(MeasurementToolLoaded.ADD);
+		//load the ROIs on the planes around the displayed one.
+		model.firePlaneROILoading();
+	}
+
+	/** 
+     * Implemented as specified by the {@link MeasurementViewer} interface.
+     * @see MeasurementViewer#setROIPlanesLoading(List)
+     */
+	public void setROIPlanesLoading(List<Coord3D> planes)
+	{
+		if (model.getState() != LOADING_ROI)
+			throw new IllegalArgumentException("The method can only " +
+					"be invoked in the LOADING_ROI state.");
+		model.setROIPlanesLoading(planes);
+	}
+
+	/** 
+     * Implemented as specified by the {@link MeasurementViewer} interface.
+     * @see MeasurementViewer#setPlaneROI(List, Map)
+     */
+	public void setPlaneROI(List<Coord3D> planes,
+			Map<Coord3D, Collection> result)
+	{
+		int state = model.getState();
+		if (state == DISCARDED) return;
+		//cannot be added now, the planes will be requested again.
+		if (state != READY) result = null;
+		List<DataObject> nodes = null;
+		try {
+			nodes = model.addPlaneROI(planes, result);
+		} catch (Exception e) {
+			String s = "Cannot convert server ROI into UI objects:";
+			MeasurementAgent.getRegistry().getLogger().error(this, s+e);
+		}
+		if (CollectionUtils.isEmpty(nodes)) return;
+		if (planes.contains(model.getCurrentView()))
+			view.updateDrawingArea();
+		view.rebuildManagerTable();
+		view.refreshResultsTable();
+		model.fireLoadROIAnnotations(nodes);
 	}
 
 	/** 
@@ -972,6 +1013,16 @@ class MeasurementViewerComponent
 		reg.getEventBus().post(new ROIEvent(model.getImageID()));
 	}
 
+	/** 
+     * Implemented as specified by the {@link MeasurementViewer} interface.
+     * @see MeasurementViewer#setROISaved(Collection)
+     */
+	public void setROISaved(Collection<ROIData> rois)
+	{
+		if (model.getState() == DISCARDED) return;
+		model.setROISaved(rois);
+	}
+
     @Override
     public long getImageID() {
         return model.getImageID();
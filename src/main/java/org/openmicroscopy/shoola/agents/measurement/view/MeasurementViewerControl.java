@@ -656,6 +656,7 @@ class MeasurementViewerControl
 		                    key != MeasurementAttributes.SHOWMEASUREMENT &&
 		                    key != AnnotationKeys.TAG &&
 		                    key != AnnotationKeys.FOLDERS) {
+		                fig.setObjectDirty(true);
 		                model.setDataChanged();
 		            }
 				}
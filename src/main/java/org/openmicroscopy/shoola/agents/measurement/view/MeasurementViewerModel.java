@@ -30,6 +30,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -49,6 +51,7 @@ import org.openmicroscopy.shoola.agents.measurement.Analyser;
 import org.openmicroscopy.shoola.agents.measurement.IconManager;
 import org.openmicroscopy.shoola.agents.measurement.MeasurementAgent;
 import org.openmicroscopy.shoola.agents.measurement.MeasurementViewerLoader;
+import org.openmicroscopy.shoola.agents.measurement.PlaneROILoader;
 import org.openmicroscopy.shoola.agents.measurement.ROIAnnotationLoader;
 import org.openmicroscopy.shoola.agents.measurement.ROIAnnotationSaver;
 import org.openmicroscopy.shoola.agents.measurement.ROIFolderSaver;
@@ -60,6 +63,7 @@ import org.openmicroscopy.shoola.agents.measurement.util.FileMap;
 import org.openmicroscopy.shoola.agents.metadata.MetadataViewerAgent;
 import org.openmicroscopy.shoola.agents.util.EditorUtil;
 import org.openmicroscopy.shoola.agents.util.ViewerSorter;
+import org.openmicroscopy.shoola.env.LookupNames;
 import org.openmicroscopy.shoola.env.config.Registry;
 import org.openmicroscopy.shoola.env.data.OmeroDataService;
 import org.openmicroscopy.shoola.env.data.OmeroImageService;
@@ -103,6 +107,7 @@ import omero.gateway.model.GroupData;
 import omero.gateway.model.ImageData;
 import omero.gateway.model.PixelsData;
 import omero.gateway.model.ROIData;
+import omero.gateway.model.ShapeData;
 import omero.gateway.util.PojoMapper;
 import omero.gateway.util.Pojos;
 import ome.model.units.BigResult;
@@ -226,6 +231,24 @@ class MeasurementViewerModel
 
     /** The Collection of ROIS */
     private Collection<ROIData> rois;
+
+    /**
+     * The planes whose ROIs have been loaded or are being loaded, or
+     * <code>null</code> if all the ROIs of the image are loaded at once.
+     */
+    private Set<Coord3D> requestedPlanes;
+
+    /** The loaders of the ROIs on the planes around the displayed one. */
+    private Map<List<Coord3D>, PlaneROILoader> planeLoaders;
+
+    /**
+     * The number of z-sections and timepoints on each side of the
+     * displayed plane whose ROIs are loaded ahead.
+     */
+    private static final int PLANE_NEIGHBOURHOOD = 1;
+
+    /** The default number of ROIs sent per call when saving. */
+    private static final int DEFAULT_SAVE_BATCH_SIZE = 500;
     
 	/**
 	 * Map figure attributes to ROI and ROIShape annotations where necessary.
@@ -264,6 +287,73 @@ class MeasurementViewerModel
 		dataToDelete = ownedRois.size() > 0;
 	}
 
+	/**
+	 * Collects the shapes of the ROIs converted and sets the visibility of
+	 * their figure according to the active channels.
+	 *
+	 * @param roiList The ROIs converted.
+	 * @param nodes The shapes to load the annotations of.
+	 */
+	private void addShapes(List<ROI> roiList, List<DataObject> nodes)
+	{
+		Iterator<ROI> i = roiList.iterator();
+		ROI roi;
+		TreeMap<Coord3D, ROIShape> shapeList;
+		Iterator j;
+		ROIShape shape;
+		Coord3D coord;
+		int sizeZ = pixels.getSizeZ();
+		int sizeT = pixels.getSizeT();
+		Entry entry;
+		int c;
+		ROIFigure f;
+		while (i.hasNext()) {
+			roi = i.next();
+			shapeList = roi.getShapes();
+			j = shapeList.entrySet().iterator();
+			while (j.hasNext()) {
+				entry = (Entry) j.next();
+				shape = (ROIShape) entry.getValue();
+				coord = shape.getCoord3D();
+				if (coord.getTimePoint() < sizeT &&
+				        coord.getZSection() < sizeZ) {
+				    c = coord.getChannel();
+	                f = shape.getFigure();
+	                if (shape.getData() != null) {
+	                    nodes.add(shape.getData());
+	                }
+	                if (c >= 0 && f.isVisible())
+	                    f.setVisible(isChannelActive(c));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the plane to the list of planes to load if valid and not
+	 * already requested.
+	 *
+	 * @param planes The planes to load.
+	 * @param z The z-section.
+	 * @param t The timepoint.
+	 */
+	private void addPlaneToLoad(List<Coord3D> planes, int z, int t)
+	{
+		if (z < 0 || t < 0 || z >= pixels.getSizeZ() ||
+				t >= pixels.getSizeT()) return;
+		Coord3D plane = new Coord3D(z, t);
+		if (requestedPlanes.add(plane)) planes.add(plane);
+	}
+
+	/** Cancels the loading of the ROIs plane by plane. */
+	private void cancelPlaneLoading()
+	{
+		Iterator<PlaneROILoader> i = planeLoaders.values().iterator();
+		while (i.hasNext())
+			i.next().cancel();
+		planeLoaders.clear();
+	}
+
 	/**
 	 * Creates a new instance.
 	 *
@@ -288,6 +378,7 @@ class MeasurementViewerModel
 		drawingComponent = new DrawingComponent();
 		roiComponent = new ROIComponent();
 		fileSaved = null;
+		planeLoaders = new IdentityHashMap<List<Coord3D>, PlaneROILoader>();
 		roiComponent.setPixelSizes(getPixelSizeX(), getPixelSizeY(), getPixelSizeZ());
 		setPlane(0, 0);
 	}
@@ -469,6 +560,7 @@ class MeasurementViewerModel
     void discard()
     {
     	cancel();
+    	cancelPlaneLoading();
     	state = MeasurementViewer.DISCARDED;
     }
 
@@ -699,37 +791,109 @@ class MeasurementViewerModel
 			this.rois.addAll(result.getROIs());
 		}
 		if (roiList.isEmpty()) return nodes;
-		Iterator<ROI> i = roiList.iterator();
-		ROI roi;
-		TreeMap<Coord3D, ROIShape> shapeList;
-		Iterator j;
-		ROIShape shape;
-		Coord3D coord;
-		int sizeZ = pixels.getSizeZ();
-		int sizeT = pixels.getSizeT();
-		Entry entry;
-		int c;
-		ROIFigure f;
+		addShapes(roiList, nodes);
+		checkIfHasROIToDelete();
+		return nodes;
+	}
+
+	/**
+	 * Indicates that the ROIs are loaded plane by plane.
+	 *
+	 * @param planes The planes being loaded.
+	 */
+	void setROIPlanesLoading(Collection<Coord3D> planes)
+	{
+		requestedPlanes = new HashSet<Coord3D>();
+		if (planes != null) requestedPlanes.addAll(planes);
+	}
+
+	/**
+	 * Returns <code>true</code> if the ROIs are loaded plane by plane,
+	 * <code>false</code> if all the ROIs of the image are loaded.
+	 *
+	 * @return See above.
+	 */
+	boolean isPlaneROILoading() { return requestedPlanes != null; }
+
+	/**
+	 * Loads the ROIs on the displayed plane and the planes around it if not
+	 * already loaded, when the ROIs are loaded plane by plane.
+	 */
+	void firePlaneROILoading()
+	{
+		if (requestedPlanes == null) return;
+		List<Coord3D> planes = new ArrayList<Coord3D>();
+		int z = currentPlane.getZSection();
+		int t = currentPlane.getTimePoint();
+		addPlaneToLoad(planes, z, t);
+		for (int d = 1; d <= PLANE_NEIGHBOURHOOD; d++) {
+			addPlaneToLoad(planes, z, t+d);
+			addPlaneToLoad(planes, z, t-d);
+			addPlaneToLoad(planes, z+d, t);
+			addPlaneToLoad(planes, z-d, t);
+		}
+		if (planes.isEmpty()) return;
+		PlaneROILoader loader = new PlaneROILoader(component,
+				getSecurityContext(), getImageID(), planes);
+		planeLoaders.put(planes, loader);
+		loader.load();
+	}
+
+	/**
+	 * Converts the ROIs loaded for the specified planes. The ROIs already
+	 * converted, e.g. spanning several planes, or deleted are skipped.
+	 *
+	 * @param planes The planes requested.
+	 * @param result The ROIs on each plane or <code>null</code> if the
+	 *               planes could not be loaded.
+	 * @return The shapes to load the annotations of.
+	 * @throws ROICreationException
+	 * @throws NoSuchROIException
+	 */
+	List<DataObject> addPlaneROI(List<Coord3D> planes,
+			Map<Coord3D, Collection> result)
+		throws ROICreationException, NoSuchROIException
+	{
+		List<DataObject> nodes = new ArrayList<DataObject>();
+		if (planeLoaders.remove(planes) == null || requestedPlanes == null)
+			return nodes; //cancelled
+		if (result == null) {
+			requestedPlanes.removeAll(planes);
+			return nodes;
+		}
+		Set<Long> deleted = new HashSet<Long>();
+		if (roiToDelete != null) {
+			Iterator<ROI> k = roiToDelete.iterator();
+			while (k.hasNext())
+				deleted.add(k.next().getID());
+		}
+		if (rois == null) rois = new ArrayList<ROIData>();
+		long userID = MeasurementAgent.getUserDetails().getId();
+		List<ROI> roiList = new ArrayList<ROI>();
+		Iterator<Collection> i = result.values().iterator();
+		Iterator<?> j;
+		Iterator<ROIData> k;
+		ROIResult r;
+		ROIData data;
+		List<ROIData> l;
 		while (i.hasNext()) {
-			roi = i.next();
-			shapeList = roi.getShapes();
-			j = shapeList.entrySet().iterator();
+			j = i.next().iterator();
 			while (j.hasNext()) {
-				entry = (Entry) j.next();
-				shape = (ROIShape) entry.getValue();
-				coord = shape.getCoord3D();
-				if (coord.getTimePoint() < sizeT &&
-				        coord.getZSection() < sizeZ) {
-				    c = coord.getChannel();
-	                f = shape.getFigure();
-	                if (shape.getData() != null) {
-	                    nodes.add(shape.getData());
-	                }
-	                if (c >= 0 && f.isVisible())
-	                    f.setVisible(isChannelActive(c));
+				r = (ROIResult) j.next();
+				l = new ArrayList<ROIData>();
+				k = r.getROIs().iterator();
+				while (k.hasNext()) {
+					data = k.next();
+					if (!roiComponent.containsROI(data.getId()) &&
+							!deleted.contains(data.getId()))
+						l.add(data);
 				}
+				if (l.isEmpty()) continue;
+				roiList.addAll(roiComponent.loadROI(-1, l, userID));
+				rois.addAll(l);
 			}
 		}
+		addShapes(roiList, nodes);
 		checkIfHasROIToDelete();
 		return nodes;
 	}
@@ -1101,8 +1265,10 @@ class MeasurementViewerModel
 		state = MeasurementViewer.LOADING_ROI;
 		ExperimenterData exp =
 			(ExperimenterData) MeasurementAgent.getUserDetails();
+		cancelPlaneLoading();
+		requestedPlanes = null;
 		currentLoader = new ServerSideROILoader(component, getSecurityContext(),
-				getImageID(),  exp.getId());
+				getImageID(),  exp.getId(), currentPlane);
 		currentLoader.load();
 		notifyDataChanged(dataChanged);
 	}
@@ -1212,22 +1378,29 @@ class MeasurementViewerModel
 	void saveROIToServer(boolean async, boolean close)
 	{
 		try {
-			List<ROIData> roiList = getROIData();
+			List<ROIData> roiList = getModifiedROIData();
 			ExperimenterData exp =
 				(ExperimenterData) MeasurementAgent.getUserDetails();
 			if (roiList.size() == 0) return;
 			roiComponent.reset();
+			int batchSize = getSaveBatchSize();
 			if (async) {
 				currentSaver = new ROISaver(component, getSecurityContext(),
-						getImageID(), exp.getId(), roiList, close);
+						getImageID(), exp.getId(), roiList, close, batchSize);
 				state = MeasurementViewer.SAVING_ROI;
 				currentSaver.load();
 				notifyDataChanged(false);
 			} else {
 				OmeroImageService svc =
 					MeasurementAgent.getRegistry().getImageService();
-				svc.saveROI(getSecurityContext(), getImageID(), exp.getId(),
-						roiList);
+				int n = roiList.size();
+				if (batchSize <= 0) batchSize = n;
+				List<ROIData> l;
+				for (int i = 0; i < n; i += batchSize) {
+					l = roiList.subList(i, Math.min(n, i+batchSize));
+					setROISaved(svc.saveROI(getSecurityContext(),
+							getImageID(), exp.getId(), l));
+				}
 				state = MeasurementViewer.READY;
 				event = null;
 			}
@@ -1379,6 +1552,106 @@ class MeasurementViewerModel
         ((MeasurementViewerUI) component.getUI()).setStatus("Saving...");
     }
     
+	/**
+	 * Returns the number of ROIs sent per call when saving.
+	 *
+	 * @return See above.
+	 */
+	private int getSaveBatchSize()
+	{
+		Object v = MeasurementAgent.getRegistry().lookup(
+				LookupNames.ROI_SAVE_BATCH_SIZE);
+		if (v instanceof Integer) return (Integer) v;
+		return DEFAULT_SAVE_BATCH_SIZE;
+	}
+
+	/**
+	 * Copies the ids of the shapes saved on the server to the shapes of the
+	 * ROI on the same plane.
+	 *
+	 * @param roi The ROI to update.
+	 * @param data The ROI returned by the server.
+	 */
+	private void setShapeIDs(ROI roi, ROIData data)
+	{
+		TreeMap<Coord3D, ROIShape> shapes = roi.getShapes();
+		Iterator<List<ShapeData>> i = data.getIterator();
+		Iterator<ShapeData> j;
+		ShapeData shapeData;
+		ROIShape shape;
+		while (i.hasNext()) {
+			j = i.next().iterator();
+			while (j.hasNext()) {
+				shapeData = j.next();
+				shape = shapes.get(new Coord3D(shapeData.getZ(),
+						shapeData.getT()));
+				if (shape == null || shapeData.getId() <= 0) continue;
+				shape.setROIShapeID(shapeData.getId());
+				shape.getFigure().setClientObject(false);
+			}
+		}
+	}
+
+	/**
+	 * Marks the ROIs saved on the server as saved. The ids given by the
+	 * server are copied to the matching ROIs and shapes first so that
+	 * the ROIs are updated rather than created again the next time
+	 * they are saved.
+	 *
+	 * @param rois The ROIs returned by the server, linked to the ROIs
+	 *             sent by their UUID.
+	 */
+	void setROISaved(Collection<ROIData> rois)
+	{
+		if (CollectionUtils.isEmpty(rois)) return;
+		Map<String, ROIData> saved = new HashMap<String, ROIData>();
+		Iterator<ROIData> i = rois.iterator();
+		ROIData data;
+		while (i.hasNext()) {
+			data = i.next();
+			if (data.getUuid() != null) saved.put(data.getUuid(), data);
+		}
+		//Copy the values as the ROIs saved are mapped under their new id.
+		Iterator<ROI> j = new ArrayList<ROI>(
+				roiComponent.getROIMap().values()).iterator();
+		ROI roi;
+		while (j.hasNext()) {
+			roi = j.next();
+			data = saved.get(roi.getUUID());
+			if (data == null) continue;
+			try {
+				if (data.getId() > 0 &&
+					(roi.isClientSide() || roi.getID() != data.getId()))
+					roiComponent.setServerID(roi.getID(), data.getId());
+				setShapeIDs(roi, data);
+				roi.setDirty(false);
+			} catch (NoSuchROIException e) {
+				Logger log = MeasurementAgent.getRegistry().getLogger();
+				log.warn(this, "Cannot update the saved ROI: "+e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Returns the ROI on the image the user currently logged in can edit
+	 * and which have been created or modified since they were loaded
+	 * or saved.
+	 *
+	 * @return See above.
+	 */
+	List<ROIData> getModifiedROIData()
+	{
+		try {
+			long userID = getCurrentUser().getId();
+			return roiComponent.saveROI(getImage(), ROIComponent.EDIT_DIRTY,
+					userID);
+		} catch (Exception e) {
+			Logger log = MeasurementAgent.getRegistry().getLogger();
+			log.warn(this, "Cannot transform the ROI: "+e.getMessage());
+		}
+		return new ArrayList<ROIData>();
+	}
+
 	/**
 	 * Returns the collection of ROI on the image owned by the user currently
 	 * logged in
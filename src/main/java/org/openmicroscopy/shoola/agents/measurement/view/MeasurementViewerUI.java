@@ -75,6 +75,8 @@ import org.openmicroscopy.shoola.env.event.EventBus;
 import org.openmicroscopy.shoola.env.ui.TaskBar;
 import org.openmicroscopy.shoola.env.ui.TopWindow;
 import org.openmicroscopy.shoola.env.ui.UserNotifier;
+import org.openmicroscopy.shoola.util.file.ExcelWriter;
+import org.openmicroscopy.shoola.util.filter.file.CSVFilter;
 import org.openmicroscopy.shoola.util.filter.file.ExcelFilter;
 import org.openmicroscopy.shoola.util.filter.file.JPEGFilter;
 import org.openmicroscopy.shoola.util.filter.file.PNGFilter;
@@ -1446,6 +1448,27 @@ class MeasurementViewerUI
 	    return roiManager.getSelectedFiguresFromTables();
 	}
 
+	/**
+	 * Returns the file selected to save the results to, with the
+	 * <code>xls</code> extension appended if it has no supported extension.
+	 * Returns <code>null</code> and notifies the user if the file is an
+	 * Excel template or macro-enabled workbook.
+	 *
+	 * @param chooser The chooser used to select the file.
+	 * @return See above.
+	 */
+	File getSelectedExcelFile(FileChooser chooser)
+	{
+		File file = ExcelWriter.getOutputFile(chooser.getSelectedFile());
+		if (file == null) {
+			UserNotifier un = MeasurementAgent.getRegistry().getUserNotifier();
+			un.notifyInfo("Save Results", "Excel templates and " +
+					"macro-enabled workbooks are not supported.\n" +
+					"Please select an xls, xlsx, csv or tsv file.");
+		}
+		return file;
+	}
+
 	/**
 	 * Creates a file chooser used to select where to save the results
 	 * as an Excel file.
@@ -1457,6 +1480,7 @@ class MeasurementViewerUI
 		List<FileFilter> filterList = new ArrayList<FileFilter>();
 		FileFilter filter = new ExcelFilter();
 		filterList.add(filter);
+		filterList.add(new CSVFilter());
 		FileChooser chooser =
 			new FileChooser(this, FileChooser.SAVE, "Save Results to Excel",
 					"Save the Results data to a file which can be loaded by " +
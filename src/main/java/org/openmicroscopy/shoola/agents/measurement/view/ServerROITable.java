@@ -55,6 +55,7 @@ import omero.gateway.model.ROIResult;
 import omero.gateway.model.TableResult;
 import org.openmicroscopy.shoola.env.ui.UserNotifier;
 import org.openmicroscopy.shoola.util.file.ExcelWriter;
+import org.openmicroscopy.shoola.util.filter.file.CSVFilter;
 import org.openmicroscopy.shoola.util.filter.file.ExcelFilter;
 import org.openmicroscopy.shoola.util.image.geom.Factory;
 import org.openmicroscopy.shoola.util.roi.figures.ROIFigure;
@@ -177,6 +178,7 @@ class ServerROITable
 		List<FileFilter> filterList = new ArrayList<FileFilter>();
 		FileFilter filter = new ExcelFilter();
 		filterList.add(filter);
+		filterList.add(new CSVFilter());
 		FileChooser chooser=
 				new FileChooser(
 					view, FileChooser.SAVE, "Save the Results",
@@ -189,12 +191,8 @@ class ServerROITable
 		} catch (Exception ex) {}
 		int choice = chooser.showDialog();
 		if (choice != JFileChooser.APPROVE_OPTION) return;
-		File file = chooser.getSelectedFile();
-		if (!file.getAbsolutePath().endsWith(ExcelFilter.EXCEL))
-		{
-			String fileName = file.getAbsolutePath()+"."+ExcelFilter.EXCEL;
-			file = new File(fileName);
-		}
+		File file = view.getSelectedExcelFile(chooser);
+		if (file == null) return;
 		String filename = file.getAbsolutePath();
 		ExcelWriter writer = new ExcelWriter(filename);
 		try {
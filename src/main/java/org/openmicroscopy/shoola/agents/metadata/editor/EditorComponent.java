@@ -826,8 +826,25 @@ class EditorComponent
 		}
 		if (image == null) return;
 		if (folder == null) folder = UIUtilities.getDefaultFolder();
-		ExportActivityParam param = new ExportActivityParam(folder, 
-				image, ExportActivityParam.EXPORT_AS_OME_TIFF, target);
+		List<ImageData> images = new ArrayList<ImageData>();
+		if (model.isMultiSelection()) {
+			Iterator<DataObject> i = model.getSelectedObjects().iterator();
+			DataObject o;
+			while (i.hasNext()) {
+				o = i.next();
+				if (o instanceof ImageData) images.add((ImageData) o);
+				else if (o instanceof WellSampleData)
+					images.add(((WellSampleData) o).getImage());
+			}
+		}
+		ExportActivityParam param;
+		if (images.size() > 1) {
+			if (!folder.isDirectory()) folder = folder.getParentFile();
+			param = new ExportActivityParam(folder, images,
+					ExportActivityParam.EXPORT_AS_OME_TIFF, target);
+		} else
+			param = new ExportActivityParam(folder, image,
+					ExportActivityParam.EXPORT_AS_OME_TIFF, target);
 		IconManager icons = IconManager.getInstance();
 		param.setIcon(icons.getIcon(IconManager.EXPORT_22));
 		UserNotifier un = MetadataViewerAgent.getRegistry().getUserNotifier();
@@ -606,6 +606,9 @@ class ToolBar
             pathButton.setEnabled(model.getImage() != null);
             locationButton.setEnabled((model.getImage() != null || model
                     .getRefObject() instanceof DatasetData));
+        } else if (MetadataViewerAgent.canCreate()) {
+            //the selected images are exported one after the other
+            exportAsOmeTiffButton.setEnabled(model.getImage() != null);
         }
 
         publishingButton.setEnabled(MetadataViewerAgent.canCreate());
@@ -821,16 +821,18 @@ class BrowserComponent
         Iterator i = nodes.iterator();
         
         final JTree tree = view.getTreeDisplay();
-        while (i.hasNext()) 
-            list.add(i.next());
+        //Look up the rows once rather than for each comparison.
+        final Map<Object, Integer> rows = new HashMap<Object, Integer>();
+        TreeImageDisplay node;
+        while (i.hasNext()) {
+            node = (TreeImageDisplay) i.next();
+            list.add(node);
+            rows.put(node, tree.getRowForPath(new TreePath(node.getPath())));
+        }
         Comparator c = new Comparator() {
             public int compare(Object o1, Object o2)
             {
-                TreeImageDisplay node1 = (TreeImageDisplay) o1;
-                TreeImageDisplay node2 = (TreeImageDisplay) o2;
-                int i1 = tree.getRowForPath(new TreePath(node1.getPath()));
-                int i2 = tree.getRowForPath(new TreePath(node2.getPath()));
-                return (i1-i2);
+                return rows.get(o1).compareTo(rows.get(o2));
             }
         };
         Collections.sort(list, c);
@@ -40,9 +40,12 @@ import javax.swing.JPanel;
 
 //Application-internal dependencies
 import org.openmicroscopy.shoola.agents.treeviewer.TreeViewerAgent;
+import org.openmicroscopy.shoola.agents.treeviewer.browser.Browser;
 import org.openmicroscopy.shoola.agents.treeviewer.view.TreeViewer;
+import org.openmicroscopy.shoola.agents.util.browser.TreeImageDisplay;
 import org.openmicroscopy.shoola.env.ui.UserNotifier;
 import org.openmicroscopy.shoola.util.ui.RegExFactory;
+import org.openmicroscopy.shoola.util.ui.TextIndex;
 
 
 /** 
@@ -253,7 +256,8 @@ public class Finder
     void find()
     {
         TreeViewer pc = model.getParentComponent();
-        if (pc.getSelectedBrowser() == null) return;
+        Browser browser = pc.getSelectedBrowser();
+        if (browser == null) return;
         setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
         try {
             String findText = model.getFindText();
@@ -261,10 +265,13 @@ public class Finder
             if (!model.isCaseSensitive())
                 p = RegExFactory.createCaseInsensitivePattern(findText);
             else p = RegExFactory.createPattern(findText);
-            RegExVisitor visitor = new RegExVisitor(this, p);
-            pc.getSelectedBrowser().accept(visitor);
+            TextIndex<TreeImageDisplay> index = model.getTextIndex(browser);
+            RegExVisitor visitor = new RegExVisitor(this, p, index);
+            browser.accept(visitor);
+            //The whole tree has been visited, drop the removed nodes.
+            index.retainAll(visitor.getVisitedNodes());
             Set set = visitor.getFoundNodes();
-            pc.getSelectedBrowser().setFoundInBrowser(set);
+            browser.setFoundInBrowser(set);
             found = true;
             model.addToHistory(findText);
             firePropertyChange(RETRIEVED_PROPERTY, Integer.valueOf(-1), 
@@ -30,9 +30,14 @@ package org.openmicroscopy.shoola.agents.treeviewer.finder;
 
 //Application-internal dependencies
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.openmicroscopy.shoola.agents.treeviewer.browser.Browser;
 import org.openmicroscopy.shoola.agents.treeviewer.view.TreeViewer;
+import org.openmicroscopy.shoola.agents.util.browser.TreeImageDisplay;
+import org.openmicroscopy.shoola.util.ui.TextIndex;
 
 /** 
  * The Model component in the <code>Finder</code> MVC triad. 
@@ -89,6 +94,9 @@ class FinderModel
     /** Back pointer to the parent's model. */
     private TreeViewer	parentComponent;
     
+    /** The index of the nodes' text fields, one per browser. */
+    private Map<Browser, TextIndex<TreeImageDisplay>> indexes;
+    
     /**
      * Creates a new instance. 
      * 
@@ -100,6 +108,23 @@ class FinderModel
         nameSelected = true;
         display = false;
         history = new ArrayList();
+        indexes = new HashMap<Browser, TextIndex<TreeImageDisplay>>();
+    }
+    
+    /**
+     * Returns the index of the nodes' text fields for the specified browser.
+     * 
+     * @param browser The browser to handle.
+     * @return See above.
+     */
+    TextIndex<TreeImageDisplay> getTextIndex(Browser browser)
+    {
+        TextIndex<TreeImageDisplay> index = indexes.get(browser);
+        if (index == null) {
+            index = new TextIndex<TreeImageDisplay>(RegExVisitor.FIELDS);
+            indexes.put(browser, index);
+        }
+        return index;
     }
     
     /** 
@@ -21,7 +21,10 @@
 package org.openmicroscopy.shoola.agents.treeviewer.finder;
 
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -29,7 +32,7 @@ import org.openmicroscopy.shoola.agents.util.browser.TreeImageDisplay;
 import org.openmicroscopy.shoola.agents.util.browser.TreeImageDisplayVisitor;
 import org.openmicroscopy.shoola.agents.util.browser.TreeImageNode;
 import org.openmicroscopy.shoola.agents.util.browser.TreeImageSet;
-import org.openmicroscopy.shoola.util.ui.RegExFactory;
+import org.openmicroscopy.shoola.util.ui.TextIndex;
 import omero.gateway.model.AnnotationData;
 import omero.gateway.model.DatasetData;
 import omero.gateway.model.ImageData;
@@ -49,12 +52,30 @@ public class RegExVisitor
 	implements TreeImageDisplayVisitor
 {
 
+    /** Index of the name field in the {@link TextIndex}. */
+    private static final int        NAME = 0;
+    
+    /** Index of the description field in the {@link TextIndex}. */
+    private static final int        DESCRIPTION = 1;
+    
+    /** Index of the annotation field in the {@link TextIndex}. */
+    private static final int        ANNOTATION = 2;
+    
+    /** The number of fields indexed. */
+    static final int                FIELDS = 3;
+    
     /** The highlighted color. */
     private Color					color = Color.RED;
     
-    /** Collection of found nodes. */
+    /** Collection of found nodes, computed on demand. */
     private Set<TreeImageDisplay>	foundNodes;
     
+    /** The visited nodes, in the order they were visited. */
+    private List<TreeImageDisplay>	visitedNodes;
+    
+    /** The index of the text fields of the nodes. */
+    private TextIndex<TreeImageDisplay>	index;
+    
     /** The pattern to find. */
     private Pattern 				pattern;
     
@@ -121,46 +142,17 @@ public class RegExVisitor
     }
     
     /**
-     * Finds the pattern.
+     * Indexes the specified node.
      * 
      * @param node The node to visit.
      */
     private void setFoundNode(TreeImageDisplay node)
     {
         Object userObject = node.getUserObject();
-        Color c = null;
-        int style = TreeImageDisplay.FONT_PLAIN;
-        if (model.isNameSelected()) {
-            String name = getName(userObject);
-            if (name != null) {
-                if (RegExFactory.find(pattern, name)) {
-                    foundNodes.add(node);
-                    c = color;
-                    style = TreeImageDisplay.FONT_BOLD;
-                }
-            }
-        }
-        if (model.isDescriptionSelected()) {
-            String description = getDescription(userObject);
-            if (description != null) {
-                if (RegExFactory.find(pattern, description)) {
-                    foundNodes.add(node);
-                    c = color;
-                    style = TreeImageDisplay.FONT_BOLD;
-                }
-            } 
-        }
-        if (model.isAnnotationSelected()) {
-            String s = getAnnotation(userObject);
-            if (s == null) return;
-            if (RegExFactory.find(pattern, s)) {
-                foundNodes.add(node);
-                c = color;
-                style = TreeImageDisplay.FONT_BOLD;
-            }
-        }
-        node.setHighLight(c);
-        node.setFontStyle(style);
+        index.update(node, getName(userObject), getDescription(userObject),
+                getAnnotation(userObject));
+        visitedNodes.add(node);
+        foundNodes = null;
     }
     
     /**
@@ -170,20 +162,70 @@ public class RegExVisitor
      * @param pattern The pattern to find. Mustn't be <code>null</code>.
      */
     public RegExVisitor(Finder model, Pattern pattern)
+    {
+        this(model, pattern, null);
+    }
+    
+    /**
+     * Creates a new instance.
+     * 
+     * @param model Reference to the model. Mustn't be <code>null</code>.
+     * @param pattern The pattern to find. Mustn't be <code>null</code>.
+     * @param index The index of the nodes, kept between searches.
+     *              A new index is created if <code>null</code>.
+     */
+    public RegExVisitor(Finder model, Pattern pattern,
+            TextIndex<TreeImageDisplay> index)
     {
         if (model == null) throw new IllegalArgumentException("No model.");
         if (pattern == null) throw new IllegalArgumentException("No pattern.");
         this.model = model;
         this.pattern = pattern;
-        foundNodes = new HashSet<TreeImageDisplay>();
+        if (index == null) index = new TextIndex<TreeImageDisplay>(FIELDS);
+        this.index = index;
+        visitedNodes = new ArrayList<TreeImageDisplay>();
     }
     
     /**
-     * Returns the set of found nodes.
+     * Returns the nodes visited.
+     * 
+     * @return See above.
+     */
+    public List<TreeImageDisplay> getVisitedNodes() { return visitedNodes; }
+    
+    /**
+     * Returns the set of found nodes. The found nodes are highlighted, the
+     * other visited nodes are reset.
      * 
      * @return See above.
      */
-    public Set getFoundNodes() { return foundNodes; }
+    public Set getFoundNodes()
+    {
+        if (foundNodes != null) return foundNodes;
+        List<Integer> fields = new ArrayList<Integer>(FIELDS);
+        if (model.isNameSelected()) fields.add(NAME);
+        if (model.isDescriptionSelected()) fields.add(DESCRIPTION);
+        if (model.isAnnotationSelected()) fields.add(ANNOTATION);
+        int[] values = new int[fields.size()];
+        for (int j = 0; j < values.length; j++)
+            values[j] = fields.get(j);
+        Set<TreeImageDisplay> found = index.find(pattern, values);
+        foundNodes = new HashSet<TreeImageDisplay>();
+        Iterator<TreeImageDisplay> i = visitedNodes.iterator();
+        TreeImageDisplay node;
+        while (i.hasNext()) {
+            node = i.next();
+            if (found.contains(node)) {
+                foundNodes.add(node);
+                node.setHighLight(color);
+                node.setFontStyle(TreeImageDisplay.FONT_BOLD);
+            } else {
+                node.setHighLight(null);
+                node.setFontStyle(TreeImageDisplay.FONT_PLAIN);
+            }
+        }
+        return foundNodes;
+    }
     
     /**
      * Finds the pattern in the specified node. If the pattern is found,
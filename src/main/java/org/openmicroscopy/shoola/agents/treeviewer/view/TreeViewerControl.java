@@ -999,6 +999,7 @@ class TreeViewerControl
 	 */
 	void reloadAvailableScripts(Point location, Component source)
 	{
+		TreeViewerAgent.getRegistry().getImageService().invalidateScripts();
 		model.showMenu(TreeViewer.AVAILABLE_SCRIPTS_MENU, source, location);
 	}
 	
@@ -280,6 +280,25 @@ public class LookupNames
      */
     public static final String RE_TIMEOUT = "/services/RE/timeout";
 
+    /**
+     * Field to access the number of idle rendering engines kept per group
+     * to view the next images.
+     */
+    public static final String RE_POOL_SIZE = "/services/RE/poolSize";
+
+    /**
+     * Field to access the size, in Mb, of the cache of raw planes used by
+     * the client-side computations.
+     */
+    public static final String RE_PLANE_CACHE_SZ = "/services/RE/planeCacheSz";
+
+    /**
+     * Field indicating to render the planes on the client when the settings
+     * allow it, rather than calling the server for each change.
+     */
+    public static final String RE_LOCAL_RENDERING =
+            "/services/RE/localRendering";
+
     @Deprecated
     public static final String RE_STACK_BUF_SZ = "/services/RE/stackBufSz";
 
@@ -359,6 +378,9 @@ public class LookupNames
     /** Field to access the file keeping track of the various ROIs files. */
     public static final String	ROI_MAIN_FILE = "/roi/mainFileName";
 
+    /** Field to access the number of ROIs sent per call when saving. */
+    public static final String	ROI_SAVE_BATCH_SIZE = "/roi/saveBatchSize";
+
     //For blitz
     /** The value to replace in the FS configuration file. */
     public static final String FS_HOSTNAME = "/services/FS/hostname";
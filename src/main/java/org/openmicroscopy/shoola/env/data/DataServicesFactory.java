@@ -33,6 +33,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JDialog;
@@ -93,6 +99,9 @@ import ome.system.UpgradeCheck;
 public class DataServicesFactory
 {
 
+    /** The number of threads loading the details of the session at login. */
+    private static final int WARM_UP_THREADS = 6;
+
     /** The sole instance. */
 	private static DataServicesFactory singleton;
 	
@@ -138,7 +147,7 @@ public class DataServicesFactory
 	private OmeroDataService			ds;
 
 	/** The image service adapter. */
-	private OmeroImageService			is;
+	private OmeroImageServiceImpl		is;
 
 	/** The metadata service adapter. */
 	private OmeroMetadataService 		ms;
@@ -160,6 +169,9 @@ public class DataServicesFactory
 		container = c;
 		//Check what to do if null.
         omeroGateway = new OMEROGateway(this);
+        Integer poolSize = (Integer) registry.lookup(LookupNames.RE_POOL_SIZE);
+        if (poolSize != null)
+            omeroGateway.setRenderingEnginePoolSize(poolSize.intValue());
         
 		//Create the adapters.
         ds = new OmeroDataServiceImpl(omeroGateway, registry);
@@ -492,44 +504,18 @@ public class DataServicesFactory
     }
 
 	/**
-	 * Attempts to connect to <i>OMERO</i> server.
+	 * Reads the configuration of the server used by the client and binds
+	 * the values to the registry.
 	 * 
-     * @param uc The user's credentials for logging onto <i>OMERO</i> server.
-	 * @throws DSOutOfServiceException If the connection can't be established
-     *                                 or the credentials are invalid.
+	 * @param groupID The id of the group used to read the configuration.
+	 * @throws DSOutOfServiceException If the connection is broken.
 	 */
-	public void connect(UserCredentials uc)
+	private void loadConfiguration(long groupID)
 		throws DSOutOfServiceException
 	{
-	    
-		if (uc == null)
-            throw new NullPointerException("No user credentials.");
         LogMessage msg;
-		String name = (String) 
-		container.getRegistry().lookup(LookupNames.MASTER);
-        if (CommonsLangUtils.isBlank(name)) {
-            name = LookupNames.MASTER_INSIGHT;
-        }
-        uc.setApplicationName(name);
-        uc.setCheckNetwork(true);
-        ExperimenterData exp = omeroGateway.connect(uc);
-
-		//check client server version
-		compatible = true;
-        //Register into log file.
-        Object v = container.getRegistry().lookup(LookupNames.VERSION);
-    	String clientVersion = "";
-    	if (v != null && v instanceof String)
-    		clientVersion = (String) v;
-        boolean useSessionKey = false;
-    	if (uc.getUser().getUsername().equals(omeroGateway.getSessionId(exp))) {
-            useSessionKey = true;
-    	    container.getRegistry().bind(LookupNames.SESSION_KEY, Boolean.TRUE);
-    	}
-        //Check if client and server are compatible.
-        String version = omeroGateway.getServerVersion();
-
-        IConfigPrx cs = omeroGateway.getGateway().getConfigService(new SecurityContext(exp.getGroupId()));
+        IConfigPrx cs = omeroGateway.getGateway().getConfigService(
+                new SecurityContext(groupID));
         try {
             String val = cs.getConfigValue("omero.pixeldata.max_plane_width");
             if (val != null)
@@ -537,14 +523,6 @@ public class DataServicesFactory
             val = cs.getConfigValue("omero.pixeldata.max_plane_height");
             if (val != null)
                 container.getRegistry().bind(LookupNames.MAX_PLANE_HEIGHT, Integer.parseInt(val));
-
-            String checkname = name;
-            if (name.startsWith("OMERO.")) {
-                checkname = name.substring("OMERO.".length());
-            }
-            //Register insight
-            UpgradeCheck check = new UpgradeCheck(cs.getConfigValue("omero.upgrades.url"), clientVersion, checkname);
-            check.run();
         } catch (ServerError e2) {
             msg = new LogMessage();
             msg.println("Server error: " + e2.serverExceptionClass + " - " + e2.message);
@@ -570,6 +548,208 @@ public class DataServicesFactory
             // needed when switching user
             resetKeys(Arrays.asList(LookupNames.TOKEN_URL, LookupNames.PROCESSING_URL)); 
         }
+	}
+
+	/**
+	 * Registers the client with the upgrade service defined server-side.
+	 * Nothing waits for the check to complete.
+	 * 
+	 * @param groupID The id of the group used to read the configuration.
+	 * @param name The name of the client.
+	 * @param clientVersion The version of the client.
+	 * @throws DSOutOfServiceException If the connection is broken.
+	 */
+	private void checkUpgrade(long groupID, String name, String clientVersion)
+		throws DSOutOfServiceException
+	{
+        IConfigPrx cs = omeroGateway.getGateway().getConfigService(
+                new SecurityContext(groupID));
+        try {
+            String checkname = name;
+            if (name.startsWith("OMERO.")) {
+                checkname = name.substring("OMERO.".length());
+            }
+            //Register insight
+            UpgradeCheck check = new UpgradeCheck(cs.getConfigValue("omero.upgrades.url"), clientVersion, checkname);
+            check.run();
+        } catch (ServerError e2) {
+            LogMessage msg = new LogMessage();
+            msg.println("Server error: " + e2.serverExceptionClass + " - " + e2.message);
+            registry.getLogger().debug(this, msg);
+        }
+	}
+
+	/**
+	 * Creates the executor loading the details of the session at login.
+	 * 
+	 * @return See above.
+	 */
+	private ExecutorService createWarmUpExecutor()
+	{
+		return Executors.newFixedThreadPool(WARM_UP_THREADS,
+				new ThreadFactory() {
+			public Thread newThread(Runnable r)
+			{
+				Thread t = new Thread(r, "Session warm-up");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * Waits for the specified load to complete and returns its result.
+	 * 
+	 * @param future The load to wait for.
+	 * @return See above.
+	 * @throws DSOutOfServiceException If the connection is broken or the
+	 *                                 load was interrupted.
+	 * @throws DSAccessException If an error occurred while trying to
+	 *                           retrieve data from OMERO service.
+	 */
+	private <T> T waitFor(Future<T> future)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DSOutOfServiceException("Login interrupted.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof DSOutOfServiceException)
+				throw (DSOutOfServiceException) cause;
+			if (cause instanceof DSAccessException)
+				throw (DSAccessException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new DSOutOfServiceException("Cannot load the session.",
+					cause);
+		}
+	}
+
+	/**
+	 * Attempts to connect to <i>OMERO</i> server.
+	 * 
+     * @param uc The user's credentials for logging onto <i>OMERO</i> server.
+	 * @throws DSOutOfServiceException If the connection can't be established
+     *                                 or the credentials are invalid.
+	 */
+	public void connect(UserCredentials uc)
+		throws DSOutOfServiceException
+	{
+	    
+		if (uc == null)
+            throw new NullPointerException("No user credentials.");
+        LogMessage msg;
+		String name = (String) 
+		container.getRegistry().lookup(LookupNames.MASTER);
+        if (CommonsLangUtils.isBlank(name)) {
+            name = LookupNames.MASTER_INSIGHT;
+        }
+        uc.setApplicationName(name);
+        uc.setCheckNetwork(true);
+        final ExperimenterData exp = omeroGateway.connect(uc);
+
+        //Load the details of the session at the same time.
+        final long groupID = exp.getGroupId();
+        final long gid = exp.getDefaultGroup().getId();
+        final SecurityContext ctx = new SecurityContext(gid);
+        ExecutorService warmUp = createWarmUpExecutor();
+        Future<String> versionLoad = warmUp.submit(new Callable<String>() {
+            public String call() throws Exception
+            {
+                return omeroGateway.getServerVersion();
+            }
+        });
+        Future<Map<String, String>> clientPropsLoad = warmUp.submit(
+                new Callable<Map<String, String>>() {
+            public Map<String, String> call() throws Exception
+            {
+                return omeroGateway.getOmeroClientProperties(groupID);
+            }
+        });
+        Future<Map<String, String>> serverPropsLoad = warmUp.submit(
+                new Callable<Map<String, String>>() {
+            public Map<String, String> call() throws Exception
+            {
+                return omeroGateway.getServerProperties(groupID);
+            }
+        });
+        Future<Boolean> canCreateLoad = warmUp.submit(new Callable<Boolean>() {
+            public Boolean call() throws Exception
+            {
+                return omeroGateway.canCreate(ctx);
+            }
+        });
+        Future<Set<GroupData>> groupsLoad = warmUp.submit(
+                new Callable<Set<GroupData>>() {
+            public Set<GroupData> call() throws Exception
+            {
+                return omeroGateway.getAvailableGroups(ctx, exp);
+            }
+        });
+        Future<Object> rolesLoad = warmUp.submit(new Callable<Object>() {
+            public Object call() throws Exception
+            {
+                return omeroGateway.getSystemRoles(ctx);
+            }
+        });
+        Future<List<String>> privsLoad = warmUp.submit(
+                new Callable<List<String>>() {
+            public List<String> call() throws Exception
+            {
+                return omeroGateway.getGateway().getAdminService(
+                        ctx).getEventContext().adminPrivileges;
+            }
+        });
+        Future<Boolean> fullAdminLoad = warmUp.submit(new Callable<Boolean>() {
+            public Boolean call() throws Exception
+            {
+                return omeroGateway.getGateway().getFacility(
+                        AdminFacility.class).isFullAdmin(ctx);
+            }
+        });
+
+		//check client server version
+		compatible = true;
+        //Register into log file.
+        Object v = container.getRegistry().lookup(LookupNames.VERSION);
+    	String clientVersion = "";
+    	if (v != null && v instanceof String)
+    		clientVersion = (String) v;
+        boolean useSessionKey = false;
+    	if (uc.getUser().getUsername().equals(omeroGateway.getSessionId(exp))) {
+            useSessionKey = true;
+    	    container.getRegistry().bind(LookupNames.SESSION_KEY, Boolean.TRUE);
+    	}
+        final String clientName = name;
+        final String upgradeVersion = clientVersion;
+        Future<Object> configLoad = warmUp.submit(new Callable<Object>() {
+            public Object call() throws Exception
+            {
+                loadConfiguration(groupID);
+                return null;
+            }
+        });
+        warmUp.submit(new Callable<Object>() {
+            public Object call() throws Exception
+            {
+                checkUpgrade(groupID, clientName, upgradeVersion);
+                return null;
+            }
+        });
+        warmUp.shutdown();
+        //Check if client and server are compatible.
+        String version;
+        try {
+            version = waitFor(versionLoad);
+            waitFor(configLoad);
+        } catch (DSAccessException e) {
+            throw new DSOutOfServiceException("Cannot load the configuration",
+                    e);
+        }
 
         //Post an event to indicate that the user is connected.
         EventBus bus = container.getRegistry().getEventBus();
@@ -595,7 +775,7 @@ public class DataServicesFactory
         try {
             // Load the omero client properties from the server
             List agents = (List) registry.lookup(LookupNames.AGENTS);
-            Map<String, String> props = omeroGateway.getOmeroClientProperties(exp.getGroupId());
+            Map<String, String> props = waitFor(clientPropsLoad);
             for (String key : props.keySet()) {
                 if (registry.lookup(key) == null)
                     registry.bind(key, props.get(key));
@@ -615,7 +795,7 @@ public class DataServicesFactory
         try {
             // Load the omero server properties from the server
             List agents = (List) registry.lookup(LookupNames.AGENTS);
-            Map<String, String> props = omeroGateway.getServerProperties(exp.getGroupId());
+            Map<String, String> props = waitFor(serverPropsLoad);
             for (String key : props.keySet()) {
                 if (registry.lookup(key) == null)
                     registry.bind(key, props.get(key));
@@ -637,16 +817,15 @@ public class DataServicesFactory
         Set<GroupData> available;
         List<ExperimenterData> exps = new ArrayList<ExperimenterData>();
         String ldap = null;
-        long gid = exp.getDefaultGroup().getId();
-        SecurityContext ctx = new SecurityContext(gid);
-        boolean canCreate = omeroGateway.canCreate(ctx);
+        boolean canCreate;
 
         try {
+            canCreate = waitFor(canCreateLoad);
             GroupData defaultGroup = null;
         	registry.bind(LookupNames.CAN_CREATE, canCreate);
-        	groups = omeroGateway.getAvailableGroups(ctx, exp);
+        	groups = waitFor(groupsLoad);
         	registry.bind(LookupNames.SYSTEM_ROLES,
-                    omeroGateway.getSystemRoles(ctx));
+                    waitFor(rolesLoad));
         	//Check if the current experimenter is an administrator 
         	Iterator<GroupData> i = groups.iterator();
         	GroupData g;
@@ -698,10 +877,8 @@ public class DataServicesFactory
         	registry.bind(LookupNames.USER_ADMINISTRATOR, uc.isAdministrator());
         	
             try {
-                List<String> privs = omeroGateway.getGateway()
-                        .getAdminService(ctx).getEventContext().adminPrivileges;
-                registry.bind(LookupNames.PRIV_FULL, omeroGateway.getGateway()
-                        .getFacility(AdminFacility.class).isFullAdmin(ctx));
+                List<String> privs = waitFor(privsLoad);
+                registry.bind(LookupNames.PRIV_FULL, waitFor(fullAdminLoad));
                 registry.bind(
                         LookupNames.PRIV_EDIT_USER,
                         privs.contains(omero.model.enums.AdminPrivilegeModifyUser.value));
@@ -761,6 +938,32 @@ public class DataServicesFactory
                 reg.bind(LookupNames.MDE_IMPORT_ENABLED, registry.lookup(LookupNames.MDE_IMPORT_ENABLED));
 			}
 		}
+		preloadScripts(ctx);
+	}
+
+	/**
+	 * Loads the scripts in the background so that the scripts menus open
+	 * without contacting the server.
+	 * 
+	 * @param ctx The security context.
+	 */
+	private void preloadScripts(final SecurityContext ctx)
+	{
+		Thread t = new Thread(new Runnable() {
+			public void run()
+			{
+				try {
+					omeroGateway.preloadScripts(ctx);
+				} catch (Exception e) {
+					LogMessage msg = new LogMessage();
+					msg.print("Cannot preload the scripts.");
+					msg.print(e);
+					registry.getLogger().debug(this, msg);
+				}
+			}
+		}, "Scripts loader");
+		t.setDaemon(true);
+		t.start();
 	}
 	
 	/**
@@ -878,11 +1081,18 @@ public class DataServicesFactory
 	}
 
 	/**
-	 * Checks if the rendering engines 
+	 * Checks if the rendering engines are still active and closes the
+	 * rendering engines idle for too long. The images loaded ahead of time
+	 * whose rendering control has been shut down are released.
 	 */
 	public void checkServicesStatus()
 	{
-		PixelsServicesFactory.checkRenderingControls(container.getRegistry());
+		List<Long> expired = PixelsServicesFactory.checkRenderingControls(
+				container.getRegistry());
+		if (is != null) is.releaseExpiredImages(expired);
+		Long timeout = (Long) registry.lookup(LookupNames.RE_TIMEOUT);
+		if (omeroGateway != null && timeout != null)
+			omeroGateway.expireRenderingEngines(timeout.longValue());
 	}
 
 }
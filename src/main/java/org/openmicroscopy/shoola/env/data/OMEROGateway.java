@@ -25,8 +25,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -36,6 +38,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -55,6 +58,7 @@ import com.google.common.collect.Multimap;
 import org.openmicroscopy.shoola.env.data.login.UserCredentials;
 import org.openmicroscopy.shoola.env.data.model.AdminObject;
 import org.openmicroscopy.shoola.env.data.model.EnumerationObject;
+import org.openmicroscopy.shoola.env.data.model.FileObject;
 import org.openmicroscopy.shoola.env.data.model.ImportableObject;
 import org.openmicroscopy.shoola.env.data.model.MovieExportParam;
 import org.openmicroscopy.shoola.env.data.model.FigureParam;
@@ -152,6 +156,7 @@ import omero.grid.DoubleColumn;
 import omero.grid.ImageColumn;
 import omero.grid.ImportProcessPrx;
 import omero.grid.ImportRequest;
+import omero.grid.JobParams;
 import omero.grid.LongColumn;
 import omero.grid.ProcessCallbackI;
 import omero.grid.RepositoryMap;
@@ -318,6 +323,30 @@ class OMEROGateway
 	/** Maximum size of pixels read at once. */
 	private static final int				INC = 262144;//256000;
 
+	/**
+	 * The number of blocks of a file requested from the server while the
+	 * current block is written.
+	 */
+	private static final int				READ_AHEAD = 2;
+
+	/**
+	 * The number of times a block of an exported image lost because of a
+	 * network error is requested again.
+	 */
+	private static final int				EXPORT_RETRIES = 3;
+
+	/**
+	 * The delay in milliseconds before a lost block is requested again for
+	 * the first time, doubled at each retry.
+	 */
+	private static final long				EXPORT_RETRY_DELAY = 500;
+
+	/**
+	 * The time in milliseconds after which the cached list of scripts is
+	 * checked against the server.
+	 */
+	private static final long				SCRIPTS_MAX_AGE = 60000;
+
 	/**
 	 * The maximum number of thumbnails retrieved before restarting the
 	 * thumbnails service.
@@ -391,6 +420,17 @@ class OMEROGateway
 	
     // Keep track of the rendering engines currently in use
     private Map<SecurityContext, Set<Long>> renderingEngines = new HashMap<SecurityContext, Set<Long>>();
+
+    /** The rendering engines released and not yet closed. */
+    private final RenderingEnginePool enginePool = new RenderingEnginePool();
+
+    /** The scripts and their parameters, the key is the group. */
+    private final Map<Long, ScriptCache> scriptCaches =
+            new HashMap<Long, ScriptCache>();
+
+    /** The exports prepared and not yet transferred, the key is the image. */
+    private final Map<Long, PendingExport> pendingExports =
+            new HashMap<Long, PendingExport>();
 	
 	/**
 	 * Creates the query to load the file set corresponding to a given image.
@@ -417,6 +457,88 @@ class OMEROGateway
     	dsFactory.getLogger().debug(this, msg);
     }
 
+    /**
+     * Keeps track of the rendering engine created for the specified
+     * pixels set.
+     *
+     * @param ctx The security context.
+     * @param pixelsID The pixels set ID.
+     */
+    private void trackRenderingEngine(SecurityContext ctx, long pixelsID)
+    {
+        Set<Long> pixIds = renderingEngines.get(ctx);
+        if (pixIds == null) {
+            pixIds = new HashSet<Long>();
+            renderingEngines.put(ctx, pixIds);
+        }
+        pixIds.add(pixelsID);
+    }
+
+    /**
+     * Closes a rendering engine removed from the pool.
+     *
+     * @param ctx The security context.
+     * @param engine The engine to close.
+     */
+    private void closeIdleEngine(SecurityContext ctx, RenderingEnginePrx engine)
+    {
+        enginePool.forget(engine);
+        try {
+            gw.closeService(ctx, engine);
+        } catch (Exception e) {
+            log("Cannot close the rendering engine: "+e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the rendering engines removed from the pool.
+     *
+     * @param engines The engines to close, the key is the security context.
+     * @return The number of engines closed.
+     */
+    private int closeIdleEngines(
+            Map<SecurityContext, List<RenderingEnginePrx>> engines)
+    {
+        int n = 0;
+        for (Entry<SecurityContext, List<RenderingEnginePrx>> e :
+            engines.entrySet()) {
+            for (RenderingEnginePrx engine : e.getValue()) {
+                closeIdleEngine(e.getKey(), engine);
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Points an idle rendering engine at the specified pixels set and loads
+     * it. Returns <code>null</code> if no engine is available or if the
+     * engine cannot be used anymore. The engine stays registered by the
+     * connector for the pixels set it was created for, the pool keeps track
+     * of it so that it is not closed with the engines of that pixels set
+     * while in use.
+     *
+     * @param ctx The security context.
+     * @param pixelsID The pixels set ID.
+     * @return See above.
+     */
+    private RenderingEnginePrx reuseRenderingEngine(SecurityContext ctx,
+            long pixelsID)
+    {
+        RenderingEnginePrx service = enginePool.acquire(ctx, pixelsID);
+        if (service == null) return null;
+        try {
+            service.lookupPixels(pixelsID);
+            needDefault(pixelsID, service);
+            service.load();
+            trackRenderingEngine(ctx, pixelsID);
+            return service;
+        } catch (Throwable t) {
+            log("Cannot reuse the rendering engine: "+t.getMessage());
+            closeIdleEngine(ctx, service);
+        }
+        return null;
+    }
 
 	/**
 	 * Returns <code>true</code> if the server is running.
@@ -521,6 +643,8 @@ class OMEROGateway
     {
         if (ctx == null || svc == null)
             return;
+        if (svc instanceof RenderingEnginePrx)
+            enginePool.forget((RenderingEnginePrx) svc);
         if (svc instanceof RenderingEnginePrx && renderingEngines.containsKey(ctx)) { 
             try {
                 renderingEngines.get(ctx).remove(
@@ -1619,6 +1743,12 @@ class OMEROGateway
 	}
 
 	void logout() {
+	    //the engines are closed with the connectors
+	    enginePool.clear(null);
+	    clearPendingExports(null);
+	    synchronized (scriptCaches) {
+	        scriptCaches.clear();
+	    }
 	    gw.disconnect();
 	}
 
@@ -2379,18 +2509,15 @@ class OMEROGateway
 			SecurityContext ctx, long pixelsID)
 		throws DSOutOfServiceException, DSAccessException, FSAccessException
 	{
-	    RenderingEnginePrx service = null;
+	    RenderingEnginePrx service = reuseRenderingEngine(ctx, pixelsID);
+	    if (service != null) return service;
 		try {
 		    service = gw.getRenderingService(ctx, pixelsID);
 			service.lookupPixels(pixelsID);
 			needDefault(pixelsID, service);
 			service.load();
-            Set<Long> pixIds = renderingEngines.get(ctx);
-            if (pixIds == null) {
-                pixIds = new HashSet<Long>();
-                renderingEngines.put(ctx, pixIds);
-            }
-            pixIds.add(pixelsID);
+			enginePool.register(ctx, pixelsID, service);
+			trackRenderingEngine(ctx, pixelsID);
 			return service;
 		} catch (Throwable t) {
 		    log(t.getMessage());
@@ -3083,6 +3210,58 @@ class OMEROGateway
 		return download(ctx, file, fileID);
 	}
 
+	/**
+	 * Copies the content of a file previously uploaded to the server to the
+	 * specified stream. Up to {@link #READ_AHEAD} blocks are requested
+	 * asynchronously while the current block is written so that reading
+	 * from the server and writing overlap. The stream is not closed.
+	 *
+	 * @param ctx The security context.
+	 * @param out The stream to write the data to.
+	 * @param fileID The id of the file to download.
+	 * @throws DSOutOfServiceException If the connection is broken, or not logged in
+	 * @throws DSAccessException If an error occurred while trying to
+	 * retrieve data from OMERO service.
+	 */
+	void downloadFile(SecurityContext ctx, OutputStream out, long fileID)
+		throws DSAccessException, DSOutOfServiceException
+	{
+		if (out == null) return;
+		RawFileStorePrx store = null;
+		try {
+		    store = gw.getRawFileService(ctx);
+			store.setFileId(fileID);
+		} catch (Throwable e) {
+		    gw.closeService(ctx, store);
+			handleException(e, "Cannot set the file's id.");
+			return; // Never reached.
+		}
+
+		try {
+			long size = store.size();
+			LinkedList<Ice.AsyncResult> pending =
+				new LinkedList<Ice.AsyncResult>();
+			long requested = 0;
+			int length;
+			while (requested < size || !pending.isEmpty()) {
+				while (requested < size && pending.size() <= READ_AHEAD) {
+					length = (int) Math.min(INC, size-requested);
+					pending.add(store.begin_read(requested, length));
+					requested += length;
+				}
+				out.write(store.end_read(pending.removeFirst()));
+			}
+		} catch (IOException e) {
+			throw new DSAccessException("Cannot write the file "+fileID, e);
+		} catch (Throwable e) {
+			handleException(e, "Cannot download the file "+fileID);
+			throw new DSAccessException("Cannot download the file "+fileID,
+					e);
+		} finally {
+		    gw.closeService(ctx, store);
+		}
+	}
+
 	/**
 	 * Downloads a file previously uploaded to the server.
 	 *
@@ -5285,6 +5464,86 @@ class OMEROGateway
 		return runScript(ctx, id, map);
 	}
 
+	/**
+	 * Returns <code>true</code> if the official script is listed in the
+	 * scripts menus, <code>false</code> otherwise.
+	 *
+	 * @param of The script to handle.
+	 * @return See above.
+	 */
+	private boolean isRunnableScript(OriginalFile of)
+	{
+		String v = of.getPath().getValue()+of.getName().getValue();
+		return !SCRIPTS_NOT_AVAILABLE_TO_USER.contains(v) &&
+				!SCRIPTS_UI_AVAILABLE.contains(v);
+	}
+
+	/**
+	 * Loads the official scripts and the scripts uploaded by the users if
+	 * the lists cached for the group of the context are older than
+	 * {@link #SCRIPTS_MAX_AGE} or if requested.
+	 *
+	 * @param ctx The security context.
+	 * @param force Pass <code>true</code> to load the lists even if the
+	 *              cached lists are recent, <code>false</code> otherwise.
+	 * @return The scripts cached for the group.
+	 * @throws DSOutOfServiceException  If the connection is broken, or logged
+	 *                                  in.
+	 * @throws DSAccessException        If an error occurred while trying to
+	 *                                  retrieve data from OMEDS service.
+	 * @throws ServerError If an error occurred while loading the scripts.
+	 */
+	private ScriptCache loadScriptLists(SecurityContext ctx, boolean force)
+		throws DSOutOfServiceException, DSAccessException, ServerError
+	{
+		ScriptCache cache;
+		synchronized (scriptCaches) {
+			cache = scriptCaches.get(ctx.getGroupID());
+			if (cache == null) {
+				cache = new ScriptCache();
+				scriptCaches.put(ctx.getGroupID(), cache);
+			}
+		}
+		if (!force && cache.isValid(SCRIPTS_MAX_AGE)) return cache;
+		IScriptPrx svc = getScriptService(ctx);
+		cache.setScripts(svc.getScripts(),
+				svc.getUserScripts(new ArrayList<IObject>()));
+		return cache;
+	}
+
+	/**
+	 * Loads the scripts so that the scripts menus can be opened without
+	 * contacting the server. The parameters of a script are loaded the
+	 * first time the script is opened.
+	 *
+	 * @param ctx The security context.
+	 * @throws DSOutOfServiceException  If the connection is broken, or logged
+	 *                                  in.
+	 * @throws DSAccessException        If an error occurred while trying to
+	 *                                  retrieve data from OMEDS service.
+	 */
+	void preloadScripts(SecurityContext ctx)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		try {
+			loadScriptLists(ctx, true);
+		} catch (Exception e) {
+			handleException(e, "Cannot load the scripts. ");
+		}
+	}
+
+	/**
+	 * Forces the scripts to be loaded again the next time they are
+	 * requested.
+	 */
+	void invalidateScripts()
+	{
+		synchronized (scriptCaches) {
+			for (ScriptCache cache : scriptCaches.values())
+				cache.invalidate();
+		}
+	}
+
 	/**
 	 * Returns all the scripts that the user can run.
 	 *
@@ -5300,8 +5559,8 @@ class OMEROGateway
 	{
 		List<ScriptObject> scripts = new ArrayList<ScriptObject>();
 		try {
-		    IScriptPrx svc = getScriptService(ctx);
-			List<OriginalFile> storedScripts = svc.getScripts();
+			ScriptCache cache = loadScriptLists(ctx, false);
+			List<OriginalFile> storedScripts = cache.getScripts();
 
 			if (CollectionUtils.isEmpty(storedScripts))
 				return scripts;
@@ -5309,13 +5568,9 @@ class OMEROGateway
 			ScriptObject script;
 			OriginalFile of;
 			RString value;
-			String v = null;
 			while (j.hasNext()) {
 				of = j.next();
-				value = of.getName();
-				v = of.getPath().getValue()+ value.getValue();
-				if (!SCRIPTS_NOT_AVAILABLE_TO_USER.contains(v)
-					&& !SCRIPTS_UI_AVAILABLE.contains(v)) {
+				if (isRunnableScript(of)) {
 					script = new ScriptObject(of.getId().getValue(),
 							of.getPath().getValue(), of.getName().getValue());
 					value = of.getMimetype();
@@ -5323,7 +5578,7 @@ class OMEROGateway
 					scripts.add(script);
 				}
 			}
-			storedScripts = svc.getUserScripts(new ArrayList());
+			storedScripts = cache.getUserScripts();
 			j = storedScripts.iterator();
 			while (j.hasNext()) {
 				of = j.next();
@@ -5356,8 +5611,8 @@ class OMEROGateway
 	{
 		List<ScriptObject> scripts = new ArrayList<ScriptObject>();
 		try {
-		    IScriptPrx svc = getScriptService(ctx);
-			List<OriginalFile> storedScripts = svc.getScripts();
+			ScriptCache cache = loadScriptLists(ctx, false);
+			List<OriginalFile> storedScripts = cache.getScripts();
 
 			if (CollectionUtils.isEmpty(storedScripts))
 				return scripts;
@@ -5398,9 +5653,15 @@ class OMEROGateway
 	{
 		ScriptObject script = null;
 		try {
-			IScriptPrx svc = getScriptService(ctx);
+			//Checks that the cached parameters are up to date.
+			ScriptCache cache = loadScriptLists(ctx, false);
+			JobParams params = cache.getParams(scriptID);
+			if (params == null) {
+				params = getScriptService(ctx).getParams(scriptID);
+				cache.setParams(scriptID, params);
+			}
 			script = new ScriptObject(scriptID, "", "");
-			script.setJobParams(svc.getParams(scriptID));
+			script.setJobParams(params);
 		} catch (Exception e) {
 			handleConnectionException(e);
 			throw new ProcessException("Cannot load the script: "+scriptID, e);
@@ -5422,8 +5683,8 @@ class OMEROGateway
 		throws DSOutOfServiceException, DSAccessException
 	{
 		try {
-		    IScriptPrx svc = getScriptService(ctx);
-			List<OriginalFile> scripts = svc.getScripts();
+			List<OriginalFile> scripts =
+					loadScriptLists(ctx, false).getScripts();
 			Map<Long, String> m = new HashMap<Long, String>();
 			if (scripts != null) {
 				Iterator<OriginalFile> i = scripts.iterator();
@@ -5779,15 +6040,113 @@ class OMEROGateway
 		}
 	}
 
+	/**
+	 * Returns the files read by Bio-Formats to import the specified file
+	 * or directory.
+	 *
+	 * @param file The file or directory to handle.
+	 * @return See above.
+	 * @throws ImportException If an error occurred while reading the file.
+	 */
+	Set<File> getUsedFiles(File file)
+		throws ImportException
+	{
+		OMEROWrapper reader = null;
+		try {
+			reader = new OMEROWrapper(new ImportConfig());
+			String[] paths = new String[1];
+			paths[0] = file.getAbsolutePath();
+			ImportCandidates icans = new ImportCandidates(reader, paths,
+					new Status(new FileObject(file)));
+			Set<File> files = new HashSet<File>();
+			String[] used;
+			for (ImportContainer ic : icans.getContainers()) {
+				used = ic.getUsedFiles();
+				if (used == null) continue;
+				for (int i = 0; i < used.length; i++)
+					files.add(new File(used[i]).getAbsoluteFile());
+			}
+			return files;
+		} catch (Throwable e) {
+			throw new ImportException(e);
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (Exception ex) {}
+			}
+		}
+	}
+
 	/**
 	 * Removes the rendering service corresponding to the pixels set ID.
+	 * The engines created for the pixels set are shut down together unless
+	 * one of them has been pointed at another pixels set, the engines are
+	 * then closed one by one.
 	 *
 	 * @param ctx The security context.
 	 * @param pixelsID The pixels set Id to handle.
 	 */
 	void removeREService(SecurityContext ctx, long pixelsID)
 	{
-		gw.shutdownRenderingEngine(ctx, pixelsID);
+		List<RenderingEnginePrx> engines = new ArrayList<RenderingEnginePrx>();
+		boolean shutdown = enginePool.remove(ctx, pixelsID, engines);
+		for (RenderingEnginePrx engine : engines)
+			closeIdleEngine(ctx, engine);
+		Set<Long> pixIds = renderingEngines.get(ctx);
+		if (pixIds != null) pixIds.remove(pixelsID);
+		if (shutdown) gw.shutdownRenderingEngine(ctx, pixelsID);
+	}
+
+	/**
+	 * Releases the rendering engines no longer used to view the specified
+	 * pixels set. The engines are kept so that they can be pointed at the
+	 * next pixels set viewed. The engines are closed if the pool is
+	 * disabled.
+	 *
+	 * @param ctx The security context.
+	 * @param pixelsID The pixels set Id to handle.
+	 * @param engines The engines to release.
+	 */
+	void releaseREService(SecurityContext ctx, long pixelsID,
+			List<RenderingEnginePrx> engines)
+	{
+		if (CollectionUtils.isEmpty(engines) || !enginePool.isEnabled()) {
+			removeREService(ctx, pixelsID);
+			return;
+		}
+		Set<Long> pixIds = renderingEngines.get(ctx);
+		if (pixIds != null) pixIds.remove(pixelsID);
+		RenderingEnginePrx removed;
+		for (RenderingEnginePrx engine : engines) {
+			removed = enginePool.release(engine);
+			if (removed != null) closeIdleEngine(ctx, removed);
+		}
+	}
+
+	/**
+	 * Sets the maximum number of idle rendering engines kept per security
+	 * context. Pass <code>0</code> to close the engines when released.
+	 *
+	 * @param size The value to set.
+	 */
+	void setRenderingEnginePoolSize(int size)
+	{
+		closeIdleEngines(enginePool.setSize(size));
+	}
+
+	/**
+	 * Closes the rendering engines idle for longer than the specified time,
+	 * at least one minute.
+	 *
+	 * @param timeout The time in milliseconds.
+	 */
+	void expireRenderingEngines(long timeout)
+	{
+		int n = closeIdleEngines(enginePool.expire(timeout));
+		log("Rendering engine pool: hits="+enginePool.getHits()+
+				", misses="+enginePool.getMisses()+", idle="+
+				enginePool.getIdleCount()+", expired="+n);
 	}
 
 	/**
@@ -5930,6 +6289,43 @@ class OMEROGateway
 	    return Collections.EMPTY_LIST;
 	}
 
+	/**
+	 * Loads the ROI of the specified image with a shape on the passed plane,
+	 * whoever the owner. The ROIs are loaded with all their shapes.
+	 *
+	 * @param ctx The security context.
+	 * @param imageID The image's ID.
+	 * @param z The selected z-section.
+	 * @param t The selected timepoint.
+	 * @return See above.
+	 * @throws DSOutOfServiceException  If the connection is broken, or logged
+	 *                                  in.
+	 * @throws DSAccessException        If an error occurred while trying to
+	 *                                  retrieve data from OMEDS service.
+	 */
+	List<ROIResult> loadROIByPlane(SecurityContext ctx, long imageID,
+			int z, int t)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		List<ROIResult> results = new ArrayList<ROIResult>();
+		try {
+			IRoiPrx svc = gw.getROIService(ctx);
+			omero.api.RoiResult r = svc.findByPlane(imageID, z, t,
+					new RoiOptions());
+			List<ROIData> rois = new ArrayList<ROIData>();
+			if (r != null && r.rois != null) {
+				Iterator<omero.model.Roi> i = r.rois.iterator();
+				while (i.hasNext())
+					rois.add(new ROIData(i.next()));
+			}
+			results.add(new ROIResult(rois));
+		} catch (Exception e) {
+			handleException(e, "Cannot load the ROI for image: "+imageID+
+					" plane z="+z+" t="+t);
+		}
+		return results;
+	}
+
 	/**
 	 * Save the ROI for the image to the server.
 	 *
@@ -6009,14 +6405,53 @@ class OMEROGateway
 	}
 
 	/**
-	 * Returns the file
+	 * Starts generating the OME-XML or OME-TIFF file of the specified image on
+	 * the server without waiting for the file to be ready. The file is then
+	 * transferred by {@link #exportImageAsOMEObject(SecurityContext, int, File,
+	 * long)} so that the next image of a batch is generated while the current
+	 * one is transferred. Only one export is prepared per image, a previous
+	 * export of the same image not yet transferred is closed.
 	 *
+	 * @param ctx The security context.
 	 * @param index Either OME-XML or OME-TIFF.
-	 * @param imageID	The id of the image.
+	 * @param imageID The id of the image.
+	 * @throws DSOutOfServiceException  If the connection is broken, or logged
+	 *                                  in.
+	 * @throws DSAccessException        If an error occurred while trying to
+	 *                                  retrieve data from OMEDS service.
+	 */
+	void prepareExport(SecurityContext ctx, int index, long imageID)
+		throws DSAccessException, DSOutOfServiceException
+	{
+		ExporterPrx store = null;
+		try {
+		    store = gw.getExporterService(ctx);
+			store.addImage(imageID);
+			Ice.AsyncResult result;
+			if (index == OmeroImageService.EXPORT_AS_OME_XML)
+				result = store.begin_generateXml();
+			else result = store.begin_generateTiff();
+			PendingExport export;
+			synchronized (pendingExports) {
+				export = pendingExports.put(imageID,
+						new PendingExport(ctx, index, store, result));
+			}
+			if (export != null) gw.closeService(export.ctx, export.store);
+		} catch (Throwable e) {
+		    gw.closeService(ctx, store);
+			handleException(e, "Cannot prepare the export of the image "+
+					imageID);
+		}
+	}
+
+	/**
+	 * Exports the image as an OME-XML or OME-TIFF file. The export prepared
+	 * by {@link #prepareExport(SecurityContext, int, long)} is used if any.
+	 *
 	 * @param ctx The security context.
+	 * @param index Either OME-XML or OME-TIFF.
 	 * @param f The file to write the bytes.
 	 * @param imageID The id of the image.
-	 * @return See above.
 	 * @throws DSOutOfServiceException  If the connection is broken, or logged
 	 *                                  in.
 	 * @throws DSAccessException        If an error occurred while trying to
@@ -6026,45 +6461,129 @@ class OMEROGateway
 			long imageID)
 		throws DSAccessException, DSOutOfServiceException
 	{
-		FileOutputStream stream = null;
-		DSAccessException exception = null;
-		
+		PendingExport export;
+		synchronized (pendingExports) {
+			export = pendingExports.remove(imageID);
+		}
+		if (export != null && (export.index != index ||
+				!export.ctx.equals(ctx))) {
+			gw.closeService(export.ctx, export.store);
+			export = null;
+		}
+		ExporterPrx store = null;
 		try {
-		    ExporterPrx store = gw.getExporterService(ctx);
-			stream = new FileOutputStream(f);
-			try {
+			long size;
+			if (export != null) {
+				store = export.store;
+				if (index == OmeroImageService.EXPORT_AS_OME_XML)
+					size = store.end_generateXml(export.result);
+				else size = store.end_generateTiff(export.result);
+			} else {
+			    store = gw.getExporterService(ctx);
 				store.addImage(imageID);
+				if (index == OmeroImageService.EXPORT_AS_OME_XML)
+					size = store.generateXml();
+				else size = store.generateTiff();
+			}
+			transfer(store, size, f);
+		} catch (Throwable t) {
+			if (f != null) f.delete();
+			handleConnectionException(t);
+			throw new DSAccessException(
+					"Cannot export the image as an OME-formats ", t);
+		} finally {
+		    gw.closeService(ctx, store);
+		}
+	}
+
+	/**
+	 * Copies the file generated by the exporter to the specified file.
+	 * Up to {@link #READ_AHEAD} blocks are requested asynchronously while the
+	 * current block is written. Each block is written at its position through
+	 * a file channel so that a block lost because of a network error is
+	 * requested again, up to {@link #EXPORT_RETRIES} times, without
+	 * restarting the transfer. The delay before a retry starts at
+	 * {@link #EXPORT_RETRY_DELAY} and doubles each time so that the
+	 * connection has time to recover.
+	 *
+	 * @param store The exporter.
+	 * @param size The size of the generated file.
+	 * @param f The file to write the bytes.
+	 * @throws IOException If an error occurred while writing the file.
+	 * @throws ServerError If an error occurred while reading the file.
+	 */
+	private void transfer(ExporterPrx store, long size, File f)
+		throws IOException, ServerError
+	{
+		FileOutputStream stream = new FileOutputStream(f);
+		try {
+			FileChannel channel = stream.getChannel();
+			LinkedList<Ice.AsyncResult> pending =
+				new LinkedList<Ice.AsyncResult>();
+			LinkedList<Long> offsets = new LinkedList<Long>();
+			long requested = 0;
+			long offset;
+			int length;
+			int retries = 0;
+			ByteBuffer buffer;
+			while (requested < size || !pending.isEmpty()) {
+				while (requested < size && pending.size() <= READ_AHEAD) {
+					length = (int) Math.min(INC, size-requested);
+					pending.add(store.begin_read(requested, length));
+					offsets.add(requested);
+					requested += length;
+				}
+				offset = offsets.removeFirst();
 				try {
-					long size = 0;
-					if (index == OmeroImageService.EXPORT_AS_OME_XML)
-						size = store.generateXml();
-					else size = store.generateTiff();
-					long offset = 0;
+					buffer = ByteBuffer.wrap(
+							store.end_read(pending.removeFirst()));
+				} catch (Ice.LocalException e) {
+					if (++retries > EXPORT_RETRIES) throw e;
 					try {
-						for (offset = 0; (offset+INC) < size;) {
-							stream.write(store.read(offset, INC));
-							offset += INC;
-						}
-					} finally {
-						stream.write(store.read(offset, (int) (size-offset)));
-						stream.close();
+						Thread.sleep(EXPORT_RETRY_DELAY << (retries-1));
+					} catch (InterruptedException ie) {
+						Thread.currentThread().interrupt();
+						throw e;
 					}
-				} catch (Exception e) {
-					if (stream != null) stream.close();
-					if (f != null) f.delete();
-					exception = new DSAccessException(
-							"Cannot export the image as an OME-formats ", e);
-					handleConnectionException(e);
+					length = (int) Math.min(INC, size-offset);
+					pending.addFirst(store.begin_read(offset, length));
+					offsets.addFirst(offset);
+					continue;
 				}
-			} finally {
-			    gw.closeService(ctx, store);
-				if (exception != null)
-				    throw exception;
+				retries = 0;
+				while (buffer.hasRemaining())
+					offset += channel.write(buffer, offset);
+			}
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Closes the exports prepared and not transferred.
+	 *
+	 * @param ctx The security context or <code>null</code> to close all
+	 *            the exports.
+	 */
+	private void clearPendingExports(SecurityContext ctx)
+	{
+		List<PendingExport> exports = new ArrayList<PendingExport>();
+		synchronized (pendingExports) {
+			Iterator<PendingExport> i = pendingExports.values().iterator();
+			PendingExport export;
+			while (i.hasNext()) {
+				export = i.next();
+				if (ctx != null && !ctx.equals(export.ctx)) continue;
+				exports.add(export);
+				i.remove();
+			}
+		}
+		for (PendingExport export : exports) {
+			try {
+			    gw.closeService(export.ctx, export.store);
+			} catch (Throwable e) {
+				log("Cannot close the export: "+e.getMessage());
 			}
-		} catch (Throwable t) {
-			if (f != null) f.delete();
-			throw new DSAccessException(
-					"Cannot export the image as an OME-TIFF", t);
 		}
 	}
 
@@ -6114,6 +6633,7 @@ class OMEROGateway
 		FileInputStream stream = null;
 		try {
 		    IScriptPrx svc = getScriptService(ctx);
+		    invalidateScripts();
 			StringBuffer buf = new StringBuffer("");
 			try {
 				File file = new File(script.getPath());
@@ -7171,6 +7691,8 @@ class OMEROGateway
             DSAccessException {
         if (ctx == null)
             return;
+        enginePool.clear(ctx);
+        clearPendingExports(ctx);
         try {
             gw.closeConnector(ctx);
         } catch (Throwable t) {
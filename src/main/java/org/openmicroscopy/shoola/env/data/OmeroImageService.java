@@ -172,6 +172,40 @@ public interface OmeroImageService
 	 */
 	public void shutDown(SecurityContext ctx, long pixelsID);
 
+	/**
+	 * Loads the rendering control of the specified pixels set and renders
+	 * its default plane so that the image can be viewed without delay.
+	 * The rendering control is kept for the specified owner until released
+	 * by {@link #releasePrefetchedImages(Object, Collection)}. If the
+	 * rendering control is already loaded, a reference is only added for
+	 * the owner.
+	 *
+	 * @param ctx The security context.
+	 * @param pixelsID The ID of the pixels set.
+	 * @param owner The object the image is loaded for, e.g. a browser.
+	 * @throws DSOutOfServiceException  If the connection is broken, or logged
+	 *                                  in.
+	 * @throws DSAccessException        If an error occurred while trying to
+	 *                                  retrieve data from OMEDS service.
+	 * @throws FSAccessException        If an error occurred while trying to
+	 *                                  retrieve data using OMERO.fs.
+	 */
+	public void prefetchImage(SecurityContext ctx, long pixelsID,
+			Object owner)
+		throws DSOutOfServiceException, DSAccessException, FSAccessException;
+
+	/**
+	 * Releases the rendering controls loaded by
+	 * {@link #prefetchImage(SecurityContext, long, Object)} for the specified
+	 * owner other than the specified ones. The images loaded for other
+	 * owners are not affected.
+	 *
+	 * @param owner The object the images were loaded for.
+	 * @param keep The IDs of the pixels sets to keep or <code>null</code>
+	 *             to release all of them.
+	 */
+	public void releasePrefetchedImages(Object owner, Collection<Long> keep);
+
 	/**
 	 * Returns a thumbnail of the currently selected 2D-plane for the
 	 * passed pixels set.
@@ -417,6 +451,20 @@ public interface OmeroImageService
 		int startZ, int endZ, int stepping, int type, List<Integer> channels)
 		throws RenderingServiceException, DSOutOfServiceException; 
 	
+	/**
+	 * Returns <code>true</code> if the preview of the projection is computed
+	 * on the client from the cached planes, <code>false</code> if it is
+	 * computed by the server.
+	 * 
+	 * @param ctx The security context.
+	 * @param pixelsID The ID of the pixels set.
+	 * @param type The type of projection.
+	 * @param channels The collection of channels to project.
+	 * @return See above.
+	 */
+	public boolean isProjectedLocally(SecurityContext ctx, long pixelsID,
+		int type, List<Integer> channels);
+	
 	/**
 	 * Projects the specified set of pixels according to the projection's 
 	 * parameters. Adds the created image to the passed dataset.
@@ -487,6 +535,18 @@ public interface OmeroImageService
 	public Object importFile(ImportableObject object,
 		ImportableFile importable , boolean close)
 		throws ImportException, DSAccessException, DSOutOfServiceException;
+
+	/**
+	 * Returns the files Bio-Formats reads to import the passed file or
+	 * directory i.e. the files of the filesets found.
+	 *
+	 * @param file The file or directory to handle.
+	 *             Mustn't be <code>null</code>.
+	 * @return See above.
+	 * @throws ImportException If an error occurred while reading the file.
+	 */
+	public Set<File> getUsedFiles(File file)
+		throws ImportException;
 	
 	/**
 	 * Returns the collection of supported file formats.
@@ -547,6 +607,23 @@ public interface OmeroImageService
 	public List<ROIResult> loadROIFromServer(SecurityContext ctx, long imageID,
 		long userID)
 		throws DSOutOfServiceException, DSAccessException;
+
+	/**
+	 * Loads the ROI of the specified image with a shape on the passed plane.
+	 * 
+	 * @param ctx The security context.
+	 * @param imageID The image's ID.
+	 * @param z The selected z-section.
+	 * @param t The selected timepoint.
+	 * @return See above.
+	 * @throws DSOutOfServiceException  If the connection is broken, or logged
+	 *                                  in.
+	 * @throws DSAccessException        If an error occurred while trying to 
+	 *                                  retrieve data from OMEDS service.
+	 */
+	public List<ROIResult> loadROIByPlane(SecurityContext ctx, long imageID,
+		int z, int t)
+		throws DSOutOfServiceException, DSAccessException;
 	
 	/**
 	 * Exports the passed image as an XML file.
@@ -566,6 +643,22 @@ public interface OmeroImageService
 			long imageID, File folder, Target target)
 		throws DSOutOfServiceException, DSAccessException;
 
+	/**
+	 * Starts generating the file of the passed image on the server so that
+	 * it is ready when {@link #exportImageAsOMEFormat(SecurityContext, int,
+	 * long, File, Target)} is invoked for that image.
+	 *
+	 * @param ctx The security context.
+	 * @param index One of the export constants defined by this class.
+	 * @param imageID The ID of the image.
+	 * @throws DSOutOfServiceException  If the connection is broken, or logged
+	 *                                  in.
+	 * @throws DSAccessException        If an error occurred while trying to 
+	 *                                  retrieve data from OMEDS service.
+	 */
+	public void prepareExport(SecurityContext ctx, int index, long imageID)
+		throws DSOutOfServiceException, DSAccessException;
+
 	/**
 	 * Saves the ROI related to the specified image to the server
 	 * 
@@ -677,6 +770,13 @@ public interface OmeroImageService
 	public ScriptObject loadScript(SecurityContext ctx, long scriptID)
 		throws ProcessException;
 	
+	/**
+	 * Indicates that the scripts and their parameters have to be checked
+	 * against the server the next time they are requested. The scripts are
+	 * otherwise kept for a short time.
+	 */
+	public void invalidateScripts();
+	
 	/**
 	 * Returns all the scripts currently stored into the system.
 	 * 
@@ -863,11 +963,29 @@ public interface OmeroImageService
 	RawPixelsStorePrx createPixelsStore(SecurityContext ctx)
             throws DSAccessException, DSOutOfServiceException;
 
+	/**
+	 * Returns the histograms of the specified channels for the passed plane.
+	 * The histograms already retrieved, or computable from the raw planes
+	 * cached on the client, are not requested again from the server.
+	 * 
+	 * @param ctx The security context.
+	 * @param pixels The pixels set.
+	 * @param channels The indexes of the channels.
+	 * @param z The selected z-section.
+	 * @param t The selected time-point.
+	 * @return A map whose keys are the channel indexes and the values
+	 *         the number of values per bin.
+	 * @throws DSOutOfServiceException  If the connection is broken, or logged
+	 *                                  in.
+	 * @throws DSAccessException        If an error occurred while trying to
+	 *                                  retrieve data from OMEDS service.
+	 */
 	public Map<Integer, int[]> getHistogram(SecurityContext ctx,
 											PixelsData pixels,
 											int[] channels, int z, int t) throws DSAccessException,
 			DSOutOfServiceException;
 
+
     /**
      * Closes the import.
      * @param ImportableObject The object associated to the import.
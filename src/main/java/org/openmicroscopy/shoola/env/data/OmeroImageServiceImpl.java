@@ -26,12 +26,15 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -113,6 +116,7 @@ import omero.log.LogMessage;
 import org.openmicroscopy.shoola.env.rnd.RenderingControl;
 import org.openmicroscopy.shoola.env.rnd.PixelsServicesFactory;
 import org.openmicroscopy.shoola.env.rnd.RndProxyDef;
+import org.openmicroscopy.shoola.env.rnd.data.Histogram;
 import org.openmicroscopy.shoola.util.filter.file.OMETIFFFilter;
 import org.openmicroscopy.shoola.util.filter.file.XMLFilter;
 import org.openmicroscopy.shoola.util.image.geom.Factory;
@@ -152,6 +156,36 @@ class OmeroImageServiceImpl
 	/** Reference to the entry point to access the <i>OMERO</i> services. */
 	private OMEROGateway gateway;
 
+	/** A rendering control loaded or being loaded ahead of time. */
+	private static class PrefetchedImage
+	{
+
+		/** The security context. */
+		private final SecurityContext ctx;
+
+		/** Flag indicating that the rendering control has been loaded. */
+		private boolean loaded;
+
+		/** Flag indicating that the image was released while loading. */
+		private boolean released;
+
+		/**
+		 * Creates a new instance.
+		 *
+		 * @param ctx The security context.
+		 */
+		PrefetchedImage(SecurityContext ctx) { this.ctx = ctx; }
+	}
+
+	/** 
+	 * The rendering controls loaded or being loaded ahead of time, the key
+	 * is the object the images are loaded for, the key of the values is
+	 * the ID of the pixels set. Each owner holds its own reference to the
+	 * rendering control in the registry.
+	 */
+	private final Map<Object, Map<Long, PrefetchedImage>> prefetched =
+		new HashMap<Object, Map<Long, PrefetchedImage>>();
+
 	/** Lookup tables cache (they are not likely to change during a session) */
 	private static Collection<String> LOOKUP_TABLES;
 
@@ -507,12 +541,18 @@ class OmeroImageServiceImpl
 		long pixelsID)
 		throws DSOutOfServiceException, DSAccessException, FSAccessException
 	{
-		RenderingControl proxy =
-			PixelsServicesFactory.getRenderingControl(context,
+		RenderingControl proxy;
+		while (true) {
+			proxy = PixelsServicesFactory.getRenderingControl(context,
 					Long.valueOf(pixelsID), true);
-		if (proxy == null) {
-			UserCredentials uc =
-				(UserCredentials) context.lookup(LookupNames.USER_CREDENTIALS);
+			if (proxy != null) return proxy;
+			//Waits for the creation in progress in another thread if any.
+			if (PixelsServicesFactory.startRenderingControlCreation(context,
+					pixelsID)) break;
+		}
+		try {
+			UserCredentials uc = (UserCredentials) context.lookup(
+					LookupNames.USER_CREDENTIALS);
 			int compressionLevel;
 			switch (uc.getSpeedLevel()) {
 				case UserCredentials.MEDIUM:
@@ -548,12 +588,15 @@ class OmeroImageServiceImpl
 				index++;
 			}
 
-			proxy = PixelsServicesFactory.createRenderingControl(context, ctx,
-					reList, pixels, m, compressionLevel, defs);
+			proxy = PixelsServicesFactory.createRenderingControl(context,
+					ctx, reList, pixels, m, compressionLevel, defs);
 
 			proxy.setAvailableLookupTables(getLookupTables(ctx));
+			return proxy;
+		} finally {
+			PixelsServicesFactory.endRenderingControlCreation(context,
+					pixelsID);
 		}
-		return proxy;
 	}
 
     /**
@@ -602,6 +645,133 @@ class OmeroImageServiceImpl
 	    return gateway.getGateway().isAlive(ctx);
 	}
 
+	/**
+	 * Implemented as specified by {@link OmeroImageService}.
+	 * @see OmeroImageService#prefetchImage(SecurityContext, long, Object)
+	 */
+	public void prefetchImage(SecurityContext ctx, long pixelsID,
+			Object owner)
+		throws DSOutOfServiceException, DSAccessException, FSAccessException
+	{
+		if (owner == null)
+			throw new IllegalArgumentException("No owner specified.");
+		//Registered before loading so that a release while loading is seen.
+		PrefetchedImage image = new PrefetchedImage(ctx);
+		Map<Long, PrefetchedImage> images;
+		synchronized (prefetched) {
+			images = prefetched.get(owner);
+			if (images == null) {
+				images = new LinkedHashMap<Long, PrefetchedImage>();
+				prefetched.put(owner, images);
+			}
+			if (images.containsKey(pixelsID)) return;
+			images.put(pixelsID, image);
+		}
+		boolean loaded = PixelsServicesFactory.getRenderingControl(context,
+				Long.valueOf(pixelsID), false) != null;
+		RenderingControl rc = null;
+		boolean released;
+		try {
+			rc = loadRenderingControl(ctx, pixelsID);
+		} finally {
+			synchronized (prefetched) {
+				image.loaded = rc != null;
+				released = image.released;
+				if (rc == null && images.get(pixelsID) == image) {
+					images.remove(pixelsID);
+					if (images.isEmpty() && prefetched.get(owner) == images)
+						prefetched.remove(owner);
+				}
+			}
+		}
+		if (rc == null) return;
+		if (released) {
+			shutDown(ctx, pixelsID);
+			return;
+		}
+		//Already viewed or loaded for another owner.
+		if (loaded || rc.isBigImage()) return;
+		PlaneDef pDef = new PlaneDef();
+		pDef.t = rc.getDefaultT();
+		pDef.z = rc.getDefaultZ();
+		pDef.slice = omero.romio.XY.value;
+		try {
+			rc.render(pDef);
+		} catch (Exception e) {
+			context.getLogger().debug(this,
+					"Cannot render the plane ahead of time: "+e.getMessage());
+		}
+	}
+
+	/**
+	 * Implemented as specified by {@link OmeroImageService}.
+	 * @see OmeroImageService#releasePrefetchedImages(Object, Collection)
+	 */
+	public void releasePrefetchedImages(Object owner, Collection<Long> keep)
+	{
+		List<Entry<Long, SecurityContext>> released =
+			new ArrayList<Entry<Long, SecurityContext>>();
+		synchronized (prefetched) {
+			Map<Long, PrefetchedImage> images = prefetched.get(owner);
+			if (images == null) return;
+			Iterator<Entry<Long, PrefetchedImage>> i =
+				images.entrySet().iterator();
+			Entry<Long, PrefetchedImage> e;
+			PrefetchedImage image;
+			while (i.hasNext()) {
+				e = i.next();
+				if (keep != null && keep.contains(e.getKey())) continue;
+				image = e.getValue();
+				i.remove();
+				//Still loading, released by the loading thread.
+				if (!image.loaded) image.released = true;
+				else released.add(new SimpleEntry<Long, SecurityContext>(
+						e.getKey(), image.ctx));
+			}
+			if (images.isEmpty()) prefetched.remove(owner);
+		}
+		for (Entry<Long, SecurityContext> e : released)
+			shutDown(e.getValue(), e.getKey());
+	}
+
+	/**
+	 * Releases the rendering controls loaded ahead of time which have been
+	 * shut down because they were not used for too long. The controls
+	 * are removed from the registry rather than released later on, when
+	 * they might have been activated again by a viewer. One reference is
+	 * released per owner.
+	 *
+	 * @param pixelsIDs The IDs of the pixels sets shut down.
+	 */
+	void releaseExpiredImages(Collection<Long> pixelsIDs)
+	{
+		if (CollectionUtils.isEmpty(pixelsIDs)) return;
+		List<Entry<Long, SecurityContext>> expired =
+			new ArrayList<Entry<Long, SecurityContext>>();
+		synchronized (prefetched) {
+			Iterator<Map<Long, PrefetchedImage>> i =
+				prefetched.values().iterator();
+			Map<Long, PrefetchedImage> images;
+			PrefetchedImage image;
+			while (i.hasNext()) {
+				images = i.next();
+				for (Long id : pixelsIDs) {
+					image = images.get(id);
+					if (image == null || !image.loaded) continue;
+					images.remove(id);
+					expired.add(new SimpleEntry<Long, SecurityContext>(id,
+							image.ctx));
+				}
+				if (images.isEmpty()) i.remove();
+			}
+		}
+		for (Entry<Long, SecurityContext> e : expired) {
+			if (!PixelsServicesFactory.shutDownRenderingControl(context,
+					e.getKey()))
+				gateway.removeREService(e.getValue(), e.getKey());
+		}
+	}
+
 	/**
 	 * Implemented as specified by {@link OmeroImageService}.
 	 * @see OmeroImageService#shutDown(SecurityContext,long)
@@ -609,9 +779,11 @@ class OmeroImageServiceImpl
 	public void shutDown(SecurityContext ctx, long pixelsID)
 	{
 		try {
+			List<RenderingEnginePrx> engines =
+				PixelsServicesFactory.getRenderingEngines(context, pixelsID);
 			if (!PixelsServicesFactory.shutDownRenderingControl(context,
 					pixelsID))
-				gateway.removeREService(ctx, pixelsID);
+				gateway.releaseREService(ctx, pixelsID, engines);
 		} catch (Exception e) {
 			context.getLogger().error(this, e.getMessage());
 		}
@@ -905,6 +1077,18 @@ class OmeroImageServiceImpl
 				endZ, type, stepping, channels);
 	}
 
+	/**
+	 * Implemented as specified by {@link OmeroImageService}.
+	 * @see OmeroImageService#isProjectedLocally(SecurityContext, long, int,
+	 * List)
+	 */
+	public boolean isProjectedLocally(SecurityContext ctx, long pixelsID,
+		int type, List<Integer> channels)
+	{
+		return PixelsServicesFactory.canRenderProjectedLocally(context,
+				pixelsID, type, channels);
+	}
+
 	/**
 	 * Implemented as specified by {@link OmeroImageService}.
 	 * @see OmeroImageService#projectImage(SecurityContext, ProjectionParam)
@@ -1017,6 +1201,18 @@ class OmeroImageServiceImpl
 		return count == containers.size();
 	}
 
+	/**
+	 * Implemented as specified by {@link OmeroImageService}.
+	 * @see OmeroImageService#getUsedFiles(File)
+	 */
+	public Set<File> getUsedFiles(File file)
+		throws ImportException
+	{
+		if (file == null)
+			throw new IllegalArgumentException("No file specified.");
+		return gateway.getUsedFiles(file);
+	}
+
 	/**
 	 * Implemented as specified by {@link OmeroImageService}.
 	 */
@@ -1514,6 +1710,35 @@ class OmeroImageServiceImpl
 		return gateway.loadROI(ctx, imageID, fileID, userID);
 	}
 
+	/**
+	 * Sets the UUID of the ROIs sent on the ROIs returned by the server
+	 * so that the client objects can be linked to their saved version.
+	 * The ROIs are paired by position, the server returning them in the
+	 * order they were sent, unless they already carry the UUIDs sent.
+	 *
+	 * @param sent The ROIs sent to the server.
+	 * @param saved The ROIs returned by the server.
+	 */
+	private static void linkSavedROIs(List<ROIData> sent,
+			Collection<ROIData> saved)
+	{
+		if (sent == null || saved == null) return;
+		Set<String> uuids = new HashSet<String>();
+		for (ROIData roi : sent)
+			uuids.add(roi.getUuid());
+		boolean linked = true;
+		for (ROIData roi : saved) {
+			if (!uuids.contains(roi.getUuid())) {
+				linked = false;
+				break;
+			}
+		}
+		if (linked || saved.size() != sent.size()) return;
+		Iterator<ROIData> i = sent.iterator();
+		for (ROIData roi : saved)
+			roi.setUuid(i.next().getUuid());
+	}
+
 	/**
 	 * Implemented as specified by {@link OmeroImageService}.
 	 * @see OmeroImageService#saveROI(SecurityContext, long, long, List)
@@ -1524,7 +1749,10 @@ class OmeroImageServiceImpl
 	{
 		if (imageID <= 0)
 			throw new IllegalArgumentException("No image specified.");
-		return gateway.saveROI(ctx, imageID, userID, roiList);
+		Collection<ROIData> saved = gateway.saveROI(ctx, imageID, userID,
+				roiList);
+		linkSavedROIs(roiList, saved);
+		return saved;
 	}
 
 	/**
@@ -1584,6 +1812,18 @@ class OmeroImageServiceImpl
         return f;
     }
 
+	/**
+	 * Implemented as specified by {@link OmeroImageService}.
+	 * @see OmeroImageService#prepareExport(SecurityContext, int, long)
+	 */
+	public void prepareExport(SecurityContext ctx, int index, long imageID)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		if (imageID <= 0)
+			throw new IllegalArgumentException("No image specified.");
+		gateway.prepareExport(ctx, index, imageID);
+	}
+
 	/**
 	 * Implemented as specified by {@link OmeroImageService}.
 	 */
@@ -1695,6 +1935,19 @@ class OmeroImageServiceImpl
 		return gateway.loadROI(ctx, imageID, null, userID);
 	}
 
+	/**
+	 * Implemented as specified by {@link OmeroImageService}.
+	 * @see OmeroImageService#loadROIByPlane(SecurityContext, long, int, int)
+	 */
+	public List<ROIResult> loadROIByPlane(SecurityContext ctx, long imageID,
+		int z, int t)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		if (imageID <= 0)
+			throw new IllegalArgumentException("No image specified.");
+		return gateway.loadROIByPlane(ctx, imageID, z, t);
+	}
+
 	/**
 	 * Implemented as specified by {@link OmeroImageService}.
 	 * @see OmeroImageService#renderOverLays(SecurityContext, long, PlaneDef,
@@ -1758,6 +2011,12 @@ class OmeroImageServiceImpl
 		return gateway.loadScript(ctx, scriptID);
 	}
 
+	/**
+	 * Implemented as specified by {@link OmeroImageService}.
+	 * @see OmeroImageService#invalidateScripts()
+	 */
+	public void invalidateScripts() { gateway.invalidateScripts(); }
+
 	/**
 	 * Implemented as specified by {@link OmeroImageService}.
 	 * @see OmeroImageService#getScriptsAsString(SecurityContext)
@@ -2041,7 +2300,48 @@ class OmeroImageServiceImpl
 											PixelsData pixels,
 											int[] channels, int z, int t) throws DSOutOfServiceException,
 			DSAccessException {
-		return gateway.getHistogram(ctx, pixels, channels, z, t);
+		if (pixels == null || channels == null)
+			throw new IllegalArgumentException("No pixels or channels.");
+		Boolean value = (Boolean) context.lookup(
+				LookupNames.RE_LOCAL_RENDERING);
+		//the planes are retrieved anyway to render the image locally.
+		boolean local = value != null && value.booleanValue();
+		Pixels p = pixels.asPixels();
+		int binCount = Histogram.DEFAULT_BIN_COUNT;
+		Map<Integer, int[]> result = new HashMap<Integer, int[]>();
+		List<Integer> missing = new ArrayList<Integer>();
+		int[] bins;
+		for (int i = 0; i < channels.length; i++) {
+			bins = PixelsServicesFactory.getCachedHistogram(p, z, t,
+					channels[i], binCount);
+			if (bins == null && local) {
+				try {
+					bins = PixelsServicesFactory.getHistogram(ctx, p, z, t,
+							channels[i], binCount);
+				} catch (FSAccessException e) {
+					context.getLogger().debug(this,
+							"Cannot compute the histogram locally: "+e);
+				}
+			}
+			if (bins != null) result.put(channels[i], bins);
+			else missing.add(channels[i]);
+		}
+		if (missing.isEmpty()) return result;
+		int[] toLoad = new int[missing.size()];
+		for (int i = 0; i < toLoad.length; i++)
+			toLoad[i] = missing.get(i);
+		Map<Integer, int[]> loaded = gateway.getHistogram(ctx, pixels,
+				toLoad, z, t);
+		if (loaded == null) return result.isEmpty() ? null : result;
+		Iterator<Entry<Integer, int[]>> j = loaded.entrySet().iterator();
+		Entry<Integer, int[]> e;
+		while (j.hasNext()) {
+			e = j.next();
+			PixelsServicesFactory.cacheHistogram(p, z, t, e.getKey(),
+					binCount, e.getValue());
+			result.put(e.getKey(), e.getValue());
+		}
+		return result;
 	}
 
     /**
@@ -21,6 +21,7 @@
 package org.openmicroscopy.shoola.env.data;
 
 import java.io.File;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -403,6 +404,22 @@ public interface OmeroMetadataService
 	 */
 	public File downloadFile(SecurityContext ctx, File file, long fileID)
 		throws DSOutOfServiceException, DSAccessException;
+
+	/**
+	 * Copies the content of a file previously uploaded to the server to the
+	 * specified stream. The stream is not closed.
+	 * 
+	 * @param ctx The security context.
+	 * @param out The stream to write the data to.
+	 * @param fileID The id of the file to download.
+	 * @throws DSOutOfServiceException  If the connection is broken, or logged
+	 *                                   in.
+	 * @throws DSAccessException        If an error occurred while trying to 
+	 *                                  retrieve data from OMEDS service.
+	 */
+	public void downloadFile(SecurityContext ctx, OutputStream out,
+			long fileID)
+		throws DSOutOfServiceException, DSAccessException;
 	
 	/**
 	 * Loads the ratings associated to the passed objects.
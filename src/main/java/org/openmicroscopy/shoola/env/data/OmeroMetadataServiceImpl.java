@@ -21,6 +21,7 @@
 package org.openmicroscopy.shoola.env.data;
 
 import java.io.File;
+import java.io.OutputStream;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -29,6 +30,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -138,6 +140,12 @@ class OmeroMetadataServiceImpl
 	implements OmeroMetadataService
 {
 
+	/** 
+	 * The maximum number of objects whose links are looked up or saved
+	 * in one call when annotating objects in batch.
+	 */
+	private static final int BATCH_SIZE = 500;
+	
 	/** Uses it to gain access to the container's services. */
 	private Registry context;
 
@@ -577,6 +585,202 @@ class OmeroMetadataServiceImpl
 		return annotations;
     }
 
+	/**
+	 * Groups the objects by type, the order of the objects is preserved
+	 * within a type. The objects of the same type with the same identifier
+	 * are only added once.
+	 * 
+	 * @param objects The objects to handle.
+	 * @return See above.
+	 */
+	private Map<Class<?>, List<DataObject>> groupByType(
+			List<DataObject> objects)
+	{
+		Map<Class<?>, List<DataObject>> types =
+			new LinkedHashMap<Class<?>, List<DataObject>>();
+		Map<Class<?>, Set<Long>> ids = new HashMap<Class<?>, Set<Long>>();
+		Iterator<DataObject> i = objects.iterator();
+		DataObject object;
+		List<DataObject> l;
+		while (i.hasNext()) {
+			object = i.next();
+			l = types.get(object.getClass());
+			if (l == null) {
+				l = new ArrayList<DataObject>();
+				types.put(object.getClass(), l);
+				ids.put(object.getClass(), new HashSet<Long>());
+			}
+			if (ids.get(object.getClass()).add(object.getId())) l.add(object);
+		}
+		return types;
+	}
+	
+	/**
+	 * Returns the identifiers of the objects.
+	 * 
+	 * @param objects The objects to handle.
+	 * @return See above.
+	 */
+	private List<Long> getIds(List<DataObject> objects)
+	{
+		List<Long> ids = new ArrayList<Long>(objects.size());
+		Iterator<DataObject> i = objects.iterator();
+		while (i.hasNext())
+			ids.add(i.next().getId());
+		return ids;
+	}
+	
+	/**
+	 * Links the annotations to the data objects. The links are created in
+	 * memory and saved {@link #BATCH_SIZE} at a time. The existing links
+	 * are looked up with one query per {@link #BATCH_SIZE} objects so that
+	 * an annotation already linked to an object is not linked again.
+	 * 
+	 * @param ctx The security context.
+	 * @param objects The data objects to annotate.
+	 * @param annotations The annotations to link, already saved.
+	 * @throws DSOutOfServiceException If the connection is broken, or not logged in
+	 * @throws DSAccessException If an error occurred while trying to 
+	 * retrieve data from OMEDS service.
+	 */
+	private void linkAnnotations(SecurityContext ctx, List<DataObject> objects,
+			List<AnnotationData> annotations)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		if (CollectionUtils.isEmpty(objects) ||
+				CollectionUtils.isEmpty(annotations)) return;
+		List<Long> annotationIds = new ArrayList<Long>(annotations.size());
+		Iterator<AnnotationData> i = annotations.iterator();
+		while (i.hasNext())
+			annotationIds.add(i.next().getId());
+		long userID = getUserDetails().getId();
+		List<IObject> links = new ArrayList<IObject>();
+		Iterator<Entry<Class<?>, List<DataObject>>> j =
+			groupByType(objects).entrySet().iterator();
+		Entry<Class<?>, List<DataObject>> e;
+		List<DataObject> l, chunk;
+		Multimap<Long, IObject> existing;
+		Set<Long> linked;
+		Iterator<DataObject> k;
+		Iterator<IObject> n;
+		DataObject object;
+		IObject link;
+		AnnotationData annotation;
+		while (j.hasNext()) {
+			e = j.next();
+			l = e.getValue();
+			if (AnnotationData.class.isAssignableFrom(e.getKey())) {
+				//tag a tag, the link goes the other way.
+				k = l.iterator();
+				while (k.hasNext()) {
+					object = k.next();
+					i = annotations.iterator();
+					while (i.hasNext())
+						linkAnnotation(ctx, object, i.next());
+				}
+				continue;
+			}
+			for (int start = 0; start < l.size(); start += BATCH_SIZE) {
+				chunk = l.subList(start, Math.min(start+BATCH_SIZE, l.size()));
+				existing = gateway.findAnnotationLinks(ctx, e.getKey(),
+						getIds(chunk), annotationIds, -1);
+				k = chunk.iterator();
+				while (k.hasNext()) {
+					object = k.next();
+					linked = new HashSet<Long>();
+					if (existing != null) {
+						n = existing.get(object.getId()).iterator();
+						while (n.hasNext()) {
+							link = n.next();
+							long owner = link.getDetails().getOwner().getId()
+									.getValue();
+							if (owner == userID ||
+									owner == object.getOwner().getId())
+								linked.add(ModelMapper.getChildFromLink(
+										link).getId().getValue());
+						}
+					}
+					i = annotations.iterator();
+					while (i.hasNext()) {
+						annotation = i.next();
+						if (linked.contains(annotation.getId())) continue;
+						link = ModelMapper.linkAnnotation(object.asIObject(),
+								(Annotation) annotation.asAnnotation().proxy());
+						if (link != null) links.add(link);
+					}
+					if (links.size() >= BATCH_SIZE) {
+						gateway.createObjects(ctx, links);
+						links = new ArrayList<IObject>();
+					}
+				}
+			}
+		}
+		if (!links.isEmpty()) gateway.createObjects(ctx, links);
+	}
+	
+	/**
+	 * Returns the objects to delete in order to remove the annotations
+	 * from the data objects. The links are looked up with one query per
+	 * {@link #BATCH_SIZE} objects.
+	 * 
+	 * @param ctx The security context.
+	 * @param toRemove The annotations to remove.
+	 * @param objects The data objects to handle.
+	 * @return See above.
+	 * @throws DSOutOfServiceException If the connection is broken, or not logged in
+	 * @throws DSAccessException If an error occurred while trying to 
+	 * retrieve data from OMEDS service.
+	 */
+	private List<IObject> getRemoveAnnotations(SecurityContext ctx,
+			List<Object> toRemove, List<DataObject> objects)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		List<IObject> toDelete = new ArrayList<IObject>();
+		if (CollectionUtils.isEmpty(toRemove) ||
+				CollectionUtils.isEmpty(objects)) return toDelete;
+		List<Long> annotationIds = new ArrayList<Long>();
+		Iterator<Object> i = toRemove.iterator();
+		Object o;
+		while (i.hasNext()) {
+			o = i.next();
+			if (o instanceof AnnotationData) {
+				if (((AnnotationData) o).getId() >= 0)
+					annotationIds.add(((AnnotationData) o).getId());
+			} else if (o instanceof Annotation) {
+				if (((Annotation) o).getId() != null)
+					annotationIds.add(((Annotation) o).getId().getValue());
+			} else {
+				//not an annotation, the object itself is deleted.
+				toDelete.addAll(getRemoveAnnotation(ctx, o, objects.get(0)));
+			}
+		}
+		if (annotationIds.isEmpty()) return toDelete;
+		Iterator<Entry<Class<?>, List<DataObject>>> j =
+			groupByType(objects).entrySet().iterator();
+		Entry<Class<?>, List<DataObject>> e;
+		List<DataObject> l;
+		Multimap<Long, IObject> links;
+		Iterator<IObject> k;
+		IObject link;
+		while (j.hasNext()) {
+			e = j.next();
+			l = e.getValue();
+			for (int start = 0; start < l.size(); start += BATCH_SIZE) {
+				links = gateway.findAnnotationLinks(ctx, e.getKey(),
+						getIds(l.subList(start,
+								Math.min(start+BATCH_SIZE, l.size()))),
+						annotationIds, -1);
+				if (links == null) continue;
+				k = links.values().iterator();
+				while (k.hasNext()) {
+					link = k.next();
+					if (gateway.canDelete(link)) toDelete.add(link);
+				}
+			}
+		}
+		return toDelete;
+	}
+	
 	/**
 	 * Links the annotation and the data object.
 	 * 
@@ -1506,21 +1710,21 @@ class OmeroMetadataServiceImpl
 		if (data == null)
 			throw new IllegalArgumentException("No data to save");
 		OmeroDataService service = context.getDataService();
-		Iterator i;
 		Iterator<DataObject> j = data.iterator();
 		DataObject object, child;
 		List<Long> ids;
-		Collection images = null;
+		Collection images;
 		Parameters po = new Parameters();
 		Iterator k;
 		List result = null;
 		//First create the new annotations 
 		List<AnnotationData> annotations = prepareAnnotationToAdd(ctx, toAdd);
-		List<Long> childrenIds = new ArrayList<Long>();
-		final List<IObject> toDelete = new ArrayList<IObject>();
+		Set<Long> childrenIds = new HashSet<Long>();
+		List<DataObject> toAnnotate = new ArrayList<DataObject>();
 		while (j.hasNext()) {
 			object = j.next();
 			if (result == null) result = new ArrayList();
+			images = null;
 			//Need code for tag 
 			if (object instanceof DatasetData) {
 				//retrieve all images in the dataset.
@@ -1529,70 +1733,33 @@ class OmeroMetadataServiceImpl
 				ids.add(object.getId());
 				images = gateway.getContainerImages(ctx, DatasetData.class,
 						ids, po);
-				if (images != null) {
-					k = images.iterator();
-					while (k.hasNext()) {
-						child = (DataObject) k.next();
-						if (!childrenIds.contains(child.getId())) {
-							result.add(child);
-							childrenIds.add(child.getId());
-							if (annotations != null) {
-								i = annotations.iterator();
-								while (i.hasNext())
-									linkAnnotation(ctx, child,
-											(AnnotationData) i.next());
-							}
-							if (toRemove != null) {
-								i = toRemove.iterator();
-								while (i.hasNext())
-									toDelete.addAll(getRemoveAnnotation(ctx, i.next(), child));
-							}
-						}
-					}
-				}
 			} else if (object instanceof PlateData) {
 				//Load all the wells
 				images = gateway.loadPlateWells(ctx, object.getId(), -1);
-				if (images != null) {
-					k = images.iterator();
-					while (k.hasNext()) {
-						child = (DataObject) k.next();
-						if (!childrenIds.contains(child.getId())) {
-							result.add(child);
-							childrenIds.add(child.getId());
-							if (annotations != null) {
-								i = annotations.iterator();
-								while (i.hasNext())
-									linkAnnotation(ctx, child, 
-											(AnnotationData) i.next());
-							}
-							if (toRemove != null) {
-								i = toRemove.iterator();
-								while (i.hasNext())
-									toDelete.addAll(getRemoveAnnotation(ctx, (AnnotationData) i.next(), child));
-							}
-						}
-					}
-				}
 			} else if (object instanceof ImageData) {
 				service.updateDataObject(ctx, object);
-				if (annotations != null) {
-					i = annotations.iterator();
-					while (i.hasNext())
-						linkAnnotation(ctx, object, (AnnotationData) i.next());
-						//annotate(object, (AnnotationData) i.next());
-				}
-				if (toRemove != null) {
-					i = toRemove.iterator();
-					while (i.hasNext())
-						toDelete.addAll(getRemoveAnnotation(ctx, (AnnotationData) i.next(), object));
+				toAnnotate.add(object);
+			}
+			if (images != null) {
+				k = images.iterator();
+				while (k.hasNext()) {
+					child = (DataObject) k.next();
+					if (childrenIds.add(child.getId())) {
+						result.add(child);
+						toAnnotate.add(child);
+					}
 				}
 			}
 		}
-		try {
-		    gateway.deleteObjects(ctx, toDelete);
-		} catch (Exception e) {
-		    /* do nothing */
+		linkAnnotations(ctx, toAnnotate, annotations);
+		final List<IObject> toDelete = getRemoveAnnotations(ctx, toRemove,
+				toAnnotate);
+		if (!toDelete.isEmpty()) {
+		    try {
+		        gateway.deleteObjects(ctx, toDelete);
+		    } catch (Exception e) {
+		        /* do nothing */
+		    }
 		}
 		if (result == null) return data;
 		return result;
@@ -1614,25 +1781,15 @@ class OmeroMetadataServiceImpl
 		List r = new ArrayList();
 		if (images == null) return r;
 		Iterator i = images.iterator();
-		DataObject child;
-		Iterator j;
+		List<DataObject> toAnnotate = new ArrayList<DataObject>();
+		while (i.hasNext())
+			toAnnotate.add((DataObject) i.next());
+		r.addAll(toAnnotate);
 		//First create the new annotations 
 		List<AnnotationData> annotations = prepareAnnotationToAdd(ctx, toAdd);
-		final List<IObject> toDelete = new ArrayList<IObject>();
-		while (i.hasNext()) {
-			child = (DataObject) i.next();
-			r.add(child);
-			if (annotations != null) {
-				j = annotations.iterator();
-				while (j.hasNext()) 
-					linkAnnotation(ctx, child, (AnnotationData) i.next());
-			}
-			if (toRemove != null) {
-				j = toRemove.iterator();
-				while (j.hasNext())
-					toDelete.addAll(getRemoveAnnotation(ctx, j.next(), child));
-			}
-		}
+		linkAnnotations(ctx, toAnnotate, annotations);
+		final List<IObject> toDelete = getRemoveAnnotations(ctx, toRemove,
+				toAnnotate);
 		if (!toDelete.isEmpty()) {
 		    try {
 		        gateway.deleteObjects(ctx, toDelete);
@@ -1658,6 +1815,21 @@ class OmeroMetadataServiceImpl
 		return gateway.downloadFile(ctx, file, fileID);
 	}
 	
+	/**
+	 * Implemented as specified by {@link OmeroDataService}.
+	 * @see OmeroMetadataService#downloadFile(SecurityContext, OutputStream, long)
+	 */
+	public void downloadFile(SecurityContext ctx, OutputStream out,
+			long fileID)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		if (fileID < 0)
+			throw new IllegalArgumentException("File ID not valid");
+		if (out == null)
+			throw new IllegalArgumentException("No stream specified");
+		gateway.downloadFile(ctx, out, fileID);
+	}
+	
 	/**
 	 * Implemented as specified by {@link OmeroDataService}.
 	 * @see OmeroMetadataService#loadRatings(SecurityContext, Class, List, long)
@@ -0,0 +1,64 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data;
+
+import omero.api.ExporterPrx;
+import omero.gateway.SecurityContext;
+
+/**
+ * An image whose OME-XML or OME-TIFF file is being generated by the server
+ * and not yet transferred.
+ *
+ * @since 5.8
+ */
+class PendingExport
+{
+
+    /** The security context. */
+    final SecurityContext ctx;
+
+    /** Either OME-XML or OME-TIFF. */
+    final int index;
+
+    /** The exporter generating the file. */
+    final ExporterPrx store;
+
+    /** The result of the asynchronous call generating the file. */
+    final Ice.AsyncResult result;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ctx The security context.
+     * @param index Either OME-XML or OME-TIFF.
+     * @param store The exporter generating the file.
+     * @param result The result of the asynchronous call generating the file.
+     */
+    PendingExport(SecurityContext ctx, int index, ExporterPrx store,
+            Ice.AsyncResult result)
+    {
+        this.ctx = ctx;
+        this.index = index;
+        this.store = store;
+        this.result = result;
+    }
+
+}
@@ -0,0 +1,393 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import omero.api.RenderingEnginePrx;
+import omero.gateway.SecurityContext;
+
+/**
+ * Keeps the rendering engines released by the viewers so that they can be
+ * pointed at the next pixels set viewed instead of creating new ones.
+ * The engines in use are tracked too: the gateway connector registers each
+ * engine under the pixels set it was created for and closes the engines by
+ * pixels set, so the pool tells whether the engines of a pixels set can be
+ * shut down together or have to be closed one by one because one of them
+ * is now used for another pixels set. The idle engines are kept per
+ * security context, an engine already pointed at the requested pixels set
+ * being handed out first, then the most recently released one. The engines
+ * removed from the pool because the pool is full or because they have been
+ * idle for too long are returned to the caller so that they can be closed.
+ *
+ * @since 5.8
+ */
+class RenderingEnginePool
+{
+
+    /** Default number of idle engines kept per security context. */
+    static final int DEFAULT_SIZE = 4;
+
+    /**
+     * The minimum time, in milliseconds, an engine is kept, as for the
+     * rendering controls.
+     */
+    static final long MIN_TIMEOUT = 60000;
+
+    /** An engine tracked by the pool. */
+    private static class Engine
+    {
+
+        /** The engine. */
+        private final RenderingEnginePrx engine;
+
+        /** The security context. */
+        private final SecurityContext ctx;
+
+        /** The pixels set the engine is registered for by the connector. */
+        private final long home;
+
+        /** The pixels set the engine is pointed at. */
+        private long pixelsID;
+
+        /** The time at which the engine was released. */
+        private long time;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param engine The engine.
+         * @param ctx The security context.
+         * @param pixelsID The pixels set the engine was created for.
+         */
+        Engine(RenderingEnginePrx engine, SecurityContext ctx, long pixelsID)
+        {
+            this.engine = engine;
+            this.ctx = ctx;
+            home = pixelsID;
+            this.pixelsID = pixelsID;
+        }
+    }
+
+    /** The engines in use or idle. */
+    private final Map<RenderingEnginePrx, Engine> tracked;
+
+    /** The idle engines, most recently released last. */
+    private final Map<SecurityContext, LinkedList<Engine>> idle;
+
+    /** The maximum number of idle engines per security context. */
+    private int size;
+
+    /** The number of requests served by an idle engine. */
+    private long hits;
+
+    /** The number of requests for which no idle engine was available. */
+    private long misses;
+
+    /** Creates a new instance. */
+    RenderingEnginePool()
+    {
+        tracked = new HashMap<RenderingEnginePrx, Engine>();
+        idle = new HashMap<SecurityContext, LinkedList<Engine>>();
+        size = DEFAULT_SIZE;
+    }
+
+    /**
+     * Removes the engines released before the specified time and the oldest
+     * engines in excess of the size of the pool.
+     *
+     * @param limit The time in milliseconds.
+     * @return The engines removed, the key is the security context.
+     */
+    synchronized Map<SecurityContext, List<RenderingEnginePrx>> evict(
+            long limit)
+    {
+        Map<SecurityContext, List<RenderingEnginePrx>> removed =
+                new HashMap<SecurityContext, List<RenderingEnginePrx>>();
+        Iterator<Entry<SecurityContext, LinkedList<Engine>>> i =
+                idle.entrySet().iterator();
+        Entry<SecurityContext, LinkedList<Engine>> e;
+        LinkedList<Engine> l;
+        List<RenderingEnginePrx> list;
+        Engine engine;
+        while (i.hasNext()) {
+            e = i.next();
+            l = e.getValue();
+            list = new ArrayList<RenderingEnginePrx>();
+            while (!l.isEmpty() &&
+                    (l.size() > size || l.getFirst().time < limit)) {
+                engine = l.removeFirst();
+                tracked.remove(engine.engine);
+                list.add(engine.engine);
+            }
+            if (!list.isEmpty()) removed.put(e.getKey(), list);
+            if (l.isEmpty()) i.remove();
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the engine from the idle ones.
+     *
+     * @param engine The engine to remove.
+     */
+    private void removeIdle(Engine engine)
+    {
+        LinkedList<Engine> l = idle.get(engine.ctx);
+        if (l == null) return;
+        l.remove(engine);
+        if (l.isEmpty()) idle.remove(engine.ctx);
+    }
+
+    /**
+     * Sets the maximum number of idle engines kept per security context.
+     * Pass <code>0</code> to disable the pool.
+     *
+     * @param size The value to set.
+     * @return The engines removed, the key is the security context.
+     */
+    synchronized Map<SecurityContext, List<RenderingEnginePrx>> setSize(
+            int size)
+    {
+        this.size = Math.max(size, 0);
+        return evict(Long.MIN_VALUE);
+    }
+
+    /**
+     * Returns <code>true</code> if the engines are kept,
+     * <code>false</code> otherwise.
+     *
+     * @return See above.
+     */
+    synchronized boolean isEnabled() { return size > 0; }
+
+    /**
+     * Tracks an engine created for the specified pixels set.
+     *
+     * @param ctx The security context.
+     * @param pixelsID The pixels set the engine was created for.
+     * @param engine The engine.
+     */
+    synchronized void register(SecurityContext ctx, long pixelsID,
+            RenderingEnginePrx engine)
+    {
+        tracked.put(engine, new Engine(engine, ctx, pixelsID));
+    }
+
+    /**
+     * Returns an idle engine to point at the specified pixels set or
+     * <code>null</code> if none. An engine already pointed at the pixels
+     * set is returned first, then the most recently released one.
+     *
+     * @param ctx The security context.
+     * @param pixelsID The pixels set ID.
+     * @return See above.
+     */
+    synchronized RenderingEnginePrx acquire(SecurityContext ctx,
+            long pixelsID)
+    {
+        LinkedList<Engine> l = idle.get(ctx);
+        if (l == null) {
+            misses++;
+            return null;
+        }
+        Engine engine = null;
+        Iterator<Engine> i = l.descendingIterator();
+        Engine e;
+        while (i.hasNext()) {
+            e = i.next();
+            if (e.pixelsID == pixelsID) {
+                engine = e;
+                break;
+            }
+        }
+        if (engine == null) engine = l.getLast();
+        removeIdle(engine);
+        engine.pixelsID = pixelsID;
+        hits++;
+        return engine.engine;
+    }
+
+    /**
+     * Adds the engine to the idle ones. Returns the engine removed to make
+     * room for it, the engine itself if the pool is disabled or if the
+     * engine is not tracked, <code>null</code> otherwise.
+     *
+     * @param engine The engine to add.
+     * @return See above.
+     */
+    synchronized RenderingEnginePrx release(RenderingEnginePrx engine)
+    {
+        Engine e = tracked.get(engine);
+        if (e == null) return engine;
+        if (size == 0) {
+            tracked.remove(engine);
+            return engine;
+        }
+        removeIdle(e);
+        e.time = System.currentTimeMillis();
+        LinkedList<Engine> l = idle.get(e.ctx);
+        if (l == null) {
+            l = new LinkedList<Engine>();
+            idle.put(e.ctx, l);
+        }
+        l.addLast(e);
+        if (l.size() > size) {
+            e = l.removeFirst();
+            tracked.remove(e.engine);
+            return e.engine;
+        }
+        return null;
+    }
+
+    /**
+     * Stops tracking the engine e.g. when it has been closed.
+     *
+     * @param engine The engine.
+     */
+    synchronized void forget(RenderingEnginePrx engine)
+    {
+        Engine e = tracked.remove(engine);
+        if (e != null) removeIdle(e);
+    }
+
+    /**
+     * Removes the engines idle for longer than the specified time or
+     * {@link #MIN_TIMEOUT} if greater.
+     *
+     * @param timeout The time in milliseconds.
+     * @return The engines removed, the key is the security context.
+     */
+    synchronized Map<SecurityContext, List<RenderingEnginePrx>> expire(
+            long timeout)
+    {
+        return evict(System.currentTimeMillis()-
+                Math.max(timeout, MIN_TIMEOUT));
+    }
+
+    /**
+     * Removes the engines, idle or in use, pointed at the specified pixels
+     * set. Returns <code>true</code> if no other engine registered for the
+     * pixels set is tracked i.e. if the engines registered for the pixels
+     * set can be shut down together by the connector. In that case, the
+     * specified list contains the engines removed that are registered for
+     * another pixels set. Otherwise, the list contains all the engines
+     * removed, to be closed one by one.
+     *
+     * @param ctx The security context.
+     * @param pixelsID The pixels set ID.
+     * @param close The list to add the engines to close one by one to.
+     * @return See above.
+     */
+    synchronized boolean remove(SecurityContext ctx, long pixelsID,
+            List<RenderingEnginePrx> close)
+    {
+        List<Engine> removed = new ArrayList<Engine>();
+        boolean shutdown = true;
+        Iterator<Engine> i = tracked.values().iterator();
+        Engine e;
+        while (i.hasNext()) {
+            e = i.next();
+            if (!e.ctx.equals(ctx)) continue;
+            if (e.pixelsID == pixelsID) {
+                i.remove();
+                removeIdle(e);
+                removed.add(e);
+            } else if (e.home == pixelsID) shutdown = false;
+        }
+        for (Engine engine : removed) {
+            if (!shutdown || engine.home != pixelsID) close.add(engine.engine);
+        }
+        return shutdown;
+    }
+
+    /**
+     * Stops tracking the engines of the specified context or all the
+     * engines if the context is <code>null</code>. Returns the idle engines.
+     *
+     * @param ctx The security context or <code>null</code>.
+     * @return See above.
+     */
+    synchronized List<RenderingEnginePrx> clear(SecurityContext ctx)
+    {
+        List<RenderingEnginePrx> removed = new ArrayList<RenderingEnginePrx>();
+        Iterator<Engine> i = tracked.values().iterator();
+        Engine e;
+        while (i.hasNext()) {
+            e = i.next();
+            if (ctx != null && !ctx.equals(e.ctx)) continue;
+            i.remove();
+        }
+        Iterator<Entry<SecurityContext, LinkedList<Engine>>> j =
+                idle.entrySet().iterator();
+        Entry<SecurityContext, LinkedList<Engine>> entry;
+        while (j.hasNext()) {
+            entry = j.next();
+            if (ctx != null && !ctx.equals(entry.getKey())) continue;
+            for (Engine engine : entry.getValue())
+                removed.add(engine.engine);
+            j.remove();
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the number of idle engines.
+     *
+     * @return See above.
+     */
+    synchronized int getIdleCount()
+    {
+        int n = 0;
+        for (LinkedList<Engine> l : idle.values())
+            n += l.size();
+        return n;
+    }
+
+    /**
+     * Returns the number of engines tracked, idle or in use.
+     *
+     * @return See above.
+     */
+    synchronized int getTrackedCount() { return tracked.size(); }
+
+    /**
+     * Returns the number of requests served by an idle engine.
+     *
+     * @return See above.
+     */
+    synchronized long getHits() { return hits; }
+
+    /**
+     * Returns the number of requests for which no idle engine was
+     * available.
+     *
+     * @return See above.
+     */
+    synchronized long getMisses() { return misses; }
+
+}
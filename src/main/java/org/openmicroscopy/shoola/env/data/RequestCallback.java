@@ -57,7 +57,7 @@ public class RequestCallback
 	private DSCallAdapter adapter;
 	
 	/** Flag indicating that the operation has finished. */
-	private boolean finished;
+	private volatile boolean finished;
 	
 	/** Flag indicating that the results have been submitted. */
 	private boolean submitted;
@@ -108,6 +108,14 @@ public class RequestCallback
         super(ccb);
     }
 	
+	/**
+	 * Returns <code>true</code> if the operation has finished,
+	 * <code>false</code> otherwise.
+	 * 
+	 * @return See above.
+	 */
+	public boolean isFinished() { return finished; }
+	
 	/**
 	 * Sets the adapter. 
 	 * 
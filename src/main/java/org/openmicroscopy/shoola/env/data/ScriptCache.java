@@ -0,0 +1,236 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import omero.RString;
+import omero.grid.JobParams;
+import omero.model.OriginalFile;
+
+/**
+ * Keeps the scripts returned by the server and the parameters of the
+ * scripts so that the scripts menus and dialogs do not have to contact the
+ * server each time they are opened. The parameters are kept per script
+ * together with the hash of the script file they were read from and are
+ * dropped when the list of scripts indicates that the file has been
+ * modified or removed.
+ *
+ * @since 5.8
+ */
+class ScriptCache
+{
+
+    /** The parameters of a script. */
+    private static class CachedParams
+    {
+
+        /** The hash of the script file or <code>null</code>. */
+        private final String hash;
+
+        /** The parameters. */
+        private final JobParams params;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param hash The hash of the script file or <code>null</code>.
+         * @param params The parameters.
+         */
+        CachedParams(String hash, JobParams params)
+        {
+            this.hash = hash;
+            this.params = params;
+        }
+    }
+
+    /** The official scripts or <code>null</code> if not loaded. */
+    private List<OriginalFile> scripts;
+
+    /** The scripts uploaded by the users or <code>null</code> if not loaded. */
+    private List<OriginalFile> userScripts;
+
+    /** The time at which the scripts were loaded. */
+    private long time;
+
+    /** Flag indicating that the scripts have to be loaded again. */
+    private boolean stale;
+
+    /** The parameters of the scripts, the key is the id of the script. */
+    private final Map<Long, CachedParams> params;
+
+    /**
+     * Returns the hash of the file or <code>null</code> if not set.
+     *
+     * @param file The file to handle.
+     * @return See above.
+     */
+    private static String getHash(OriginalFile file)
+    {
+        RString hash = file.getHash();
+        return hash == null ? null : hash.getValue();
+    }
+
+    /**
+     * Returns the file of the specified script or <code>null</code> if the
+     * script is not in the list.
+     *
+     * @param scriptID The id of the script.
+     * @param files The files to search.
+     * @return See above.
+     */
+    private static OriginalFile find(long scriptID, List<OriginalFile> files)
+    {
+        if (files == null) return null;
+        for (OriginalFile file : files) {
+            if (file.getId() != null && file.getId().getValue() == scriptID)
+                return file;
+        }
+        return null;
+    }
+
+    /** Creates a new instance. */
+    ScriptCache()
+    {
+        params = new HashMap<Long, CachedParams>();
+    }
+
+    /**
+     * Returns <code>true</code> if the scripts were loaded less than the
+     * specified time ago, <code>false</code> otherwise.
+     *
+     * @param maxAge The time in milliseconds.
+     * @return See above.
+     */
+    synchronized boolean isValid(long maxAge)
+    {
+        return scripts != null && !stale &&
+                System.currentTimeMillis()-time <= maxAge;
+    }
+
+    /**
+     * Sets the scripts returned by the server. The parameters of the scripts
+     * removed or whose file has been modified are dropped.
+     *
+     * @param scripts The official scripts.
+     * @param userScripts The scripts uploaded by the users.
+     */
+    synchronized void setScripts(List<OriginalFile> scripts,
+            List<OriginalFile> userScripts)
+    {
+        this.scripts = scripts == null ? new ArrayList<OriginalFile>() :
+            new ArrayList<OriginalFile>(scripts);
+        this.userScripts = userScripts == null ?
+                new ArrayList<OriginalFile>() :
+                    new ArrayList<OriginalFile>(userScripts);
+        time = System.currentTimeMillis();
+        stale = false;
+        Iterator<Map.Entry<Long, CachedParams>> i =
+                params.entrySet().iterator();
+        Map.Entry<Long, CachedParams> e;
+        OriginalFile file;
+        String hash;
+        while (i.hasNext()) {
+            e = i.next();
+            file = find(e.getKey(), this.scripts);
+            if (file == null) file = find(e.getKey(), this.userScripts);
+            if (file == null) {
+                i.remove();
+                continue;
+            }
+            hash = getHash(file);
+            if (hash == null || !hash.equals(e.getValue().hash)) i.remove();
+        }
+    }
+
+    /**
+     * Returns the official scripts or an empty list if not loaded.
+     *
+     * @return See above.
+     */
+    synchronized List<OriginalFile> getScripts()
+    {
+        if (scripts == null) return Collections.emptyList();
+        return Collections.unmodifiableList(scripts);
+    }
+
+    /**
+     * Returns the scripts uploaded by the users or an empty list if not
+     * loaded.
+     *
+     * @return See above.
+     */
+    synchronized List<OriginalFile> getUserScripts()
+    {
+        if (userScripts == null) return Collections.emptyList();
+        return Collections.unmodifiableList(userScripts);
+    }
+
+    /**
+     * Returns the parameters of the specified script or <code>null</code>
+     * if not cached.
+     *
+     * @param scriptID The id of the script.
+     * @return See above.
+     */
+    synchronized JobParams getParams(long scriptID)
+    {
+        CachedParams p = params.get(scriptID);
+        return p == null ? null : p.params;
+    }
+
+    /**
+     * Caches the parameters of the specified script. The parameters are
+     * only cached if the script is in the lists.
+     *
+     * @param scriptID The id of the script.
+     * @param jobParams The parameters.
+     */
+    synchronized void setParams(long scriptID, JobParams jobParams)
+    {
+        if (jobParams == null) return;
+        OriginalFile file = find(scriptID, scripts);
+        if (file == null) file = find(scriptID, userScripts);
+        if (file == null) return;
+        params.put(scriptID, new CachedParams(getHash(file), jobParams));
+    }
+
+    /**
+     * Forces the scripts to be loaded again the next time they are
+     * requested. The parameters are kept until the new list indicates that
+     * they are out of date.
+     */
+    synchronized void invalidate() { stale = true; }
+
+    /** Removes all the scripts and parameters. */
+    synchronized void clear()
+    {
+        scripts = null;
+        userScripts = null;
+        params.clear();
+    }
+
+}
@@ -66,7 +66,7 @@ public class ScriptCallback
 	private DSCallAdapter adapter;
 	
 	/** Flag indicating that the operation has finished. */
-	private boolean finished;
+	private volatile boolean finished;
 	
 	/** Flag indicating that the results have been submitted. */
 	private boolean submitted;
@@ -118,6 +118,14 @@ public class ScriptCallback
 		}	
 	}
 	
+	/**
+	 * Returns <code>true</code> if the script has finished, has been
+	 * cancelled or killed, <code>false</code> otherwise.
+	 * 
+	 * @return See above.
+	 */
+	public boolean isFinished() { return finished; }
+	
 	/**
 	 * Returns the name of the script.
 	 * 
@@ -169,15 +177,13 @@ public class ScriptCallback
 						ParamData.convertRType((RType) entry.getValue()));
 				}
 			}
-			if (adapter != null) {
-				submitted = true;
-				adapter.handleResult(results);
-			}
 		} catch (Exception e) {
-			finished = false;
+			//the process has finished even if the results cannot be read.
+			results = null;
 		}
-		
-		if (finished && submitted) {
+		if (adapter != null) {
+			submitted = true;
+			adapter.handleResult(results);
 			try {
 				close();
 			} catch (Exception e) {}
@@ -191,7 +197,11 @@ public class ScriptCallback
 	public void processCancelled(boolean value, Current current)
 	{
 		super.processCancelled(value, current);
-		if (adapter != null) adapter.handleResult(null);
+		finished = true;
+		if (adapter != null) {
+			submitted = true;
+			adapter.handleResult(null);
+		}
 	}
 
 	/**
@@ -201,7 +211,11 @@ public class ScriptCallback
 	public void processKilled(boolean value, Current current)
 	{
 		super.processKilled(value, current);
-		if (adapter != null) adapter.handleResult(null);
+		finished = true;
+		if (adapter != null) {
+			submitted = true;
+			adapter.handleResult(null);
+		}
 	}
 	
 }
@@ -50,6 +50,12 @@ public class DownloadAndZipParam
     /** The files to download. */
     private List<FileAnnotationData>	files;
     
+    /** 
+     * Flag indicating to compress the files not already compressed or
+     * to only store them.
+     */
+    private boolean compress;
+    
     /**
      * Creates a new instance.
      * 
@@ -65,8 +71,25 @@ public class DownloadAndZipParam
     	this.files = files;
     	this.folder = folder;
     	this.icon = icon;
+    	compress = true;
     }
     
+    /**
+     * Sets to <code>true</code> to compress the files not already
+     * compressed, <code>false</code> to only store them.
+     * 
+     * @param compress The value to set.
+     */
+    public void setCompress(boolean compress) { this.compress = compress; }
+    
+    /**
+     * Returns <code>true</code> to compress the files not already
+     * compressed, <code>false</code> to only store them.
+     * 
+     * @return See above.
+     */
+    public boolean isCompress() { return compress; }
+    
 	/**
 	 * Returns the icon if set or <code>null</code>.
 	 * 
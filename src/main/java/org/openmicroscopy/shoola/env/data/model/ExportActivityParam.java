@@ -21,6 +21,9 @@
 package org.openmicroscopy.shoola.env.data.model;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import javax.swing.Icon;
 
 import org.openmicroscopy.shoola.env.data.util.Target;
@@ -43,8 +46,8 @@ public class ExportActivityParam
 	/** Indicates to export the image as OME TIFF. */
 	public static final int	EXPORT_AS_OME_TIFF = 0;
 	
-	/** The image to export. */
-    private ImageData 	image;
+	/** The images to export. */
+    private List<ImageData> images;
     
     /** The folder where to export the image. */
     private File		folder; 
@@ -74,7 +77,28 @@ public class ExportActivityParam
 		if (folder == null)
 			throw new IllegalArgumentException("No image name");
 		this.target = target;
-		this.image = image;
+		this.images = Collections.singletonList(image);
+		this.folder = folder;
+		this.index = index;
+	}
+
+	/**
+	 * Creates a new instance to export several images, one file per image.
+	 * 
+	 * @param folder The folder where to store the exported files.
+	 * @param images The images to export.
+	 * @param index	 One of the constants defined by this class.
+	 * @param target The selected schema.
+	 */
+	public ExportActivityParam(File folder, List<ImageData> images, int index,
+			Target target)
+	{
+		if (images == null || images.isEmpty())
+			throw new IllegalArgumentException("No image to export");
+		if (folder == null)
+			throw new IllegalArgumentException("No folder");
+		this.target = target;
+		this.images = new ArrayList<ImageData>(images);
 		this.folder = folder;
 		this.index = index;
 	}
@@ -105,7 +129,14 @@ public class ExportActivityParam
 	 * 
 	 * @return See above.
 	 */
-	public ImageData getImage() { return image; }
+	public ImageData getImage() { return images.get(0); }
+	
+	/**
+	 * Returns the images to export.
+	 * 
+	 * @return See above.
+	 */
+	public List<ImageData> getImages() { return images; }
 	
 	/** 
 	 * Returns the folder where to export the file
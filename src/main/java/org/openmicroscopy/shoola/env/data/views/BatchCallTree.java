@@ -149,7 +149,7 @@ public abstract class BatchCallTree
         //Only one thread will ever make it here b/c hasExecuted is sync.
         buildTree();
         ExecHandle handle = getProcessor().exec(root, getMonitor(observer));
-        return new CallHandle(handle);
+        return new CallHandle(handle, this);
     }
     
     /**
@@ -258,4 +258,16 @@ public abstract class BatchCallTree
      */
     protected Object getPartialResult() { return null; }
     
+    /**
+     * Invoked when the handle returned by {@link #exec(AgentEventListener)}
+     * is cancelled, before the cancellation signal is sent to the executor.
+     * A call that runs until told to stop overrides this method to set its
+     * own stop flag, as cancelling an executing call has no effect on the
+     * execution loop.
+     * The default implementation does nothing.
+     * 
+     * @see CallHandle#cancel()
+     */
+    protected void onCancel() {}
+    
 }
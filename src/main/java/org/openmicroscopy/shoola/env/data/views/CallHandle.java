@@ -57,6 +57,9 @@ public class CallHandle
     /** Allows this object to work just like an {@link ExecHandle}. */
     private ExecHandle  delegate;
     
+    /** The executed tree, notified on cancel or <code>null</code>. */
+    private BatchCallTree tree;
+    
     
     /**
      * Creates a new instance.
@@ -71,11 +74,29 @@ public class CallHandle
         this.delegate = delegate;
     }
     
+    /**
+     * Creates a new instance.
+     * The new instance is configured with the specified handle to an
+     * asynchronous call and the tree being executed.
+     * 
+     * @param delegate The actual handle.  Mustn't be <code>null</code>.
+     * @param tree The tree being executed.
+     */
+    CallHandle(ExecHandle delegate, BatchCallTree tree)
+    {
+        this(delegate);
+        this.tree = tree;
+    }
+    
     /**
      * Interrupts the call execution.  
      * Whether execution is actually cancelled depends on the state of the
      * computation at the point when the cancellation signal is received.
      */
-    public void cancel() { delegate.cancelExecution(); }
+    public void cancel()
+    {
+        if (tree != null) tree.onCancel();
+        delegate.cancelExecution();
+    }
     
 }
@@ -0,0 +1,240 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data.views;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the commands running on the server e.g. scripts, deletions or
+ * transfers between groups, so that the client does not hold a thread per
+ * command. The server notifies the call-backs of the commands through the
+ * object adapter of the client when a command finishes. The commands still
+ * running are also polled one after the other by a single thread, in case
+ * a notification is lost. The interval between two polls is doubled each
+ * time no command finishes and reset when a command is added or finishes.
+ *
+ * @since 5.8
+ */
+class CommandTracker
+{
+
+    /** A command whose completion is tracked. */
+    interface Command
+    {
+
+        /**
+         * Returns <code>true</code> if the command has finished or has been
+         * cancelled, <code>false</code> otherwise.
+         *
+         * @return See above.
+         */
+        public boolean isDone();
+
+        /**
+         * Checks the status of the command on the server. The owner of the
+         * command is notified if the command has finished.
+         *
+         * @throws Exception If the status cannot be retrieved.
+         */
+        public void poll() throws Exception;
+
+        /**
+         * Releases the resources used to track the command.
+         *
+         * @throws Exception If an error occurred while closing the command.
+         */
+        public void close() throws Exception;
+    }
+
+    /** The minimum interval between two polls, in milliseconds. */
+    static final long MIN_INTERVAL = 500;
+
+    /** The maximum interval between two polls, in milliseconds. */
+    static final long MAX_INTERVAL = 10000;
+
+    /**
+     * The number of consecutive polls failing after which a command is no
+     * longer tracked.
+     */
+    static final int MAX_FAILURES = 5;
+
+    /** The sole instance. */
+    private static final CommandTracker singleton = new CommandTracker();
+
+    /**
+     * Returns the sole instance.
+     *
+     * @return See above.
+     */
+    static CommandTracker getInstance() { return singleton; }
+
+    /**
+     * The commands tracked, the value is the number of consecutive polls
+     * that failed.
+     */
+    private final Map<Command, Integer> commands;
+
+    /** The thread polling the commands or <code>null</code> if none. */
+    private Thread poller;
+
+    /** The current interval between two polls, in milliseconds. */
+    private long interval;
+
+    /**
+     * Polls the commands until they have all finished.
+     */
+    private void pollCommands()
+    {
+        List<Command> l;
+        while (true) {
+            synchronized (this) {
+                if (commands.isEmpty()) {
+                    poller = null;
+                    return;
+                }
+                try {
+                    wait(interval);
+                } catch (InterruptedException e) {
+                    poller = null;
+                    return;
+                }
+                l = new ArrayList<Command>(commands.keySet());
+            }
+            boolean finished = false;
+            Iterator<Command> i = l.iterator();
+            Command command;
+            while (i.hasNext()) {
+                command = i.next();
+                try {
+                    if (!command.isDone()) command.poll();
+                    if (command.isDone()) {
+                        close(command);
+                        remove(command);
+                        finished = true;
+                    } else onPolled(command, true);
+                } catch (Exception e) {
+                    if (onPolled(command, false)) close(command);
+                }
+            }
+            synchronized (this) {
+                if (finished) interval = MIN_INTERVAL;
+                else interval = Math.min(2*interval, MAX_INTERVAL);
+            }
+        }
+    }
+
+    /**
+     * Closes the command no longer tracked.
+     *
+     * @param command The command to close.
+     */
+    private static void close(Command command)
+    {
+        try {
+            command.close();
+        } catch (Exception e) {
+            //ignore, the command is no longer tracked.
+        }
+    }
+
+    /**
+     * Removes the command.
+     *
+     * @param command The command to remove.
+     */
+    private synchronized void remove(Command command)
+    {
+        commands.remove(command);
+    }
+
+    /**
+     * Records the outcome of a poll. Returns <code>true</code> if the
+     * command has been removed because too many polls failed,
+     * <code>false</code> otherwise.
+     *
+     * @param command The command polled.
+     * @param success Pass <code>true</code> if the poll succeeded,
+     *                <code>false</code> otherwise.
+     * @return See above.
+     */
+    private synchronized boolean onPolled(Command command, boolean success)
+    {
+        Integer failures = commands.get(command);
+        if (failures == null) return false;
+        if (success) {
+            commands.put(command, 0);
+            return false;
+        }
+        if (failures+1 < MAX_FAILURES) {
+            commands.put(command, failures+1);
+            return false;
+        }
+        commands.remove(command);
+        return true;
+    }
+
+    /** Creates a new instance. */
+    CommandTracker()
+    {
+        commands = new LinkedHashMap<Command, Integer>();
+        interval = MIN_INTERVAL;
+    }
+
+    /**
+     * Tracks the specified command until it finishes.
+     *
+     * @param command The command to track.
+     */
+    synchronized void track(Command command)
+    {
+        if (command == null || command.isDone()) return;
+        commands.put(command, 0);
+        interval = MIN_INTERVAL;
+        if (poller != null) {
+            notifyAll();
+            return;
+        }
+        poller = new Thread(new Runnable() {
+            public void run() { pollCommands(); }
+        }, "Command tracker");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    /**
+     * Returns the number of commands tracked.
+     *
+     * @return See above.
+     */
+    synchronized int getCount() { return commands.size(); }
+
+    /**
+     * Returns the current interval between two polls, in milliseconds.
+     *
+     * @return See above.
+     */
+    synchronized long getInterval() { return interval; }
+
+}
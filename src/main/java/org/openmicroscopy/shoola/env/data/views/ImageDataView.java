@@ -367,6 +367,21 @@ public interface ImageDataView
 	public CallHandle saveROI(SecurityContext ctx, long imageID, long userID,
 			List<ROIData> roiList, AgentEventListener observer);
 
+	/**
+	 * Save the ROI for the image to the server, the ROIs are sent in 
+	 * batches. The ROIs of each batch saved are delivered as partial result.
+	 * 
+	 * @param ctx The security context.
+	 * @param imageID 	The image's ID.
+	 * @param userID	The user's ID.
+	 * @param roiList	The list of ROI to save.
+	 * @param batchSize The number of ROIs sent per call.
+	 * @param observer	Call-back handler.
+	 * @return A handle that can be used to cancel the call.
+	 */
+	public CallHandle saveROI(SecurityContext ctx, long imageID, long userID,
+			List<ROIData> roiList, int batchSize, AgentEventListener observer);
+
     /**
      * Save changes to a ROI folder
      * 
@@ -403,6 +418,22 @@ public interface ImageDataView
 	public CallHandle exportImageAsOMETiff(SecurityContext ctx, long imageID,
 			File file, Target target, AgentEventListener observer);
 
+	/**
+	 * Exports the images as OME-TIFF files one after the other. The file of
+	 * the next image is generated by the server while the current one is
+	 * transferred.
+	 *
+	 * @param ctx The security context.
+	 * @param imageIDs The ids of the images.
+	 * @param files The files where to export the images, one per image.
+	 * @param target The selected schema.
+	 * @param observer Call-back handler.
+	 * @return See above.
+	 */
+	public CallHandle exportImagesAsOMETiff(SecurityContext ctx,
+			List<Long> imageIDs, List<File> files, Target target,
+			AgentEventListener observer);
+
 	/**
 	 * Loads the ROI if possible from the server.
 	 * 
@@ -414,6 +445,36 @@ public interface ImageDataView
 	 */
 	public CallHandle loadROIFromServer(SecurityContext ctx, long imageID,
 			long userID, AgentEventListener observer);
+
+	/**
+	 * Loads the ROI with a shape on the specified planes, one plane at a
+	 * time in the order of the list.
+	 * 
+	 * @param ctx The security context.
+	 * @param imageID The image's id.
+	 * @param planes The planes to load.
+	 * @param observer Call-back handler.
+	 * @return See above.
+	 */
+	public CallHandle loadROIByPlane(SecurityContext ctx, long imageID,
+			List<Coord3D> planes, AgentEventListener observer);
+
+	/**
+	 * Loads the rendering controls of the specified pixels sets and renders
+	 * their default plane, one pixels set at a time in the order of the list,
+	 * so that the images can be viewed without delay. The rendering controls
+	 * previously loaded ahead of time for the same owner and not in the list
+	 * are released.
+	 *
+	 * @param ctx The security context.
+	 * @param pixelsIDs The IDs of the pixels sets, the most likely to be
+	 *                  viewed first.
+	 * @param owner The object the images are loaded for, e.g. a browser.
+	 * @param observer Call-back handler.
+	 * @return See above.
+	 */
+	public CallHandle prefetchImages(SecurityContext ctx, List<Long> pixelsIDs,
+			Object owner, AgentEventListener observer);
 	
     /**
      * Load the number of ROIs for a specific image
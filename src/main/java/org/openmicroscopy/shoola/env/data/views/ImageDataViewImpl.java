@@ -40,7 +40,9 @@ import org.openmicroscopy.shoola.env.data.views.calls.AcquisitionDataSaver;
 import org.openmicroscopy.shoola.env.data.views.calls.Analyser;
 import org.openmicroscopy.shoola.env.data.views.calls.EnumerationLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.ExportLoader;
+import org.openmicroscopy.shoola.env.data.views.calls.DirectoryImporter;
 import org.openmicroscopy.shoola.env.data.views.calls.FigureCreator;
+import org.openmicroscopy.shoola.env.data.views.calls.ImagePrefetcher;
 import org.openmicroscopy.shoola.env.data.views.calls.ImageRenderer;
 import org.openmicroscopy.shoola.env.data.views.calls.ImagesImporter;
 import org.openmicroscopy.shoola.env.data.views.calls.ImagesLoader;
@@ -48,6 +50,7 @@ import org.openmicroscopy.shoola.env.data.views.calls.MovieCreator;
 import org.openmicroscopy.shoola.env.data.views.calls.OverlaysRenderer;
 import org.openmicroscopy.shoola.env.data.views.calls.PixelsDataLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.PlaneInfoLoader;
+import org.openmicroscopy.shoola.env.data.views.calls.PlaneROILoader;
 import org.openmicroscopy.shoola.env.data.views.calls.ProjectionSaver;
 import org.openmicroscopy.shoola.env.data.views.calls.ROIFolderSaver;
 import org.openmicroscopy.shoola.env.data.views.calls.ROIFolderSaver.ROIFolderAction;
@@ -301,7 +304,9 @@ class ImageDataViewImpl
 		DataObject container, long userID, long groupID,
 		AgentEventListener observer)
 	{
-		return null;
+		BatchCallTree cmd = new DirectoryImporter(ctx, directory, container,
+				userID, groupID);
+		return cmd.exec(observer);
 	}
 
 	/**
@@ -362,6 +367,19 @@ class ImageDataViewImpl
 		return cmd.exec(observer);
 	}
 	
+	/**
+     * Implemented as specified by the view interface.
+     * @see ImageDataView#saveROI(SecurityContext, long, long, List, int,
+     * AgentEventListener)
+     */
+	public CallHandle saveROI(SecurityContext ctx, long imageID, long userID,
+			List<ROIData> roiList, int batchSize, AgentEventListener observer)
+	{
+		BatchCallTree cmd = new ROISaver(ctx, imageID, userID, roiList,
+				batchSize);
+		return cmd.exec(observer);
+	}
+	
     /**
      * Implemented as specified by the view interface.
      * 
@@ -392,6 +410,20 @@ class ImageDataViewImpl
 
 	/**
      * Implemented as specified by the view interface.
+     * @see ImageDataView#exportImagesAsOMETiff(SecurityContext, List, List,
+     * Target, AgentEventListener)
+     */
+	public CallHandle exportImagesAsOMETiff(SecurityContext ctx,
+			List<Long> imageIDs, List<File> files, Target target,
+			AgentEventListener observer)
+	{
+		BatchCallTree cmd = new ExportLoader(ctx, imageIDs, files,
+				ExportLoader.EXPORT_AS_OMETIFF, target);
+		return cmd.exec(observer);
+	}
+
+	/**
+     * Implemented as specified by the view interface.
      * @see ImageDataView#loadROIFromServer(SecurityContext, long, long, AgentEventListener)
      */
 	public CallHandle loadROIFromServer(SecurityContext ctx, long imageID,
@@ -400,6 +432,30 @@ class ImageDataViewImpl
 		BatchCallTree cmd = new ServerSideROILoader(ctx, imageID, userID);
 		return cmd.exec(observer);
 	}
+
+	/**
+     * Implemented as specified by the view interface.
+     * @see ImageDataView#loadROIByPlane(SecurityContext, long, List,
+     * AgentEventListener)
+     */
+	public CallHandle loadROIByPlane(SecurityContext ctx, long imageID,
+			List<Coord3D> planes, AgentEventListener observer)
+	{
+		BatchCallTree cmd = new PlaneROILoader(ctx, imageID, planes);
+		return cmd.exec(observer);
+	}
+
+	/**
+     * Implemented as specified by the view interface.
+     * @see ImageDataView#prefetchImages(SecurityContext, List, Object,
+     * AgentEventListener)
+     */
+	public CallHandle prefetchImages(SecurityContext ctx, List<Long> pixelsIDs,
+			Object owner, AgentEventListener observer)
+	{
+		BatchCallTree cmd = new ImagePrefetcher(ctx, pixelsIDs, owner);
+		return cmd.exec(observer);
+	}
 	
 	/**
      * Implemented as specified by the view interface.
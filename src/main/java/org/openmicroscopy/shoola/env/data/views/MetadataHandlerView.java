@@ -448,6 +448,22 @@ public interface MetadataHandlerView
 	public CallHandle loadFiles(SecurityContext ctx, boolean zipDirectory,
 		Map<FileAnnotationData, File> files, AgentEventListener observer);
 	
+	/**
+	 * Downloads the original files hosted by the file annotations straight
+	 * into a zip archive, without writing the files to disk first.
+	 * 
+	 * @param ctx The security context.
+	 * @param files The files to handle. Mustn't be <code>null</code>.
+	 * @param zip The archive to create. Mustn't be <code>null</code>.
+	 * @param compress Pass <code>true</code> to compress the files not
+	 * already compressed, <code>false</code> to only store them.
+	 * @param observer Call-back handler.
+	 * @return A handle that can be used to cancel the call.
+	 */
+	public CallHandle zipFiles(SecurityContext ctx,
+		List<FileAnnotationData> files, File zip, boolean compress,
+		AgentEventListener observer);
+	
 	/**
 	 * Loads the scripts.
 	 * 
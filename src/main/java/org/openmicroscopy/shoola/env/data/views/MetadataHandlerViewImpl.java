@@ -41,6 +41,7 @@ import org.openmicroscopy.shoola.env.data.views.calls.FileAnnotationCheckLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.FileUploader;
 import org.openmicroscopy.shoola.env.data.views.calls.FilesLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.FilesetLoader;
+import org.openmicroscopy.shoola.env.data.views.calls.FilesZipper;
 import org.openmicroscopy.shoola.env.data.views.calls.HistogramLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.RelatedContainersLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.ScriptsLoader;
@@ -410,6 +411,19 @@ class MetadataHandlerViewImpl
 	    return cmd.exec(observer);
 	}
 
+	/**
+	 * Implemented as specified by the view interface.
+	 * @see MetadataHandlerView#zipFiles(SecurityContext, List, File, boolean,
+	 * AgentEventListener)
+	 */
+	public CallHandle zipFiles(SecurityContext ctx,
+		List<FileAnnotationData> files, File zip, boolean compress,
+		AgentEventListener observer)
+	{
+	    BatchCallTree cmd = new FilesZipper(ctx, files, zip, compress);
+	    return cmd.exec(observer);
+	}
+
 	/**
 	 * Implemented as specified by the view interface.
 	 * @see MetadataHandlerView#loadScripts(SecurityContext, long, boolean,
@@ -31,8 +31,8 @@ package org.openmicroscopy.shoola.env.data.views;
 import org.openmicroscopy.shoola.util.concur.tasks.MultiStepTask;
 
 /** 
- * Subclass of {@link BatchCall} which handles periodically polling for
- * server process completion.
+ * Subclass of {@link BatchCall} which starts a server process and hands it
+ * over to the {@link CommandTracker} waiting for the process completion.
  *
  * @author Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -111,32 +111,14 @@ public abstract class ProcessBatchCall
         }
 
         //
-        // 2. Once we have a ScriptCallback, we will continue to call block on
-        // it per step until it returns non-null value, at which point we set
-        // done to true and close the callback.
+        // 2. Once we have a ScriptCallback, we hand it over to the tracker
+        // shared by all the processes instead of blocking this thread until
+        // the process finishes. The call-back notifies its adapter when
+        // the process finishes and closes itself.
         //
-        if (!done) {
-            try {
-            	// Do a unit of work
-                Object action = cb.block(ProcessCallback.UNIT_OF_WORK); 
-                if (action != null) {
-                    done = true;
-                }
-            } catch (Exception e) {
-                // Also not sure what to do here in terms of logging
-                // exceptions. InterruptedException is fairly harmless.
-                // Other exceptions may say that the process has died.
-                done = true;
-            }
-        } else {
-            if (cb != null) {
-                try {
-                    cb.close();
-                } finally {
-                    cb = null;
-                }
-            }
-        }
+        CommandTracker.getInstance().track(cb);
+        cb = null;
+        done = true;
         return null;
     }
 
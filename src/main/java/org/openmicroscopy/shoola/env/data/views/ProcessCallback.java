@@ -47,6 +47,7 @@ import org.openmicroscopy.shoola.env.data.events.DSCallAdapter;
  * @since 3.0-Beta4
  */
 public class ProcessCallback 
+	implements CommandTracker.Command
 {
 
 	/** The length of the unit of work. */
@@ -55,6 +56,9 @@ public class ProcessCallback
 	/** The actual call-back to handle. */
 	private Object callback;
 	
+	/** Flag indicating that the process has been cancelled. */
+	private boolean cancelled;
+	
 	/**
 	 * Checks if the passed handle is supported.
 	 * 
@@ -97,32 +101,45 @@ public class ProcessCallback
 	public void cancel()
 		throws ProcessException
 	{
-		if (callback instanceof ScriptCallback)
+		if (callback instanceof ScriptCallback) {
 			((ScriptCallback) callback).cancel();
+			cancelled = true;
+		}
 	}
 	
 	/**
-	 * Blocks to do a unit of work and returns the corresponding action.
-	 * 
-	 * @param value The length of the block.
-	 * @return See above.
-	 * @throws Exception If an error occurs.
+	 * Returns <code>true</code> if the process has finished or has been
+	 * cancelled, <code>false</code> otherwise.
+	 * @see CommandTracker.Command#isDone()
 	 */
-	Object block(long value)
-		throws Exception
+	public boolean isDone()
 	{
+		if (cancelled) return true;
 		if (callback instanceof ScriptCallback)
-			return ((ScriptCallback) callback).block(value);
+			return ((ScriptCallback) callback).isFinished();
 		if (callback instanceof RequestCallback)
-			return ((RequestCallback) callback).block(value);
-		return null;
+			return ((RequestCallback) callback).isFinished();
+		return true;
+	}
+	
+	/**
+	 * Asks the server if the process has finished.
+	 * @see CommandTracker.Command#poll()
+	 */
+	public void poll()
+		throws Exception
+	{
+		if (callback instanceof ScriptCallback)
+			((ScriptCallback) callback).block(1);
+		else if (callback instanceof RequestCallback)
+			((RequestCallback) callback).poll();
 	}
 	
 	/** 
 	 * Closes the handle.
-	 * @throws Exception If an error occurs.
+	 * @see CommandTracker.Command#close()
 	 */
-	void close()
+	public void close()
 		throws Exception
 	{
 		if (callback instanceof ScriptCallback) {
@@ -0,0 +1,380 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data.views.calls;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openmicroscopy.shoola.env.LookupNames;
+import org.openmicroscopy.shoola.env.data.AdminService;
+import org.openmicroscopy.shoola.env.data.OmeroImageService;
+import org.openmicroscopy.shoola.env.data.model.FileObject;
+import org.openmicroscopy.shoola.env.data.model.ImportableFile;
+import org.openmicroscopy.shoola.env.data.model.ImportableObject;
+import org.openmicroscopy.shoola.env.data.util.Status;
+import org.openmicroscopy.shoola.env.data.views.BatchCall;
+import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.util.file.DirectoryWatcher;
+
+import omero.gateway.SecurityContext;
+import omero.gateway.model.DataObject;
+import omero.gateway.model.DatasetData;
+import omero.gateway.model.ExperimenterData;
+import omero.gateway.model.GroupData;
+import omero.log.LogMessage;
+
+/**
+ * Command to monitor a directory and import the filesets written into it
+ * once they are stable. The command runs until its handle is cancelled,
+ * which sets a stop flag checked after each step.
+ *
+ * @since 5.8
+ */
+public class DirectoryImporter
+    extends BatchCallTree
+{
+
+    /** The delay, in milliseconds, after which a fileset is stable. */
+    private static final long STABLE_TIME = 5000;
+
+    /** The maximum number of stable filesets waiting to be imported. */
+    private static final int QUEUE_SIZE = 100;
+
+    /** The maximum time, in seconds, waiting for a fileset per step. */
+    private static final long STEP_TIMEOUT = 10;
+
+    /** The directory to monitor. */
+    private final File directory;
+
+    /** The container where to import the images into or <code>null</code>. */
+    private final DataObject container;
+
+    /** The id of the group. */
+    private final long groupID;
+
+    /** The id of the user to import the data for. */
+    private final long userID;
+
+    /** The security context. */
+    private final SecurityContext ctx;
+
+    /**
+     * The user to import the data for or <code>null</code> to import
+     * as the logged in user.
+     */
+    private ExperimenterData user;
+
+    /** Flag set when the handle is cancelled. */
+    private volatile boolean stopped;
+
+    /** Watches the directory. */
+    private DirectoryWatcher watcher;
+
+    /**
+     * Map of result, key is the file imported, value is an object or an
+     * exception.
+     */
+    private Map<ImportableFile, Object> partialResult;
+
+    /**
+     * Returns the group where to import the data.
+     *
+     * @return See above.
+     */
+    private GroupData getGroup()
+    {
+        Collection<?> groups = (Collection<?>) context.lookup(
+                LookupNames.USER_GROUP_DETAILS);
+        if (groups == null) return null;
+        Iterator<?> i = groups.iterator();
+        GroupData g;
+        while (i.hasNext()) {
+            g = (GroupData) i.next();
+            if (g.getId() == groupID) return g;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the user to import the data for or <code>null</code> if
+     * it is the logged in user.
+     *
+     * @return See above.
+     * @throws Exception If the user is not a member of the group.
+     */
+    private ExperimenterData getUser()
+        throws Exception
+    {
+        AdminService svc = context.getAdminService();
+        if (userID < 0 || userID == svc.getUserDetails().getId()) return null;
+        List<ExperimenterData> members = svc.loadExperimenters(ctx, groupID);
+        if (members != null) {
+            for (ExperimenterData exp : members) {
+                if (exp.getId() == userID) return exp;
+            }
+        }
+        throw new IllegalArgumentException("The user "+userID+
+                " is not a member of the group "+groupID+".");
+    }
+
+    /**
+     * Lists the files, ignoring the hidden and temporary ones, contained in
+     * the specified directory and its sub-directories.
+     *
+     * @param dir The directory to handle.
+     * @param files The list to add the files to.
+     */
+    private static void listFiles(File dir, List<File> files)
+    {
+        File[] entries = dir.listFiles();
+        if (entries == null) return;
+        for (int i = 0; i < entries.length; i++) {
+            if (DirectoryWatcher.isIgnored(entries[i].getName())) continue;
+            if (entries[i].isDirectory()) listFiles(entries[i], files);
+            else files.add(entries[i].getAbsoluteFile());
+        }
+    }
+
+    /**
+     * Returns the entries sorted by name, the files before the directories
+     * so that a directory holding the data of a file e.g.
+     * <code>b.mrxs</code> is found to be used by that file.
+     *
+     * @param entries The entries to sort.
+     * @return See above.
+     */
+    private static List<File> sort(Collection<File> entries)
+    {
+        List<File> files = new ArrayList<File>();
+        List<File> dirs = new ArrayList<File>();
+        for (File f : entries) {
+            if (DirectoryWatcher.isIgnored(f.getName())) continue;
+            if (f.isDirectory()) dirs.add(f);
+            else files.add(f);
+        }
+        Collections.sort(files);
+        Collections.sort(dirs);
+        files.addAll(dirs);
+        return files;
+    }
+
+    /**
+     * Imports the file or directory.
+     *
+     * @param os The service used to import.
+     * @param file The file or directory to import.
+     */
+    private void importFile(OmeroImageService os, File file)
+    {
+        ImportableFile importable = new ImportableFile(
+                new FileObject(file), false);
+        importable.setGroup(getGroup());
+        importable.setUser(user);
+        if (container instanceof DatasetData)
+            importable.setLocation(null, (DatasetData) container);
+        else importable.setLocation(container, null);
+        importable.setStatus(new Status(importable.getFile()));
+        List<ImportableFile> files = new ArrayList<ImportableFile>();
+        files.add(importable);
+        ImportableObject object = new ImportableObject(files, false);
+        try {
+            partialResult.put(importable,
+                    os.importFile(object, importable, false));
+        } catch (Exception e) {
+            LogMessage msg = new LogMessage();
+            msg.print("Cannot import "+file);
+            msg.print(e);
+            context.getLogger().error(this, msg);
+            partialResult.put(importable, e);
+        }
+    }
+
+    /**
+     * Imports the entry unless Bio-Formats already read it to import
+     * another entry. A directory some files of which have already been
+     * used is imported file by file.
+     *
+     * @param os The service used to import.
+     * @param entry The file or directory to import.
+     * @param used The files already used.
+     */
+    private void importEntry(OmeroImageService os, File entry, Set<File> used)
+    {
+        File f = entry.getAbsoluteFile();
+        if (used.contains(f)) return;
+        if (f.isDirectory()) {
+            List<File> files = new ArrayList<File>();
+            listFiles(f, files);
+            int n = 0;
+            for (File file : files) {
+                if (used.contains(file)) n++;
+            }
+            if (n == files.size()) return;
+            if (n > 0) {
+                File[] children = f.listFiles();
+                if (children == null) return;
+                for (File child : sort(Arrays.asList(children)))
+                    importEntry(os, child, used);
+                return;
+            }
+        }
+        try {
+            used.addAll(os.getUsedFiles(f));
+        } catch (Exception e) {
+            context.getLogger().debug(this,
+                    "Cannot determine the files used by "+f);
+        }
+        used.add(f);
+        importFile(os, f);
+    }
+
+    /**
+     * Imports the entries handed out together. The files are grouped when
+     * Bio-Formats reads them to import the same image(s), every other file
+     * being imported on its own.
+     *
+     * @param fileset The entries to import.
+     */
+    private void importFileset(List<File> fileset)
+    {
+        partialResult = new HashMap<ImportableFile, Object>();
+        OmeroImageService os = context.getImageService();
+        Set<File> used = new HashSet<File>();
+        for (File entry : sort(fileset))
+            importEntry(os, entry, used);
+    }
+
+    /** Stops watching the directory. */
+    private void closeWatcher()
+    {
+        try {
+            if (watcher != null) watcher.close();
+        } catch (Exception e) {
+            context.getLogger().debug(this, "Cannot close the watcher.");
+        }
+    }
+
+    /**
+     * Creates a call waiting for the stable filesets and importing them.
+     * Each step waits for the next fileset so that the stop flag is
+     * checked between two steps. The watcher is closed once stopped.
+     *
+     * @return The {@link BatchCall}.
+     */
+    private BatchCall makeMonitorCall()
+    {
+        return new BatchCall("Monitoring "+directory.getName()) {
+            public Object doStep()
+                throws Exception
+            {
+                partialResult = null;
+                try {
+                    if (watcher == null) {
+                        user = getUser();
+                        watcher = new DirectoryWatcher(directory,
+                                STABLE_TIME, QUEUE_SIZE,
+                                DirectoryWatcher.requiresPolling(directory));
+                        watcher.start();
+                    }
+                    List<File> fileset = null;
+                    if (!stopped)
+                        fileset = watcher.take(STEP_TIMEOUT, TimeUnit.SECONDS);
+                    if (!stopped && fileset != null && !fileset.isEmpty())
+                        importFileset(fileset);
+                    if (stopped) closeWatcher();
+                } catch (Exception e) {
+                    closeWatcher();
+                    throw e;
+                }
+                return null;
+            }
+
+            public boolean isDone() { return stopped; }
+        };
+    }
+
+    /**
+     * Adds the call monitoring the directory to the computation tree.
+     *
+     * @see BatchCallTree#buildTree()
+     */
+    protected void buildTree() { add(makeMonitorCall()); }
+
+    /**
+     * Returns the result of the last import, if any.
+     * This will be packed by the framework into a feedback event and
+     * sent to the provided call observer, if any.
+     *
+     * @return A Map whose key is the file imported and the value the
+     *         imported object or the exception raised.
+     */
+    protected Object getPartialResult() { return partialResult; }
+
+    /**
+     * Returns <code>null</code> as the imports are delivered progressively.
+     *
+     * @see BatchCallTree#getResult()
+     */
+    protected Object getResult() { return null; }
+
+    /**
+     * Stops monitoring the directory once the current step is completed.
+     *
+     * @see BatchCallTree#onCancel()
+     */
+    protected void onCancel() { stopped = true; }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ctx The security context.
+     * @param directory The directory to monitor. Mustn't be
+     *                  <code>null</code>.
+     * @param container The container where to import the images into or
+     *                  <code>null</code>.
+     * @param userID The id of the user to import the data for or
+     *               <code>-1</code> to import as the logged in user.
+     * @param groupID The id of the group or <code>-1</code> to use the
+     *                group of the security context.
+     */
+    public DirectoryImporter(SecurityContext ctx, File directory,
+            DataObject container, long userID, long groupID)
+    {
+        if (directory == null || !directory.isDirectory())
+            throw new IllegalArgumentException("No directory to monitor.");
+        this.directory = directory;
+        this.container = container;
+        this.ctx = ctx;
+        this.userID = userID;
+        this.groupID = groupID >= 0 ? groupID : ctx.getGroupID();
+    }
+
+}
@@ -25,6 +25,11 @@ package org.openmicroscopy.shoola.env.data.views.calls;
 
 //Java imports
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 //Third-party libraries
 
@@ -60,18 +65,29 @@ public class ExportLoader
 	public static final int	EXPORT_AS_OME_XML = 
 		OmeroImageService.EXPORT_AS_OME_XML;
 	
-	/** Loads the specified annotations. */
-    private BatchCall loadCall;
+	/** The calls exporting the images. */
+    private List<BatchCall> calls;
     
     /** The result of the call. */
     private Object result;
     
+    /**
+     * The outcome of the last call: the file mapped to the exported file or
+     * to the exception if the image could not be exported.
+     */
+    private Map<File, Object> currentFile;
+    
+    /** Flag indicating that the export has been cancelled. */
+    private volatile boolean cancelled;
+    
     /** The security context.*/
     private SecurityContext ctx;
     
     /**
      * Creates a {@link BatchCall} to export the image as XML.
+     * The file written while the export was cancelled is removed.
      * 
+     * @param index   One of the constants defined by this class.
 	 * @param file    The file where to export the image.
 	 * @param imageID The id of the image to export.
 	 * @param target The selected schema.
@@ -79,25 +95,107 @@ public class ExportLoader
      */
     private BatchCall makeAsOMETiffBatchCall(final int index, final File file, 
     						final long imageID, final Target target)
+    {
+        return new BatchCall("Export image as OME-TIFF or OME-XML.") {
+            public void doCall() throws Exception
+            {
+                if (cancelled) return;
+                OmeroImageService service = context.getImageService();
+                Object value = null;
+                try {
+                	value = service.exportImageAsOMEFormat(ctx, index,
+                			imageID, file, target);
+                } finally {
+                	//The transfer cannot be interrupted, remove the file
+                	//written while the export was cancelled.
+                	if (cancelled) file.delete();
+                }
+                if (!cancelled) result = value;
+            }
+        };
+    }
+    
+    /**
+     * Creates a {@link BatchCall} to export one of the images of a batch.
+     * The export of the next image is started before the image is
+     * transferred. An image that cannot be exported does not stop the batch,
+     * the exception is returned as partial result. No more images are
+     * exported once the call is cancelled.
+     * 
+     * @param index One of the constants defined by this class.
+     * @param file The file where to export the image.
+     * @param imageID The id of the image to export.
+     * @param nextID The id of the next image to export or <code>-1</code>.
+     * @param target The selected schema.
+     * @param exported The files exported so far.
+     * @return The {@link BatchCall}.
+     */
+    private BatchCall makeBatchCall(final int index, final File file,
+    		final long imageID, final long nextID, final Target target,
+    		final List<Object> exported)
     {
         return new BatchCall("Export image as OME-TIFF or OME-XML.") {
             public void doCall() throws Exception
             {
                 OmeroImageService service = context.getImageService();
-                result = service.exportImageAsOMEFormat(ctx, index, imageID,
-                		file, target);
+                currentFile = null;
+                if (cancelled) return;
+                if (nextID > 0) {
+                	try {
+                		service.prepareExport(ctx, index, nextID);
+                	} catch (Exception e) {
+                		//the next image is generated when it is exported.
+                	}
+                }
+                Object value;
+                try {
+                	value = service.exportImageAsOMEFormat(ctx, index,
+                			imageID, file, target);
+                } catch (Exception e) {
+                	context.getLogger().error(this, "Cannot export the image "+
+                			imageID+": "+e.getMessage());
+                	value = e;
+                }
+                if (cancelled) {
+                	//The transfer cannot be interrupted, remove the file
+                	//written while the export was cancelled.
+                	file.delete();
+                	return;
+                }
+                if (value instanceof File) exported.add(value);
+                currentFile = new HashMap<File, Object>(1);
+                currentFile.put(file, value);
             }
         };
     }
     
     /**
-     * Adds the {@link #loadCall} to the computation tree.
+     * Adds the {@link #calls} to the computation tree.
      * @see BatchCallTree#buildTree()
      */
-    protected void buildTree() { add(loadCall); }
+    protected void buildTree()
+    {
+    	Iterator<BatchCall> i = calls.iterator();
+    	while (i.hasNext())
+    		add(i.next());
+    }
+
+    /**
+     * Returns the file exported by the last call mapped to the exported file
+     * or to the exception if the image could not be exported,
+     * <code>null</code> if the export was cancelled.
+     * @see BatchCallTree#getPartialResult()
+     */
+    protected Object getPartialResult() { return currentFile; }
 
     /**
-     * Returns the collection of archives files.
+     * Stops exporting the images.
+     * @see BatchCallTree#onCancel()
+     */
+    protected void onCancel() { cancelled = true; }
+
+    /**
+     * Returns the exported file or the collection of exported files.
      * @see BatchCallTree#getResult()
      */
     protected Object getResult() { return result; }
@@ -115,7 +213,37 @@ public class ExportLoader
     		Target target)
     {
     	this.ctx = ctx;
-    	loadCall = makeAsOMETiffBatchCall(index, file, imageID, target);
+    	calls = new ArrayList<BatchCall>(1);
+    	calls.add(makeAsOMETiffBatchCall(index, file, imageID, target));
+    }
+    
+    /**
+     * Creates a new instance to export several images.
+     * 
+     * @param ctx The security context.
+	 * @param imageIDs The ids of the images to export.
+	 * @param files The files where to store the exported files, one per
+	 *              image.
+	 * @param index	One of the constants defined by this class.
+	 * @param target The selected schema.
+     */
+    public ExportLoader(SecurityContext ctx, List<Long> imageIDs,
+    		List<File> files, int index, Target target)
+    {
+    	if (imageIDs == null || imageIDs.isEmpty())
+    		throw new IllegalArgumentException("No images to export.");
+    	if (files == null || files.size() != imageIDs.size())
+    		throw new IllegalArgumentException("One file per image expected.");
+    	this.ctx = ctx;
+    	List<Object> exported = new ArrayList<Object>();
+    	result = exported;
+    	calls = new ArrayList<BatchCall>(imageIDs.size());
+    	long nextID;
+    	for (int i = 0; i < imageIDs.size(); i++) {
+    		nextID = i+1 < imageIDs.size() ? imageIDs.get(i+1) : -1;
+    		calls.add(makeBatchCall(index, files.get(i), imageIDs.get(i),
+    				nextID, target, exported));
+    	}
     }
 
 }
@@ -0,0 +1,202 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data.views.calls;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.openmicroscopy.shoola.env.data.OmeroMetadataService;
+import org.openmicroscopy.shoola.env.data.views.BatchCall;
+import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.util.file.ZipStreamWriter;
+
+import omero.gateway.SecurityContext;
+import omero.gateway.model.FileAnnotationData;
+
+/**
+ * Downloads the files hosted by the file annotations straight into a zip
+ * archive, one entry per file, without writing the files to disk first.
+ * One call is made per file and each call checks whether the download has
+ * been cancelled. The archive is closed and deleted if the download is
+ * cancelled or if a file cannot be downloaded, a partial archive is never
+ * kept.
+ *
+ * @since 5.8
+ */
+public class FilesZipper
+    extends BatchCallTree
+{
+
+    /** The files to download. */
+    private final List<FileAnnotationData> files;
+
+    /** The archive to create. */
+    private final File zip;
+
+    /** Pass <code>true</code> to compress the entries. */
+    private final boolean compress;
+
+    /** The security context.*/
+    private final SecurityContext ctx;
+
+    /** The archive being written. */
+    private ZipStreamWriter writer;
+
+    /** The lastly downloaded file, the value is <code>null</code> if failed. */
+    private Map<FileAnnotationData, File> currentFile;
+
+    /** The archive, set once all the files have been written. */
+    private File result;
+
+    /** Flag set when the handle is cancelled. */
+    private volatile boolean cancelled;
+
+    /** Flag indicating that the archive has been deleted. */
+    private boolean discarded;
+
+    /** Closes the archive and deletes it. */
+    private void discard()
+    {
+        discarded = true;
+        try {
+            if (writer != null) writer.close();
+        } catch (Exception e) {
+            //ignore, the archive is deleted.
+        }
+        writer = null;
+        zip.delete();
+    }
+
+    /**
+     * Writes the specified file to the archive.
+     *
+     * @param fa The file annotation hosting the file.
+     * @param last Pass <code>true</code> if it is the last file,
+     *             <code>false</code> otherwise.
+     * @throws Exception If the file cannot be downloaded or the archive
+     *                   cannot be written, the archive is then deleted.
+     */
+    private void zipFile(FileAnnotationData fa, boolean last)
+        throws Exception
+    {
+        currentFile = null;
+        if (discarded) return;
+        if (cancelled) {
+            discard();
+            return;
+        }
+        currentFile = new HashMap<FileAnnotationData, File>();
+        try {
+            if (writer == null)
+                writer = new ZipStreamWriter(new BufferedOutputStream(
+                        new FileOutputStream(zip)), compress);
+            OmeroMetadataService svc = context.getMetadataService();
+            OutputStream out = writer.putNextEntry(fa.getFileName());
+            svc.downloadFile(ctx, out, fa.getFileID());
+            out.close();
+            //the archive is deleted below if cancelled, do not complete it.
+            if (last && !cancelled) {
+                writer.close();
+                writer = null;
+            }
+        } catch (Exception e) {
+            currentFile.put(fa, null);
+            discard();
+            throw new Exception("Cannot add "+fa.getFileName()+
+                    " to the zip.", e);
+        }
+        if (cancelled) {
+            discard();
+            return;
+        }
+        currentFile.put(fa, zip);
+        if (last) result = zip;
+    }
+
+    /**
+     * Adds a call per file to the computation tree.
+     * @see BatchCallTree#buildTree()
+     */
+    protected void buildTree()
+    {
+        Iterator<FileAnnotationData> i = files.iterator();
+        int count = 1;
+        int size = files.size();
+        while (i.hasNext()) {
+            final FileAnnotationData fa = i.next();
+            final boolean last = count == size;
+            add(new BatchCall("Loading file") {
+                public void doCall() throws Exception { zipFile(fa, last); }
+            });
+            count++;
+        }
+    }
+
+    /**
+     * Returns the archive or <code>null</code> if it could not be created.
+     * @see BatchCallTree#getResult()
+     */
+    protected Object getResult() { return result; }
+
+    /**
+     * Returns the lastly downloaded file.
+     * This will be packed by the framework into a feedback event and
+     * sent to the provided call observer, if any.
+     *
+     * @return A Map containing the file annotation and the archive.
+     */
+    protected Object getPartialResult() { return currentFile; }
+
+    /**
+     * Stops the download, the archive is deleted by the next call.
+     * @see BatchCallTree#onCancel()
+     */
+    protected void onCancel() { cancelled = true; }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ctx The security context.
+     * @param files The files to download.
+     * @param zip The archive to create.
+     * @param compress Pass <code>true</code> to compress the entries,
+     *                 <code>false</code> to only store them.
+     */
+    public FilesZipper(SecurityContext ctx, List<FileAnnotationData> files,
+            File zip, boolean compress)
+    {
+        if (files == null || files.isEmpty())
+            throw new IllegalArgumentException("No files to load.");
+        if (zip == null)
+            throw new IllegalArgumentException("No zip specified.");
+        this.ctx = ctx;
+        this.files = files;
+        this.zip = zip;
+        this.compress = compress;
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data.views.calls;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.openmicroscopy.shoola.env.data.OmeroImageService;
+import org.openmicroscopy.shoola.env.data.views.BatchCall;
+import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+
+import omero.gateway.SecurityContext;
+import omero.log.LogMessage;
+
+/**
+ * Loads the rendering controls of the images next to the one being viewed
+ * so that stepping to one of them does not wait for the server. The images
+ * are loaded one at a time, at low priority, and each step checks whether
+ * the command has been cancelled, e.g. when the user jumps elsewhere. The
+ * images loaded ahead of time by a previous command for the same owner and
+ * not in the list are released first.
+ *
+ * @since 5.8
+ */
+public class ImagePrefetcher
+    extends BatchCallTree
+{
+
+    /** The IDs of the pixels sets to load. */
+    private final List<Long> pixelsIDs;
+
+    /** The object the images are loaded for. */
+    private final Object owner;
+
+    /** The calls to load the images. */
+    private final List<BatchCall> calls;
+
+    /** Flag set when the handle is cancelled. */
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a {@link BatchCall} to release the images loaded ahead of time
+     * and no longer needed.
+     *
+     * @return The {@link BatchCall}.
+     */
+    private BatchCall makeReleaseCall()
+    {
+        return new BatchCall("Releasing images") {
+            public void doCall() throws Exception
+            {
+                //A later command releases the images instead.
+                if (cancelled) return;
+                OmeroImageService svc = context.getImageService();
+                svc.releasePrefetchedImages(owner, pixelsIDs);
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link BatchCall} to load the specified image.
+     *
+     * @param ctx The security context.
+     * @param pixelsID The ID of the pixels set.
+     * @return The {@link BatchCall}.
+     */
+    private BatchCall makeLoadCall(final SecurityContext ctx,
+            final long pixelsID)
+    {
+        return new BatchCall("Prefetching image") {
+            public void doCall() throws Exception
+            {
+                if (cancelled) return;
+                Thread t = Thread.currentThread();
+                int priority = t.getPriority();
+                t.setPriority(Thread.MIN_PRIORITY);
+                try {
+                    OmeroImageService svc = context.getImageService();
+                    svc.prefetchImage(ctx, pixelsID, owner);
+                } catch (Exception e) {
+                    LogMessage msg = new LogMessage();
+                    msg.print("Cannot prefetch the pixels set "+pixelsID);
+                    msg.print(e);
+                    context.getLogger().debug(this, msg);
+                } finally {
+                    t.setPriority(priority);
+                }
+            }
+        };
+    }
+
+    /**
+     * Adds the calls to the computation tree.
+     * @see BatchCallTree#buildTree()
+     */
+    protected void buildTree()
+    {
+        Iterator<BatchCall> i = calls.iterator();
+        while (i.hasNext())
+            add(i.next());
+    }
+
+    /**
+     * Returns <code>null</code>, the images are kept by the service.
+     * @see BatchCallTree#getResult()
+     */
+    protected Object getResult() { return null; }
+
+    /**
+     * Skips the images not loaded yet.
+     * @see BatchCallTree#onCancel()
+     */
+    protected void onCancel() { cancelled = true; }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ctx The security context.
+     * @param pixelsIDs The IDs of the pixels sets, the most likely to be
+     *                  viewed first.
+     * @param owner The object the images are loaded for, e.g. a browser.
+     */
+    public ImagePrefetcher(SecurityContext ctx, List<Long> pixelsIDs,
+            Object owner)
+    {
+        if (pixelsIDs == null)
+            throw new IllegalArgumentException("No images specified.");
+        if (owner == null)
+            throw new IllegalArgumentException("No owner specified.");
+        this.owner = owner;
+        this.pixelsIDs = new ArrayList<Long>(pixelsIDs);
+        calls = new ArrayList<BatchCall>(pixelsIDs.size()+1);
+        calls.add(makeReleaseCall());
+        Iterator<Long> i = this.pixelsIDs.iterator();
+        while (i.hasNext())
+            calls.add(makeLoadCall(ctx, i.next()));
+    }
+
+}
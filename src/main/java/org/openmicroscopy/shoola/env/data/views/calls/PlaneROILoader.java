@@ -0,0 +1,113 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data.views.calls;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openmicroscopy.shoola.env.data.OmeroImageService;
+import org.openmicroscopy.shoola.env.data.views.BatchCall;
+import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.util.roi.model.util.Coord3D;
+
+import omero.gateway.SecurityContext;
+import omero.gateway.model.ROIResult;
+
+/**
+ * Loads the ROIs of an image plane by plane so that the ROIs of the
+ * displayed plane are available without loading all the ROIs of the image.
+ * The planes are loaded in the specified order, one call per plane so
+ * that the command can be cancelled between planes.
+ *
+ * @since 5.8
+ */
+public class PlaneROILoader
+    extends BatchCallTree
+{
+
+    /** The ROIs loaded, key is the plane, value the ROIs on that plane. */
+    private final Map<Coord3D, List<ROIResult>> results;
+
+    /** The calls to load the planes. */
+    private final List<BatchCall> calls;
+
+    /**
+     * Creates a {@link BatchCall} to load the ROIs on the specified plane.
+     *
+     * @param ctx The security context.
+     * @param imageID The id of the image.
+     * @param plane The plane to load.
+     * @return The {@link BatchCall}.
+     */
+    private BatchCall makeLoadCall(final SecurityContext ctx,
+            final long imageID, final Coord3D plane)
+    {
+        return new BatchCall("Loading ROI") {
+            public void doCall() throws Exception
+            {
+                OmeroImageService svc = context.getImageService();
+                results.put(plane, svc.loadROIByPlane(ctx, imageID,
+                        plane.getZSection(), plane.getTimePoint()));
+            }
+        };
+    }
+
+    /**
+     * Adds the calls to the computation tree.
+     * @see BatchCallTree#buildTree()
+     */
+    protected void buildTree()
+    {
+        Iterator<BatchCall> i = calls.iterator();
+        while (i.hasNext())
+            add(i.next());
+    }
+
+    /**
+     * Returns the ROIs loaded, the key is the plane and the value the
+     * collection of <code>ROIResult</code>.
+     * @see BatchCallTree#getResult()
+     */
+    protected Object getResult() { return results; }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ctx The security context.
+     * @param imageID The image's ID.
+     * @param planes The planes to load.
+     */
+    public PlaneROILoader(SecurityContext ctx, long imageID,
+            List<Coord3D> planes)
+    {
+        if (planes == null || planes.isEmpty())
+            throw new IllegalArgumentException("No planes to load.");
+        results = new LinkedHashMap<Coord3D, List<ROIResult>>();
+        calls = new ArrayList<BatchCall>(planes.size());
+        Iterator<Coord3D> i = planes.iterator();
+        while (i.hasNext())
+            calls.add(makeLoadCall(ctx, imageID, i.next()));
+    }
+
+}
@@ -24,8 +24,11 @@ package org.openmicroscopy.shoola.env.data.views.calls;
 
 
 //Java imports
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
+import org.openmicroscopy.shoola.env.LookupNames;
 import org.openmicroscopy.shoola.env.data.OmeroImageService;
 import org.openmicroscopy.shoola.env.data.model.ProjectionParam;
 import omero.gateway.SecurityContext;
@@ -49,11 +52,23 @@ public class ProjectionSaver
 	extends BatchCallTree
 {
 
+	/** 
+	 * The number of sections added to the projection between two previews
+	 * when the projection is computed on the client.
+	 */
+	private static final int SECTIONS_PER_PREVIEW = 8;
+	
 	/** The id of the pixels set to handle. */
 	private long 			pixelsID;
 	
 	/** Result of the call. */
 	private Object result;
+	
+	/** The preview of the projection over the first sections. */
+	private Object partialResult;
+	
+	/** The calls rendering the previews or <code>null</code>. */
+	private List<BatchCall> previewCalls;
 
 	/** Loads the specified tree. */
 	private BatchCall loadCall;
@@ -70,18 +85,22 @@ public class ProjectionSaver
      *                 	Default is <code>1</code>
      * @param algorithm	The type of projection.
      * @param channels  The collection of channels to project.
+     * @param partial   Pass <code>true</code> to deliver the image as a
+     *                  partial result, <code>false</code> otherwise.
      * @return See above.
      */
     private BatchCall makeRenderProjectedCall(final int startZ, final int endZ, 
     		  final int stepping, final int algorithm,
-    		  final List<Integer> channels)
+    		  final List<Integer> channels, final boolean partial)
     {
     	return new BatchCall("Preview the projected image.") {
             public void doCall() throws Exception
             {
                 OmeroImageService rds = context.getImageService();
-                result = rds.renderProjected(ctx, pixelsID, startZ, 
+                Object image = rds.renderProjected(ctx, pixelsID, startZ, 
             			endZ, stepping, algorithm, channels);
+                if (partial) partialResult = image;
+                else result = image;
             }
         };
     }
@@ -102,11 +121,52 @@ public class ProjectionSaver
             }
         };
     }
+    /**
+     * Returns the last section of each preview of the projection of the
+     * specified interval i.e. every {@link #SECTIONS_PER_PREVIEW} projected
+     * sections, the end of the interval excluded.
+     * 
+     * @param startZ The first optical section.
+     * @param endZ The last optical section.
+     * @param stepping Stepping used while projecting.
+     * @return See above.
+     */
+    static List<Integer> getPreviewSections(int startZ, int endZ,
+    		int stepping)
+    {
+    	List<Integer> ends = new ArrayList<Integer>();
+    	int n = SECTIONS_PER_PREVIEW*Math.max(1, stepping);
+    	for (int end = startZ+n-1; end < endZ; end += n)
+    		ends.add(end);
+    	return ends;
+    }
+    
     /**
      * Adds a {@link BatchCall} to the tree.
      * @see BatchCallTree#buildTree()
      */
-    protected void buildTree() { add(loadCall); }
+    protected void buildTree()
+    {
+    	if (previewCalls != null) {
+    		Iterator<BatchCall> i = previewCalls.iterator();
+    		while (i.hasNext())
+    			add(i.next());
+    	}
+    	add(loadCall);
+    }
+    
+    /**
+     * Returns the preview of the projection over the sections projected
+     * so far.
+     * 
+     * @see BatchCallTree#getPartialResult()
+     */
+    protected Object getPartialResult()
+    {
+    	Object value = partialResult;
+    	partialResult = null;
+    	return value;
+    }
     
     /**
      * Returns the result.
@@ -134,8 +194,24 @@ public class ProjectionSaver
     		throw new IllegalArgumentException("Pixels Id not valid.");
     	this.ctx = ctx;
     	this.pixelsID = pixelsID;
+    	//The sections are accumulated on the client so the projection
+    	//can be delivered progressively at no extra cost. Each preview
+    	//would be a full projection if done by the server.
+    	Boolean local = (Boolean) context.lookup(
+    			LookupNames.RE_LOCAL_RENDERING);
+    	if (local != null && local.booleanValue() &&
+    			context.getImageService().isProjectedLocally(ctx, pixelsID,
+    					type, channels)) {
+    		List<Integer> ends = getPreviewSections(startZ, endZ, stepping);
+    		if (!ends.isEmpty()) {
+    			previewCalls = new ArrayList<BatchCall>();
+    			for (Integer end : ends)
+    				previewCalls.add(makeRenderProjectedCall(startZ, end,
+    						stepping, type, channels, true));
+    		}
+    	}
     	loadCall = makeRenderProjectedCall(startZ, endZ, stepping, type,
-    			channels);
+    			channels, false);
     }
     
     /**
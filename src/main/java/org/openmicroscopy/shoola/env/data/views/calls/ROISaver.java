@@ -20,7 +20,9 @@
 */
 package org.openmicroscopy.shoola.env.data.views.calls;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 import org.openmicroscopy.shoola.env.data.OmeroImageService;
@@ -34,6 +36,10 @@ import omero.gateway.model.ROIData;
 
 /**
  * Saves the region of interest related to a given image back to the server.
+ * The ROIs are sent in batches, one call per batch. The ROIs returned by
+ * the server for each batch successfully saved are made available as
+ * partial result so that the ids of the saved ROIs can be set and only
+ * the ROIs not saved are sent again if a batch fails.
  *
  * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  * 	<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -46,14 +52,17 @@ public class ROISaver
     extends BatchCallTree
 {
 
-    /** Call to save the ROIs. */
-    private BatchCall saveCall;
+    /** The calls to save the ROIs, one per batch. */
+    private List<BatchCall> saveCalls;
 
-    /** Was the save successful. */
+    /** The ROIs saved. */
     private Collection<ROIData> result;
 
+    /** The ROIs returned by the server for the batch last saved. */
+    private List<ROIData> lastSaved;
+
     /**
-     * Creates a {@link BatchCall} to load the ROIs.
+     * Creates a {@link BatchCall} to save a batch of ROIs.
      * 
      * @param ctx The security context.
      * @param imageID The id of the image.
@@ -68,16 +77,37 @@ public class ROISaver
             public void doCall() throws Exception
             {
                 OmeroImageService svc = context.getImageService();
-                result = svc.saveROI(ctx, imageID, userID, roiList);
+                Collection<ROIData> saved = svc.saveROI(ctx, imageID, userID,
+                        roiList);
+                if (saved == null) return;
+                result.addAll(saved);
+                lastSaved = new ArrayList<ROIData>(saved);
             }
         };
     }
 
     /**
-     * Adds the {@link #saveCall} to the computation tree.
+     * Adds the {@link #saveCalls} to the computation tree.
      * @see BatchCallTree#buildTree()
      */
-    protected void buildTree() { add(saveCall); }
+    protected void buildTree()
+    {
+        Iterator<BatchCall> i = saveCalls.iterator();
+        while (i.hasNext())
+            add(i.next());
+    }
+
+    /**
+     * Returns the ROIs of the batch last saved as returned by the server,
+     * with the UUID of the ROIs passed to this call.
+     * @see BatchCallTree#getPartialResult()
+     */
+    protected Object getPartialResult()
+    {
+        List<ROIData> l = lastSaved;
+        lastSaved = null;
+        return l;
+    }
 
     /**
      * Returns the result of the save.
@@ -86,7 +116,7 @@ public class ROISaver
     protected Object getResult() { return result; }
 
     /**
-     * Creates a new instance.
+     * Creates a new instance saving all the ROIs in one call.
      * 
      * @param ctx The security context.
      * @param imageID The image's ID.
@@ -96,7 +126,34 @@ public class ROISaver
     public ROISaver(SecurityContext ctx, long imageID,long userID,
             List<ROIData> roiList)
     {
-        saveCall = makeSaveCall(ctx, imageID, userID, roiList);
+        this(ctx, imageID, userID, roiList, 0);
+    }
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param ctx The security context.
+     * @param imageID The image's ID.
+     * @param userID The user's ID.
+     * @param roiList The list of ROIs to save.
+     * @param batchSize The number of ROIs sent per call. Pass a value 
+     *                  <code>&lt;= 0</code> to send all the ROIs in one call.
+     */
+    public ROISaver(SecurityContext ctx, long imageID, long userID,
+            List<ROIData> roiList, int batchSize)
+    {
+        result = new ArrayList<ROIData>();
+        saveCalls = new ArrayList<BatchCall>();
+        int n = roiList == null ? 0 : roiList.size();
+        if (batchSize <= 0 || batchSize >= n) {
+            saveCalls.add(makeSaveCall(ctx, imageID, userID, roiList));
+            return;
+        }
+        for (int i = 0; i < n; i += batchSize) {
+            saveCalls.add(makeSaveCall(ctx, imageID, userID,
+                    new ArrayList<ROIData>(roiList.subList(i,
+                            Math.min(n, i+batchSize)))));
+        }
     }
 
 }
@@ -23,8 +23,12 @@
 
 package org.openmicroscopy.shoola.env.init;
 
-import java.util.Iterator;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.openmicroscopy.shoola.env.Agent;
 import org.openmicroscopy.shoola.env.LookupNames;
@@ -68,6 +72,7 @@ public final class AgentsInit
 		throws StartupException
 	{
 		if (!info.isActive()) return;
+		long start = System.currentTimeMillis();
 		Class agentClass;
 		Object agentInstance;
 		Registry reg;
@@ -106,6 +111,51 @@ public final class AgentsInit
 			throw new StartupException("Couldn't create agent: "+
 										info.getName(), e);
 		}
+		container.getRegistry().getLogger().debug(this, "Agent "+
+				info.getName()+" created in "+
+				(System.currentTimeMillis()-start)+" ms");
+	}
+	
+	/**
+	 * Creates the specified agents. The agents do not depend on each other
+	 * so their classes are loaded and their registries read in at the
+	 * same time.
+	 * 
+	 * @param agents The agents to create.
+	 * @param value The number of the master.
+	 * @throws StartupException If an agent couldn't be created.
+	 */
+	private void createAgents(List<AgentInfo> agents, final int value)
+		throws StartupException
+	{
+		if (agents.isEmpty()) return;
+		ExecutorService executor = Initializer.createExecutor(
+				Math.min(agents.size(), Initializer.MAX_THREADS));
+		List<Future<Object>> results = new ArrayList<Future<Object>>();
+		try {
+			for (final AgentInfo info : agents) {
+				results.add(executor.submit(new Callable<Object>() {
+					public Object call()
+						throws StartupException
+					{
+						createAgent(info, value);
+						return null;
+					}
+				}));
+			}
+			for (Future<Object> f : results)
+				f.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof StartupException)
+				throw (StartupException) e.getCause();
+			throw new StartupException("Couldn't create agents.",
+					e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StartupException("Couldn't create agents.", e);
+		} finally {
+			executor.shutdown();
+		}
 	}
 	
 	/**
@@ -149,6 +199,18 @@ public final class AgentsInit
 	 */
 	String getName() { return "Loading Agents"; }
 
+	/**
+	 * Returns the tasks creating the services linked to the agents'
+	 * registries.
+	 * @see InitializationTask#getPrerequisites()
+	 */
+	Class<?>[] getPrerequisites()
+	{
+		return new Class<?>[] {DataServicesInit.class,
+			RenderingServicesInit.class, LoginServiceInit.class,
+			UserNotifierInit.class};
+	}
+
 	/** 
 	 * Does nothing, as this task requires no set up.
 	 * @see InitializationTask#configure()
@@ -175,9 +237,7 @@ public final class AgentsInit
 
 	    List<AgentInfo> agents =
 	            (List<AgentInfo>) reg.lookup(LookupNames.AGENTS);
-	    Iterator<AgentInfo> i = agents.iterator();
-	    while (i.hasNext()) 
-	        createAgent(i.next(), value);
+	    createAgents(agents, value);
 	    String name = (String) container.getRegistry().lookup(
 	            LookupNames.MASTER);
 	    if (name == null) {
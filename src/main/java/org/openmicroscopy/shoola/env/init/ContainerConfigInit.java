@@ -132,6 +132,16 @@ public final class ContainerConfigInit
 	 */
 	String getName() { return "Loading Container configuration"; }
 
+	/**
+	 * Returns an empty array as all the other tasks require the
+	 * configuration to be loaded first.
+	 * @see InitializationTask#getPrerequisites()
+	 */
+	Class<?>[] getPrerequisites()
+	{
+		return new Class<?>[0];
+	}
+
 	/** 
 	 * Does nothing, as this task requires no set up.
 	 * @see InitializationTask#configure()
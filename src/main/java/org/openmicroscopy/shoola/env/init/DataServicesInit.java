@@ -68,6 +68,17 @@ public final class DataServicesInit
 	 */
 	String getName() { return "Starting data management services"; }
 
+	/**
+	 * Returns the tasks creating the services used by the data
+	 * management services.
+	 * @see InitializationTask#getPrerequisites()
+	 */
+	Class<?>[] getPrerequisites()
+	{
+		return new Class<?>[] {LoggerInit.class, EventBusInit.class,
+			CmdProcessorInit.class};
+	}
+
 	/** 
 	 * Does nothing, as this task requires no set up.
 	 * @see InitializationTask#configure()
@@ -94,6 +94,19 @@ abstract class InitializationTask
 	 */
 	abstract String getName();
 	
+	/**
+	 * Returns the tasks that have to be executed before this task. Tasks
+	 * that do not depend on each other are executed at the same time.
+	 * By default, a task only requires the configuration of the container
+	 * to be loaded.
+	 * 
+	 * @return See above.
+	 */
+	Class<?>[] getPrerequisites()
+	{
+		return new Class<?>[] {ContainerConfigInit.class};
+	}
+	
 	/**
 	 * Prepare the task for execution.
 	 * This method is called before {@link #execute()}. 
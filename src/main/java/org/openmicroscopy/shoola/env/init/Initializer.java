@@ -25,11 +25,24 @@ package org.openmicroscopy.shoola.env.init;
 
 //Java imports
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 //Third-party libraries
 
@@ -42,7 +55,10 @@ import org.openmicroscopy.shoola.env.Container;
  * all those tasks.  
  * <p>Tasks are encapsulated by objects (concrete instances of 
  * {@link InitializationTask}) and treated as commands -- this class manages
- * their execution, acting as a Command Processor.</p>
+ * their execution, acting as a Command Processor. The tasks that do not
+ * depend on each other, as declared by
+ * {@link InitializationTask#getPrerequisites()}, are executed at the same
+ * time.</p>
  * <p>This class is also responsible for configuring the initialization
  * procedure, which involves creating all tasks, calling their 
  * <code>configure</code> method and decide on the execution order -- thus, it
@@ -66,6 +82,9 @@ import org.openmicroscopy.shoola.env.Container;
 public class Initializer
 {
     
+    /** The maximum number of tasks executed at the same time. */
+    static final int MAX_THREADS = 4;
+    
     /**
      * Lists the tasks that will make up the initialization sequence.
      * Note that this list can be accessed by subclasses.  This is key in
@@ -75,6 +94,17 @@ public class Initializer
      */
     protected static final List<Class<?>>     initList = new ArrayList<Class<?>>();
     
+    /**
+     * Maps the task types replacing tasks of the {@link #initList} to the
+     * types of the tasks they replace i.e. to their slot in the
+     * initialization sequence. A replacement is executed after the
+     * prerequisites of its slot and before the tasks requiring its slot.
+     * Like the {@link #initList}, this map is only modified for the purpose
+     * of testing.
+     */
+    protected static final Map<Class<?>, Class<?>> initSlots =
+            new HashMap<Class<?>, Class<?>>();
+    
     static {
         //This must be the first task to run b/c it will bring up
         //the splash screen.
@@ -138,6 +168,70 @@ public class Initializer
         return task;
     }
 
+    /**
+     * Creates the executor running the initialization work on the
+     * specified number of daemon threads.
+     * 
+     * @param threads The number of threads.
+     * @return See above.
+     */
+    static ExecutorService createExecutor(int threads)
+    {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            public Thread newThread(Runnable r)
+            {
+                Thread t = new Thread(r, "Initializer");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Returns the types of the tasks that have to be executed before the
+     * specified task. The prerequisites of the slot of a task replacing
+     * another one are added to the prerequisites of the task.
+     * 
+     * @param task The task to handle.
+     * @return See above.
+     */
+    private static Set<Class<?>> getPrerequisites(InitializationTask task)
+    {
+        Set<Class<?>> types = new HashSet<Class<?>>();
+        Class<?>[] values = task.getPrerequisites();
+        if (values != null) types.addAll(Arrays.asList(values));
+        Class<?> slot = initSlots.get(task.getClass());
+        if (slot != null) {
+            try {
+                values = ((InitializationTask) slot.newInstance())
+                        .getPrerequisites();
+                if (values != null) types.addAll(Arrays.asList(values));
+            } catch (Exception e) {
+                //The slot cannot be instantiated, use the task's only.
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Returns <code>true</code> if the specified task has to be executed
+     * after the other task, <code>false</code> otherwise. A task replacing
+     * another one satisfies the prerequisites naming the replaced task.
+     * 
+     * @param types The types of the tasks to execute before the task.
+     * @param other The other task.
+     * @return See above.
+     */
+    private static boolean requires(Set<Class<?>> types,
+                                    InitializationTask other)
+    {
+        Class<?> slot = initSlots.get(other.getClass());
+        for (Class<?> type : types) {
+            if (type.isInstance(other) || type.equals(slot)) return true;
+        }
+        return false;
+    }
+
 	/** Queue to order the tasks to be executed. */
 	private List<InitializationTask>	processingQueue;
 	
@@ -152,6 +246,9 @@ public class Initializer
 	
 	/** A reference to the singleton {@link Container}. */
 	private Container					container;
+	
+	/** The time taken by each task, in the order the tasks ended. */
+	private Map<String, Long>			timings;
 	 
     /**
      * Calls the <code>onStart</code> method of each subscriber in the
@@ -177,6 +274,78 @@ public class Initializer
             i.next().onExecute(name);
     }
     
+    /**
+     * Creates the call executing the specified task and recording the time
+     * it took.
+     * 
+     * @param task The task to execute.
+     * @return See above.
+     */
+    private Callable<InitializationTask> makeCall(
+            final InitializationTask task)
+    {
+        return new Callable<InitializationTask>() {
+            public InitializationTask call()
+                throws StartupException
+            {
+                long start = System.currentTimeMillis();
+                task.execute();
+                timings.put(task.getClass().getSimpleName(),
+                        System.currentTimeMillis()-start);
+                return task;
+            }
+        };
+    }
+    
+    /**
+     * Submits the tasks whose prerequisites have all been executed and
+     * removes them from the pending ones.
+     * 
+     * @param pending The tasks to execute and the prerequisites not yet
+     *                executed.
+     * @param service The service executing the tasks.
+     * @return The number of tasks submitted.
+     */
+    private int submitReady(
+            Map<InitializationTask, Set<InitializationTask>> pending,
+            CompletionService<InitializationTask> service)
+    {
+        int n = 0;
+        Iterator<Entry<InitializationTask, Set<InitializationTask>>> i =
+                pending.entrySet().iterator();
+        Entry<InitializationTask, Set<InitializationTask>> e;
+        while (i.hasNext()) {
+            e = i.next();
+            if (!e.getValue().isEmpty()) continue;
+            i.remove();
+            currentTask = e.getKey();
+            notifyExecute();  //Tell listeners we're about to exec a task.
+            service.submit(makeCall(currentTask));
+            n++;
+        }
+        return n;
+    }
+    
+    /**
+     * Logs the time taken by each task.
+     * 
+     * @param total The time taken by the whole initialization procedure.
+     */
+    private void logTimings(long total)
+    {
+        StringBuffer buffer = new StringBuffer("Initialization done in ");
+        buffer.append(total+" ms:");
+        synchronized (timings) {
+            Iterator<Entry<String, Long>> i = timings.entrySet().iterator();
+            Entry<String, Long> e;
+            while (i.hasNext()) {
+                e = i.next();
+                buffer.append(" "+e.getKey()+"="+e.getValue()+" ms");
+            }
+        }
+        container.getRegistry().getLogger().info(this, buffer.toString());
+    }
+    
     /**
      * Calls the <code>onEnd</code> method of each subscriber in the
      * notification set.
@@ -230,6 +399,8 @@ public class Initializer
 		processingQueue = new ArrayList<InitializationTask>();
 		doneTasks = new Stack<InitializationTask>(); 
 		initListeners = new HashSet<InitializationListener>();
+		timings = Collections.synchronizedMap(
+				new LinkedHashMap<String, Long>());
 		if (headless) initList.remove(SplashScreenInit.class);
 		container = c;
 	}
@@ -254,6 +425,20 @@ public class Initializer
         }
 	}
 	
+	/**
+	 * Queues the specified task for execution.
+	 * This should only be done for the purpose of testing.
+	 * 
+	 * @param task The task to queue. Mustn't be <code>null</code>.
+	 */
+	void addTask(InitializationTask task)
+	{
+		if (task == null) throw new NullPointerException("No task.");
+		task.linkContainer(container);
+		task.linkInitializer(this);
+		processingQueue.add(task);
+	}
+	
 	/**
 	 * Performs the initialization procedure.
 	 * 
@@ -263,18 +448,65 @@ public class Initializer
 	public void doInit()
 		throws StartupException
 	{
-		Iterator<InitializationTask> i = processingQueue.iterator();
-		
 		//Tell all listeners that we're about to start.
 		notifyStart();
 		
-		//Execute all pending tasks. 
-		while (i.hasNext()) {
-			currentTask = i.next();
-			notifyExecute();  //Tell listeners we're about to exec a task.
-			currentTask.execute();
-			doneTasks.push(currentTask);  //For later rollback if needed.
+		//Collect the prerequisites of each task among the queued ones.
+		Map<InitializationTask, Set<InitializationTask>> pending =
+			new LinkedHashMap<InitializationTask, Set<InitializationTask>>();
+		Set<InitializationTask> required;
+		Set<Class<?>> types;
+		for (InitializationTask task : processingQueue) {
+			required = new HashSet<InitializationTask>();
+			types = getPrerequisites(task);
+			for (InitializationTask other : processingQueue) {
+				if (other != task && requires(types, other))
+					required.add(other);
+			}
+			pending.put(task, required);
+		}
+		
+		//Execute the tasks as soon as their prerequisites have been executed.
+		ExecutorService executor = createExecutor(MAX_THREADS);
+		CompletionService<InitializationTask> service =
+			new ExecutorCompletionService<InitializationTask>(executor);
+		long start = System.currentTimeMillis();
+		Throwable failure = null;
+		int running = 0;
+		InitializationTask task;
+		try {
+			while (true) {
+				//Stop submitting tasks after a failure but wait for the
+				//running ones so that they can be rolled back.
+				if (failure == null) running += submitReady(pending, service);
+				if (running == 0) break;
+				try {
+					task = service.take().get();
+					doneTasks.push(task);  //For later rollback if needed.
+					for (Set<InitializationTask> s : pending.values())
+						s.remove(task);
+				} catch (ExecutionException e) {
+					if (failure == null) failure = e.getCause();
+				}
+				running--;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failure = e;
+		} finally {
+			executor.shutdown();
 		}
+		if (failure instanceof StartupException)
+			throw (StartupException) failure;
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		if (failure instanceof Error) throw (Error) failure;
+		if (failure != null)
+			throw new StartupException("Initialization failed.", failure);
+		if (!pending.isEmpty())
+			throw new StartupException("Circular dependency between the "+
+					"initialization tasks.");
+		logTimings(System.currentTimeMillis()-start);
 		
 		/*
 		//Tell all listeners that we're finished.
@@ -65,6 +65,16 @@ public final class LoginServiceInit
      */
     String getName() { return "Initializing Login Service"; }
 
+    /**
+     * Returns the tasks creating the services used to log in.
+     * @see InitializationTask#getPrerequisites()
+     */
+    Class<?>[] getPrerequisites()
+    {
+        return new Class<?>[] {LoggerInit.class, EventBusInit.class,
+            DataServicesInit.class};
+    }
+
     /** 
      * Does nothing, as this task requires no set up.
      * @see InitializationTask#configure()
@@ -60,6 +60,16 @@ public class RenderingServicesInit
      */
     String getName() { return "Starting rendering services"; }
 
+    /**
+     * Returns the task creating the logger used by the rendering
+     * services.
+     * @see InitializationTask#getPrerequisites()
+     */
+    Class<?>[] getPrerequisites()
+    {
+        return new Class<?>[] {LoggerInit.class};
+    }
+
     /** 
      * Does nothing, as this task requires no set up.
      * @see InitializationTask#configure()
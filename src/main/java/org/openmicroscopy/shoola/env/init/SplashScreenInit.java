@@ -52,7 +52,7 @@ public final class SplashScreenInit
 {
 	
 	/** The splash screen component. */
-	private SplashScreen	splashScreen;
+	private volatile SplashScreen	splashScreen;
 	
 	/** The total number of tasks to execute. */
 	private int 			totalTasks;
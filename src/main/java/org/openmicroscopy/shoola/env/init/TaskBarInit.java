@@ -68,6 +68,17 @@ public final class TaskBarInit
 	 */
 	String getName()  { return "Creating Task Bar"; }
 
+	/**
+	 * Returns the tasks that have to be executed before the look and
+	 * feel is set i.e. the splash screen has to be created first.
+	 * @see InitializationTask#getPrerequisites()
+	 */
+	Class<?>[] getPrerequisites()
+	{
+		return new Class<?>[] {LoggerInit.class, EventBusInit.class,
+			SplashScreenInit.class};
+	}
+
 	/** 
 	 * Does nothing, as this task requires no set up.
 	 * @see InitializationTask#configure()
@@ -62,6 +62,15 @@ public final class UserNotifierInit
 	 */
 	String getName()  { return "Starting User Notification Service"; }
 
+	/**
+	 * Returns the task setting the look and feel.
+	 * @see InitializationTask#getPrerequisites()
+	 */
+	Class<?>[] getPrerequisites()
+	{
+		return new Class<?>[] {TaskBarInit.class};
+	}
+
 	/** 
 	 * Does nothing, as this task requires no set up.
 	 * @see InitializationTask#configure()
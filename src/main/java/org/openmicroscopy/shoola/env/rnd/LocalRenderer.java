@@ -0,0 +1,582 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import omero.gateway.SecurityContext;
+import omero.gateway.exception.DSAccessException;
+import omero.gateway.exception.DSOutOfServiceException;
+import omero.model.Pixels;
+import omero.romio.PlaneDef;
+
+import org.openmicroscopy.shoola.env.data.FSAccessException;
+import org.openmicroscopy.shoola.env.rnd.data.ProjectionAccumulator;
+import org.openmicroscopy.shoola.env.rnd.data.RawPlane;
+import org.openmicroscopy.shoola.util.CommonsLangUtils;
+import org.openmicroscopy.shoola.util.image.geom.Factory;
+
+/**
+ * Renders XY-planes on the client from the cached raw planes, applying the
+ * quantization, the reverse intensity codomain map and the channel
+ * blending described by a {@link RndProxyDef}.
+ * Settings that can only be applied by the server i.e. lookup tables and
+ * noise reduction, are reported by {@link #canRender(RndProxyDef, PlaneDef)}
+ * so the caller can fall back to the rendering engine.
+ * <p>
+ * The image is split in bands of rows rendered in parallel.
+ * <p>
+ * Z-projections are computed from the raw planes and kept per channel
+ * so that extending the projected interval only folds in the new sections.
+ *
+ * @since 5.8
+ */
+class LocalRenderer
+{
+
+    /** The maximum number of rows rendered by a task. */
+    private static final int ROWS_PER_TASK = 64;
+
+    /** The maximum range of integer values mapped via a lookup table. */
+    private static final int MAX_LUT_SIZE = 1 << 16;
+
+    /** Maps the raw values of a channel to the RGB contributions. */
+    static class ChannelMap
+    {
+
+        /** The lower bound of the input window. */
+        private final double start;
+
+        /** The upper bound of the input window. */
+        private final double end;
+
+        /** The lower bound of the codomain interval. */
+        private final int cdStart;
+
+        /** The upper bound of the codomain interval. */
+        private final int cdEnd;
+
+        /** The quantization family. */
+        private final String family;
+
+        /** The curve coefficient. */
+        private final double k;
+
+        /** The mapped value of the window start. */
+        private final double ys;
+
+        /** Scales the mapped values to the bit resolution. */
+        private final double a0;
+
+        /** Scales the quantized values to the codomain. */
+        private final double a1;
+
+        /** Flag indicating to reverse the intensity. */
+        private final boolean reverse;
+
+        /** The red contributions, indexed by the codomain value. */
+        final int[] red;
+
+        /** The green contributions, indexed by the codomain value. */
+        final int[] green;
+
+        /** The blue contributions, indexed by the codomain value. */
+        final int[] blue;
+
+        /** Maps an integer raw value to a codomain value, may be null. */
+        int[] lut;
+
+        /** The raw value corresponding to the first entry of the lut. */
+        int lutOffset;
+
+        /**
+         * Maps the value according to the family.
+         *
+         * @param x The value to map.
+         * @return See above.
+         */
+        private double map(double x)
+        {
+            if (RenderingControl.POLYNOMIAL.equals(family))
+                return Math.pow(x, k);
+            if (RenderingControl.LOGARITHMIC.equals(family))
+                return x > 0 ? Math.log(x) : 0;
+            if (RenderingControl.EXPONENTIAL.equals(family))
+                return Math.exp(Math.pow(x, k));
+            return x;
+        }
+
+        /**
+         * Creates a new instance.
+         *
+         * @param def The rendering settings.
+         * @param channel The settings of the channel.
+         * @param grey Pass <code>true</code> to render in grey,
+         *             <code>false</code> to use the channel's colour.
+         */
+        ChannelMap(RndProxyDef def, ChannelBindingsProxy channel,
+                boolean grey)
+        {
+            start = channel.getInputStart();
+            end = channel.getInputEnd();
+            cdStart = def.getCdStart();
+            cdEnd = def.getCdEnd();
+            family = channel.getFamily();
+            k = channel.getCurveCoefficient();
+            reverse = channel.getReverseIntensity();
+            int bitResolution = Math.max(1, def.getBitResolution());
+            ys = map(start);
+            double ye = map(end);
+            a0 = ye != ys ? bitResolution/(ye-ys) : 0;
+            a1 = (double) (cdEnd-cdStart)/bitResolution;
+            int[] rgba = channel.getRGBA();
+            int n = Math.max(cdEnd, 255)+1;
+            red = new int[n];
+            green = new int[n];
+            blue = new int[n];
+            float alpha = grey ? 1f : rgba[3]/255f;
+            for (int q = 0; q < n; q++) {
+                if (grey) {
+                    red[q] = green[q] = blue[q] = q;
+                } else {
+                    red[q] = (int) (q*rgba[0]/255f*alpha);
+                    green[q] = (int) (q*rgba[1]/255f*alpha);
+                    blue[q] = (int) (q*rgba[2]/255f*alpha);
+                }
+            }
+        }
+
+        /**
+         * Returns <code>true</code> if the mapping is defined for the window,
+         * <code>false</code> otherwise e.g. the exponential overflows.
+         *
+         * @return See above.
+         */
+        boolean isValid()
+        {
+            return !Double.isNaN(a0) && !Double.isInfinite(a0)
+                    && !Double.isNaN(ys) && !Double.isInfinite(ys);
+        }
+
+        /**
+         * Quantizes the specified value and applies the codomain map.
+         *
+         * @param v The raw value.
+         * @return The codomain value.
+         */
+        int quantize(double v)
+        {
+            int q;
+            if (v <= start) q = cdStart;
+            else if (v >= end) q = cdEnd;
+            else {
+                double m = Math.round(a0*(map(v)-ys));
+                q = (int) Math.round(a1*m+cdStart);
+                if (q < cdStart) q = cdStart;
+                else if (q > cdEnd) q = cdEnd;
+            }
+            if (reverse) q = cdEnd-q+cdStart;
+            return q;
+        }
+
+        /**
+         * Builds the lookup table for the integer values of the plane.
+         *
+         * @param plane The plane to render.
+         */
+        void prepare(RawPlane plane)
+        {
+            lut = null;
+            if (!plane.isIntegral()) return;
+            int min = (int) plane.getMin();
+            int max = (int) plane.getMax();
+            if ((long) max-min >= MAX_LUT_SIZE) return;
+            lutOffset = min;
+            lut = new int[max-min+1];
+            for (int i = 0; i < lut.length; i++)
+                lut[i] = quantize(min+i);
+        }
+    }
+
+    /** Renders a band of rows. */
+    private static class BandTask
+        extends RecursiveAction
+    {
+
+        /** The maps of the rendered channels. */
+        private final ChannelMap[] maps;
+
+        /** The planes of the rendered channels. */
+        private final RawPlane[] planes;
+
+        /** The output buffer. */
+        private final int[] out;
+
+        /** The x-coordinate of the region in the plane. */
+        private final int x0;
+
+        /** The y-coordinate of the region in the plane. */
+        private final int y0;
+
+        /** The width of the region. */
+        private final int width;
+
+        /** The first row of the band, relative to the region. */
+        private final int from;
+
+        /** The last row (excluded) of the band, relative to the region. */
+        private final int to;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param maps The maps of the rendered channels.
+         * @param planes The planes of the rendered channels.
+         * @param out The output buffer.
+         * @param x0 The x-coordinate of the region in the plane.
+         * @param y0 The y-coordinate of the region in the plane.
+         * @param width The width of the region.
+         * @param from The first row of the band.
+         * @param to The last row (excluded) of the band.
+         */
+        BandTask(ChannelMap[] maps, RawPlane[] planes, int[] out, int x0,
+                int y0, int width, int from, int to)
+        {
+            this.maps = maps;
+            this.planes = planes;
+            this.out = out;
+            this.x0 = x0;
+            this.y0 = y0;
+            this.width = width;
+            this.from = from;
+            this.to = to;
+        }
+
+        /** Renders the rows. */
+        private void renderRows()
+        {
+            int n = maps.length;
+            int sizeX = planes[0].getSizeX();
+            int src, dst, q, r, g, b, i;
+            ChannelMap m;
+            RawPlane p;
+            for (int y = from; y < to; y++) {
+                src = (y+y0)*sizeX+x0;
+                dst = y*width;
+                for (int x = 0; x < width; x++) {
+                    r = 0;
+                    g = 0;
+                    b = 0;
+                    i = src+x;
+                    for (int c = 0; c < n; c++) {
+                        m = maps[c];
+                        p = planes[c];
+                        if (m.lut != null) q = m.lut[p.getInt(i)-m.lutOffset];
+                        else q = m.quantize(p.getValue(i));
+                        r += m.red[q];
+                        g += m.green[q];
+                        b += m.blue[q];
+                    }
+                    if (r > 255) r = 255;
+                    if (g > 255) g = 255;
+                    if (b > 255) b = 255;
+                    out[dst+x] = 0xFF000000 | (r << 16) | (g << 8) | b;
+                }
+            }
+        }
+
+        /**
+         * Splits the band or renders it.
+         * @see RecursiveAction#compute()
+         */
+        protected void compute()
+        {
+            if (to-from <= ROWS_PER_TASK) {
+                renderRows();
+                return;
+            }
+            int middle = (from+to) >>> 1;
+            invokeAll(new BandTask(maps, planes, out, x0, y0, width, from,
+                    middle),
+                    new BandTask(maps, planes, out, x0, y0, width, middle,
+                            to));
+        }
+    }
+
+    /** The security context. */
+    private final SecurityContext ctx;
+
+    /** The pixels set to render. */
+    private final Pixels pixels;
+
+    /** The projection accumulators, indexed by channel. */
+    private final Map<Integer, ProjectionAccumulator> accumulators;
+
+    /** The time-point of the accumulated sections. */
+    private int projectedT;
+
+    /**
+     * Renders the specified planes.
+     *
+     * @param def The rendering settings.
+     * @param planes The planes indexed by channel, <code>null</code> for
+     *               the channels not rendered.
+     * @param x The x-coordinate of the region.
+     * @param y The y-coordinate of the region.
+     * @param w The width of the region.
+     * @param h The height of the region.
+     * @return See above.
+     */
+    private BufferedImage render(RndProxyDef def, RawPlane[] planes, int x,
+            int y, int w, int h)
+    {
+        boolean grey = RenderingControl.GREY_SCALE.equals(def.getColorModel());
+        int n = 0;
+        ChannelMap[] maps = new ChannelMap[planes.length];
+        RawPlane[] values = new RawPlane[planes.length];
+        for (int c = 0; c < planes.length; c++) {
+            if (planes[c] == null) continue;
+            maps[n] = new ChannelMap(def, def.getChannel(c), grey);
+            values[n] = planes[c];
+            n++;
+            if (grey) break; //only the first active channel is rendered.
+        }
+        ChannelMap[] m = new ChannelMap[n];
+        RawPlane[] p = new RawPlane[n];
+        System.arraycopy(maps, 0, m, 0, n);
+        System.arraycopy(values, 0, p, 0, n);
+        return Factory.createImage(render(m, p, x, y, w, h), 32, w, h);
+    }
+
+    /**
+     * Renders the region of the specified planes.
+     *
+     * @param maps The maps of the rendered channels.
+     * @param planes The planes of the rendered channels, same size.
+     * @param x The x-coordinate of the region.
+     * @param y The y-coordinate of the region.
+     * @param width The width of the region.
+     * @param height The height of the region.
+     * @return The packed RGB values.
+     */
+    static int[] render(ChannelMap[] maps, RawPlane[] planes, int x, int y,
+            int width, int height)
+    {
+        int[] out = new int[width*height];
+        if (maps.length == 0) {
+            for (int i = 0; i < out.length; i++)
+                out[i] = 0xFF000000;
+            return out;
+        }
+        for (int c = 0; c < maps.length; c++)
+            maps[c].prepare(planes[c]);
+        ForkJoinPool.commonPool().invoke(
+                new BandTask(maps, planes, out, x, y, width, 0, height));
+        return out;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ctx The security context.
+     * @param pixels The pixels set to render.
+     */
+    LocalRenderer(SecurityContext ctx, Pixels pixels)
+    {
+        if (ctx == null)
+            throw new IllegalArgumentException("No security context.");
+        if (pixels == null) throw new IllegalArgumentException("No pixels.");
+        this.ctx = ctx;
+        this.pixels = pixels;
+        accumulators = new HashMap<Integer, ProjectionAccumulator>();
+        projectedT = -1;
+    }
+
+    /**
+     * Returns <code>true</code> if the active channels can be rendered on
+     * the client with the specified settings, <code>false</code> otherwise.
+     *
+     * @param def The rendering settings.
+     * @return See above.
+     */
+    boolean canRender(RndProxyDef def)
+    {
+        if (def == null) return false;
+        List<Integer> active = new ArrayList<Integer>();
+        ChannelBindingsProxy channel;
+        for (int i = 0; i < def.getNumberOfChannels(); i++) {
+            channel = def.getChannel(i);
+            if (channel != null && channel.isActive()) active.add(i);
+        }
+        return canRender(def, active);
+    }
+
+    /**
+     * Returns <code>true</code> if the specified channels can be rendered on
+     * the client with the specified settings, <code>false</code> otherwise
+     * e.g. a lookup table is used or the pixels type is not supported.
+     *
+     * @param def The rendering settings.
+     * @param channels The indexes of the channels to render.
+     * @return See above.
+     */
+    boolean canRender(RndProxyDef def, Collection<Integer> channels)
+    {
+        if (def == null || channels == null) return false;
+        if (pixels.getPixelsType() == null ||
+                pixels.getPixelsType().getValue() == null ||
+                !RawPlane.isSupported(
+                        pixels.getPixelsType().getValue().getValue()))
+            return false;
+        ChannelBindingsProxy channel;
+        for (Integer i : channels) {
+            channel = def.getChannel(i);
+            if (channel == null) return false;
+            if (CommonsLangUtils.isNotEmpty(channel.getLookupTable()) ||
+                    channel.isNoiseReduction())
+                return false;
+            if (!new ChannelMap(def, channel, false).isValid()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> if the plane can be rendered on the client
+     * with the specified settings, <code>false</code> otherwise.
+     *
+     * @param def The rendering settings.
+     * @param pDef The plane to render.
+     * @return See above.
+     */
+    boolean canRender(RndProxyDef def, PlaneDef pDef)
+    {
+        if (pDef == null || pDef.slice != omero.romio.XY.value) return false;
+        return canRender(def);
+    }
+
+    /**
+     * Renders the specified plane.
+     *
+     * @param def The rendering settings.
+     * @param pDef The plane to render.
+     * @return See above.
+     * @throws DSOutOfServiceException If the connection is broken.
+     * @throws DSAccessException If the raw data cannot be retrieved.
+     * @throws FSAccessException If the raw data cannot be retrieved
+     *                           using OMERO.fs.
+     */
+    BufferedImage render(RndProxyDef def, PlaneDef pDef)
+        throws DSOutOfServiceException, DSAccessException, FSAccessException
+    {
+        int sizeX = pixels.getSizeX().getValue();
+        int sizeY = pixels.getSizeY().getValue();
+        int x = 0, y = 0, w = sizeX, h = sizeY;
+        if (pDef.region != null) {
+            x = Math.max(0, pDef.region.x);
+            y = Math.max(0, pDef.region.y);
+            w = Math.min(pDef.region.width, sizeX-x);
+            h = Math.min(pDef.region.height, sizeY-y);
+        }
+        boolean grey = RenderingControl.GREY_SCALE.equals(def.getColorModel());
+        RawPlane[] planes = new RawPlane[def.getNumberOfChannels()];
+        ChannelBindingsProxy channel;
+        for (int c = 0; c < planes.length; c++) {
+            channel = def.getChannel(c);
+            if (channel == null || !channel.isActive()) continue;
+            planes[c] = PixelsServicesFactory.getRawPlane(ctx, pixels, pDef.z,
+                    pDef.t, c);
+            if (planes[c] == null) return null;
+            if (grey) break;
+        }
+        return render(def, planes, x, y, w, h);
+    }
+
+    /**
+     * Projects the selected z-sections of the active channels and renders
+     * the projection. The sections already accumulated for the time-point
+     * are reused when they belong to the interval.
+     *
+     * @param def The rendering settings.
+     * @param startZ The first section to project.
+     * @param endZ The last section to project.
+     * @param stepping The stepping used to select the sections.
+     * @param type The type of projection, one of the constants defined by
+     *             {@link ProjectionAccumulator}.
+     * @param t The time-point.
+     * @return See above.
+     * @throws DSOutOfServiceException If the connection is broken.
+     * @throws DSAccessException If the raw data cannot be retrieved.
+     * @throws FSAccessException If the raw data cannot be retrieved
+     *                           using OMERO.fs.
+     */
+    synchronized BufferedImage renderProjected(RndProxyDef def, int startZ,
+            int endZ, int stepping, int type, int t)
+        throws DSOutOfServiceException, DSAccessException, FSAccessException
+    {
+        if (t != projectedT) {
+            accumulators.clear();
+            projectedT = t;
+        }
+        int sizeX = pixels.getSizeX().getValue();
+        int sizeY = pixels.getSizeY().getValue();
+        int step = Math.max(1, stepping);
+        boolean grey = RenderingControl.GREY_SCALE.equals(def.getColorModel());
+        RawPlane[] planes = new RawPlane[def.getNumberOfChannels()];
+        ChannelBindingsProxy channel;
+        ProjectionAccumulator acc;
+        RawPlane plane;
+        for (int c = 0; c < planes.length; c++) {
+            channel = def.getChannel(c);
+            if (channel == null || !channel.isActive()) continue;
+            acc = accumulators.get(c);
+            if (acc == null || acc.getType() != type) {
+                acc = new ProjectionAccumulator(sizeX, sizeY, type);
+                accumulators.put(c, acc);
+            } else if (!acc.isWithin(startZ, endZ, step)) {
+                acc.clear();
+            }
+            for (int z = startZ; z <= endZ; z += step) {
+                if (acc.contains(z)) continue;
+                plane = PixelsServicesFactory.getRawPlane(ctx, pixels, z, t,
+                        c);
+                if (plane == null) return null;
+                acc.add(z, plane);
+            }
+            planes[c] = acc.getProjection(channel.getUpperBound());
+            if (grey) break;
+        }
+        //Release the accumulators of the channels no longer projected.
+        Iterator<Integer> i = accumulators.keySet().iterator();
+        while (i.hasNext()) {
+            if (planes[i.next()] == null) i.remove();
+        }
+        return render(def, planes, 0, 0, sizeX, sizeY);
+    }
+
+}
@@ -27,11 +27,10 @@ import java.lang.management.MemoryUsage;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import omero.api.RenderingEnginePrx;
 import omero.model.ChannelBinding;
@@ -45,8 +44,14 @@ import omero.romio.PlaneDef;
 import org.openmicroscopy.shoola.env.Container;
 import org.openmicroscopy.shoola.env.LookupNames;
 import org.openmicroscopy.shoola.env.config.Registry;
+import org.openmicroscopy.shoola.env.data.FSAccessException;
+import org.openmicroscopy.shoola.env.rnd.data.Histogram;
+import org.openmicroscopy.shoola.env.rnd.data.PlaneCache;
+import org.openmicroscopy.shoola.env.rnd.data.RawPlane;
+import org.openmicroscopy.shoola.util.image.geom.ImagePool;
 
 import omero.gateway.SecurityContext;
+import omero.gateway.exception.DSAccessException;
 import omero.gateway.exception.DSOutOfServiceException;
 import omero.gateway.exception.RenderingServiceException;
 import omero.gateway.rnd.DataSink;
@@ -86,6 +91,25 @@ public class PixelsServicesFactory
 	/** The maximum amount of memory in bytes used for caching. */
 	private static int						maxSize;
 
+	/** The default size, in Mb, of the cache of raw planes. */
+	private static final int				PLANE_CACHE_SIZE = 128;
+
+	/** The cache of raw planes shared by the client-side computations. */
+	private static PlaneCache				planeCache;
+
+	/** The maximum number of plane histograms cached. */
+	private static final int				HISTOGRAM_CACHE_SIZE = 1024;
+
+	/** The histograms of the planes, in access order. */
+	private static final Map<String, int[]> histograms =
+		new LinkedHashMap<String, int[]>(16, 0.75f, true) {
+			protected boolean removeEldestEntry(
+					Map.Entry<String, int[]> eldest)
+			{
+				return size() > HISTOGRAM_CACHE_SIZE;
+			}
+	};
+
 	/**
 	 * Converts the {@link RenderingDef} into a {@link RndProxyDef}.
 	 * 
@@ -239,8 +263,7 @@ public class PixelsServicesFactory
 			throw new IllegalArgumentException("Not allow to access method.");
 		if (reList == null || reList.size() == 0)
 			throw new IllegalArgumentException("No RE specified.");
-		RenderingControlProxy proxy = (RenderingControlProxy) 
-		singleton.rndSvcProxies.get(pixelsID);
+		RenderingControlProxy proxy = singleton.rndSvcProxies.get(pixelsID);
 		if (proxy != null) {
 			proxy.shutDown();
 			proxy.setRenderingEngine(reList.get(0));
@@ -283,8 +306,7 @@ public class PixelsServicesFactory
 			throw new IllegalArgumentException("Not allow to access method.");
 		if (reList == null || reList.size() == 0)
 			throw new IllegalArgumentException("No RE specified.");
-		RenderingControlProxy proxy = (RenderingControlProxy) 
-		singleton.rndSvcProxies.get(pixelsID);
+		RenderingControlProxy proxy = singleton.rndSvcProxies.get(pixelsID);
 		if (proxy != null) {
 			RndProxyDef converted = convert(def);
 			proxy.resetRenderingEngine(reList.get(0), converted);
@@ -319,21 +341,34 @@ public class PixelsServicesFactory
 	{
 		if (!(context.equals(registry)))
 			throw new IllegalArgumentException("Not allow to access method.");
-		RenderingControlProxy proxy = (RenderingControlProxy) 
-			singleton.rndSvcProxies.get(pixelsID);
-		Integer count = singleton.rndSvcProxiesCount.get(pixelsID);
+		if (!singleton.rndSvcProxies.contains(pixelsID)) return false;
+		RenderingControlProxy proxy =
+			singleton.rndSvcProxies.release(pixelsID);
 		if (proxy != null) {
-			if (count == 1) {
-				proxy.shutDown();
-				singleton.rndSvcProxies.remove(pixelsID);
-				singleton.rndSvcProxiesCount.remove(pixelsID);
-			} else {
-				count--;
-				singleton.rndSvcProxiesCount.put(pixelsID, count);
-			}
-			return (singleton.rndSvcProxiesCount.containsKey(pixelsID));
+			proxy.shutDown();
+			getPlaneCache().remove(pixelsID);
 		}
-		return false;
+		return singleton.rndSvcProxies.contains(pixelsID);
+	}
+	
+	/**
+	 * Returns the rendering engines used to render the specified pixels
+	 * set or <code>null</code> if the pixels set is not rendered.
+	 * 
+	 * @param context   Reference to the registry. To ensure that agents cannot
+	 *                  call the method. It must be a reference to the
+	 *                  container's registry.
+	 * @param pixelsID  The ID of the pixels set.
+	 * @return See above.
+	 */
+	public static List<RenderingEnginePrx> getRenderingEngines(
+			Registry context, long pixelsID)
+	{
+		if (!(context.equals(registry)))
+			throw new IllegalArgumentException("Not allow to access method.");
+		RenderingControlProxy proxy = singleton.rndSvcProxies.get(pixelsID);
+		if (proxy == null) return null;
+		return proxy.getRenderingEngines();
 	}
 	
 	/** 
@@ -347,27 +382,22 @@ public class PixelsServicesFactory
 	{
 		//Note that the class should be deleted.
 		singleton.rndSvcProxies.clear();
-		singleton.rndSvcProxiesCount.clear();
 	}
 
 
 	/** 
 	 * Checks if the rendering controls are still active. Shuts the inactive
-	 * ones.
+	 * ones and logs the number of controls and the memory used.
 	 * 
 	 * @param context Reference to the registry. To ensure that agents cannot
 	 *                call the method. It must be a reference to the
 	 *                container's registry.
+	 * @return The IDs of the pixels sets whose control has been shut down.
 	 */
-	public static void checkRenderingControls(Registry context)
+	public static List<Long> checkRenderingControls(Registry context)
 	{
-		// TODO Auto-generated method stub
 		if (!(context.equals(registry)))
 			throw new IllegalArgumentException("Not allow to access method.");
-		RenderingControlProxy proxy;
-		Entry<Long, RenderingControl> e;
-		Iterator<Entry<Long, RenderingControl>> i =
-				singleton.rndSvcProxies.entrySet().iterator();
 		Long value = (Long) context.lookup(LookupNames.RE_TIMEOUT);
 		 
 		long timeout = 60000; //1min
@@ -375,15 +405,77 @@ public class PixelsServicesFactory
 			timeout = value.longValue();
 			
 		Logger logger = context.getLogger();
-		while (i.hasNext()) {
-			e = i.next();
-			proxy = (RenderingControlProxy) e.getValue();
-			if (!proxy.isProxyActive(timeout)) {
-				if (!proxy.shutDown())
-					logger.info(singleton,
-							"Rendering Engine shut down: PixelsID "+e.getKey());
-			}
-		}
+		RenderingControlRegistry controls = singleton.rndSvcProxies;
+		List<Long> expired = controls.expire(timeout);
+		Iterator<Long> i = expired.iterator();
+		while (i.hasNext())
+			logger.info(singleton,
+					"Rendering Engine shut down: PixelsID "+i.next());
+		MemoryUsage usage =
+			ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+		logger.debug(singleton, "Rendering controls: live="+
+				controls.getLiveCount()+", engines="+
+				controls.getEngineCount()+", created="+
+				controls.getCreatedCount()+", duplicates="+
+				controls.getDuplicateCount()+", plane cache="+
+				getPlaneCache().getSize()+" bytes, image pool: "+
+				ImagePool.getDefault()+", heap used="+
+				usage.getUsed()+" bytes");
+		return expired;
+	}
+
+	/**
+	 * Returns the number of rendering controls in use.
+	 * 
+	 * @param context Reference to the registry. To ensure that agents cannot
+	 *                call the method. It must be a reference to the
+	 *                container's registry.
+	 * @return See above.
+	 */
+	public static int getRenderingControlCount(Registry context)
+	{
+		if (!(context.equals(registry)))
+			throw new IllegalArgumentException("Not allow to access method.");
+		return singleton.rndSvcProxies.getLiveCount();
+	}
+
+	/**
+	 * Claims the creation of the {@link RenderingControl} linked to the
+	 * passed set of pixels so that the rendering engines are created only
+	 * once. Returns <code>true</code> if the caller has to create the
+	 * control and then invoke
+	 * {@link #endRenderingControlCreation(Registry, long)},
+	 * <code>false</code> if the control should be looked up again.
+	 * 
+	 * @param context Reference to the registry. To ensure that agents cannot
+	 *                call the method. It must be a reference to the
+	 *                container's registry.
+	 * @param pixelsID The id of the pixels set.
+	 * @return See above.
+	 */
+	public static boolean startRenderingControlCreation(Registry context,
+			long pixelsID)
+	{
+		if (!(context.equals(registry)))
+			throw new IllegalArgumentException("Not allow to access method.");
+		return singleton.rndSvcProxies.startCreation(pixelsID);
+	}
+
+	/**
+	 * Ends the creation of the {@link RenderingControl} linked to the passed
+	 * set of pixels, whether the control has been created or not.
+	 * 
+	 * @param context Reference to the registry. To ensure that agents cannot
+	 *                call the method. It must be a reference to the
+	 *                container's registry.
+	 * @param pixelsID The id of the pixels set.
+	 */
+	public static void endRenderingControlCreation(Registry context,
+			long pixelsID)
+	{
+		if (!(context.equals(registry)))
+			throw new IllegalArgumentException("Not allow to access method.");
+		singleton.rndSvcProxies.endCreation(pixelsID);
 	}
 	
 	/**
@@ -404,11 +496,7 @@ public class PixelsServicesFactory
 	{
 		if (!(context.equals(registry)))
 			throw new IllegalArgumentException("Not allow to access method.");
-		if (init && singleton.rndSvcProxiesCount.containsKey(pixelsID)) {
-			Integer count = singleton.rndSvcProxiesCount.get(pixelsID);
-			count++;
-			singleton.rndSvcProxiesCount.put(pixelsID, count);
-		}
+		if (init) return singleton.rndSvcProxies.acquire(pixelsID);
 		return singleton.rndSvcProxies.get(pixelsID);
 	}
 	
@@ -426,9 +514,7 @@ public class PixelsServicesFactory
 	{
 		if (!(context.equals(registry)))
 			throw new IllegalArgumentException("Not allow to access method.");
-		if (!singleton.rndSvcProxiesCount.containsKey(pixelsID)) return false;
-		Integer count = singleton.rndSvcProxiesCount.get(pixelsID);
-		return (count > 1);
+		return singleton.rndSvcProxies.isShared(pixelsID);
 	}
 	
 	/**
@@ -455,8 +541,7 @@ public class PixelsServicesFactory
 	{
 		if (!(context.equals(registry)))
 			throw new IllegalArgumentException("Not allow to access method.");
-		RenderingControlProxy proxy = 
-			(RenderingControlProxy) singleton.rndSvcProxies.get(pixelsID);
+		RenderingControlProxy proxy = singleton.rndSvcProxies.get(pixelsID);
 		if (proxy == null) 
 			throw new RuntimeException("No rendering service " +
 			"initialized for the specified pixels set.");
@@ -496,8 +581,7 @@ public class PixelsServicesFactory
 	{
 		if (!(context.equals(registry)))
 			throw new IllegalArgumentException("Not allow to access method.");
-		RenderingControlProxy proxy = 
-			(RenderingControlProxy) singleton.rndSvcProxies.get(pixelsID);
+		RenderingControlProxy proxy = singleton.rndSvcProxies.get(pixelsID);
 		if (proxy == null) 
 			throw new RuntimeException("No rendering service " +
 			"initialized for the specified pixels set.");
@@ -529,8 +613,7 @@ public class PixelsServicesFactory
 	{
 		if (!(context.equals(registry)))
 			throw new IllegalArgumentException("Not allow to access method.");
-		RenderingControlProxy proxy = 
-			(RenderingControlProxy) singleton.rndSvcProxies.get(pixelsID);
+		RenderingControlProxy proxy = singleton.rndSvcProxies.get(pixelsID);
 		if (proxy == null) 
 			throw new RuntimeException("No rendering service " +
 			"initialized for the specified pixels set.");
@@ -538,6 +621,185 @@ public class PixelsServicesFactory
 		return proxy.renderProjected(startZ, endZ, stepping, type, channels);
 	}
 
+	/**
+	 * Returns <code>true</code> if the projection of the specified channels
+	 * is computed on the client, <code>false</code> if it is computed by
+	 * the server or no rendering service is initialized for the pixels set.
+	 * 
+	 * @param context Reference to the registry. To ensure that agents cannot
+	 *                call the method. It must be a reference to the
+	 *                container's registry.
+	 * @param pixelsID The ID of the pixels set.
+	 * @param type The type of projection.
+	 * @param channels The channels to project.
+	 * @return See above.
+	 */
+	public static boolean canRenderProjectedLocally(Registry context,
+			long pixelsID, int type, List<Integer> channels)
+	{
+		if (!(context.equals(registry)))
+			throw new IllegalArgumentException("Not allow to access method.");
+		RenderingControlProxy proxy = singleton.rndSvcProxies.get(pixelsID);
+		if (proxy == null || channels == null) return false;
+		return proxy.canRenderProjectedLocally(type, channels);
+	}
+
+	/**
+	 * Returns the cache of raw planes shared by the client-side rendering
+	 * and analysis. The size of the cache is read from the registry.
+	 * 
+	 * @return See above.
+	 */
+	public static synchronized PlaneCache getPlaneCache()
+	{
+		if (planeCache == null) {
+			int size = PLANE_CACHE_SIZE;
+			Integer value = registry == null ? null :
+				(Integer) registry.lookup(LookupNames.RE_PLANE_CACHE_SZ);
+			if (value != null && value.intValue() >= 0)
+				size = value.intValue();
+			planeCache = new PlaneCache(size*1024L*1024L);
+		}
+		return planeCache;
+	}
+
+	/**
+	 * Returns the raw plane identified by the passed z-section, time-point
+	 * and channel. The plane is retrieved from the server via the
+	 * <code>RawPixelsStore</code> the first time and then read from the
+	 * {@link #getPlaneCache() cache}.
+	 * 
+	 * @param ctx The security context.
+	 * @param pixels The pixels set.
+	 * @param z The selected z-section.
+	 * @param t The selected time-point.
+	 * @param c The selected channel.
+	 * @return See above or <code>null</code> if the plane cannot be read.
+	 * @throws DSOutOfServiceException If the connection is broken.
+	 * @throws DSAccessException If an error occurred while trying to
+	 *                           retrieve data from OMEDS service.
+	 * @throws FSAccessException If an error occurred while trying to
+	 *                           retrieve data using OMERO.fs.
+	 */
+	public static RawPlane getRawPlane(SecurityContext ctx, Pixels pixels,
+			int z, int t, int c)
+		throws DSOutOfServiceException, DSAccessException, FSAccessException
+	{
+		if (pixels == null) throw new IllegalArgumentException("No pixels.");
+		long id = pixels.getId().getValue();
+		PlaneCache cache = getPlaneCache();
+		RawPlane plane = cache.get(id, z, t, c);
+		if (plane != null) return plane;
+		byte[] data = registry.getImageService().getPlane(ctx, id, z, t, c);
+		if (data == null) return null;
+		plane = RawPlane.decode(data,
+				pixels.getPixelsType().getValue().getValue(),
+				pixels.getSizeX().getValue(), pixels.getSizeY().getValue());
+		cache.put(id, z, t, c, plane);
+		return plane;
+	}
+
+	/**
+	 * Returns the key identifying the histogram of a plane.
+	 * 
+	 * @param pixels The pixels set.
+	 * @param z The selected z-section.
+	 * @param t The selected time-point.
+	 * @param c The selected channel.
+	 * @param binCount The number of bins.
+	 * @return See above.
+	 */
+	private static String getHistogramKey(Pixels pixels, int z, int t, int c,
+			int binCount)
+	{
+		return pixels.getId().getValue()+"_"+z+"_"+t+"_"+c+"_"+binCount;
+	}
+
+	/**
+	 * Returns the histogram of the plane identified by the passed
+	 * z-section, time-point and channel, computed on the client over the
+	 * range of the plane. The histograms are cached.
+	 * 
+	 * @param ctx The security context.
+	 * @param pixels The pixels set.
+	 * @param z The selected z-section.
+	 * @param t The selected time-point.
+	 * @param c The selected channel.
+	 * @param binCount The number of bins.
+	 * @return The number of values per bin or <code>null</code> if the
+	 *         plane cannot be read.
+	 * @throws DSOutOfServiceException If the connection is broken.
+	 * @throws DSAccessException If an error occurred while trying to
+	 *                           retrieve data from OMEDS service.
+	 * @throws FSAccessException If an error occurred while trying to
+	 *                           retrieve data using OMERO.fs.
+	 */
+	public static int[] getHistogram(SecurityContext ctx, Pixels pixels,
+			int z, int t, int c, int binCount)
+		throws DSOutOfServiceException, DSAccessException, FSAccessException
+	{
+		if (pixels == null) throw new IllegalArgumentException("No pixels.");
+		int[] bins = getCachedHistogram(pixels, z, t, c, binCount);
+		if (bins != null) return bins;
+		RawPlane plane = getRawPlane(ctx, pixels, z, t, c);
+		if (plane == null) return null;
+		bins = Histogram.compute(plane, binCount).getBins();
+		cacheHistogram(pixels, z, t, c, binCount, bins);
+		return bins;
+	}
+
+	/**
+	 * Returns the histogram of the plane identified by the passed
+	 * z-section, time-point and channel if it is cached or if the plane is
+	 * in the {@link #getPlaneCache() cache}, <code>null</code> otherwise.
+	 * The server is not contacted.
+	 * 
+	 * @param pixels The pixels set.
+	 * @param z The selected z-section.
+	 * @param t The selected time-point.
+	 * @param c The selected channel.
+	 * @param binCount The number of bins.
+	 * @return See above.
+	 */
+	public static int[] getCachedHistogram(Pixels pixels, int z, int t, int c,
+			int binCount)
+	{
+		if (pixels == null) throw new IllegalArgumentException("No pixels.");
+		String key = getHistogramKey(pixels, z, t, c, binCount);
+		int[] bins;
+		synchronized (histograms) {
+			bins = histograms.get(key);
+		}
+		if (bins != null) return bins.clone();
+		RawPlane plane = getPlaneCache().get(pixels.getId().getValue(),
+				z, t, c);
+		if (plane == null) return null;
+		bins = Histogram.compute(plane, binCount).getBins();
+		cacheHistogram(pixels, z, t, c, binCount, bins);
+		return bins;
+	}
+
+	/**
+	 * Caches the histogram of the plane identified by the passed z-section,
+	 * time-point and channel e.g. a histogram computed by the server.
+	 * 
+	 * @param pixels The pixels set.
+	 * @param z The selected z-section.
+	 * @param t The selected time-point.
+	 * @param c The selected channel.
+	 * @param binCount The number of bins.
+	 * @param bins The number of values per bin.
+	 */
+	public static void cacheHistogram(Pixels pixels, int z, int t, int c,
+			int binCount, int[] bins)
+	{
+		if (pixels == null || bins == null) return;
+		String key = getHistogramKey(pixels, z, t, c, binCount);
+		synchronized (histograms) {
+			histograms.put(key, bins.clone());
+		}
+	}
+
 	/**
 	 * Returns the compression quality related to the passed level.
 	 * 
@@ -561,23 +823,19 @@ public class PixelsServicesFactory
 		}
 	}
 	
-	/** Keep track of all the rendering service already initialized. */
-	private Map<Long, RenderingControl>	rndSvcProxies;
+	/**
+	 * Keep track of all the rendering service already initialized and of the
+	 * number of times each of them has been requested to be initialized.
+	 */
+	private RenderingControlRegistry	rndSvcProxies;
 
 	/** Access to the raw data. */
 	private DataSink					pixelsSource;
-
-	/**
-	 * Keep track of the number of times the rendering proxy has been requested
-	 * to be initialized.
-	 */
-	private Map<Long, Integer>			rndSvcProxiesCount;
 	
 	/** Creates the sole instance. */
 	private PixelsServicesFactory()
 	{
-		rndSvcProxies = new HashMap<Long, RenderingControl>();
-		rndSvcProxiesCount = new HashMap<Long, Integer>();
+		rndSvcProxies = new RenderingControlRegistry();
 	}
 	
 	/**
@@ -600,10 +858,8 @@ public class PixelsServicesFactory
 	{
 		if (singleton == null) throw new NullPointerException();
 		Long id = pixels.getId().getValue();
-		RenderingControl rnd = 
-			(RenderingControl) singleton.rndSvcProxies.get(id);
+		RenderingControlProxy rnd = singleton.rndSvcProxies.get(id);
 		if (rnd != null) return rnd;
-		singleton.rndSvcProxiesCount.put(id, 1);
 		RenderingEnginePrx master = reList.get(0);
 		reList.remove(0);
 		rnd = new RenderingControlProxy(registry, ctx, master, pixels, metadata,
@@ -616,11 +872,9 @@ public class PixelsServicesFactory
 				slaves.add(new RenderingControlProxy(registry, ctx, 
 						i.next(), pixels, metadata, compression, defs));
 			}
-			((RenderingControlProxy) rnd).setSlaves(slaves);
+			rnd.setSlaves(slaves);
 		}
-		
-		singleton.rndSvcProxies.put(id, rnd);
-		return rnd;
+		return singleton.rndSvcProxies.register(id, rnd);
 	}
 
 }
@@ -28,6 +28,7 @@ import java.awt.image.BufferedImage;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -64,6 +65,7 @@ import omero.gateway.exception.DSOutOfServiceException;
 import omero.gateway.exception.RenderingServiceException;
 import omero.log.LogMessage;
 
+import org.openmicroscopy.shoola.env.rnd.data.ProjectionAccumulator;
 import org.openmicroscopy.shoola.env.rnd.data.ResolutionLevel;
 import org.openmicroscopy.shoola.util.image.geom.Factory;
 import org.openmicroscopy.shoola.util.image.io.WriterImage;
@@ -171,6 +173,16 @@ class RenderingControlProxy
 	/** The lookup tables */
 	private Collection<String> lookupTables;
 	
+	/** Renders the planes on the client or <code>null</code> if disabled.*/
+	private LocalRenderer localRenderer;
+	
+	/** 
+	 * The channels modified locally and not yet sent to the rendering
+	 * engine. Modified on the Swing thread and flushed by the loader
+	 * threads so the set is used as its own lock.
+	 */
+	private final Set<Integer> dirtyChannels = new HashSet<Integer>();
+	
     /**
      * Maps the color channel Red to {@link #RED_INDEX}, Blue to 
      * {@link #BLUE_INDEX}, Green to {@link #GREEN_INDEX} and
@@ -452,6 +464,7 @@ class RenderingControlProxy
 	{
 		//Need to adjust the cache.
 		//Object array = getFromCache(pDef);
+		flushLocalChanges();
 		try {
 			byte[] values = servant.renderCompressed(pDef);
 			imageSize = values.length;
@@ -480,6 +493,7 @@ class RenderingControlProxy
 		throws RenderingServiceException, DSOutOfServiceException
 	{
         BufferedImage img = null;
+        flushLocalChanges();
         try {
         	int[] buf = servant.renderAsPackedInt(pDef);
             Point p = getSize(pDef);
@@ -513,6 +527,7 @@ class RenderingControlProxy
 		int stepping, int type)
 		throws RenderingServiceException, DSOutOfServiceException
 	{
+		flushLocalChanges();
 		try {
 			byte[] values = servant.renderProjectedCompressed(
 					ProjectionParam.convertType(type), 
@@ -547,6 +562,7 @@ class RenderingControlProxy
 		throws RenderingServiceException, DSOutOfServiceException
 	{
         BufferedImage img = null;
+        flushLocalChanges();
         try {
             int[] buf = servant.renderProjectedAsPackedInt(
             		ProjectionParam.convertType(type), 
@@ -566,6 +582,133 @@ class RenderingControlProxy
         return img;
 	}
 	
+	/**
+	 * Returns <code>true</code> if the planes are rendered on the client,
+	 * <code>false</code> otherwise.
+	 * 
+	 * @return See above.
+	 */
+	private boolean isLocal()
+	{
+		return localRenderer != null && !isBigImage();
+	}
+	
+	/**
+	 * Renders the plane on the client. Returns <code>null</code> if the
+	 * settings or the plane cannot be rendered locally.
+	 * 
+	 * @param pDef The plane to render.
+	 * @return See above.
+	 */
+	private BufferedImage renderLocal(PlaneDef pDef)
+	{
+		if (!isLocal() || !localRenderer.canRender(rndDef, pDef)) return null;
+		try {
+			return localRenderer.render(rndDef, pDef);
+		} catch (Exception e) {
+			log("Cannot render the plane on the client "+e);
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the type of projection computed on the client corresponding
+	 * to the passed type or <code>-1</code> if the type is not supported.
+	 * 
+	 * @param type The projection type e.g.
+	 *             {@link ProjectionParam#MAXIMUM_INTENSITY}.
+	 * @return See above.
+	 */
+	private static int getAccumulatorType(int type)
+	{
+		if (type == ProjectionParam.MAXIMUM_INTENSITY)
+			return ProjectionAccumulator.MAXIMUM;
+		if (type == ProjectionParam.MEAN_INTENSITY)
+			return ProjectionAccumulator.MEAN;
+		if (type == ProjectionParam.SUM_INTENSITY)
+			return ProjectionAccumulator.SUM;
+		return -1;
+	}
+	
+	/**
+	 * Returns <code>true</code> if the specified channels can be projected
+	 * and rendered on the client with the current settings,
+	 * <code>false</code> if the projection falls back to the server.
+	 * 
+	 * @param type The projection type.
+	 * @param channels The channels to project.
+	 * @return See above.
+	 */
+	boolean canRenderProjectedLocally(int type, List<Integer> channels)
+	{
+		return isLocal() && getAccumulatorType(type) >= 0 &&
+				localRenderer.canRender(rndDef, channels);
+	}
+	
+	/**
+	 * Projects and renders the active channels on the client.
+	 * Returns <code>null</code> if the projection cannot be computed locally.
+	 * 
+	 * @param startZ The first optical section.
+	 * @param endZ The last optical section.
+	 * @param stepping The stepping of the projection.
+	 * @param type The projection type.
+	 * @return See above.
+	 */
+	private BufferedImage renderProjectedLocal(int startZ, int endZ,
+			int stepping, int type)
+	{
+		if (!isLocal() || !localRenderer.canRender(rndDef)) return null;
+		int algorithm = getAccumulatorType(type);
+		if (algorithm < 0) return null;
+		try {
+			return localRenderer.renderProjected(rndDef, startZ, endZ,
+					stepping, algorithm, getDefaultT());
+		} catch (Exception e) {
+			log("Cannot project the image on the client "+e);
+		}
+		return null;
+	}
+	
+	/**
+	 * Sends the settings of the channels modified locally to the rendering
+	 * engine.
+	 * 
+	 * @throws RenderingServiceException If an error occurred while setting
+     * the value.
+     * @throws DSOutOfServiceException If the connection is broken.
+	 */
+	private void flushLocalChanges()
+		throws RenderingServiceException, DSOutOfServiceException
+	{
+		Integer[] channels;
+		synchronized (dirtyChannels) {
+			if (dirtyChannels.isEmpty()) return;
+			channels = dirtyChannels.toArray(
+					new Integer[dirtyChannels.size()]);
+			dirtyChannels.clear();
+		}
+		ChannelBindingsProxy cb;
+		int[] rgba;
+		try {
+			for (int index : channels) {
+				cb = rndDef.getChannel(index);
+				if (cb == null) continue;
+				servant.setActive(index, cb.isActive());
+				servant.setChannelWindow(index, cb.getInputStart(),
+						cb.getInputEnd());
+				rgba = cb.getRGBA();
+				servant.setRGBA(index, rgba[0], rgba[1], rgba[2], rgba[3]);
+			}
+		} catch (Exception e) {
+			//Sent again with the next call.
+			synchronized (dirtyChannels) {
+				dirtyChannels.addAll(Arrays.asList(channels));
+			}
+			handleException(e, ERROR+"channels modified locally.");
+		}
+	}
+	
 	/** Checks if the proxy is still alive.*/
 	private void isSessionAlive()
 		throws RenderingServiceException
@@ -672,6 +815,10 @@ class RenderingControlProxy
             tmpSolutionForNoiseReduction();
 		} catch (Exception e) {
 		}
+        Boolean local = (Boolean) context.lookup(
+                LookupNames.RE_LOCAL_RENDERING);
+        if (local != null && local.booleanValue())
+            localRenderer = new LocalRenderer(ctx, pixels);
     }
 
     /**
@@ -710,6 +857,22 @@ class RenderingControlProxy
     	return time-lastAction < timeout;
     }
     
+    /**
+     * Returns the rendering engines used by this control and its slaves.
+     * 
+     * @return See above.
+     */
+    List<RenderingEnginePrx> getRenderingEngines()
+    {
+    	List<RenderingEnginePrx> 
+    	engines = new ArrayList<RenderingEnginePrx>(slaves.size()+1);
+    	engines.add(servant);
+    	Iterator<RenderingControl> i = slaves.iterator();
+    	while (i.hasNext())
+    		engines.add(((RenderingControlProxy) i.next()).servant);
+    	return engines;
+    }
+    
     /** Sets the rendering control associated to the main control.*/
     void setSlaves(List<RenderingControl> slaves)
     {
@@ -739,6 +902,9 @@ class RenderingControlProxy
     	this.servant = servant;
     	shutDown = false;
     	lastAction = System.currentTimeMillis();
+    	synchronized (dirtyChannels) {
+    		dirtyChannels.clear();
+    	}
     	try {
     		if (rndDef == null) {
             	initialize();
@@ -781,6 +947,9 @@ class RenderingControlProxy
     	this.servant = servant;
     	shutDown = false;
     	lastAction = System.currentTimeMillis();
+    	synchronized (dirtyChannels) {
+    		dirtyChannels.clear();
+    	}
     	// reset default of the rendering engine.
     	if (rndDef == null) return;
     	try {
@@ -1042,9 +1211,15 @@ class RenderingControlProxy
     public void setChannelWindow(int index, double start, double end)
     	throws RenderingServiceException, DSOutOfServiceException
     {
-    	isSessionAlive();
+    	boolean local = isLocal();
+    	if (local) lastAction = System.currentTimeMillis();
+    	else isSessionAlive();
     	try {
-    		servant.setChannelWindow(index, start, end);
+    		if (local) {
+    			synchronized (dirtyChannels) {
+    				dirtyChannels.add(index);
+    			}
+    		} else servant.setChannelWindow(index, start, end);
             rndDef.getChannel(index).setInterval(start, end);
             Iterator<RenderingControl> i = slaves.iterator();
     		while (i.hasNext())
@@ -1083,9 +1258,15 @@ class RenderingControlProxy
     public void setRGBA(int index, Color c)
     	throws RenderingServiceException, DSOutOfServiceException
     {
-    	isSessionAlive();
+    	boolean local = isLocal();
+    	if (local) lastAction = System.currentTimeMillis();
+    	else isSessionAlive();
     	try {
-    		servant.setRGBA(index, c.getRed(), c.getGreen(), c.getBlue(),
+    		if (local) {
+    			synchronized (dirtyChannels) {
+    				dirtyChannels.add(index);
+    			}
+    		} else servant.setRGBA(index, c.getRed(), c.getGreen(), c.getBlue(),
     						c.getAlpha());
     		rndDef.getChannel(index).setRGBA(c.getRed(), c.getGreen(), c.getBlue(),
     						c.getAlpha());
@@ -1116,9 +1297,15 @@ class RenderingControlProxy
     public void setActive(int index, boolean active)
     	throws RenderingServiceException, DSOutOfServiceException
     { 
-    	isSessionAlive();
+    	boolean local = isLocal();
+    	if (local) lastAction = System.currentTimeMillis();
+    	else isSessionAlive();
     	try {
-    		servant.setActive(index, active);
+    		if (local) {
+    			synchronized (dirtyChannels) {
+    				dirtyChannels.add(index);
+    			}
+    		} else servant.setActive(index, active);
             rndDef.getChannel(index).setActive(active);
             Iterator<RenderingControl> i = slaves.iterator();
     		while (i.hasNext())
@@ -1219,6 +1406,7 @@ class RenderingControlProxy
             throws RenderingServiceException, DSOutOfServiceException
             {
         isSessionAlive();
+        flushLocalChanges();
         Iterator<RenderingControl> i = slaves.iterator();
         try {
             long userID = getUserID();
@@ -1251,6 +1439,9 @@ class RenderingControlProxy
     	throws RenderingServiceException, DSOutOfServiceException
     {
     	isSessionAlive();
+    	synchronized (dirtyChannels) {
+    		dirtyChannels.clear();
+    	}
     	try {
     		servant.resetDefaultSettings(false);
     		Iterator<RenderingControl> i = slaves.iterator();
@@ -1531,6 +1722,8 @@ class RenderingControlProxy
     {
     	if (pDef == null) 
              throw new IllegalArgumentException("Plane def cannot be null.");
+    	BufferedImage local = renderLocal(pDef);
+    	if (local != null) return local;
     	try {
     	    context.getImageService().isAlive(ctx);
 			servant.ice_ping();
@@ -1636,11 +1829,14 @@ class RenderingControlProxy
 		Iterator<Integer> j = channels.iterator();
 		while (j.hasNext()) 
 			setActive(j.next(), true);
-		BufferedImage img;
+		BufferedImage img = renderProjectedLocal(startZ, endZ, stepping, type);
 		retry = 0;
-        if (isCompressed()) 
-        	img = renderProjectedCompressed(startZ, endZ, stepping, type);
-        else img = renderProjectedUncompressed(startZ, endZ, stepping, type);
+		if (img == null) {
+			if (isCompressed()) 
+				img = renderProjectedCompressed(startZ, endZ, stepping, type);
+			else
+				img = renderProjectedUncompressed(startZ, endZ, stepping, type);
+		}
         //reset
         j = active.iterator();
         while (j.hasNext()) 
@@ -0,0 +1,303 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the {@link RenderingControl}s created and of the number of
+ * viewers using each of them. The look-ups do not lock. A loader claims
+ * the creation of the control of a pixels set before creating the
+ * rendering engines, the other loaders of the same pixels set wait for the
+ * creation to end without holding any lock, so that the rendering engines
+ * are created only once.
+ *
+ * @since 5.8
+ */
+class RenderingControlRegistry
+{
+
+    /** A registered control. */
+    private static class Registration
+    {
+
+        /** The control. */
+        private final RenderingControlProxy control;
+
+        /** The number of viewers using the control. */
+        private int count;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param control The control.
+         */
+        Registration(RenderingControlProxy control)
+        {
+            this.control = control;
+            count = 1;
+        }
+    }
+
+    /** The registered controls, the key is the id of the pixels set. */
+    private final ConcurrentMap<Long, Registration> controls;
+
+    /**
+     * The creations of controls in progress, the key is the id of the
+     * pixels set.
+     */
+    private final ConcurrentMap<Long, CountDownLatch> creations;
+
+    /** The number of controls created. */
+    private final AtomicLong created;
+
+    /**
+     * The number of controls created while another control was already
+     * registered for the same pixels set.
+     */
+    private final AtomicLong duplicates;
+
+    /** Creates a new instance. */
+    RenderingControlRegistry()
+    {
+        controls = new ConcurrentHashMap<Long, Registration>();
+        creations = new ConcurrentHashMap<Long, CountDownLatch>();
+        created = new AtomicLong();
+        duplicates = new AtomicLong();
+    }
+
+    /**
+     * Claims the creation of the control of the specified pixels set.
+     * Returns <code>true</code> if the caller has to create the control and
+     * then invoke {@link #endCreation(long)}. Returns <code>false</code>
+     * if a control is registered or once the creation in progress in
+     * another thread has ended, the caller should then look up the control
+     * again.
+     *
+     * @param pixelsID The id of the pixels set.
+     * @return See above.
+     */
+    boolean startCreation(long pixelsID)
+    {
+        CountDownLatch latch = new CountDownLatch(1);
+        CountDownLatch running = creations.putIfAbsent(pixelsID, latch);
+        if (running == null) {
+            //The control might have been registered since the look-up.
+            if (!controls.containsKey(pixelsID)) return true;
+            endCreation(pixelsID);
+            return false;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                running.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        return false;
+    }
+
+    /**
+     * Ends the creation of the control of the specified pixels set, whether
+     * the control has been created or not, and wakes up the threads waiting
+     * for it.
+     *
+     * @param pixelsID The id of the pixels set.
+     */
+    void endCreation(long pixelsID)
+    {
+        CountDownLatch latch = creations.remove(pixelsID);
+        if (latch != null) latch.countDown();
+    }
+
+    /**
+     * Returns the control of the specified pixels set or <code>null</code>
+     * if none.
+     *
+     * @param pixelsID The id of the pixels set.
+     * @return See above.
+     */
+    RenderingControlProxy get(long pixelsID)
+    {
+        Registration r = controls.get(pixelsID);
+        return r == null ? null : r.control;
+    }
+
+    /**
+     * Returns the control of the specified pixels set and increases the
+     * number of viewers using it. Returns <code>null</code> if none.
+     *
+     * @param pixelsID The id of the pixels set.
+     * @return See above.
+     */
+    RenderingControlProxy acquire(long pixelsID)
+    {
+        Registration r = controls.computeIfPresent(pixelsID,
+                (id, v) -> { v.count++; return v; });
+        return r == null ? null : r.control;
+    }
+
+    /**
+     * Registers the newly created control. Returns the control already
+     * registered for the pixels set, with the number of viewers increased,
+     * or the passed control if none.
+     *
+     * @param pixelsID The id of the pixels set.
+     * @param control The control to register.
+     * @return See above.
+     */
+    RenderingControlProxy register(long pixelsID,
+            RenderingControlProxy control)
+    {
+        created.incrementAndGet();
+        Registration r = controls.compute(pixelsID, (id, v) -> {
+            if (v == null) return new Registration(control);
+            v.count++;
+            return v;
+        });
+        if (r.control != control) duplicates.incrementAndGet();
+        return r.control;
+    }
+
+    /**
+     * Decreases the number of viewers using the control of the specified
+     * pixels set. Returns the control if it is no longer used and has been
+     * removed, <code>null</code> otherwise.
+     *
+     * @param pixelsID The id of the pixels set.
+     * @return See above.
+     */
+    RenderingControlProxy release(long pixelsID)
+    {
+        RenderingControlProxy[] removed = new RenderingControlProxy[1];
+        controls.computeIfPresent(pixelsID, (id, v) -> {
+            if (--v.count > 0) return v;
+            removed[0] = v.control;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Returns <code>true</code> if a control is registered for the specified
+     * pixels set, <code>false</code> otherwise.
+     *
+     * @param pixelsID The id of the pixels set.
+     * @return See above.
+     */
+    boolean contains(long pixelsID) { return controls.containsKey(pixelsID); }
+
+    /**
+     * Returns <code>true</code> if the control of the specified pixels set
+     * is used by more than one viewer, <code>false</code> otherwise.
+     *
+     * @param pixelsID The id of the pixels set.
+     * @return See above.
+     */
+    boolean isShared(long pixelsID)
+    {
+        boolean[] shared = new boolean[1];
+        controls.computeIfPresent(pixelsID, (id, v) -> {
+            shared[0] = v.count > 1;
+            return v;
+        });
+        return shared[0];
+    }
+
+    /**
+     * Shuts down the rendering engines of the controls not used for longer
+     * than the specified time. The controls remain registered and reload
+     * their engines when used again.
+     *
+     * @param timeout The time in milliseconds.
+     * @return The ids of the pixels sets whose engines have been shut down.
+     */
+    List<Long> expire(long timeout)
+    {
+        List<Long> ids = new ArrayList<Long>();
+        Iterator<Entry<Long, Registration>> i =
+                controls.entrySet().iterator();
+        Entry<Long, Registration> e;
+        RenderingControlProxy control;
+        while (i.hasNext()) {
+            e = i.next();
+            control = e.getValue().control;
+            if (!control.isShutDown() && !control.isProxyActive(timeout) &&
+                    !control.shutDown())
+                ids.add(e.getKey());
+        }
+        return ids;
+    }
+
+    /** Removes all the controls. */
+    void clear() { controls.clear(); }
+
+    /**
+     * Returns the number of controls registered.
+     *
+     * @return See above.
+     */
+    int getLiveCount() { return controls.size(); }
+
+    /**
+     * Returns the number of rendering engines used by the controls that
+     * have not been shut down.
+     *
+     * @return See above.
+     */
+    int getEngineCount()
+    {
+        int n = 0;
+        RenderingControlProxy control;
+        for (Registration r : controls.values()) {
+            control = r.control;
+            if (!control.isShutDown())
+                n += 1+control.getSlaves().size();
+        }
+        return n;
+    }
+
+    /**
+     * Returns the number of controls created.
+     *
+     * @return See above.
+     */
+    long getCreatedCount() { return created.get(); }
+
+    /**
+     * Returns the number of controls created while another control was
+     * already registered for the same pixels set.
+     *
+     * @return See above.
+     */
+    long getDuplicateCount() { return duplicates.get(); }
+
+}
@@ -0,0 +1,279 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd.data;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Histogram of the values of one or more {@link RawPlane}s over a fixed
+ * range. Planes are binned in parallel and can be added one after the other
+ * so that the histogram of a whole stack is accumulated without holding all
+ * the planes in memory.
+ * As for the server, the value <code>v</code> is counted in the bin
+ * <code>(v-min)*binCount/(max-min)</code>, the maximum being counted in the
+ * last bin. Values outside the range are ignored.
+ *
+ * @since 5.8
+ */
+public class Histogram
+{
+
+    /** The default number of bins, as used by the server. */
+    public static final int DEFAULT_BIN_COUNT = 256;
+
+    /** The number of values binned by a single task. */
+    private static final int VALUES_PER_TASK = 1 << 16;
+
+    /** Bins a range of values of a plane. */
+    private static class BinTask
+        extends RecursiveTask<int[]>
+    {
+
+        /** The plane to bin. */
+        private final RawPlane plane;
+
+        /** The histogram the bins are computed for. */
+        private final Histogram histogram;
+
+        /** The first index to bin. */
+        private final int from;
+
+        /** The last index (excluded) to bin. */
+        private final int to;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param histogram The histogram the bins are computed for.
+         * @param plane The plane to bin.
+         * @param from The first index to bin.
+         * @param to The last index (excluded) to bin.
+         */
+        BinTask(Histogram histogram, RawPlane plane, int from, int to)
+        {
+            this.histogram = histogram;
+            this.plane = plane;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Bins the values or splits the range.
+         * @see RecursiveTask#compute()
+         */
+        protected int[] compute()
+        {
+            if (to-from <= VALUES_PER_TASK) {
+                int[] bins = new int[histogram.bins.length];
+                histogram.bin(plane, from, to, bins);
+                return bins;
+            }
+            int middle = (from+to) >>> 1;
+            BinTask left = new BinTask(histogram, plane, from, middle);
+            left.fork();
+            int[] bins = new BinTask(histogram, plane, middle, to).compute();
+            int[] other = left.join();
+            for (int i = 0; i < bins.length; i++)
+                bins[i] += other[i];
+            return bins;
+        }
+    }
+
+    /** The number of values per bin. */
+    private final int[] bins;
+
+    /** The lower bound of the range. */
+    private final double min;
+
+    /** The upper bound of the range. */
+    private final double max;
+
+    /** Converts a value into a bin index. */
+    private final double scale;
+
+    /** The number of planes added. */
+    private int planes;
+
+    /**
+     * Bins the values of the plane between the specified indexes.
+     *
+     * @param plane The plane to bin.
+     * @param from The first index to bin.
+     * @param to The last index (excluded) to bin.
+     * @param result The array to fill.
+     */
+    private void bin(RawPlane plane, int from, int to, int[] result)
+    {
+        int last = result.length-1;
+        int b;
+        if (plane.isIntegral()) {
+            int v;
+            for (int i = from; i < to; i++) {
+                v = plane.getInt(i);
+                if (v < min || v > max) continue;
+                b = (int) ((v-min)*scale);
+                result[b > last ? last : b]++;
+            }
+        } else {
+            double[] doubles = plane.getDoubleValues();
+            double v;
+            for (int i = from; i < to; i++) {
+                v = doubles[i];
+                if (!(v >= min && v <= max)) continue;
+                b = (int) ((v-min)*scale);
+                result[b > last ? last : b]++;
+            }
+        }
+    }
+
+    /**
+     * Computes the histogram of the plane over its own range.
+     *
+     * @param plane The plane to bin. Mustn't be <code>null</code>.
+     * @param binCount The number of bins.
+     * @return See above.
+     */
+    public static Histogram compute(RawPlane plane, int binCount)
+    {
+        if (plane == null)
+            throw new IllegalArgumentException("No plane to bin.");
+        Histogram h = new Histogram(binCount, plane.getMin(), plane.getMax());
+        h.add(plane);
+        return h;
+    }
+
+    /**
+     * Creates a new empty instance.
+     *
+     * @param binCount The number of bins. Must be strictly positive.
+     * @param min The lower bound of the range.
+     * @param max The upper bound of the range.
+     */
+    public Histogram(int binCount, double min, double max)
+    {
+        if (binCount <= 0)
+            throw new IllegalArgumentException("Bin count not valid.");
+        if (max < min)
+            throw new IllegalArgumentException("Range not valid.");
+        bins = new int[binCount];
+        this.min = min;
+        this.max = max;
+        scale = max > min ? binCount/(max-min) : 0;
+    }
+
+    /**
+     * Adds the values of the specified plane to the histogram.
+     *
+     * @param plane The plane to add. Mustn't be <code>null</code>.
+     */
+    public void add(RawPlane plane)
+    {
+        if (plane == null)
+            throw new IllegalArgumentException("No plane to bin.");
+        int n = plane.getSizeX()*plane.getSizeY();
+        int[] values;
+        if (n <= VALUES_PER_TASK) {
+            values = new int[bins.length];
+            bin(plane, 0, n, values);
+        } else {
+            values = ForkJoinPool.commonPool().invoke(
+                    new BinTask(this, plane, 0, n));
+        }
+        synchronized (bins) {
+            for (int i = 0; i < bins.length; i++)
+                bins[i] += values[i];
+            planes++;
+        }
+    }
+
+    /**
+     * Returns a copy of the number of values per bin.
+     *
+     * @return See above.
+     */
+    public int[] getBins()
+    {
+        synchronized (bins) {
+            return bins.clone();
+        }
+    }
+
+    /**
+     * Returns the number of bins.
+     *
+     * @return See above.
+     */
+    public int getBinCount() { return bins.length; }
+
+    /**
+     * Returns the lower bound of the range.
+     *
+     * @return See above.
+     */
+    public double getMin() { return min; }
+
+    /**
+     * Returns the upper bound of the range.
+     *
+     * @return See above.
+     */
+    public double getMax() { return max; }
+
+    /**
+     * Returns the number of planes added.
+     *
+     * @return See above.
+     */
+    public int getPlaneCount()
+    {
+        synchronized (bins) {
+            return planes;
+        }
+    }
+
+    /**
+     * Returns the value below which the specified fraction of the binned
+     * values falls i.e. the lower bound of the matching bin. Useful to
+     * compute an auto-contrast window.
+     *
+     * @param fraction The fraction, between <code>0</code> and
+     *                 <code>1</code>.
+     * @return See above.
+     */
+    public double getPercentile(double fraction)
+    {
+        int[] values = getBins();
+        long total = 0;
+        for (int i = 0; i < values.length; i++)
+            total += values[i];
+        if (total == 0) return min;
+        double target = Math.max(0, Math.min(1, fraction))*total;
+        long count = 0;
+        for (int i = 0; i < values.length; i++) {
+            count += values[i];
+            if (count >= target && count > 0)
+                return min+i*(max-min)/values.length;
+        }
+        return max;
+    }
+
+}
@@ -0,0 +1,224 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd.data;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of {@link RawPlane}s bounded by the number of
+ * bytes held. Planes are identified by the pixels set and the
+ * <i>z</i>, <i>t</i>, <i>c</i> indexes.
+ * The methods are synchronized so the cache can be shared by the loader
+ * threads and the Swing thread.
+ *
+ * @since 5.8
+ */
+public class PlaneCache
+{
+
+    /** Identifies a plane. */
+    private static class Key
+    {
+
+        /** The identifier of the pixels set. */
+        private final long pixelsID;
+
+        /** The z-section. */
+        private final int z;
+
+        /** The time-point. */
+        private final int t;
+
+        /** The channel. */
+        private final int c;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param pixelsID The identifier of the pixels set.
+         * @param z The z-section.
+         * @param t The time-point.
+         * @param c The channel.
+         */
+        Key(long pixelsID, int z, int t, int c)
+        {
+            this.pixelsID = pixelsID;
+            this.z = z;
+            this.t = t;
+            this.c = c;
+        }
+
+        /**
+         * Overridden to compare the indexes.
+         * @see Object#equals(Object)
+         */
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return k.pixelsID == pixelsID && k.z == z && k.t == t && k.c == c;
+        }
+
+        /**
+         * Overridden to combine the indexes.
+         * @see Object#hashCode()
+         */
+        public int hashCode()
+        {
+            int h = (int) (pixelsID ^ (pixelsID >>> 32));
+            h = 31*h+z;
+            h = 31*h+t;
+            return 31*h+c;
+        }
+    }
+
+    /** The cached planes, in access order. */
+    private final LinkedHashMap<Key, RawPlane> planes;
+
+    /** The maximum number of bytes held. */
+    private long maxSize;
+
+    /** The number of bytes currently held. */
+    private long size;
+
+    /** The number of successful lookups. */
+    private long hits;
+
+    /** The number of failed lookups. */
+    private long misses;
+
+    /** Removes the least recently used planes until the cache fits. */
+    private void evict()
+    {
+        Iterator<RawPlane> i = planes.values().iterator();
+        while (size > maxSize && i.hasNext()) {
+            size -= i.next().getByteSize();
+            i.remove();
+        }
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxSize The maximum number of bytes held.
+     */
+    public PlaneCache(long maxSize)
+    {
+        planes = new LinkedHashMap<Key, RawPlane>(16, 0.75f, true);
+        this.maxSize = Math.max(0, maxSize);
+    }
+
+    /**
+     * Returns the cached plane or <code>null</code> if not cached.
+     *
+     * @param pixelsID The identifier of the pixels set.
+     * @param z The z-section.
+     * @param t The time-point.
+     * @param c The channel.
+     * @return See above.
+     */
+    public synchronized RawPlane get(long pixelsID, int z, int t, int c)
+    {
+        RawPlane plane = planes.get(new Key(pixelsID, z, t, c));
+        if (plane == null) misses++;
+        else hits++;
+        return plane;
+    }
+
+    /**
+     * Caches the specified plane. Planes larger than the cache are ignored.
+     *
+     * @param pixelsID The identifier of the pixels set.
+     * @param z The z-section.
+     * @param t The time-point.
+     * @param c The channel.
+     * @param plane The plane to cache.
+     */
+    public synchronized void put(long pixelsID, int z, int t, int c,
+            RawPlane plane)
+    {
+        if (plane == null || plane.getByteSize() > maxSize) return;
+        RawPlane old = planes.put(new Key(pixelsID, z, t, c), plane);
+        if (old != null) size -= old.getByteSize();
+        size += plane.getByteSize();
+        evict();
+    }
+
+    /**
+     * Removes the planes of the specified pixels set.
+     *
+     * @param pixelsID The identifier of the pixels set.
+     */
+    public synchronized void remove(long pixelsID)
+    {
+        Iterator<Map.Entry<Key, RawPlane>> i = planes.entrySet().iterator();
+        Map.Entry<Key, RawPlane> e;
+        while (i.hasNext()) {
+            e = i.next();
+            if (e.getKey().pixelsID == pixelsID) {
+                size -= e.getValue().getByteSize();
+                i.remove();
+            }
+        }
+    }
+
+    /** Removes all the planes. */
+    public synchronized void clear()
+    {
+        planes.clear();
+        size = 0;
+    }
+
+    /**
+     * Sets the maximum number of bytes held.
+     *
+     * @param maxSize The value to set.
+     */
+    public synchronized void setMaxSize(long maxSize)
+    {
+        this.maxSize = Math.max(0, maxSize);
+        evict();
+    }
+
+    /**
+     * Returns the number of bytes currently held.
+     *
+     * @return See above.
+     */
+    public synchronized long getSize() { return size; }
+
+    /**
+     * Returns the number of successful lookups.
+     *
+     * @return See above.
+     */
+    public synchronized long getHits() { return hits; }
+
+    /**
+     * Returns the number of failed lookups.
+     *
+     * @return See above.
+     */
+    public synchronized long getMisses() { return misses; }
+
+}
@@ -0,0 +1,256 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd.data;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Accumulates the z-sections of a channel to compute a maximum, mean or
+ * sum intensity projection. The sections are folded in one at a time so
+ * that widening the projected interval only adds the new sections.
+ * Each section is folded in parallel across bands of values.
+ *
+ * @since 5.8
+ */
+public class ProjectionAccumulator
+{
+
+    /** Identifies the maximum intensity projection. */
+    public static final int MAXIMUM = 0;
+
+    /** Identifies the mean intensity projection. */
+    public static final int MEAN = 1;
+
+    /** Identifies the sum intensity projection. */
+    public static final int SUM = 2;
+
+    /** The number of values folded by a single task. */
+    private static final int VALUES_PER_TASK = 1 << 16;
+
+    /** Folds a band of values of a section. */
+    private class FoldTask
+        extends RecursiveAction
+    {
+
+        /** The section to fold. */
+        private final RawPlane plane;
+
+        /** The first index to fold. */
+        private final int from;
+
+        /** The last index (excluded) to fold. */
+        private final int to;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param plane The section to fold.
+         * @param from The first index to fold.
+         * @param to The last index (excluded) to fold.
+         */
+        FoldTask(RawPlane plane, int from, int to)
+        {
+            this.plane = plane;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Folds the values or splits the band.
+         * @see RecursiveAction#compute()
+         */
+        protected void compute()
+        {
+            if (to-from <= VALUES_PER_TASK) {
+                fold(plane, from, to);
+                return;
+            }
+            int middle = (from+to) >>> 1;
+            invokeAll(new FoldTask(plane, from, middle),
+                    new FoldTask(plane, middle, to));
+        }
+    }
+
+    /** The number of pixels along the X-axis. */
+    private final int sizeX;
+
+    /** The number of pixels along the Y-axis. */
+    private final int sizeY;
+
+    /** The type of projection. */
+    private final int type;
+
+    /** The accumulated values i.e. the maximum or the sum. */
+    private final double[] values;
+
+    /** The sections folded in. */
+    private final BitSet sections;
+
+    /**
+     * Folds the values of the section between the specified indexes.
+     *
+     * @param plane The section to fold.
+     * @param from The first index to fold.
+     * @param to The last index (excluded) to fold.
+     */
+    private void fold(RawPlane plane, int from, int to)
+    {
+        boolean integral = plane.isIntegral();
+        double[] doubles = plane.getDoubleValues();
+        double v;
+        if (type == MAXIMUM) {
+            for (int i = from; i < to; i++) {
+                v = integral ? plane.getInt(i) : doubles[i];
+                if (v > values[i]) values[i] = v;
+            }
+        } else {
+            if (integral) {
+                for (int i = from; i < to; i++)
+                    values[i] += plane.getInt(i);
+            } else {
+                for (int i = from; i < to; i++)
+                    values[i] += doubles[i];
+            }
+        }
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param sizeX The number of pixels along the X-axis.
+     * @param sizeY The number of pixels along the Y-axis.
+     * @param type The type of projection, one of the constants defined by
+     *             this class.
+     */
+    public ProjectionAccumulator(int sizeX, int sizeY, int type)
+    {
+        if (type != MAXIMUM && type != MEAN && type != SUM)
+            throw new IllegalArgumentException("Projection not supported.");
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.type = type;
+        values = new double[sizeX*sizeY];
+        sections = new BitSet();
+        clear();
+    }
+
+    /**
+     * Returns the type of projection.
+     *
+     * @return See above.
+     */
+    public int getType() { return type; }
+
+    /**
+     * Returns <code>true</code> if the section has been folded in,
+     * <code>false</code> otherwise.
+     *
+     * @param z The z-section.
+     * @return See above.
+     */
+    public synchronized boolean contains(int z) { return sections.get(z); }
+
+    /**
+     * Returns the number of sections folded in.
+     *
+     * @return See above.
+     */
+    public synchronized int getCount() { return sections.cardinality(); }
+
+    /**
+     * Returns <code>true</code> if all the sections folded in belong to
+     * the specified interval, <code>false</code> otherwise i.e. the
+     * accumulator has to be cleared to project the interval.
+     *
+     * @param startZ The first section of the interval.
+     * @param endZ The last section of the interval.
+     * @param stepping The stepping used to select the sections.
+     * @return See above.
+     */
+    public synchronized boolean isWithin(int startZ, int endZ, int stepping)
+    {
+        int step = Math.max(1, stepping);
+        for (int z = sections.nextSetBit(0); z >= 0;
+                z = sections.nextSetBit(z+1)) {
+            if (z < startZ || z > endZ || (z-startZ) % step != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Folds in the specified section. Does nothing if the section has
+     * already been added.
+     *
+     * @param z The z-section.
+     * @param plane The values of the section. Mustn't be <code>null</code>.
+     */
+    public synchronized void add(int z, RawPlane plane)
+    {
+        if (plane == null)
+            throw new IllegalArgumentException("No section to add.");
+        if (sections.get(z)) return;
+        int n = sizeX*sizeY;
+        if (n <= VALUES_PER_TASK) fold(plane, 0, n);
+        else ForkJoinPool.commonPool().invoke(new FoldTask(plane, 0, n));
+        sections.set(z);
+    }
+
+    /** Removes all the sections. */
+    public synchronized void clear()
+    {
+        sections.clear();
+        double initial = type == MAXIMUM ? -Double.MAX_VALUE : 0;
+        for (int i = 0; i < values.length; i++)
+            values[i] = initial;
+    }
+
+    /**
+     * Returns the projection of the sections folded in. The sum is
+     * clamped to the specified upper bound, usually the maximum value of
+     * the pixels type.
+     *
+     * @param upperBound The maximum value of a projected pixel.
+     * @return See above.
+     */
+    public synchronized RawPlane getProjection(double upperBound)
+    {
+        double[] result = new double[values.length];
+        int count = sections.cardinality();
+        if (count == 0) return RawPlane.create(result, sizeX, sizeY);
+        switch (type) {
+            case MAXIMUM:
+                System.arraycopy(values, 0, result, 0, values.length);
+                break;
+            case MEAN:
+                for (int i = 0; i < values.length; i++)
+                    result[i] = values[i]/count;
+                break;
+            default:
+                for (int i = 0; i < values.length; i++)
+                    result[i] = Math.min(values[i], upperBound);
+        }
+        return RawPlane.create(result, sizeX, sizeY);
+    }
+
+}
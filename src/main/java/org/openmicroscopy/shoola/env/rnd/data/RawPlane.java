@@ -0,0 +1,329 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Raw XY-plane decoded from the big-endian bytes returned by the
+ * <code>RawPixelsStore</code>.
+ * Integer types up to 32-bit signed are stored in an array of their native
+ * width i.e. a <code>byte</code>, <code>short</code> or <code>int</code>
+ * array, so that a cached plane uses no more memory than the raw data.
+ * The other types are stored as a <code>double</code> array.
+ *
+ * @since 5.8
+ */
+public class RawPlane
+{
+
+    /** Identifies the <code>bit</code> pixels type. */
+    public static final String BIT = "bit";
+
+    /** Identifies the <code>int8</code> pixels type. */
+    public static final String INT8 = "int8";
+
+    /** Identifies the <code>uint8</code> pixels type. */
+    public static final String UINT8 = "uint8";
+
+    /** Identifies the <code>int16</code> pixels type. */
+    public static final String INT16 = "int16";
+
+    /** Identifies the <code>uint16</code> pixels type. */
+    public static final String UINT16 = "uint16";
+
+    /** Identifies the <code>int32</code> pixels type. */
+    public static final String INT32 = "int32";
+
+    /** Identifies the <code>uint32</code> pixels type. */
+    public static final String UINT32 = "uint32";
+
+    /** Identifies the <code>float</code> pixels type. */
+    public static final String FLOAT = "float";
+
+    /** Identifies the <code>double</code> pixels type. */
+    public static final String DOUBLE = "double";
+
+    /** The number of pixels along the X-axis. */
+    private final int sizeX;
+
+    /** The number of pixels along the Y-axis. */
+    private final int sizeY;
+
+    /** The values if stored as bytes, <code>null</code> otherwise. */
+    private final byte[] bytes;
+
+    /** The values if stored as shorts, <code>null</code> otherwise. */
+    private final short[] shorts;
+
+    /** The values if stored as integers, <code>null</code> otherwise. */
+    private final int[] ints;
+
+    /** The values if the type is not an integer type. */
+    private final double[] doubles;
+
+    /** Flag indicating that the bytes or shorts are unsigned. */
+    private final boolean unsigned;
+
+    /** The minimum value of the plane. */
+    private final double min;
+
+    /** The maximum value of the plane. */
+    private final double max;
+
+    /**
+     * Creates a new instance. Only one of the arrays is not
+     * <code>null</code>.
+     *
+     * @param sizeX The number of pixels along the X-axis.
+     * @param sizeY The number of pixels along the Y-axis.
+     * @param bytes The values stored as bytes or <code>null</code>.
+     * @param shorts The values stored as shorts or <code>null</code>.
+     * @param ints The values stored as integers or <code>null</code>.
+     * @param doubles The other values or <code>null</code>.
+     * @param unsigned Pass <code>true</code> if the bytes or shorts are
+     *                 unsigned, <code>false</code> otherwise.
+     */
+    private RawPlane(int sizeX, int sizeY, byte[] bytes, short[] shorts,
+            int[] ints, double[] doubles, boolean unsigned)
+    {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.bytes = bytes;
+        this.shorts = shorts;
+        this.ints = ints;
+        this.doubles = doubles;
+        this.unsigned = unsigned;
+        int n = sizeX*sizeY;
+        double lo = Double.MAX_VALUE, hi = -Double.MAX_VALUE;
+        if (doubles == null) {
+            int l = Integer.MAX_VALUE, h = Integer.MIN_VALUE;
+            int v;
+            for (int i = 0; i < n; i++) {
+                v = getInt(i);
+                if (v < l) l = v;
+                if (v > h) h = v;
+            }
+            lo = l;
+            hi = h;
+        } else {
+            for (int i = 0; i < n; i++) {
+                if (doubles[i] < lo) lo = doubles[i];
+                if (doubles[i] > hi) hi = doubles[i];
+            }
+        }
+        if (lo > hi) lo = hi = 0;
+        min = lo;
+        max = hi;
+    }
+
+    /**
+     * Returns <code>true</code> if the planes of the specified pixels type
+     * can be decoded, <code>false</code> otherwise.
+     *
+     * @param pixelsType The pixels type e.g. {@link #UINT16}.
+     * @return See above.
+     */
+    public static boolean isSupported(String pixelsType)
+    {
+        return getTypeRange(pixelsType) != null || FLOAT.equals(pixelsType)
+                || DOUBLE.equals(pixelsType);
+    }
+
+    /**
+     * Returns the range of the values of the specified integer pixels
+     * type i.e. <code>{min, max}</code>, or <code>null</code> if the type
+     * is a floating point type or is not supported.
+     *
+     * @param pixelsType The pixels type e.g. {@link #UINT16}.
+     * @return See above.
+     */
+    public static double[] getTypeRange(String pixelsType)
+    {
+        if (BIT.equals(pixelsType)) return new double[] {0, 1};
+        if (INT8.equals(pixelsType))
+            return new double[] {Byte.MIN_VALUE, Byte.MAX_VALUE};
+        if (UINT8.equals(pixelsType)) return new double[] {0, 0xFF};
+        if (INT16.equals(pixelsType))
+            return new double[] {Short.MIN_VALUE, Short.MAX_VALUE};
+        if (UINT16.equals(pixelsType)) return new double[] {0, 0xFFFF};
+        if (INT32.equals(pixelsType))
+            return new double[] {Integer.MIN_VALUE, Integer.MAX_VALUE};
+        if (UINT32.equals(pixelsType)) return new double[] {0, 0xFFFFFFFFL};
+        return null;
+    }
+
+    /**
+     * Decodes the plane returned by the <code>RawPixelsStore</code>.
+     *
+     * @param data The big-endian bytes. Mustn't be <code>null</code>.
+     * @param pixelsType The pixels type e.g. {@link #UINT16}.
+     * @param sizeX The number of pixels along the X-axis.
+     * @param sizeY The number of pixels along the Y-axis.
+     * @return See above.
+     */
+    public static RawPlane decode(byte[] data, String pixelsType, int sizeX,
+            int sizeY)
+    {
+        if (data == null)
+            throw new IllegalArgumentException("No plane data.");
+        int n = sizeX*sizeY;
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN);
+        if (BIT.equals(pixelsType)) {
+            byte[] v = new byte[n];
+            for (int i = 0; i < n && (i >> 3) < data.length; i++)
+                v[i] = (byte) ((data[i >> 3] >> (7-(i & 7))) & 1);
+            return new RawPlane(sizeX, sizeY, v, null, null, null, true);
+        }
+        if (INT8.equals(pixelsType) || UINT8.equals(pixelsType)) {
+            byte[] v = new byte[n];
+            System.arraycopy(data, 0, v, 0, n);
+            return new RawPlane(sizeX, sizeY, v, null, null, null,
+                    UINT8.equals(pixelsType));
+        }
+        if (INT16.equals(pixelsType) || UINT16.equals(pixelsType)) {
+            short[] v = new short[n];
+            buffer.asShortBuffer().get(v, 0, n);
+            return new RawPlane(sizeX, sizeY, null, v, null, null,
+                    UINT16.equals(pixelsType));
+        }
+        if (INT32.equals(pixelsType)) {
+            int[] v = new int[n];
+            buffer.asIntBuffer().get(v, 0, n);
+            return new RawPlane(sizeX, sizeY, null, null, v, null, false);
+        }
+        double[] v = new double[n];
+        if (UINT32.equals(pixelsType)) {
+            for (int i = 0; i < n; i++)
+                v[i] = buffer.getInt(i << 2) & 0xFFFFFFFFL;
+        } else if (FLOAT.equals(pixelsType)) {
+            for (int i = 0; i < n; i++)
+                v[i] = buffer.getFloat(i << 2);
+        } else if (DOUBLE.equals(pixelsType)) {
+            buffer.asDoubleBuffer().get(v, 0, n);
+        } else {
+            throw new IllegalArgumentException("Pixels type not supported: "
+                    +pixelsType);
+        }
+        return new RawPlane(sizeX, sizeY, null, null, null, v, false);
+    }
+
+    /**
+     * Creates a plane from computed values e.g. a projection.
+     *
+     * @param values The values. Mustn't be <code>null</code>.
+     * @param sizeX The number of pixels along the X-axis.
+     * @param sizeY The number of pixels along the Y-axis.
+     * @return See above.
+     */
+    public static RawPlane create(double[] values, int sizeX, int sizeY)
+    {
+        if (values == null || values.length < sizeX*sizeY)
+            throw new IllegalArgumentException("Values not valid.");
+        return new RawPlane(sizeX, sizeY, null, null, null, values, false);
+    }
+
+    /**
+     * Returns the number of pixels along the X-axis.
+     *
+     * @return See above.
+     */
+    public int getSizeX() { return sizeX; }
+
+    /**
+     * Returns the number of pixels along the Y-axis.
+     *
+     * @return See above.
+     */
+    public int getSizeY() { return sizeY; }
+
+    /**
+     * Returns <code>true</code> if the values are integers i.e. can be read
+     * with {@link #getInt(int)}, <code>false</code> otherwise.
+     *
+     * @return See above.
+     */
+    public boolean isIntegral() { return doubles == null; }
+
+    /**
+     * Returns the integer value at the specified index. The plane must be
+     * {@link #isIntegral() integral}.
+     *
+     * @param index The index of the pixel i.e. <code>y*sizeX+x</code>.
+     * @return See above.
+     */
+    public int getInt(int index)
+    {
+        if (bytes != null)
+            return unsigned ? bytes[index] & 0xFF : bytes[index];
+        if (shorts != null)
+            return unsigned ? shorts[index] & 0xFFFF : shorts[index];
+        return ints[index];
+    }
+
+    /**
+     * Returns the values if the pixels type is not an integer type,
+     * <code>null</code> otherwise. The returned array must not be modified.
+     *
+     * @return See above.
+     */
+    public double[] getDoubleValues() { return doubles; }
+
+    /**
+     * Returns the value at the specified index.
+     *
+     * @param index The index of the pixel i.e. <code>y*sizeX+x</code>.
+     * @return See above.
+     */
+    public double getValue(int index)
+    {
+        return doubles != null ? doubles[index] : getInt(index);
+    }
+
+    /**
+     * Returns the minimum value of the plane.
+     *
+     * @return See above.
+     */
+    public double getMin() { return min; }
+
+    /**
+     * Returns the maximum value of the plane.
+     *
+     * @return See above.
+     */
+    public double getMax() { return max; }
+
+    /**
+     * Returns the number of bytes used to store the values.
+     *
+     * @return See above.
+     */
+    public long getByteSize()
+    {
+        if (bytes != null) return bytes.length;
+        if (shorts != null) return 2L*shorts.length;
+        if (ints != null) return 4L*ints.length;
+        return 8L*doubles.length;
+    }
+
+}
@@ -21,20 +21,17 @@
 package org.openmicroscopy.shoola.env.ui;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
 
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
 
 import org.openmicroscopy.shoola.env.config.Registry;
 import org.openmicroscopy.shoola.env.data.model.DownloadAndZipParam;
+import org.openmicroscopy.shoola.util.file.IOUtil;
+
 import omero.gateway.SecurityContext;
-import omero.gateway.model.FileAnnotationData;
 
 /** 
- * Downloads the files and creates a zip.
+ * Downloads the files straight into a zip.
  *
  * @author Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -56,8 +53,8 @@ public class DownloadAndZipActivity
 	/** The parameters hosting information about the file to download. */
     private DownloadAndZipParam parameters;
     
-    /** The name of the zip file. */
-    private File zipFolder;
+    /** The zip file. */
+    private File zip;
 
 	/**
 	 * Creates a new instance.
@@ -77,15 +74,11 @@ public class DownloadAndZipActivity
 		this.parameters = parameters;
 		initialize("Download", parameters.getIcon());
 		File folder = parameters.getFolder();
-		if (!folder.exists()) {
-			folder.mkdir();
-			zipFolder = folder;
-		} else if (folder.isFile()) {
-			File parent = folder.getParentFile();
-			File f = new File(parent, folder.getName()+"_zip");
-			if (f.mkdir())
-				zipFolder = f;
-		}
+		String name = folder.getName();
+		if (!IOUtil.ZIP_EXTENSION.equals(
+				"."+FilenameUtils.getExtension(name)))
+			name += IOUtil.ZIP_EXTENSION;
+		zip = new File(folder.getParentFile(), name);
 	}
 	
 	/**
@@ -94,17 +87,8 @@ public class DownloadAndZipActivity
 	 */
 	protected UserNotifierLoader createLoader()
 	{
-		List<FileAnnotationData> files = parameters.getFiles();
-		Iterator<FileAnnotationData> i = files.iterator();
-		Map<FileAnnotationData, File> toLoad = 
-			new HashMap<FileAnnotationData, File>();
-		FileAnnotationData fa;
-		
-		while (i.hasNext()) {
-			fa = i.next();
-			toLoad.put(fa, new File(zipFolder, fa.getFileName()));
-		}
-		loader = new FilesLoader(viewer, registry, ctx, toLoad, this);
+		loader = new FilesZipLoader(viewer, registry, ctx,
+				parameters.getFiles(), zip, parameters.isCompress(), this);
 		return loader;
 	}
 
@@ -114,13 +98,7 @@ public class DownloadAndZipActivity
 	 */
 	protected void notifyActivityEnd()
 	{
-	    try {
-	        messageLabel.setText(zipFolder.getAbsolutePath());
-	        FileUtils.deleteDirectory(zipFolder);
-	    } catch (Exception e) {
-	        registry.getLogger().error(this,
-	                "Error deleting folder:"+e.getMessage());
-	    }
+	    messageLabel.setText(zip.getAbsolutePath());
 	    type.setText(DESCRIPTION);
 	}
 
@@ -24,6 +24,11 @@ package org.openmicroscopy.shoola.env.ui;
 
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.io.FilenameUtils;
 import org.openmicroscopy.shoola.util.CommonsLangUtils;
@@ -31,6 +36,7 @@ import org.openmicroscopy.shoola.util.CommonsLangUtils;
 import org.openmicroscopy.shoola.env.config.Registry;
 import org.openmicroscopy.shoola.env.data.model.ExportActivityParam;
 import omero.gateway.SecurityContext;
+import omero.gateway.model.ImageData;
 import org.openmicroscopy.shoola.util.filter.file.OMETIFFFilter;
 
 
@@ -61,12 +67,23 @@ public class ExportActivity
 	/** The description of the activity when finished. */
 	private static final String		DESCRIPTION_CREATED = "Image exported";
 	
+	/** The description of the activity if several images are exported. */
+	private static final String		CREATION_IMAGES_AS_OME_TIFF =
+		"Export images as OME-TIFF";
+	
+	/** The description of the activity when several images are exported. */
+	private static final String		DESCRIPTION_IMAGES_CREATED =
+		"Images exported";
+	
 	/** The description of the activity when cancelled. */
 	private static final String		DESCRIPTION_CANCEL = "Export cancelled";
 	
     /** The parameters hosting information about the image to export. */
     private ExportActivityParam parameters;
     
+    /** The files of the images that could not be exported. */
+    private Collection<File> failures;
+    
     /**
      * Returns the name of the file. 
      * 
@@ -88,6 +105,44 @@ public class ExportActivity
 		return path;
     }
     
+    /**
+     * Returns the files where to export the images, one per image, in the
+     * folder. The files are named after the images.
+     * 
+     * @return See above.
+     */
+    private List<File> getFiles()
+    {
+    	File folder = parameters.getFolder();
+    	List<ImageData> images = parameters.getImages();
+    	List<File> files = new ArrayList<File>(images.size());
+    	Set<String> names = new HashSet<String>();
+    	String name;
+    	for (ImageData image : images) {
+    		name = FilenameUtils.getName(image.getName());
+    		if (CommonsLangUtils.isBlank(name)) name = "Image";
+    		if (!names.add(name)) {
+    			name = name+"_"+image.getId();
+    			names.add(name);
+    		}
+    		files.add(new File(folder, name+"."+OMETIFFFilter.OME_TIFF));
+    	}
+    	return files;
+    }
+    
+    /**
+     * Indicates the number of images exported when several images are
+     * exported.
+     * 
+     * @param exported The number of images processed so far.
+     * @param total The number of images to export.
+     */
+    void setProgress(int exported, int total)
+    {
+    	messageLabel.setText(exported+" of "+total+" in "+
+    			parameters.getFolder().getAbsolutePath());
+    }
+    
     /**
      * Creates a new instance.
      * 
@@ -105,6 +160,11 @@ public class ExportActivity
 			throw new IllegalArgumentException("Parameters not valid.");
 		this.parameters = parameters;
 		initialize(CREATION_AS_OME_TIFF, parameters.getIcon());
+		if (isBatch()) {
+			type.setText(CREATION_IMAGES_AS_OME_TIFF);
+			setProgress(0, parameters.getImages().size());
+			return;
+		}
 		messageLabel.setText(getFileName());
 		switch (parameters.getIndex()) {
 			case ExportActivityParam.EXPORT_AS_OME_TIFF:
@@ -112,6 +172,14 @@ public class ExportActivity
 				break;
 		}
 	}
+	
+	/**
+	 * Returns <code>true</code> if several images are exported,
+	 * <code>false</code> otherwise.
+	 * 
+	 * @return See above.
+	 */
+	private boolean isBatch() { return parameters.getImages().size() > 1; }
 
 	/**
 	 * Creates a concrete loader.
@@ -119,9 +187,16 @@ public class ExportActivity
 	 */
 	protected UserNotifierLoader createLoader()
 	{
-		loader = new ExportLoader(viewer, registry, ctx, parameters.getImage(),
-				new File(getFileName()), ExportLoader.EXPORT_AS_OME_TIFF,
-				parameters.getTarget(), this);
+		if (isBatch())
+			loader = new ExportLoader(viewer, registry, ctx,
+					parameters.getImages(), getFiles(),
+					ExportLoader.EXPORT_AS_OME_TIFF, parameters.getTarget(),
+					this);
+		else
+			loader = new ExportLoader(viewer, registry, ctx,
+					parameters.getImage(), new File(getFileName()),
+					ExportLoader.EXPORT_AS_OME_TIFF, parameters.getTarget(),
+					this);
 		return loader;
 	}
 
@@ -131,7 +206,17 @@ public class ExportActivity
 	 */
 	protected void notifyActivityEnd()
 	{
-		type.setText(DESCRIPTION_CREATED);
+		if (failures != null && !failures.isEmpty()) {
+			type.setText(failures.size()+" of "+parameters.getImages().size()+
+					" images not exported");
+			StringBuffer buffer = new StringBuffer();
+			for (File f : failures) {
+				if (buffer.length() > 0) buffer.append(", ");
+				buffer.append(f.getName());
+			}
+			type.setToolTipText(buffer.toString());
+		} else if (isBatch()) type.setText(DESCRIPTION_IMAGES_CREATED);
+		else type.setText(DESCRIPTION_CREATED);
 	}
 	
 	/**
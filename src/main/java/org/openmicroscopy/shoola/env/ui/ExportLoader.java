@@ -21,8 +21,17 @@
 package org.openmicroscopy.shoola.env.ui;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.openmicroscopy.shoola.env.config.Registry;
+import org.openmicroscopy.shoola.env.data.events.DSCallFeedbackEvent;
 import org.openmicroscopy.shoola.env.data.util.Target;
 import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.views.CallHandle;
@@ -51,11 +60,17 @@ public class ExportLoader
 	/** Handle to the asynchronous call so that we can cancel it. */
     private CallHandle  			handle;
     
-    /** The image to create a movie from. */
-    private ImageData 				image;
+    /** The images to export. */
+    private List<ImageData> 		images;
 
-    /** The file where to export the image. */
-    private File					file;
+    /** The files where to export the images, one per image. */
+    private List<File>				files;
+    
+    /** The number of images processed. */
+    private int						processed;
+    
+    /** The files of the images that could not be exported. */
+    private Map<File, Throwable>	failures;
 
     /** One of the constants defined by this class. */
     private int						index;
@@ -104,9 +119,39 @@ public class ExportLoader
 		if (image == null)
 			throw new IllegalArgumentException("Image not valid.");
 		this.target = target;
-		this.image = image;
-		this.file = file;
+		this.images = Collections.singletonList(image);
+		this.files = Collections.singletonList(file);
+		this.index = index;
+		failures = new LinkedHashMap<File, Throwable>();
+	}
+	
+	/**
+     * Creates a new instance to export several images.
+     * 
+     * @param viewer	The viewer this data loader is for.
+     *               	Mustn't be <code>null</code>.
+     * @param registry	Convenience reference for subclasses.
+     * @param ctx The security context.
+     * @param images	The images to export.
+     * @param files		The files where to export the images, one per image.
+     * @param index	 	One of the constants defined by this class.
+     * @param target The selected schema.
+     * @param activity 	The activity associated to this loader.
+     */
+	public ExportLoader(UserNotifier viewer,  Registry registry,
+			SecurityContext ctx, List<ImageData> images, List<File> files,
+			int index, Target target, ActivityComponent activity)
+	{
+		super(viewer, registry, ctx, activity);
+		if (images == null || images.isEmpty())
+			throw new IllegalArgumentException("Images not valid.");
+		if (files == null || files.size() != images.size())
+			throw new IllegalArgumentException("One file per image expected.");
+		this.target = target;
+		this.images = images;
+		this.files = files;
 		this.index = index;
+		failures = new LinkedHashMap<File, Throwable>();
 	}
 	
 	/**
@@ -115,8 +160,15 @@ public class ExportLoader
      */
     public void load()
     {
-    	handle = ivView.exportImageAsOMETiff(ctx, image.getId(), file, target,
-    			this);
+    	if (images.size() == 1) {
+    		handle = ivView.exportImageAsOMETiff(ctx, images.get(0).getId(),
+    				files.get(0), target, this);
+    		return;
+    	}
+    	List<Long> ids = new ArrayList<Long>(images.size());
+    	for (ImageData image : images)
+    		ids.add(image.getId());
+    	handle = ivView.exportImagesAsOMETiff(ctx, ids, files, target, this);
     }
     
     /**
@@ -129,18 +181,45 @@ public class ExportLoader
     	if (handle != null) handle.cancel();
     }
  
+    /**
+     * Notifies the activity that an image has been exported when several
+     * images are exported.
+     * @see UserNotifierLoader#update(DSCallFeedbackEvent)
+     */
+    public void update(DSCallFeedbackEvent fe)
+    {
+    	if (images.size() == 1) return;
+    	Map<File, Object> m = (Map<File, Object>) fe.getPartialResult();
+    	if (m == null) return;
+    	Iterator<Entry<File, Object>> i = m.entrySet().iterator();
+    	Entry<File, Object> e;
+    	while (i.hasNext()) {
+    		e = i.next();
+    		processed++;
+    		if (e.getValue() instanceof Throwable)
+    			failures.put(e.getKey(), (Throwable) e.getValue());
+    	}
+    	if (activity instanceof ExportActivity)
+    		((ExportActivity) activity).setProgress(processed, images.size());
+    }
+    
     /** 
      * Feeds the result back to the viewer. 
      * @see UserNotifierLoader#handleResult(Object)
      */
     public void handleResult(Object result)
     {
-    	if (cancelled) {
-    		file.delete();
-    	} else {
-        	if (result == null) onException(MESSAGE_RESULT, null);
-        	else activity.endActivity(result);
+    	if (cancelled) return;
+    	if (result == null || (result instanceof Collection &&
+    			((Collection) result).isEmpty())) {
+    		Throwable ex = null;
+    		if (!failures.isEmpty()) ex = failures.values().iterator().next();
+    		onException(MESSAGE_RESULT, ex);
+    		return;
     	}
+    	if (!failures.isEmpty() && activity instanceof ExportActivity)
+    		((ExportActivity) activity).setFailures(failures.keySet());
+    	activity.endActivity(result);
     }
     
 }
@@ -0,0 +1,126 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.ui;
+
+import java.io.File;
+import java.util.List;
+
+import org.openmicroscopy.shoola.env.config.Registry;
+import org.openmicroscopy.shoola.env.data.views.CallHandle;
+
+import omero.gateway.SecurityContext;
+import omero.gateway.model.FileAnnotationData;
+
+/**
+ * Downloads the files straight into a zip archive.
+ *
+ * @since 5.8
+ */
+public class FilesZipLoader
+    extends UserNotifierLoader
+{
+
+    /** Handle to the asynchronous call so that we can cancel it. */
+    private CallHandle handle;
+
+    /** The files to download. */
+    private final List<FileAnnotationData> files;
+
+    /** The archive to create. */
+    private final File zip;
+
+    /** Pass <code>true</code> to compress the entries. */
+    private final boolean compress;
+
+    /**
+     * Notifies that an error occurred.
+     * @see UserNotifierLoader#onException(String, Throwable)
+     */
+    protected void onException(String message, Throwable ex)
+    {
+        activity.notifyError("Unable to create the zip", message, ex);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param viewer Reference to the parent.
+     * @param reg Reference to the registry.
+     * @param ctx The security context.
+     * @param files The files to download.
+     * @param zip The archive to create.
+     * @param compress Pass <code>true</code> to compress the entries,
+     *                 <code>false</code> to only store them.
+     * @param activity The activity associated to this loader.
+     */
+    FilesZipLoader(UserNotifier viewer, Registry reg, SecurityContext ctx,
+            List<FileAnnotationData> files, File zip, boolean compress,
+            ActivityComponent activity)
+    {
+        super(viewer, reg, ctx, activity);
+        if (files == null || files.size() == 0)
+            throw new IllegalArgumentException("No files to download");
+        if (zip == null)
+            throw new IllegalArgumentException("No zip specified");
+        this.files = files;
+        this.zip = zip;
+        this.compress = compress;
+    }
+
+    /**
+     * Downloads the files.
+     * @see UserNotifierLoader#load()
+     */
+    public void load()
+    {
+        handle = mhView.zipFiles(ctx, files, zip, compress, this);
+    }
+
+    /**
+     * Cancels the data loading, the archive is deleted by the call.
+     * @see UserNotifierLoader#cancel()
+     */
+    public void cancel()
+    {
+        if (handle != null) handle.cancel();
+    }
+
+    /**
+     * Notifies the user that the data retrieval has been canceled.
+     * @see UserNotifierLoader#handleCancellation()
+     */
+    public void handleCancellation()
+    {
+        String info = "The data retrieval has been cancelled.";
+        registry.getLogger().info(this, info);
+    }
+
+    /**
+     * Feeds the result back to the viewer.
+     * @see UserNotifierLoader#handleResult(Object)
+     */
+    public void handleResult(Object result)
+    {
+        if (result == null) onException(MESSAGE_RESULT, null);
+        else if (activity != null) activity.endActivity(result);
+    }
+
+}
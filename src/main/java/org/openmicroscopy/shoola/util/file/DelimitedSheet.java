@@ -0,0 +1,182 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.file;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A sheet written as delimiter-separated values e.g. CSV or TSV.
+ * Only the last rows written are kept in memory, the rows before the window
+ * are written to the output and cannot be modified anymore.
+ * As for a <code>PrintWriter</code>, errors raised while writing rows are
+ * kept and reported when the sheet is closed.
+ *
+ * @since 5.8
+ */
+class DelimitedSheet
+{
+
+    /** The output. */
+    private final Writer out;
+
+    /** The separator of the values. */
+    private final char delimiter;
+
+    /** The maximum number of rows kept in memory. */
+    private final int window;
+
+    /** The rows not yet written, indexed by row then column. */
+    private final TreeMap<Integer, TreeMap<Integer, String>> rows;
+
+    /** The index of the first row not yet written. */
+    private int flushedRows;
+
+    /** The maximum column written to. */
+    private int maxColumn;
+
+    /** The first error raised while writing the rows, if any. */
+    private IOException error;
+
+    /**
+     * Writes the row and the empty rows before it.
+     *
+     * @param index The index of the row.
+     * @param values The values of the row.
+     * @throws IOException If an error occurred while writing.
+     */
+    private void writeRow(int index, Map<Integer, String> values)
+        throws IOException
+    {
+        for (; flushedRows < index; flushedRows++)
+            out.write('\n');
+        int column = 0;
+        Iterator<Map.Entry<Integer, String>> i = values.entrySet().iterator();
+        Map.Entry<Integer, String> e;
+        while (i.hasNext()) {
+            e = i.next();
+            for (; column < e.getKey(); column++)
+                out.write(delimiter);
+            out.write(quote(e.getValue()));
+        }
+        out.write('\n');
+        flushedRows++;
+    }
+
+    /**
+     * Quotes the value if it contains the delimiter, a quote or a new line.
+     *
+     * @param value The value to handle.
+     * @return See above.
+     */
+    String quote(String value)
+    {
+        if (value.indexOf(delimiter) < 0 && value.indexOf('"') < 0 &&
+                value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return "\""+value.replace("\"", "\"\"")+"\"";
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param out The output. Mustn't be <code>null</code>.
+     * @param delimiter The separator of the values.
+     * @param window The maximum number of rows kept in memory.
+     */
+    DelimitedSheet(Writer out, char delimiter, int window)
+    {
+        if (out == null) throw new IllegalArgumentException("No output.");
+        this.out = out;
+        this.delimiter = delimiter;
+        this.window = Math.max(1, window);
+        rows = new TreeMap<Integer, TreeMap<Integer, String>>();
+    }
+
+    /**
+     * Sets the value of the specified cell.
+     *
+     * @param rowIndex The index of the row.
+     * @param columnIndex The index of the column.
+     * @param value The value to set.
+     */
+    void setValue(int rowIndex, int columnIndex, String value)
+    {
+        if (rowIndex < flushedRows)
+            throw new IllegalArgumentException("Row "+rowIndex+
+                    " already written to the file.");
+        TreeMap<Integer, String> row = rows.get(rowIndex);
+        if (row == null) {
+            row = new TreeMap<Integer, String>();
+            rows.put(rowIndex, row);
+        }
+        row.put(columnIndex, value == null ? "" : value);
+        maxColumn = Math.max(maxColumn, columnIndex);
+        Map.Entry<Integer, TreeMap<Integer, String>> first;
+        while (rows.size() > window) {
+            first = rows.pollFirstEntry();
+            if (error != null) continue;
+            try {
+                writeRow(first.getKey(), first.getValue());
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of columns used by the specified row if still in
+     * memory, the number of columns of the sheet otherwise.
+     *
+     * @param rowIndex The index of the row.
+     * @return See above.
+     */
+    int getMaxColumn(int rowIndex)
+    {
+        TreeMap<Integer, String> row = rows.get(rowIndex);
+        if (row != null) return row.lastKey()+1;
+        return rowIndex < flushedRows ? maxColumn+1 : 0;
+    }
+
+    /**
+     * Writes the remaining rows and closes the output.
+     *
+     * @throws IOException If an error occurred while writing.
+     */
+    void close()
+        throws IOException
+    {
+        try {
+            if (error != null) throw error;
+            Map.Entry<Integer, TreeMap<Integer, String>> first;
+            while (!rows.isEmpty()) {
+                first = rows.pollFirstEntry();
+                writeRow(first.getKey(), first.getValue());
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+}
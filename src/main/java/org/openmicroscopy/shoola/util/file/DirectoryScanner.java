@@ -0,0 +1,263 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scans a directory tree in parallel. Each directory is listed with a
+ * {@link DirectoryStream} and its sub-directories are scanned by forked
+ * tasks so that the latency of remote file systems is overlapped.
+ * The files found are passed to a {@link Listener} as they are found and
+ * the scan can be cancelled at any time, e.g. once enough files have been
+ * counted. Symbolic links to directories are not followed.
+ *
+ * @since 5.8
+ */
+public class DirectoryScanner
+{
+
+    /** Notified of the files found. */
+    public interface Listener
+    {
+
+        /**
+         * Invoked from one of the scanning threads when a file is found.
+         *
+         * @param file The file found.
+         * @param size The size of the file in bytes.
+         */
+        void fileFound(File file, long size);
+    }
+
+    /** The pool shared by the scans, sized for I/O bound tasks. */
+    private static final ForkJoinPool POOL = new ForkJoinPool(
+            Math.max(4, 2*Runtime.getRuntime().availableProcessors()));
+
+    /** Scans a directory. */
+    private class ScanTask
+        extends RecursiveAction
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        /** The directory to scan. */
+        private final Path dir;
+
+        /** The level of the directory, the root being at level 0. */
+        private final int level;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param dir The directory to scan.
+         * @param level The level of the directory.
+         */
+        ScanTask(Path dir, int level)
+        {
+            this.dir = dir;
+            this.level = level;
+        }
+
+        /**
+         * Lists the directory and forks the scan of the sub-directories.
+         * @see RecursiveAction#compute()
+         */
+        protected void compute()
+        {
+            List<ScanTask> tasks = new ArrayList<ScanTask>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                Iterator<Path> i = stream.iterator();
+                Path p;
+                BasicFileAttributes attrs;
+                while (i.hasNext() && !cancelled) {
+                    p = i.next();
+                    attrs = Files.readAttributes(p, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
+                    if (attrs.isSymbolicLink() && !Files.isDirectory(p)) {
+                        attrs = Files.readAttributes(p,
+                                BasicFileAttributes.class);
+                    }
+                    if (attrs.isDirectory()) {
+                        if (maxDepth < 0 || level < maxDepth)
+                            tasks.add(new ScanTask(p, level+1));
+                    } else if (attrs.isRegularFile()) {
+                        add(p.toFile(), attrs.size());
+                    }
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+            } catch (RuntimeException e) {
+                //e.g. DirectoryIteratorException
+                errors.incrementAndGet();
+            }
+            if (!cancelled && !tasks.isEmpty()) invokeAll(tasks);
+        }
+    }
+
+    /** The directory to scan. */
+    private final File root;
+
+    /**
+     * The number of levels of sub-directories to scan, <code>0</code> to
+     * scan the files of the root only or a negative value to scan the
+     * whole tree.
+     */
+    private final int maxDepth;
+
+    /** The number of files found. */
+    private final AtomicLong files;
+
+    /** The total size of the files found. */
+    private final AtomicLong size;
+
+    /** The number of directories that could not be read. */
+    private final AtomicLong errors;
+
+    /** Notified of the files found or <code>null</code>. */
+    private Listener listener;
+
+    /** The maximum number of files to find or <code>-1</code>. */
+    private long limit;
+
+    /** Flag indicating that the scan has been cancelled. */
+    private volatile boolean cancelled;
+
+    /**
+     * Records the file found.
+     *
+     * @param file The file found.
+     * @param length The size of the file.
+     */
+    private void add(File file, long length)
+    {
+        long n = files.incrementAndGet();
+        size.addAndGet(length);
+        if (listener != null) listener.fileFound(file, length);
+        if (limit >= 0 && n >= limit) cancelled = true;
+    }
+
+    /**
+     * Returns <code>true</code> if the specified directory has no entries,
+     * <code>false</code> otherwise. Only the first entry is read.
+     *
+     * @param dir The directory to check.
+     * @return See above.
+     */
+    public static boolean isEmptyDirectory(File dir)
+    {
+        if (dir == null) return true;
+        try (DirectoryStream<Path> stream =
+                Files.newDirectoryStream(dir.toPath())) {
+            return !stream.iterator().hasNext();
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param root The directory to scan. Mustn't be <code>null</code>.
+     * @param maxDepth The number of levels of sub-directories to scan,
+     *                 <code>0</code> to scan the files of the root only or
+     *                 a negative value to scan the whole tree.
+     */
+    public DirectoryScanner(File root, int maxDepth)
+    {
+        if (root == null)
+            throw new IllegalArgumentException("No directory to scan.");
+        this.root = root;
+        this.maxDepth = maxDepth;
+        files = new AtomicLong();
+        size = new AtomicLong();
+        errors = new AtomicLong();
+        limit = -1;
+    }
+
+    /**
+     * Sets the number of files after which the scan stops.
+     *
+     * @param limit The value to set or <code>-1</code> to find all files.
+     */
+    public void setLimit(long limit) { this.limit = limit; }
+
+    /**
+     * Scans the tree, blocking until the scan is completed or cancelled.
+     * If the root is a file, it is the only file found.
+     *
+     * @param listener Notified of the files found or <code>null</code>.
+     */
+    public void scan(Listener listener)
+    {
+        this.listener = listener;
+        if (!root.isDirectory()) {
+            if (root.isFile()) add(root, root.length());
+            return;
+        }
+        POOL.invoke(new ScanTask(root.toPath(), 0));
+    }
+
+    /** Cancels the scan. The files found so far are kept. */
+    public void cancel() { cancelled = true; }
+
+    /**
+     * Returns <code>true</code> if the scan has been cancelled or stopped
+     * after reaching the limit, <code>false</code> otherwise.
+     *
+     * @return See above.
+     */
+    public boolean isCancelled() { return cancelled; }
+
+    /**
+     * Returns the number of files found so far.
+     *
+     * @return See above.
+     */
+    public long getFileCount() { return files.get(); }
+
+    /**
+     * Returns the total size of the files found so far.
+     *
+     * @return See above.
+     */
+    public long getSize() { return size.get(); }
+
+    /**
+     * Returns the number of directories that could not be read.
+     *
+     * @return See above.
+     */
+    public long getErrorCount() { return errors.get(); }
+
+}
@@ -0,0 +1,418 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a directory and hands out the filesets written into it once they
+ * are stable i.e. once their size and modification time have not changed
+ * for a given delay. The entries sharing the same base name e.g.
+ * <code>a.ome.tif</code> and <code>a.companion.ome</code>, or
+ * <code>b.mrxs</code> and its <code>b</code> data directory, are handed out
+ * together so that they are only imported once they are all written.
+ * The entries handed out may hold several filesets, grouping the files is
+ * left to the importer. Each entry is handed out only once.
+ * The entries present when the watcher is started are ignored.
+ * <p>
+ * Changes are detected using a {@link WatchService} or, for file systems
+ * not reporting the changes e.g. network mounts, by listing the directory
+ * at regular intervals. The filesets ready to be handed out are kept in a
+ * bounded queue, the other ones being kept pending until there is room.
+ * </p>
+ *
+ * @since 5.8
+ */
+public class DirectoryWatcher
+    implements Closeable
+{
+
+    /** The types of file system for which the directory is polled. */
+    private static final String[] REMOTE_TYPES = {"nfs", "cifs", "smb",
+            "afp", "webdav", "fuse", "sshfs", "9p"};
+
+    /** A fileset being written. */
+    private static class Candidate
+    {
+
+        /** The files or directory of the fileset. */
+        private final TreeSet<File> members = new TreeSet<File>();
+
+        /** The signature of the fileset when last checked. */
+        private long signature;
+
+        /** The time at which the fileset was last modified. */
+        private long lastChange;
+    }
+
+    /** The directory to watch. */
+    private final File directory;
+
+    /** The delay, in milliseconds, after which a fileset is stable. */
+    private final long stableTime;
+
+    /** Indicates to list the directory instead of using a watch service. */
+    private final boolean polling;
+
+    /** The filesets being written, indexed by key. */
+    private final Map<String, Candidate> pending;
+
+    /** The keys of the filesets handed out or ignored. */
+    private final Set<String> handled;
+
+    /** The filesets ready to be handed out. */
+    private final BlockingQueue<List<File>> ready;
+
+    /** The service notifying of the changes or <code>null</code>. */
+    private WatchService service;
+
+    /** The thread detecting the changes. */
+    private Thread runner;
+
+    /** Flag indicating that the watcher has been closed. */
+    private volatile boolean closed;
+
+    /**
+     * Returns <code>true</code> if the file should not be imported e.g.
+     * hidden or temporary files.
+     *
+     * @param name The name of the file.
+     * @return See above.
+     */
+    public static boolean isIgnored(String name)
+    {
+        return name.startsWith(".") || name.endsWith("~") ||
+                name.endsWith(".tmp") || name.endsWith(".part");
+    }
+
+    /**
+     * Returns the key of the entries handed out with the specified entry of
+     * the directory i.e. the name of the file or directory up to the first
+     * extension.
+     *
+     * @param entry The entry of the directory.
+     * @return See above.
+     */
+    static String getKey(File entry)
+    {
+        String name = entry.getName();
+        int index = name.indexOf('.', 1);
+        return index > 0 ? name.substring(0, index) : name;
+    }
+
+    /**
+     * Returns a value changing when a file of the fileset is added, removed
+     * or modified.
+     *
+     * @param files The files to handle.
+     * @return See above.
+     */
+    private static long computeSignature(Iterable<File> files)
+    {
+        long signature = 17;
+        File[] children;
+        for (File f : files) {
+            if (f.isDirectory()) {
+                children = f.listFiles();
+                List<File> l = new ArrayList<File>();
+                if (children != null) {
+                    for (int i = 0; i < children.length; i++)
+                        l.add(children[i]);
+                }
+                signature = 31*signature+l.size();
+                signature = 31*signature+computeSignature(l);
+            } else {
+                signature = 31*signature+f.getName().hashCode();
+                signature = 31*signature+f.length();
+                signature = 31*signature+f.lastModified();
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Returns <code>true</code> if the directory has to be polled e.g. it
+     * is on a network mount, <code>false</code> if the changes can be
+     * watched.
+     *
+     * @param directory The directory to handle.
+     * @return See above.
+     */
+    public static boolean requiresPolling(File directory)
+    {
+        try {
+            String type = Files.getFileStore(directory.toPath()).type();
+            if (type == null) return true;
+            type = type.toLowerCase();
+            for (int i = 0; i < REMOTE_TYPES.length; i++) {
+                if (type.contains(REMOTE_TYPES[i])) return true;
+            }
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Adds the entry of the directory to its pending fileset, if not already
+     * handled, and marks the fileset as modified.
+     *
+     * @param entry The entry to add.
+     * @param now The current time.
+     */
+    private void touch(File entry, long now)
+    {
+        if (isIgnored(entry.getName())) return;
+        String key = getKey(entry);
+        synchronized (handled) {
+            if (handled.contains(key)) return;
+        }
+        Candidate c = pending.get(key);
+        if (c == null) {
+            c = new Candidate();
+            pending.put(key, c);
+        }
+        c.members.add(entry);
+        c.lastChange = now;
+    }
+
+    /**
+     * Lists the directory and adds the new entries.
+     *
+     * @param now The current time.
+     */
+    private void scan(long now)
+    {
+        File[] entries = directory.listFiles();
+        if (entries == null) return;
+        for (int i = 0; i < entries.length; i++) {
+            Candidate c = pending.get(getKey(entries[i]));
+            if (c == null || !c.members.contains(entries[i]))
+                touch(entries[i], now);
+        }
+    }
+
+    /**
+     * Moves the filesets that have not changed for the delay to the queue.
+     *
+     * @param now The current time.
+     */
+    private void check(long now)
+    {
+        Iterator<Map.Entry<String, Candidate>> i =
+                pending.entrySet().iterator();
+        Map.Entry<String, Candidate> e;
+        Candidate c;
+        long signature;
+        while (i.hasNext()) {
+            e = i.next();
+            c = e.getValue();
+            Iterator<File> j = c.members.iterator();
+            while (j.hasNext()) {
+                if (!j.next().exists()) j.remove();
+            }
+            if (c.members.isEmpty()) {
+                i.remove();
+                continue;
+            }
+            signature = computeSignature(c.members);
+            if (signature != c.signature) {
+                c.signature = signature;
+                c.lastChange = now;
+            } else if (now-c.lastChange >= stableTime &&
+                    ready.offer(new ArrayList<File>(c.members))) {
+                synchronized (handled) {
+                    handled.add(e.getKey());
+                }
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * Processes the events reported by the watch service.
+     *
+     * @param key The key signalled.
+     * @param now The current time.
+     */
+    private void processEvents(WatchKey key, long now)
+    {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) scan(now);
+            else if (event.context() instanceof Path)
+                touch(dir.resolve((Path) event.context()).toFile(), now);
+        }
+        key.reset();
+    }
+
+    /** Detects the changes until the watcher is closed. */
+    private void watch()
+    {
+        long interval = Math.max(100, Math.min(stableTime/2, 1000));
+        try {
+            WatchKey key;
+            while (!closed) {
+                if (service != null) {
+                    key = service.poll(interval, TimeUnit.MILLISECONDS);
+                    if (key != null)
+                        processEvents(key, System.currentTimeMillis());
+                } else {
+                    Thread.sleep(interval);
+                    scan(System.currentTimeMillis());
+                }
+                check(System.currentTimeMillis());
+            }
+        } catch (InterruptedException e) {
+            //closed
+        } catch (ClosedWatchServiceException e) {
+            //closed
+        }
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param directory The directory to watch. Mustn't be <code>null</code>.
+     * @param stableTime The delay, in milliseconds, after which a fileset is
+     *                   considered as stable.
+     * @param capacity The maximum number of filesets waiting to be handed
+     *                 out.
+     * @param polling Pass <code>true</code> to list the directory at
+     *                regular intervals, <code>false</code> to use a watch
+     *                service.
+     */
+    public DirectoryWatcher(File directory, long stableTime, int capacity,
+            boolean polling)
+    {
+        if (directory == null || !directory.isDirectory())
+            throw new IllegalArgumentException("No directory to watch.");
+        this.directory = directory;
+        this.stableTime = Math.max(0, stableTime);
+        this.polling = polling;
+        pending = new HashMap<String, Candidate>();
+        handled = new HashSet<String>();
+        ready = new ArrayBlockingQueue<List<File>>(Math.max(1, capacity));
+    }
+
+    /**
+     * Starts watching the directory. The entries already present are
+     * ignored.
+     *
+     * @throws IOException If the directory cannot be watched.
+     */
+    public synchronized void start()
+        throws IOException
+    {
+        if (runner != null) return;
+        File[] entries = directory.listFiles();
+        if (entries != null) {
+            synchronized (handled) {
+                for (int i = 0; i < entries.length; i++)
+                    handled.add(getKey(entries[i]));
+            }
+        }
+        if (!polling) {
+            service = FileSystems.getDefault().newWatchService();
+            directory.toPath().register(service,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+        runner = new Thread(new Runnable() {
+            public void run() { watch(); }
+        }, "Watch "+directory.getName());
+        runner.setDaemon(true);
+        runner.start();
+    }
+
+    /**
+     * Returns <code>true</code> if the directory is polled,
+     * <code>false</code> if a watch service is used.
+     *
+     * @return See above.
+     */
+    public boolean isPolling() { return polling; }
+
+    /**
+     * Returns <code>true</code> if the specified entry of the directory has
+     * been handed out or was present when the watcher started,
+     * <code>false</code> otherwise.
+     *
+     * @param entry The entry to check.
+     * @return See above.
+     */
+    public boolean isHandled(File entry)
+    {
+        synchronized (handled) {
+            return handled.contains(getKey(entry));
+        }
+    }
+
+    /**
+     * Returns the next stable fileset, waiting up to the specified time if
+     * none is available.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit The unit of the timeout.
+     * @return The files of the fileset or <code>null</code> if none became
+     *         stable during the specified time.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public List<File> take(long timeout, TimeUnit unit)
+        throws InterruptedException
+    {
+        return ready.poll(timeout, unit);
+    }
+
+    /**
+     * Stops watching the directory.
+     * @see Closeable#close()
+     */
+    public synchronized void close()
+        throws IOException
+    {
+        closed = true;
+        if (runner != null) runner.interrupt();
+        if (service != null) service.close();
+    }
+
+}
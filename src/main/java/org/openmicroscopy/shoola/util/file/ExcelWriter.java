@@ -24,9 +24,13 @@ package org.openmicroscopy.shoola.util.file;
 import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -38,27 +42,37 @@ import javax.swing.table.TableModel;
 
 
 import org.apache.poi.common.usermodel.HyperlinkType;
-import org.apache.poi.hssf.usermodel.HSSFCell;
-import org.apache.poi.hssf.usermodel.HSSFCellStyle;
-import org.apache.poi.hssf.usermodel.HSSFClientAnchor;
-import org.apache.poi.hssf.usermodel.HSSFCreationHelper;
-import org.apache.poi.hssf.usermodel.HSSFDataFormat;
-import org.apache.poi.hssf.usermodel.HSSFFont;
-import org.apache.poi.hssf.usermodel.HSSFHyperlink;
-import org.apache.poi.hssf.usermodel.HSSFPatriarch;
-import org.apache.poi.hssf.usermodel.HSSFRichTextString;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 
-import org.apache.poi.hssf.util.HSSFColor.HSSFColorPredefined;
 import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.ClientAnchor;
+import org.apache.poi.ss.usermodel.CreationHelper;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Drawing;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Hyperlink;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.util.Units;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openmicroscopy.shoola.util.filter.file.CSVFilter;
+import org.openmicroscopy.shoola.util.filter.file.ExcelFilter;
 import org.openmicroscopy.shoola.util.image.io.EncoderException;
 import org.openmicroscopy.shoola.util.image.io.WriterImage;
 
 
 /** 
- * Writes to Excel.
+ * Writes to Excel. The format is determined by the extension of the file:
+ * <code>xlsx</code> files are streamed i.e. only a window of rows is kept
+ * in memory and the number of rows is not limited,
+ * <code>csv</code> and <code>tsv</code> files are written as
+ * delimiter-separated values and the other files use the legacy
+ * <code>xls</code> format. Excel templates and macro-enabled workbooks
+ * cannot be written.
+ * When streaming, the rows that have left the window cannot be modified.
  *
  * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  * 	<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -137,6 +151,9 @@ public class ExcelWriter
 	/** The default name of a sheet. */
 	private static final String		DEFAULT_NAME = "Sheet";
 	
+	/** The number of rows kept in memory when streaming. */
+	private static final int		ROW_ACCESS_WINDOW = 100;
+	
 	/** The name of the excel spreadsheet to write to. */
 	private String 					filename;
 
@@ -144,13 +161,19 @@ public class ExcelWriter
 	private FileOutputStream 		out;
 	
 	/** The current workbook of the spreadsheet. */
-	private HSSFWorkbook			workbook;
+	private Workbook				workbook;
+
+	/** 
+	 * The separator of the values if the sheets are written as 
+	 * delimiter-separated values, <code>0</code> otherwise.
+	 */
+	private char					delimiter;
 
 	/** The map of all the styles created in the workbook. */
-	private Map<String, HSSFCellStyle> styleMap;
+	private Map<String, CellStyle> styleMap;
 
 	/** The map of all fonts used by the cell styles. */
-	private Map<String, HSSFFont> fontMap;
+	private Map<String, Font> fontMap;
 	
 	/** Map of the sheet names vs sheetInfos. */
 	private Map<String, SheetInfo>	sheetMap;
@@ -167,8 +190,9 @@ public class ExcelWriter
 	/** Sets the different styles used in the output of the excel. */
 	private void setStyles()
 	{
-		styleMap = new HashMap<String, HSSFCellStyle>();
-		fontMap = new HashMap<String, HSSFFont>();
+		styleMap = new HashMap<String, CellStyle>();
+		fontMap = new HashMap<String, Font>();
+		if (workbook == null) return;
 		createFonts();
 		createStyles();
 	}
@@ -177,7 +201,7 @@ public class ExcelWriter
 	@SuppressWarnings("Duplicates")
 	private void createStyles()
 	{
-		HSSFCellStyle style;
+		CellStyle style;
 				
 		Iterator<String> fontIterator = fontMap.keySet().iterator();
 		String fontName;
@@ -188,7 +212,7 @@ public class ExcelWriter
 			style.setFont(fontMap.get(fontName));
 			styleMap.put(fontName, style);
 		}
-		HSSFDataFormat df;
+		DataFormat df;
 		style = workbook.createCellStyle();
 		style.setFont(fontMap.get(DEFAULT));
 		df = workbook.createDataFormat();
@@ -205,32 +229,32 @@ public class ExcelWriter
 		style = workbook.createCellStyle();
 		style.setFont(fontMap.get(DEFAULT));
 		style.setBorderBottom(BorderStyle.THIN);
-		style.setBottomBorderColor(HSSFColorPredefined.BLACK.getIndex());
+		style.setBottomBorderColor(IndexedColors.BLACK.getIndex());
 		styleMap.put(CELLBORDER_UNDERLINE, style);
 
 		style = workbook.createCellStyle();
 		style.setFont(fontMap.get(DEFAULT));
 		style.setBorderTop(BorderStyle.THIN);
-		style.setTopBorderColor(HSSFColorPredefined.BLACK.getIndex());
+		style.setTopBorderColor(IndexedColors.BLACK.getIndex());
 		styleMap.put(CELLBORDER_TOPLINE, style);
 
 		style = workbook.createCellStyle();
 		style.setFont(fontMap.get(DEFAULT));
 		style.setBorderTop(BorderStyle.THIN);
-		style.setTopBorderColor(HSSFColorPredefined.BLACK.getIndex());
+		style.setTopBorderColor(IndexedColors.BLACK.getIndex());
 		style.setBorderBottom(BorderStyle.THIN);
-		style.setBottomBorderColor(HSSFColorPredefined.BLACK.getIndex());
+		style.setBottomBorderColor(IndexedColors.BLACK.getIndex());
 		styleMap.put(CELLBORDER_UNDERLINE_TOPLINE, style);
 	}
 
 	/** Creates the fonts that are going to be used in the styles. */
 	private void createFonts()
 	{
-		HSSFFont font;
+		Font font;
 		/* Hyperlink font. */
 		font = workbook.createFont();
-		font.setUnderline(HSSFFont.U_SINGLE);
-		font.setColor(HSSFColorPredefined.BLUE.getIndex());
+		font.setUnderline(Font.U_SINGLE);
+		font.setColor(IndexedColors.BLUE.getIndex());
     	fontMap.put(HYPERLINK, font);
     	
     	/* Default Font. */
@@ -244,7 +268,7 @@ public class ExcelWriter
     	
     	/* Underline Font. */
     	font = workbook.createFont();
-    	font.setUnderline(HSSFFont.U_SINGLE);
+    	font.setUnderline(Font.U_SINGLE);
     	fontMap.put(UNDERLINE_DEFAULT, font);
     	
     	/* Italic Font. */
@@ -255,7 +279,7 @@ public class ExcelWriter
     	/* Italic, underline Font. */
     	font = workbook.createFont();
     	font.setItalic(true);
-    	font.setUnderline(HSSFFont.U_SINGLE);
+    	font.setUnderline(Font.U_SINGLE);
     	fontMap.put(ITALIC_UNDERLINE_DEFAULT, font);
 
     	/* Italic, bold Font. */
@@ -268,13 +292,13 @@ public class ExcelWriter
     	font = workbook.createFont();
     	font.setItalic(true);
 		font.setBold(true);
-    	font.setUnderline(HSSFFont.U_SINGLE);
+    	font.setUnderline(Font.U_SINGLE);
     	fontMap.put(BOLD_ITALIC_UNDERLINE_DEFAULT, font);
 
     	/* Italic, bold, underline Font. */
     	font = workbook.createFont();
 		font.setBold(true);
-    	font.setUnderline(HSSFFont.U_SINGLE);
+    	font.setUnderline(Font.U_SINGLE);
     	fontMap.put(BOLD_UNDERLINE_DEFAULT, font);
     	
     	/* 12 point font. */
@@ -311,7 +335,7 @@ public class ExcelWriter
 	 * @param style See above.
 	 * @return See above.
 	 */
-	private HSSFCellStyle getCellStyle(String style)
+	private CellStyle getCellStyle(String style)
 	{
 		if (!styleMap.containsKey(style))
 			throw new IllegalArgumentException("No such style");
@@ -324,10 +348,10 @@ public class ExcelWriter
 	 * @param cell see above.
 	 * @param style see above.
 	 */
-	private void setCellStyle(HSSFCell cell, String style)
+	private void setCellStyle(Cell cell, String style)
 	{
-		HSSFCellStyle cellStyle = getCellStyle(style);
-		cell.setCellStyle(cellStyle);
+		CellStyle cellStyle = getCellStyle(style);
+		if (cell != null) cell.setCellStyle(cellStyle);
 	}
 	
 	/**
@@ -396,14 +420,11 @@ public class ExcelWriter
 	 */
 	private void writeHeader(int startColumn, TableModel tableModel)
 	{
-		HSSFCell cell;
-		
 		for (short cellnum = (short) startColumn; 
 			cellnum < tableModel.getColumnCount(); cellnum++)
 		{
-			cell = currentSheet.getCell(currentSheet.getCurrentRow(), cellnum);
-		    cell.setCellValue(new HSSFRichTextString(
-		    		tableModel.getColumnName(cellnum)));
+			currentSheet.setValue(currentSheet.getCurrentRow(), cellnum,
+					tableModel.getColumnName(cellnum));
 		}
 		currentSheet.setCurrentRow(currentSheet.getCurrentRow()+1);
 	}
@@ -444,19 +465,6 @@ public class ExcelWriter
 		return "";
 	}
 	
-	/**
-	 * Returns <code>true</code> if the element is a number, <code>false</code>
-	 * otherwise.
-	 * 
-	 * @param element The element to handle.
-	 * @return See above.
-	 */
-	private boolean isNumber(Object element)
-	{
-		return (element instanceof Double || element instanceof Integer ||
-			element instanceof Float || element instanceof Long);
-	}
-	
 	/**
 	 * Writes the current row to the spreadsheet. 
 	 * 
@@ -469,7 +477,6 @@ public class ExcelWriter
 		int maxRows = 1;
 		Object element;
 		List elementList;
-		HSSFCell cell;
 		for (int columnCount = 0 ; columnCount < tableModel.getColumnCount(); 
 				columnCount++)
 		{
@@ -487,8 +494,6 @@ public class ExcelWriter
 			for (int columnCount = 0; columnCount < tableModel.getColumnCount(); 
 				columnCount++)
 			{
-				cell = currentSheet.getCell(currentSheet.getCurrentRow()+
-						elementRowCount, startColumn + columnCount);
 				element = getElement(tableModel.getValueAt(rowCount, 
 						columnCount), elementRowCount);
 				if (element != null) {
@@ -500,21 +505,88 @@ public class ExcelWriter
 		currentSheet.setCurrentRow(currentSheet.getCurrentRow()+maxRows);
 	}
 
-	/** Creates the workbook and sets up all the styles associated with it. */
+	/**
+	 * Creates the workbook according to the extension of the file and sets
+	 * up all the styles associated with it.
+	 */
 	private void createWorkbook()
 	{
-		workbook = new HSSFWorkbook();
+		String name = filename.toLowerCase();
+		if (name.endsWith("."+CSVFilter.CSV)) delimiter = ',';
+		else if (name.endsWith("."+CSVFilter.TSV)) delimiter = '\t';
+		else if (name.endsWith("."+ExcelFilter.EXCEL_X))
+			workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+		else workbook = new HSSFWorkbook();
 		setStyles();
 	}
+
+	/**
+	 * Returns <code>true</code> if the file is an Excel template or
+	 * macro-enabled workbook, <code>false</code> otherwise.
+	 *
+	 * @param name The name of the file.
+	 * @return See above.
+	 */
+	private static boolean isUnsupported(String name)
+	{
+		name = name.toLowerCase();
+		return name.endsWith("."+ExcelFilter.EXCEL_M) ||
+				name.endsWith("."+ExcelFilter.EXCEL_TX) ||
+				name.endsWith("."+ExcelFilter.EXCEL_TM);
+	}
+
+	/**
+	 * Returns the file to write to, the extension of which selects the
+	 * format: the specified file if it has the <code>xls</code>,
+	 * <code>xlsx</code>, <code>csv</code> or <code>tsv</code> extension,
+	 * the file with the <code>xls</code> extension appended otherwise.
+	 * Returns <code>null</code> for Excel templates and macro-enabled
+	 * workbooks.
+	 *
+	 * @param file The file selected by the user.
+	 * @return See above.
+	 */
+	public static File getOutputFile(File file)
+	{
+		if (file == null) return null;
+		String name = file.getName().toLowerCase();
+		if (isUnsupported(name)) return null;
+		if (name.endsWith("."+ExcelFilter.EXCEL) ||
+				name.endsWith("."+ExcelFilter.EXCEL_X) ||
+				name.endsWith("."+CSVFilter.CSV) ||
+				name.endsWith("."+CSVFilter.TSV))
+			return file;
+		return new File(file.getAbsolutePath()+"."+ExcelFilter.EXCEL);
+	}
+	
+	/**
+	 * Returns the name of the file used to write the specified sheet as
+	 * delimiter-separated values. The first sheet is written to the
+	 * selected file, the next ones to files named after the sheets.
+	 * 
+	 * @param name The name of the sheet.
+	 * @return See above.
+	 */
+	private String getDelimitedFileName(String name)
+	{
+		if (numSheets == 0) return filename;
+		int index = filename.lastIndexOf('.');
+		return filename.substring(0, index)+"_"+
+				name.replaceAll("[^\\w\\-]", "_")+filename.substring(index);
+	}
 	
 	/**
 	 * Creates a new instance. 
 	 * 
-	 * @param filename The name of the file. Mustn't be <code>null</code>.
+	 * @param filename The name of the file. Mustn't be <code>null</code>,
+	 *                 an Excel template or a macro-enabled workbook.
 	 */
 	public ExcelWriter(String filename)
 	{
 		if (filename == null) throw new IllegalArgumentException("No name."); 
+		if (isUnsupported(filename))
+			throw new IllegalArgumentException("Excel templates and " +
+					"macro-enabled workbooks are not supported.");
 		this.filename = filename;
 		sheetMap = new HashMap<String, SheetInfo>();
 		imageMap = new HashMap<String, Integer>();
@@ -530,8 +602,8 @@ public class ExcelWriter
 	public void openFile() 
 		throws FileNotFoundException
 	{
-		out = new FileOutputStream(filename);
 		createWorkbook();
+		if (workbook != null) out = new FileOutputStream(filename);
 	}
 	
 	/**
@@ -541,9 +613,27 @@ public class ExcelWriter
 	public void close() 
 		throws IOException
 	{
+		if (delimiter != 0) {
+			IOException error = null;
+			Iterator<SheetInfo> i = sheetMap.values().iterator();
+			while (i.hasNext()) {
+				try {
+					i.next().close();
+				} catch (IOException e) {
+					if (error == null) error = e;
+				}
+			}
+			if (error != null) throw error;
+			return;
+		}
 		if (out == null || workbook == null) return;
-		workbook.write(out);
-		out.close();
+		try {
+			workbook.write(out);
+		} finally {
+			out.close();
+			if (workbook instanceof SXSSFWorkbook)
+				((SXSSFWorkbook) workbook).dispose();
+		}
 	}
 	
 	/**
@@ -555,7 +645,22 @@ public class ExcelWriter
 	{
 		if (name == null || name.trim().length() == 0)
 			name = DEFAULT_NAME+numSheets;
-		HSSFSheet sheet = workbook.createSheet();
+		if (delimiter != 0) {
+			try {
+				BufferedWriter w = new BufferedWriter(new OutputStreamWriter(
+						new FileOutputStream(getDelimitedFileName(name)),
+						StandardCharsets.UTF_8));
+				currentSheet = new SheetInfo(name, numSheets,
+						new DelimitedSheet(w, delimiter, ROW_ACCESS_WINDOW));
+			} catch (FileNotFoundException e) {
+				throw new IllegalArgumentException("Cannot create the file " +
+						"for the sheet "+name, e);
+			}
+			sheetMap.put(name, currentSheet);
+			numSheets++;
+			return;
+		}
+		Sheet sheet = workbook.createSheet();
 		currentSheet = new SheetInfo(name, numSheets, sheet);
 		sheetMap.put(name, currentSheet);
 		workbook.setSheetName((numSheets), name);
@@ -613,9 +718,10 @@ public class ExcelWriter
 	public int addImageToWorkbook(String imageName, BufferedImage image) 
 		throws EncoderException
 	{
+		if (workbook == null) return -1;
 		byte[] array = WriterImage.imageToByteStream(image);
 		if (array == null) return -1;
-		int index = workbook.addPicture(array, HSSFWorkbook.PICTURE_TYPE_JPEG);
+		int index = workbook.addPicture(array, Workbook.PICTURE_TYPE_JPEG);
 		imageMap.put(imageName, index);
 		return index;
 	}
@@ -634,20 +740,30 @@ public class ExcelWriter
 	public Point writeImage(int rowStartIndex, int colStartIndex, 
 							int width, int height, String imageName)
 	{
-		HSSFPatriarch patriarch = currentSheet.getDrawingPatriarch();
-		HSSFClientAnchor anchor;
+		Drawing<?> patriarch = currentSheet.getDrawingPatriarch();
+		ClientAnchor anchor;
 		double remainderWidth =  (width%68)/68.0;
 		int widthInCells = width/68;
 		double remainderHeight = (height%18)/18.0;
 		int heightInCells = (height/18);
 		int rowEnd = rowStartIndex+heightInCells;
 		int colEnd = colStartIndex+widthInCells;
-		anchor = new HSSFClientAnchor(0, 0, (int) (remainderWidth*1023),
-				 (int) (remainderHeight*255), (short) colStartIndex,
-				 (short) rowStartIndex, (short) colEnd, (short) rowEnd);
-		
+		Integer index = imageMap.get(imageName);
+		if (patriarch == null || index == null) 
+			return new Point(colEnd, rowEnd);
+		anchor = workbook.getCreationHelper().createClientAnchor();
+		anchor.setCol1(colStartIndex);
+		anchor.setRow1(rowStartIndex);
+		anchor.setCol2(colEnd);
+		anchor.setRow2(rowEnd);
+		if (workbook instanceof HSSFWorkbook) {
+			anchor.setDx2((int) (remainderWidth*1023));
+			anchor.setDy2((int) (remainderHeight*255));
+		} else {
+			anchor.setDx2((width%68)*Units.EMU_PER_PIXEL);
+			anchor.setDy2((height%18)*Units.EMU_PER_PIXEL);
+		}
 		anchor.setAnchorType(ClientAnchor.AnchorType.DONT_MOVE_AND_RESIZE);
-		int index = imageMap.get(imageName);
 		patriarch.createPicture(anchor, index);
 		return new Point(colEnd, rowEnd); 
 	}
@@ -660,7 +776,7 @@ public class ExcelWriter
 	 * @param column 	The selected column.
 	 * @return See above.
 	 */
-	private HSSFCell getCell(int row , int column)
+	private Cell getCell(int row , int column)
 	{
 		if (currentSheet == null) return null;
 		return currentSheet.getCell(row, column);
@@ -700,7 +816,7 @@ public class ExcelWriter
 		if (oldName == null || newName == null) return;
 		SheetInfo sheetInfo = setCurrentSheet(oldName);
 		int index = sheetInfo.getIndex();
-		workbook.setSheetName(index, newName);
+		if (workbook != null) workbook.setSheetName(index, newName);
 		sheetInfo.setName(newName);
 	}
 	
@@ -773,21 +889,7 @@ public class ExcelWriter
 			throw new IllegalArgumentException("Index not valid.");
 		if (value == null)
 			throw new IllegalArgumentException("No object to write.");
-		HSSFCell cell = currentSheet.getCell(rowIndex, columnIndex);
-		if (isNumber(value))
-		{
-			if (value instanceof Integer)
-				cell.setCellValue((Integer) value);
-			else if (value instanceof Double)
-				cell.setCellValue((Double) value);
-			else if(value instanceof Float)
-				cell.setCellValue((Float) value);
-			else if (value instanceof Long)
-				cell.setCellValue((Long)value);
-		} else if (value instanceof Boolean)
-			cell.setCellValue((Boolean) value);
-		else
-			cell.setCellValue(new HSSFRichTextString(value.toString()));
+		currentSheet.setValue(rowIndex, columnIndex, value);
 		currentSheet.setCurrentRow(rowIndex);
 		return currentSheet.getCurrentRow();
 	}
@@ -848,8 +950,9 @@ public class ExcelWriter
 	public void setCellStyle(int startRow, int startCol, int endRow, int endCol, 
 			String style)
 	{
-		HSSFCellStyle cellStyle = getCellStyle(style);
-		HSSFCell cell;
+		if (workbook == null) return;
+		CellStyle cellStyle = getCellStyle(style);
+		Cell cell;
 		for (int y = startRow; y <= endRow; y++)
 			for (int x = startCol; x <= endCol ; x++)
 			{
@@ -868,12 +971,16 @@ public class ExcelWriter
 	 */
 	public void addHyperlink(int row, int col, String description, String URL)
 	{
-		HSSFCell cell;
+		if (workbook == null) {
+			currentSheet.setValue(row, col, description);
+			return;
+		}
+		Cell cell;
 	    cell = getCell(row, col);
-	    cell.setCellValue(new HSSFRichTextString(description));
+		CreationHelper helper = workbook.getCreationHelper();
+	    cell.setCellValue(helper.createRichTextString(description));
 
-		HSSFCreationHelper helper = workbook.getCreationHelper();
-	    HSSFHyperlink link = helper.createHyperlink(HyperlinkType.URL); // new HSSFHyperlink(HyperlinkType.URL);
+	    Hyperlink link = helper.createHyperlink(HyperlinkType.URL); // new HSSFHyperlink(HyperlinkType.URL);
 	    link.setAddress(URL);
 	    cell.setHyperlink(link);
 	    //setCellStyle(cell, HYPERLINK);
@@ -885,7 +992,7 @@ public class ExcelWriter
 	 * @param fontName see above.
 	 * @param font add above.
 	 */
-	public void addFont(String fontName, HSSFFont font)
+	public void addFont(String fontName, Font font)
 	{
 		fontMap.put(fontName, font);
 	}
@@ -896,7 +1003,7 @@ public class ExcelWriter
 	 * @param styleName see above.
 	 * @param style add above.
 	 */
-	public void addStyle(String styleName, HSSFCellStyle style)
+	public void addStyle(String styleName, CellStyle style)
 	{
 		styleMap.put(styleName, style);
 	}
@@ -946,7 +1053,8 @@ public class ExcelWriter
 	 */
 	public void setCellStyle(int row, int col, String style)
 	{
-		HSSFCell cell = getCell(row, col);
+		if (workbook == null) return;
+		Cell cell = getCell(row, col);
 		setCellStyle(cell, style);
 	}
 	
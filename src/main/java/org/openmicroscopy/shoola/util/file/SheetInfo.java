@@ -24,6 +24,7 @@ package org.openmicroscopy.shoola.util.file;
 
 
 //Java imports
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -32,10 +33,11 @@ import java.util.Map;
 
 //Application-internal dependencies
 
-import org.apache.poi.hssf.usermodel.HSSFCell;
-import org.apache.poi.hssf.usermodel.HSSFPatriarch;
-import org.apache.poi.hssf.usermodel.HSSFRow;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Drawing;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
 
 /** 
  * A sheet of an Excel document.
@@ -53,8 +55,11 @@ import org.apache.poi.hssf.usermodel.HSSFSheet;
 class SheetInfo
 {	
 	
-	/** The sheet this info relates to. */
-	private HSSFSheet		sheet;
+	/** The sheet this info relates to or <code>null</code>. */
+	private Sheet			sheet;
+	
+	/** The delimited sheet this info relates to or <code>null</code>. */
+	private DelimitedSheet	delimitedSheet;
 	
 	/** The name of the sheet. */
 	private String			name;
@@ -66,7 +71,10 @@ class SheetInfo
 	private int				currentRow;
 	
 	/** The current drawing context of the sheet. */
-	private HSSFPatriarch	drawingPatriarch;
+	private Drawing<?>		drawingPatriarch;
+	
+	/** The maximum column written to. */
+	private int				maxColumn;
 	
 	/**
 	 * Creates a new instance.
@@ -75,34 +83,83 @@ class SheetInfo
 	 * @param sheetIndex	The current position in workbook.
 	 * @param sheet			The sheet this object is related to.
 	 */
-	SheetInfo(String name, int sheetIndex, HSSFSheet sheet)
+	SheetInfo(String name, int sheetIndex, Sheet sheet)
 	{
 		this.sheet = sheet;
 		this.name = name;
 		this.index = sheetIndex;
 		currentRow = 0;
+		if (sheet instanceof SXSSFSheet)
+			((SXSSFSheet) sheet).trackAllColumnsForAutoSizing();
+	}
+	
+	/**
+	 * Creates a new instance written as delimiter-separated values.
+	 * 
+	 * @param name			The name of the sheet.
+	 * @param sheetIndex	The current position in workbook.
+	 * @param sheet			The sheet this object is related to.
+	 */
+	SheetInfo(String name, int sheetIndex, DelimitedSheet sheet)
+	{
+		this.delimitedSheet = sheet;
+		this.name = name;
+		this.index = sheetIndex;
+		currentRow = 0;
 	}
 	
 	/**
-	 * Returns the cell corresponding to the row and column
+	 * Returns the cell corresponding to the row and column or 
+	 * <code>null</code> if the sheet is written as delimiter-separated
+	 * values.
 	 * 
 	 * @param rowIndex		The selected row.
 	 * @param columnIndex	The selected column.
 	 * @return See above.
 	 */
-	HSSFCell getCell(int rowIndex, int columnIndex)
+	Cell getCell(int rowIndex, int columnIndex)
 	{
-		
-		HSSFRow row = sheet.getRow(rowIndex);
+		if (sheet == null) return null;
+		maxColumn = Math.max(maxColumn, columnIndex);
+		Row row = sheet.getRow(rowIndex);
 		if (row == null) {
 			row = sheet.createRow(rowIndex);
 			return row.createCell(columnIndex);
 		}
-		HSSFCell cell = row.getCell(columnIndex);
+		Cell cell = row.getCell(columnIndex);
 		if (cell == null) return row.createCell(columnIndex);
 		return cell;
 	}
 	
+	/**
+	 * Sets the value of the cell corresponding to the row and column.
+	 * 
+	 * @param rowIndex		The selected row.
+	 * @param columnIndex	The selected column.
+	 * @param value			The value to set. Mustn't be <code>null</code>.
+	 */
+	void setValue(int rowIndex, int columnIndex, Object value)
+	{
+		if (delimitedSheet != null) {
+			delimitedSheet.setValue(rowIndex, columnIndex, value.toString());
+			return;
+		}
+		Cell cell = getCell(rowIndex, columnIndex);
+		if (value instanceof Integer)
+			cell.setCellValue((Integer) value);
+		else if (value instanceof Double)
+			cell.setCellValue((Double) value);
+		else if (value instanceof Float)
+			cell.setCellValue((Float) value);
+		else if (value instanceof Long)
+			cell.setCellValue((Long) value);
+		else if (value instanceof Boolean)
+			cell.setCellValue((Boolean) value);
+		else
+			cell.setCellValue(sheet.getWorkbook().getCreationHelper()
+					.createRichTextString(value.toString()));
+	}
+	
 	/**
 	 * Auto-sizes a column.
 	 * 
@@ -110,24 +167,26 @@ class SheetInfo
 	 */
 	void sizeColumnToFit(int columnIndex)
 	{
+		if (sheet == null) return;
 		sheet.autoSizeColumn((short) columnIndex);
 	}
 	
 	/** Auto-sizes all columns to fit contents. */
 	void sizeAllColumnsToFit()
 	{
+		if (sheet == null) return;
 		Map<Integer, Integer> colMap = new HashMap<Integer,Integer>();
-		Iterator rowIterator = sheet.iterator();//sheet.rowIterator();
-		HSSFCell cell;
-		HSSFRow row;
-		Iterator k;
+		Iterator<Row> rowIterator = sheet.iterator();//sheet.rowIterator();
+		Cell cell;
+		Row row;
+		Iterator<Cell> k;
 		while (rowIterator.hasNext())
 		{
-			row = (HSSFRow) rowIterator.next();
+			row = rowIterator.next();
 			k = row.cellIterator();
 			while (k.hasNext())
 			{
-				cell = (HSSFCell) k.next();
+				cell = k.next();
 				colMap.put(cell.getColumnIndex(), cell.getRowIndex());
 			}
 		}
@@ -161,21 +220,31 @@ class SheetInfo
 	 */
 	void setRowHeight(int rowIndex, int rowHeight)
 	{
-		HSSFRow row = sheet.getRow(rowIndex);
+		if (sheet == null) return;
+		Row row = sheet.getRow(rowIndex);
 		if (row == null) row = sheet.createRow(rowIndex);
 		row.setHeight((short) rowHeight);
 	}
 	
 	/**
 	 * Returns the last cell column written to in row rowIndex.
+	 * If the row has already been written to the file, returns the
+	 * last cell column of the sheet.
 	 * 
 	 * @param rowIndex The index of the row.
 	 * @return See above.
 	 */
 	int getMaxColumn(int rowIndex)
 	{
-		HSSFRow row = sheet.getRow(rowIndex);
-		if (row == null) return 0;
+		if (delimitedSheet != null)
+			return delimitedSheet.getMaxColumn(rowIndex);
+		Row row = sheet.getRow(rowIndex);
+		if (row == null) {
+			if (sheet instanceof SXSSFSheet &&
+					rowIndex <= ((SXSSFSheet) sheet).getLastFlushedRowNum())
+				return maxColumn+1;
+			return 0;
+		}
 		return row.getLastCellNum();
 	}
 
@@ -201,12 +270,14 @@ class SheetInfo
 	void setCurrentRow(int row) { currentRow = row; }
 	
 	/**
-	 * Returns the current drawing context of the sheet. 
+	 * Returns the current drawing context of the sheet or <code>null</code>
+	 * if the sheet is written as delimiter-separated values.
 	 * 
 	 * @return See above.
 	 */
-	HSSFPatriarch getDrawingPatriarch()
+	Drawing<?> getDrawingPatriarch()
 	{
+		if (sheet == null) return null;
 		if (drawingPatriarch == null) 
 			drawingPatriarch = sheet.createDrawingPatriarch();
 		return drawingPatriarch;
@@ -226,4 +297,15 @@ class SheetInfo
 	 */
 	void setName(String name) { this.name = name; }
 	
+	/**
+	 * Writes the remaining rows of a delimited sheet and closes it.
+	 * 
+	 * @throws IOException If an error occurred while writing.
+	 */
+	void close()
+		throws IOException
+	{
+		if (delimitedSheet != null) delimitedSheet.close();
+	}
+	
 }
\ No newline at end of file
@@ -0,0 +1,346 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.file;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Writes a zip archive to a stream one entry at a time so that the content
+ * of the entries can be copied straight from their source without being
+ * stored first. The files already compressed e.g. JPEG or PNG images are
+ * stored without compression since compressing them again only costs time.
+ * The size and checksum of a stored entry have to be written before its
+ * content, so the content is kept in memory, or in a temporary file above
+ * {@link #MAX_BUFFER_SIZE} bytes, until the entry is closed.
+ *
+ * @since 5.8
+ */
+public class ZipStreamWriter
+{
+
+    /** The extensions of the formats already compressed. */
+    private static final List<String> COMPRESSED = Arrays.asList("zip", "gz",
+            "tgz", "bz2", "xz", "7z", "rar", "jar", "jpg", "jpeg", "jp2",
+            "png", "gif", "webp", "mp3", "mp4", "m4v", "mov", "avi", "mkv",
+            "docx", "xlsx", "pptx", "odt", "ods", "pdf");
+
+    /**
+     * The size, in bytes, up to which the content of a stored entry is kept
+     * in memory.
+     */
+    static final int MAX_BUFFER_SIZE = 1024*1024;
+
+    /**
+     * Keeps the content of an entry to store until it is closed and
+     * computes its size and checksum.
+     */
+    private static class StoredEntry
+        extends OutputStream
+    {
+
+        /** The name of the entry. */
+        private final String name;
+
+        /** The checksum of the content. */
+        private final CRC32 crc;
+
+        /** The size of the content. */
+        private long size;
+
+        /** The content kept in memory or <code>null</code> if spooled. */
+        private ByteArrayOutputStream buffer;
+
+        /** The file the content is spooled to or <code>null</code>. */
+        private File file;
+
+        /** The stream writing to {@link #file} or <code>null</code>. */
+        private OutputStream fileStream;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param name The name of the entry.
+         */
+        StoredEntry(String name)
+        {
+            this.name = name;
+            crc = new CRC32();
+            buffer = new ByteArrayOutputStream();
+        }
+
+        /**
+         * Overridden to keep the byte.
+         * @see OutputStream#write(int)
+         */
+        public void write(int b)
+            throws IOException
+        {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        /**
+         * Overridden to keep the bytes, in a temporary file once the content
+         * exceeds {@link #MAX_BUFFER_SIZE} bytes.
+         * @see OutputStream#write(byte[], int, int)
+         */
+        public void write(byte[] b, int off, int len)
+            throws IOException
+        {
+            if (fileStream == null && buffer.size()+len > MAX_BUFFER_SIZE) {
+                file = File.createTempFile("zipEntry", null);
+                fileStream = new BufferedOutputStream(
+                        new FileOutputStream(file));
+                buffer.writeTo(fileStream);
+                buffer = null;
+            }
+            if (fileStream != null) fileStream.write(b, off, len);
+            else buffer.write(b, off, len);
+            crc.update(b, off, len);
+            size += len;
+        }
+
+        /**
+         * Writes the entry, its size and checksum first, to the archive.
+         *
+         * @param out The archive.
+         * @throws IOException If an error occurred while writing the archive.
+         */
+        void writeTo(ZipOutputStream out)
+            throws IOException
+        {
+            ZipEntry entry = new ZipEntry(name);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(size);
+            entry.setCompressedSize(size);
+            entry.setCrc(crc.getValue());
+            out.putNextEntry(entry);
+            if (fileStream == null) buffer.writeTo(out);
+            else {
+                fileStream.close();
+                InputStream in = new FileInputStream(file);
+                try {
+                    IOUtils.copyLarge(in, out);
+                } finally {
+                    in.close();
+                }
+            }
+            out.closeEntry();
+        }
+
+        /** Deletes the temporary file if any. */
+        void delete()
+        {
+            try {
+                if (fileStream != null) fileStream.close();
+            } catch (IOException e) {
+                //ignore, the file is deleted.
+            }
+            if (file != null) file.delete();
+        }
+
+    }
+
+    /** The stream the archive is written to. */
+    private final ZipOutputStream out;
+
+    /** Pass <code>true</code> to compress the entries. */
+    private final boolean compress;
+
+    /** The names of the entries already written. */
+    private final Set<String> names;
+
+    /** The stream writing to the current entry or <code>null</code>. */
+    private OutputStream entry;
+
+    /** The current entry if it is stored, <code>null</code> otherwise. */
+    private StoredEntry stored;
+
+    /**
+     * Returns <code>true</code> if the file is in a format already
+     * compressed, <code>false</code> otherwise.
+     *
+     * @param name The name of the file.
+     * @return See above.
+     */
+    public static boolean isCompressed(String name)
+    {
+        if (name == null) return false;
+        String extension = FilenameUtils.getExtension(name);
+        return COMPRESSED.contains(extension.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param out The stream the archive is written to. Mustn't be
+     *            <code>null</code>.
+     * @param compress Pass <code>true</code> to compress the entries,
+     *                 <code>false</code> to only store them.
+     */
+    public ZipStreamWriter(OutputStream out, boolean compress)
+    {
+        if (out == null)
+            throw new IllegalArgumentException("No stream specified.");
+        this.out = new ZipOutputStream(out);
+        this.compress = compress;
+        names = new HashSet<String>();
+    }
+
+    /**
+     * Returns a name not used by the entries already written, a number is
+     * appended to the base name if required e.g. <code>a (1).txt</code>.
+     *
+     * @param name The name of the entry.
+     * @return See above.
+     */
+    private String getUniqueName(String name)
+    {
+        if (names.add(name)) return name;
+        String base = FilenameUtils.removeExtension(name);
+        String extension = FilenameUtils.getExtension(name);
+        if (extension.length() > 0) extension = "."+extension;
+        String value;
+        int index = 1;
+        do {
+            value = base+" ("+index+")"+extension;
+            index++;
+        } while (!names.add(value));
+        return value;
+    }
+
+    /**
+     * Checks that the stream writes to the current entry.
+     *
+     * @param stream The stream to check.
+     * @throws IOException If the entry of the stream has been closed.
+     */
+    private void checkEntry(OutputStream stream)
+        throws IOException
+    {
+        if (entry != stream) throw new IOException("Entry closed.");
+    }
+
+    /**
+     * Starts a new entry, the current entry is closed. Returns the stream
+     * to write the content of the entry to. Closing the stream closes the
+     * entry, not the archive.
+     *
+     * @param name The name of the entry. Mustn't be <code>null</code>.
+     *             A number is appended if an entry with the same name has
+     *             already been written.
+     * @return See above.
+     * @throws IOException If an error occurred while writing the archive.
+     */
+    public OutputStream putNextEntry(String name)
+        throws IOException
+    {
+        if (name == null || name.trim().length() == 0)
+            throw new IllegalArgumentException("No name specified.");
+        closeEntry();
+        String value = getUniqueName(name);
+        OutputStream target = out;
+        if (compress && !isCompressed(name))
+            out.putNextEntry(new ZipEntry(value));
+        else {
+            stored = new StoredEntry(value);
+            target = stored;
+        }
+        entry = new FilterOutputStream(target) {
+            public void write(int b)
+                throws IOException
+            {
+                checkEntry(this);
+                out.write(b);
+            }
+            public void write(byte[] b, int off, int len)
+                throws IOException
+            {
+                checkEntry(this);
+                out.write(b, off, len);
+            }
+            public void close()
+                throws IOException
+            {
+                if (entry == this) closeEntry();
+            }
+        };
+        return entry;
+    }
+
+    /**
+     * Closes the current entry if any.
+     *
+     * @throws IOException If an error occurred while writing the archive.
+     */
+    public void closeEntry()
+        throws IOException
+    {
+        if (entry == null) return;
+        entry = null;
+        if (stored == null) {
+            out.closeEntry();
+            return;
+        }
+        StoredEntry e = stored;
+        stored = null;
+        try {
+            e.writeTo(out);
+        } finally {
+            e.delete();
+        }
+    }
+
+    /**
+     * Closes the current entry if any, writes the end of the archive and
+     * closes the underlying stream.
+     *
+     * @throws IOException If an error occurred while writing the archive.
+     */
+    public void close()
+        throws IOException
+    {
+        try {
+            closeEntry();
+        } finally {
+            out.close();
+        }
+    }
+
+}
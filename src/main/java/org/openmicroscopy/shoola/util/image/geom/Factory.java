@@ -24,6 +24,7 @@
 package org.openmicroscopy.shoola.util.image.geom;
 
 //Java imports
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
@@ -190,6 +191,40 @@ public class Factory
 		return img;
 	}
 
+	/**
+	 * Creates an image of the specified type and size or takes it from the
+	 * passed pool.
+	 * 
+	 * @param type The type of the image.
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @param pool The pool to take the image from or <code>null</code>.
+	 * @return See above.
+	 */
+	private static BufferedImage createImage(int type, int width, int height,
+			ImagePool pool)
+	{
+		if (pool == null) return new BufferedImage(width, height, type);
+		return pool.acquire(type, width, height);
+	}
+
+	/**
+	 * Clears the image if it has been taken from the pool, the content of
+	 * such an image is undefined.
+	 * 
+	 * @param g2 The graphics context of the image.
+	 * @param img The image to clear.
+	 * @param pool The pool the image comes from or <code>null</code>.
+	 */
+	private static void clearImage(Graphics2D g2, BufferedImage img,
+			ImagePool pool)
+	{
+		if (pool == null) return;
+		g2.setComposite(AlphaComposite.Clear);
+		g2.fillRect(0, 0, img.getWidth(), img.getHeight());
+		g2.setComposite(AlphaComposite.SrcOver);
+	}
+
 	/**
 	 * Creates a default thumbnail image.
 	 * 
@@ -334,6 +369,25 @@ public class Factory
 	 */
 	public static BufferedImage magnifyImage(BufferedImage img, double level,
 			int w, boolean interpolate)
+	{
+		return magnifyImage(img, level, w, interpolate, null);
+	}
+
+	/** 
+	 * Magnifies the specified {@link BufferedImage} into an image taken from
+	 * the specified pool. The caller owns the magnified image and should
+	 * release it to the pool when it is no longer displayed.
+	 * 
+	 * @param img The buffered image to magnify.
+	 * @param level The magnification factor.
+	 * @param w Extra space, necessary b/c of the lens option.
+	 * @param interpolate Turns interpolation on or off
+	 * @param pool The pool to take the magnified image from or
+	 *             <code>null</code> to allocate a new image.
+	 * @return The magnified image.
+	 */
+	public static BufferedImage magnifyImage(BufferedImage img, double level,
+			int w, boolean interpolate, ImagePool pool)
 	{
 		if (img == null) return null;
 		int width = (int) (img.getWidth()*level)+w;
@@ -347,14 +401,20 @@ public class Factory
 
 		if (interpolate && img.getWidth() >= 3 && img.getHeight() >= 3) {
 		    ResampleOp  resampleOp = new ResampleOp(width, height);
-                    return resampleOp.filter(img, null);
+		    if (pool == null) return resampleOp.filter(img, null);
+		    //every pixel of the destination is written, no need to clear it.
+		    int type = img.getColorModel().hasAlpha() ?
+		            BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+		    return resampleOp.filter(img, pool.acquire(type, width, height));
 		}
 		else {
 			// Use plain Graphics2D, as ResampleOp apparently doesn't provide an option
 			// for disabling interpolation; also have to use Graphics2D for
 			// images < 3px (ResampleOp will fail in this case)
-		    BufferedImage result = new BufferedImage(width, height, img.getType());
+		    BufferedImage result = createImage(img.getType(), width, height,
+		            pool);
 		    Graphics2D g = result.createGraphics();
+		    clearImage(g, result, pool);
 		    g.getRenderingHints().add(new RenderingHints(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF));
 		    g.drawImage(img, 0, 0, width, height, 0, 0, img.getWidth(), img.getHeight(), null);
 		    return result;
@@ -369,6 +429,23 @@ public class Factory
 	 * @return The magnified image.
 	 */
 	public static BufferedImage magnifyImage(double f, BufferedImage img)
+	{
+		return magnifyImage(f, img, null);
+	}
+
+	/** 
+	 * Magnifies the specified image into an image taken from the specified
+	 * pool. The caller owns the magnified image and should release it to the
+	 * pool when it is no longer displayed.
+	 * 
+	 * @param f The magnification factor.
+	 * @param img The image to magnify.
+	 * @param pool The pool to take the magnified image from or
+	 *             <code>null</code> to allocate a new image.
+	 * @return The magnified image.
+	 */
+	public static BufferedImage magnifyImage(double f, BufferedImage img,
+			ImagePool pool)
 	{
 		if (img == null) return null;
 
@@ -380,9 +457,9 @@ public class Factory
 		Rectangle bounds = img.getRaster().getBounds();
 		bounds = at.createTransformedShape(bounds).getBounds();
 		BufferedImage rescaleBuff;
-		rescaleBuff = new BufferedImage(bounds.width, 
-				bounds.height, type); //img.getType()
+		rescaleBuff = createImage(type, bounds.width, bounds.height, pool);
 		Graphics2D g2 = rescaleBuff.createGraphics();
+		clearImage(g2, rescaleBuff, pool);
 		g2.drawImage(img, at, null);
 		g2.dispose();
 		img.flush();
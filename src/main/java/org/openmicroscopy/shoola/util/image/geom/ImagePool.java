@@ -0,0 +1,311 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.image.geom;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+
+/**
+ * Keeps the images no longer displayed so that they can be reused to
+ * decode or magnify other images of the same type and size e.g. the tiles
+ * of a big image or the zoomed planes of the viewer. The images are kept
+ * by type and size, the images of the sizes least recently used are removed
+ * first when the pool is full. Only the images explicitly released are
+ * kept, the content of an image returned by the pool is undefined.
+ * An image must only be released by its owner, once no other object
+ * refers to it.
+ *
+ * @since 5.8
+ */
+public class ImagePool
+{
+
+    /** The default maximum amount of memory, in bytes, used by the pool. */
+    public static final long DEFAULT_MAX_SIZE = 64L*1024*1024;
+
+    /** The pool shared by the application. */
+    private static final ImagePool DEFAULT = new ImagePool(DEFAULT_MAX_SIZE);
+
+    /** Identifies the images of a given type and size. */
+    private static final class Key
+    {
+
+        /** The type of the images. */
+        private final int type;
+
+        /** The width of the images. */
+        private final int width;
+
+        /** The height of the images. */
+        private final int height;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param type The type of the images.
+         * @param width The width of the images.
+         * @param height The height of the images.
+         */
+        Key(int type, int width, int height)
+        {
+            this.type = type;
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * Overridden to compare the type and size.
+         * @see Object#equals(Object)
+         */
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return type == k.type && width == k.width && height == k.height;
+        }
+
+        /**
+         * Overridden to be consistent with {@link #equals(Object)}.
+         * @see Object#hashCode()
+         */
+        public int hashCode() { return (31*type+width)*31+height; }
+    }
+
+    /** The images kept, the sizes least recently used first. */
+    private final LinkedHashMap<Key, LinkedList<BufferedImage>> images;
+
+    /** The maximum amount of memory, in bytes, used by the pool. */
+    private long maxSize;
+
+    /** The amount of memory, in bytes, used by the images kept. */
+    private long size;
+
+    /** The number of requests served by an image kept. */
+    private long hits;
+
+    /** The number of requests for which no image was kept. */
+    private long misses;
+
+    /** The number of images released and kept. */
+    private long released;
+
+    /** The number of images released or kept then removed. */
+    private long dropped;
+
+    /**
+     * Returns the pool shared by the application.
+     *
+     * @return See above.
+     */
+    public static ImagePool getDefault() { return DEFAULT; }
+
+    /**
+     * Returns the amount of memory, in bytes, used by the pixels of the
+     * image.
+     *
+     * @param image The image to handle.
+     * @return See above.
+     */
+    static long getBytes(BufferedImage image)
+    {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        return (long) buffer.getSize()*buffer.getNumBanks()*
+                DataBuffer.getDataTypeSize(buffer.getDataType())/8;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxSize The maximum amount of memory, in bytes, used by the
+     *                pool.
+     */
+    public ImagePool(long maxSize)
+    {
+        images = new LinkedHashMap<Key, LinkedList<BufferedImage>>(16,
+                0.75f, true);
+        this.maxSize = Math.max(maxSize, 0);
+    }
+
+    /**
+     * Removes the images of the sizes least recently used until the images
+     * kept use no more than the specified amount of memory.
+     *
+     * @param limit The amount of memory in bytes.
+     */
+    private void trim(long limit)
+    {
+        Iterator<LinkedList<BufferedImage>> i = images.values().iterator();
+        LinkedList<BufferedImage> l;
+        while (size > limit && i.hasNext()) {
+            l = i.next();
+            while (size > limit && !l.isEmpty()) {
+                size -= getBytes(l.removeFirst());
+                dropped++;
+            }
+            if (l.isEmpty()) i.remove();
+        }
+    }
+
+    /**
+     * Returns an image of the specified type and size, an image kept if
+     * any or a new image. The content of the image is undefined.
+     *
+     * @param type The type of the image, one of the types defined by
+     *             {@link BufferedImage}.
+     * @param width The width of the image.
+     * @param height The height of the image.
+     * @return See above.
+     */
+    public synchronized BufferedImage acquire(int type, int width,
+            int height)
+    {
+        LinkedList<BufferedImage> l = images.get(new Key(type, width,
+                height));
+        if (l == null || l.isEmpty()) {
+            misses++;
+            return new BufferedImage(width, height, type);
+        }
+        hits++;
+        BufferedImage image = l.removeLast();
+        size -= getBytes(image);
+        return image;
+    }
+
+    /**
+     * Releases the image so that it can be reused. The image must no
+     * longer be used by the caller. Returns <code>true</code> if the image
+     * is kept, <code>false</code> otherwise.
+     *
+     * @param image The image to release.
+     * @return See above.
+     */
+    public synchronized boolean release(BufferedImage image)
+    {
+        if (image == null) return false;
+        int type = image.getType();
+        long bytes = getBytes(image);
+        if (type == BufferedImage.TYPE_CUSTOM || bytes > maxSize) {
+            dropped++;
+            return false;
+        }
+        Key key = new Key(type, image.getWidth(), image.getHeight());
+        LinkedList<BufferedImage> l = images.get(key);
+        if (l == null) {
+            l = new LinkedList<BufferedImage>();
+            images.put(key, l);
+        } else {
+            for (BufferedImage img : l) {
+                if (img == image) return true;
+            }
+        }
+        trim(maxSize-bytes);
+        l.addLast(image);
+        size += bytes;
+        released++;
+        return true;
+    }
+
+    /**
+     * Sets the maximum amount of memory, in bytes, used by the pool.
+     * Pass <code>0</code> to disable the pool.
+     *
+     * @param maxSize The value to set.
+     */
+    public synchronized void setMaxSize(long maxSize)
+    {
+        this.maxSize = Math.max(maxSize, 0);
+        trim(this.maxSize);
+    }
+
+    /**
+     * Returns the maximum amount of memory, in bytes, used by the pool.
+     *
+     * @return See above.
+     */
+    public synchronized long getMaxSize() { return maxSize; }
+
+    /** Removes all the images kept. */
+    public synchronized void clear() { trim(0); }
+
+    /**
+     * Returns the amount of memory, in bytes, used by the images kept.
+     *
+     * @return See above.
+     */
+    public synchronized long getSize() { return size; }
+
+    /**
+     * Returns the number of images kept.
+     *
+     * @return See above.
+     */
+    public synchronized int getCount()
+    {
+        int n = 0;
+        for (LinkedList<BufferedImage> l : images.values())
+            n += l.size();
+        return n;
+    }
+
+    /**
+     * Returns the number of requests served by an image kept.
+     *
+     * @return See above.
+     */
+    public synchronized long getHits() { return hits; }
+
+    /**
+     * Returns the number of requests for which no image was kept.
+     *
+     * @return See above.
+     */
+    public synchronized long getMisses() { return misses; }
+
+    /**
+     * Returns the number of images released and kept.
+     *
+     * @return See above.
+     */
+    public synchronized long getReleaseCount() { return released; }
+
+    /**
+     * Returns the number of images not kept when released or removed to
+     * make room for other images.
+     *
+     * @return See above.
+     */
+    public synchronized long getDropCount() { return dropped; }
+
+    /**
+     * Overridden to return the statistics of the pool.
+     * @see Object#toString()
+     */
+    public synchronized String toString()
+    {
+        return "hits="+hits+", misses="+misses+", released="+released+
+                ", dropped="+dropped+", kept="+getCount()+", size="+size+
+                " bytes";
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.image.io;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import org.openmicroscopy.shoola.util.image.geom.ImagePool;
+
+/**
+ * Decodes the compressed images returned by the server. Each thread keeps
+ * one reader per format so that the readers are not looked up and created
+ * for every image. The images are read from memory, never cached on disk,
+ * and can be decoded straight into an existing image of the right type and
+ * size. The <code>TYPE_INT_RGB</code> type, the type of the images rendered
+ * without compression, is used when the reader supports it. The images
+ * can also be taken from an {@link ImagePool} so that the tiles of a big
+ * image reuse the images of the tiles no longer displayed.
+ *
+ * @since 5.8
+ */
+class ImageDecoder
+{
+
+    /** The <code>JPEG</code> format. */
+    static final String JPEG = "jpeg";
+
+    /** The <code>PNG</code> format. */
+    static final String PNG = "png";
+
+    /** The <code>GIF</code> format. */
+    static final String GIF = "gif";
+
+    /** The readers of the current thread, the key is the format. */
+    private static final ThreadLocal<Map<String, ImageReader>> READERS =
+            new ThreadLocal<Map<String, ImageReader>>() {
+        protected Map<String, ImageReader> initialValue()
+        {
+            return new HashMap<String, ImageReader>();
+        }
+    };
+
+    /**
+     * Returns the format of the encoded image or <code>null</code> if the
+     * format is not recognized.
+     *
+     * @param values The encoded image.
+     * @return See above.
+     */
+    static String getFormat(byte[] values)
+    {
+        if (values.length >= 3 && (values[0] & 0xff) == 0xff &&
+                (values[1] & 0xff) == 0xd8 && (values[2] & 0xff) == 0xff)
+            return JPEG;
+        if (values.length >= 4 && (values[0] & 0xff) == 0x89 &&
+                values[1] == 'P' && values[2] == 'N' && values[3] == 'G')
+            return PNG;
+        if (values.length >= 4 && values[0] == 'G' && values[1] == 'I' &&
+                values[2] == 'F' && values[3] == '8')
+            return GIF;
+        return null;
+    }
+
+    /**
+     * Returns the reader of the current thread for the specified format or
+     * <code>null</code> if the format cannot be read.
+     *
+     * @param format The format of the image.
+     * @return See above.
+     */
+    private static ImageReader getReader(String format)
+    {
+        Map<String, ImageReader> readers = READERS.get();
+        ImageReader reader = readers.get(format);
+        if (reader == null) {
+            Iterator<ImageReader> i = ImageIO.getImageReadersByFormatName(
+                    format);
+            if (!i.hasNext()) return null;
+            reader = i.next();
+            readers.put(format, reader);
+        }
+        return reader;
+    }
+
+    /**
+     * Returns the type of the decoded image: <code>TYPE_INT_RGB</code> if
+     * the reader can decode the image into it, the type preferred by the
+     * reader otherwise.
+     *
+     * @param reader The reader to handle.
+     * @return See above.
+     * @throws IOException If an error occurred while reading the header.
+     */
+    private static ImageTypeSpecifier getType(ImageReader reader)
+        throws IOException
+    {
+        Iterator<ImageTypeSpecifier> i = reader.getImageTypes(0);
+        ImageTypeSpecifier preferred = null;
+        ImageTypeSpecifier type;
+        while (i.hasNext()) {
+            type = i.next();
+            if (type.getBufferedImageType() == BufferedImage.TYPE_INT_RGB)
+                return type;
+            if (preferred == null) preferred = type;
+        }
+        return preferred;
+    }
+
+    /**
+     * Returns the size of the image read with the specified subsampling.
+     *
+     * @param size The size of the image along one axis.
+     * @param subsampling The subsampling factor.
+     * @return See above.
+     */
+    static int getSubsampledSize(int size, int subsampling)
+    {
+        return (size+subsampling-1)/subsampling;
+    }
+
+    /**
+     * Decodes the image. Every <code>subsampling</code> pixel along each
+     * axis is read. The image is decoded into the passed destination if
+     * its type and size match the type and size of the decoded image.
+     * A new image is created otherwise. Returns <code>null</code> if the
+     * format is not supported.
+     *
+     * @param values The encoded image.
+     * @param subsampling The subsampling factor, <code>1</code> to read all
+     *                    the pixels.
+     * @param destination The image to decode into or <code>null</code>.
+     * @return See above.
+     * @throws IOException If an error occurred while decoding the image.
+     */
+    static BufferedImage decode(byte[] values, int subsampling,
+            BufferedImage destination)
+        throws IOException
+    {
+        return decode(values, subsampling, destination, null);
+    }
+
+    /**
+     * Decodes the image. Every <code>subsampling</code> pixel along each
+     * axis is read. The image is decoded into the passed destination if
+     * its type and size match the type and size of the decoded image,
+     * into an image taken from the pool otherwise. Returns
+     * <code>null</code> if the format is not supported.
+     *
+     * @param values The encoded image.
+     * @param subsampling The subsampling factor, <code>1</code> to read all
+     *                    the pixels.
+     * @param destination The image to decode into or <code>null</code>.
+     * @param pool The pool to take the image from or <code>null</code> to
+     *             create a new image.
+     * @return See above.
+     * @throws IOException If an error occurred while decoding the image.
+     */
+    static BufferedImage decode(byte[] values, int subsampling,
+            BufferedImage destination, ImagePool pool)
+        throws IOException
+    {
+        if (subsampling < 1)
+            throw new IllegalArgumentException("Subsampling not valid.");
+        ImageInputStream stream = new MemoryCacheImageInputStream(
+                new ByteArrayInputStream(values));
+        String format = getFormat(values);
+        ImageReader reader = null;
+        boolean shared = false;
+        if (format != null) {
+            reader = getReader(format);
+            shared = reader != null;
+        }
+        if (reader == null) {
+            Iterator<ImageReader> i = ImageIO.getImageReaders(stream);
+            if (!i.hasNext()) {
+                stream.close();
+                return null;
+            }
+            reader = i.next();
+        }
+        BufferedImage pooled = null;
+        try {
+            reader.setInput(stream, true, true);
+            ImageReadParam param = reader.getDefaultReadParam();
+            if (subsampling > 1)
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            ImageTypeSpecifier type = getType(reader);
+            if (type != null) {
+                int t = type.getBufferedImageType();
+                int w = getSubsampledSize(reader.getWidth(0), subsampling);
+                int h = getSubsampledSize(reader.getHeight(0), subsampling);
+                if (destination != null &&
+                        destination.getType() != BufferedImage.TYPE_CUSTOM &&
+                        destination.getType() == t &&
+                        destination.getWidth() == w &&
+                        destination.getHeight() == h)
+                    param.setDestination(destination);
+                else if (pool != null && t != BufferedImage.TYPE_CUSTOM) {
+                    pooled = pool.acquire(t, w, h);
+                    param.setDestination(pooled);
+                } else param.setDestinationType(type);
+            }
+            BufferedImage image = reader.read(0, param);
+            pooled = null;
+            return image;
+        } finally {
+            if (pooled != null) pool.release(pooled);
+            if (shared) reader.reset();
+            else reader.dispose();
+            stream.close();
+        }
+    }
+
+}
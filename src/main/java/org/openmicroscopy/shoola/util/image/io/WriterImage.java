@@ -36,7 +36,6 @@ import java.awt.image.DataBufferByte;
 import java.awt.image.DataBufferInt;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
@@ -52,6 +51,7 @@ import javax.imageio.stream.ImageOutputStream;
 import org.openmicroscopy.shoola.util.filter.file.GIFFilter;
 import org.openmicroscopy.shoola.util.filter.file.JPEGFilter;
 import org.openmicroscopy.shoola.util.filter.file.PNGFilter;
+import org.openmicroscopy.shoola.util.image.geom.ImagePool;
 
 /** 
  * Utility class to encode images.
@@ -193,7 +193,9 @@ public class WriterImage
 	}
 	
 	/**
-	 * Converts the passed byte array to a buffered image.
+	 * Converts the passed byte array to a buffered image. The image is
+	 * decoded into an image taken from the {@link ImagePool#getDefault() pool}
+	 * if one of the type and size of the decoded image is available.
 	 * 
 	 * @param values The values to convert.
 	 * @return See above.
@@ -205,20 +207,13 @@ public class WriterImage
 	{
 		if (values == null) 
     		throw new IllegalArgumentException("No array specified.");
-		ByteArrayInputStream stream = null;
 		try {
-			stream = new ByteArrayInputStream(values);
-			BufferedImage image = ImageIO.read(stream);
+			BufferedImage image = ImageDecoder.decode(values, 1, null,
+					ImagePool.getDefault());
 			if (image != null) image.setAccelerationPriority(1f);
 			return image;
 		} catch (Exception e) {
 			throw new EncoderException("Cannot create buffered image", e);
-		} finally {
-			if (stream != null) {
-				try {
-					stream.close();
-				} catch (Exception ex) {}
-			}
 		}
 	}
 	
@@ -235,10 +230,8 @@ public class WriterImage
 	{
 		if (values == null) 
     		throw new IllegalArgumentException("No array specified.");
-		ByteArrayInputStream stream = null;
 		try {
-			stream = new ByteArrayInputStream(values);
-			BufferedImage image = ImageIO.read(stream);
+			BufferedImage image = ImageDecoder.decode(values, 1, null);
 			if (image == null) return null;
 			image.setAccelerationPriority(1f);
 			int w = image.getWidth();
@@ -258,12 +251,6 @@ public class WriterImage
 			return buf.getData();
 		} catch (Exception e) {
 			throw new EncoderException("Cannot create buffered image", e);
-		} finally {
-			if (stream != null) {
-				try {
-					stream.close();
-				} catch (Exception ex) {}
-			}
 		}
 	}
 	
@@ -284,7 +271,7 @@ public class WriterImage
 		try {
 			BufferedImage img = bytesToImage(values);
 			if (img == null) return null;
-			DataBufferInt buf = (DataBufferInt) img.getData().getDataBuffer();
+			DataBufferInt buf = (DataBufferInt) img.getRaster().getDataBuffer();
 			return buf.getData();
 		} catch (Exception e) {
 			throw new EncoderException("Cannot decode the image.", e);
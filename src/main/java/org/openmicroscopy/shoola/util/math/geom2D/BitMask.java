@@ -0,0 +1,383 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.math.geom2D;
+
+import java.awt.Color;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary mask stored as packed rows of bits, one bit per pixel. Each row
+ * starts on a new word so that the set pixels of a row are visited a span
+ * at a time and counted a word at a time.
+ * The mask is converted from and to the packed byte array used by the
+ * server i.e. the bits of the rows one after the other, most significant
+ * bit first.
+ *
+ * @since 5.8
+ */
+public class BitMask
+{
+
+    /** The number of bits in a word. */
+    private static final int WORD_SIZE = 64;
+
+    /** The width of the mask. */
+    private final int width;
+
+    /** The height of the mask. */
+    private final int height;
+
+    /** The number of words per row. */
+    private final int wordsPerRow;
+
+    /** The bits, row by row, least significant bit first in a word. */
+    private final long[] words;
+
+    /**
+     * Checks that the point is in the mask.
+     *
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     */
+    private void checkPoint(int x, int y)
+    {
+        if (x < 0 || x >= width || y < 0 || y >= height)
+            throw new IndexOutOfBoundsException("Point ("+x+", "+y+") not in "+
+                    width+"x"+height+" mask.");
+    }
+
+    /**
+     * Creates a mask from the packed byte array used by the server. Only the
+     * non-zero bytes are visited.
+     *
+     * @param data The bits of the rows one after the other, most significant
+     *             bit first.
+     * @param width The width of the mask.
+     * @param height The height of the mask.
+     * @return See above.
+     */
+    public static BitMask fromBytes(byte[] data, int width, int height)
+    {
+        BitMask mask = new BitMask(width, height);
+        if (data == null) return mask;
+        long n = (long) width*height;
+        int b, bit;
+        long index;
+        for (int i = 0; i < data.length; i++) {
+            b = data[i] & 0xff;
+            while (b != 0) {
+                bit = Integer.numberOfLeadingZeros(b)-24;
+                b &= ~(0x80 >>> bit);
+                index = ((long) i << 3)+bit;
+                if (index >= n) return mask;
+                mask.set((int) (index % width), (int) (index / width), true);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Creates a mask from the pixels of the image whose alpha is not
+     * <code>0</code>.
+     *
+     * @param image The image to convert. Mustn't be <code>null</code>.
+     * @return See above.
+     */
+    public static BitMask fromImage(BufferedImage image)
+    {
+        if (image == null)
+            throw new IllegalArgumentException("No image specified.");
+        int w = image.getWidth();
+        int h = image.getHeight();
+        BitMask mask = new BitMask(w, h);
+        int[] row = new int[w];
+        long word;
+        int offset, end;
+        for (int y = 0; y < h; y++) {
+            image.getRGB(0, y, w, 1, row, 0, w);
+            offset = y*mask.wordsPerRow;
+            for (int i = 0; i < mask.wordsPerRow; i++) {
+                word = 0;
+                end = Math.min(WORD_SIZE, w-i*WORD_SIZE);
+                for (int j = 0; j < end; j++) {
+                    if ((row[i*WORD_SIZE+j] >>> 24) != 0)
+                        word |= 1L << j;
+                }
+                mask.words[offset+i] = word;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Creates a new empty mask.
+     *
+     * @param width The width of the mask.
+     * @param height The height of the mask.
+     */
+    public BitMask(int width, int height)
+    {
+        if (width < 0 || height < 0)
+            throw new IllegalArgumentException("Size cannot be negative.");
+        this.width = width;
+        this.height = height;
+        wordsPerRow = (width+WORD_SIZE-1)/WORD_SIZE;
+        words = new long[wordsPerRow*height];
+    }
+
+    /**
+     * Creates a copy of the specified mask.
+     *
+     * @param mask The mask to copy. Mustn't be <code>null</code>.
+     */
+    public BitMask(BitMask mask)
+    {
+        if (mask == null)
+            throw new IllegalArgumentException("No mask specified.");
+        width = mask.width;
+        height = mask.height;
+        wordsPerRow = mask.wordsPerRow;
+        words = mask.words.clone();
+    }
+
+    /**
+     * Returns the width of the mask.
+     *
+     * @return See above.
+     */
+    public int getWidth() { return width; }
+
+    /**
+     * Returns the height of the mask.
+     *
+     * @return See above.
+     */
+    public int getHeight() { return height; }
+
+    /**
+     * Returns <code>true</code> if the pixel is set,
+     * <code>false</code> otherwise.
+     *
+     * @param x The x-coordinate of the pixel.
+     * @param y The y-coordinate of the pixel.
+     * @return See above.
+     */
+    public boolean get(int x, int y)
+    {
+        checkPoint(x, y);
+        return (words[y*wordsPerRow+x/WORD_SIZE] & (1L << x)) != 0;
+    }
+
+    /**
+     * Sets or clears the pixel.
+     *
+     * @param x The x-coordinate of the pixel.
+     * @param y The y-coordinate of the pixel.
+     * @param value Pass <code>true</code> to set the pixel,
+     *              <code>false</code> to clear it.
+     */
+    public void set(int x, int y, boolean value)
+    {
+        checkPoint(x, y);
+        int i = y*wordsPerRow+x/WORD_SIZE;
+        if (value) words[i] |= 1L << x;
+        else words[i] &= ~(1L << x);
+    }
+
+    /**
+     * Returns the number of pixels set.
+     *
+     * @return See above.
+     */
+    public int getArea()
+    {
+        int n = 0;
+        for (int i = 0; i < words.length; i++)
+            n += Long.bitCount(words[i]);
+        return n;
+    }
+
+    /**
+     * Returns the x-coordinate of the first pixel set in the row at or after
+     * the specified x-coordinate or <code>-1</code> if none.
+     *
+     * @param y The row.
+     * @param x The x-coordinate to start from.
+     * @return See above.
+     */
+    public int nextSetBit(int y, int x)
+    {
+        if (x >= width) return -1;
+        checkPoint(Math.max(x, 0), y);
+        x = Math.max(x, 0);
+        int offset = y*wordsPerRow;
+        int i = x/WORD_SIZE;
+        long word = words[offset+i] & (-1L << x);
+        while (true) {
+            if (word != 0) {
+                x = i*WORD_SIZE+Long.numberOfTrailingZeros(word);
+                return x < width ? x : -1;
+            }
+            if (++i == wordsPerRow) return -1;
+            word = words[offset+i];
+        }
+    }
+
+    /**
+     * Returns the x-coordinate of the first pixel not set in the row at or
+     * after the specified x-coordinate. Returns the width of the mask if all
+     * the remaining pixels are set.
+     *
+     * @param y The row.
+     * @param x The x-coordinate to start from.
+     * @return See above.
+     */
+    public int nextClearBit(int y, int x)
+    {
+        if (x >= width) return width;
+        checkPoint(Math.max(x, 0), y);
+        x = Math.max(x, 0);
+        int offset = y*wordsPerRow;
+        int i = x/WORD_SIZE;
+        long word = ~words[offset+i] & (-1L << x);
+        while (true) {
+            if (word != 0) {
+                x = i*WORD_SIZE+Long.numberOfTrailingZeros(word);
+                return Math.min(x, width);
+            }
+            if (++i == wordsPerRow) return width;
+            word = ~words[offset+i];
+        }
+    }
+
+    /**
+     * Returns the pixels set, translated by the specified offset, row by row.
+     *
+     * @param dx The offset along the x-axis.
+     * @param dy The offset along the y-axis.
+     * @return See above.
+     */
+    public List<Point> getPoints(int dx, int dy)
+    {
+        List<Point> points = new ArrayList<Point>(getArea());
+        int start, end;
+        for (int y = 0; y < height; y++) {
+            start = nextSetBit(y, 0);
+            while (start >= 0) {
+                end = nextClearBit(y, start);
+                for (int x = start; x < end; x++)
+                    points.add(new Point(x+dx, y+dy));
+                start = nextSetBit(y, end);
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Returns the mask as the packed byte array used by the server.
+     *
+     * @return See above.
+     */
+    public byte[] toBytes()
+    {
+        long n = (long) width*height;
+        byte[] data = new byte[(int) ((n+7)/8)];
+        int start, end;
+        long index;
+        for (int y = 0; y < height; y++) {
+            start = nextSetBit(y, 0);
+            while (start >= 0) {
+                end = nextClearBit(y, start);
+                for (int x = start; x < end; x++) {
+                    index = (long) y*width+x;
+                    data[(int) (index >>> 3)] |= 0x80 >>> (int) (index & 7);
+                }
+                start = nextSetBit(y, end);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Returns the mask as a 1-bit image, the pixels set are painted with the
+     * specified colour and the others are transparent.
+     *
+     * @param colour The colour of the pixels set. Mustn't be
+     *               <code>null</code>.
+     * @return See above.
+     */
+    public BufferedImage toImage(Color colour)
+    {
+        if (colour == null)
+            throw new IllegalArgumentException("No colour specified.");
+        byte[] r = {0, (byte) colour.getRed()};
+        byte[] g = {0, (byte) colour.getGreen()};
+        byte[] b = {0, (byte) colour.getBlue()};
+        byte[] a = {0, (byte) colour.getAlpha()};
+        IndexColorModel model = new IndexColorModel(1, 2, r, g, b, a);
+        BufferedImage image = new BufferedImage(Math.max(width, 1),
+                Math.max(height, 1), BufferedImage.TYPE_BYTE_BINARY, model);
+        if (width == 0 || height == 0) return image;
+        byte[] data = ((DataBufferByte)
+                image.getRaster().getDataBuffer()).getData();
+        int stride = (width+7)/8;
+        long word;
+        int offset;
+        for (int y = 0; y < height; y++) {
+            offset = y*stride;
+            for (int j = 0; j < stride; j++) {
+                word = words[y*wordsPerRow+j/8];
+                if (word == 0) continue;
+                data[offset+j] = (byte) (Integer.reverse(
+                        (int) ((word >>> ((j & 7) << 3)) & 0xff)) >>> 24);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Overridden to compare the size and pixels of the masks.
+     * @see Object#equals(Object)
+     */
+    public boolean equals(Object o)
+    {
+        if (!(o instanceof BitMask)) return false;
+        BitMask other = (BitMask) o;
+        return width == other.width && height == other.height &&
+                Arrays.equals(words, other.words);
+    }
+
+    /**
+     * Overridden to be consistent with {@link #equals(Object)}.
+     * @see Object#hashCode()
+     */
+    public int hashCode()
+    {
+        return 31*(31*width+height)+Arrays.hashCode(words);
+    }
+
+}
@@ -0,0 +1,401 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.math.geom2D;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatial index of objects by their bounding box, backed by a uniform grid.
+ * Each object is registered in the cells its bounds overlap so that the
+ * objects intersecting a region or containing a point are found without
+ * visiting all the objects. Objects spanning too many cells are kept aside
+ * and always checked. The objects are returned in the order they were
+ * first added.
+ *
+ * @since 5.8
+ */
+public class GridIndex<T>
+{
+
+    /** The default size of a cell. */
+    public static final double DEFAULT_CELL_SIZE = 128;
+
+    /**
+     * The maximum number of cells an object is registered in. Larger
+     * objects are checked on every query.
+     */
+    private static final int MAX_CELLS = 256;
+
+    /** An object and its bounds. */
+    private static class Entry<T>
+    {
+
+        /** The object. */
+        private final T object;
+
+        /** The order in which the object was added. */
+        private final long order;
+
+        /** The bounds of the object. */
+        private Rectangle2D bounds;
+
+        /** The first column of the cells hosting the object. */
+        private int col0;
+
+        /** The first row of the cells hosting the object. */
+        private int row0;
+
+        /** The last column of the cells hosting the object. */
+        private int col1;
+
+        /** The last row of the cells hosting the object. */
+        private int row1;
+
+        /** Flag indicating that the object spans too many cells. */
+        private boolean large;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param object The object.
+         * @param order The order in which the object was added.
+         */
+        Entry(T object, long order)
+        {
+            this.object = object;
+            this.order = order;
+        }
+    }
+
+    /** Sorts the entries by insertion order. */
+    private static final Comparator<Entry<?>> ORDER =
+            new Comparator<Entry<?>>() {
+        public int compare(Entry<?> e1, Entry<?> e2)
+        {
+            return Long.compare(e1.order, e2.order);
+        }
+    };
+
+    /** The size of a cell. */
+    private final double cellSize;
+
+    /** The entries registered in each cell. */
+    private final Map<Long, List<Entry<T>>> cells;
+
+    /** The entry of each object. */
+    private final Map<T, Entry<T>> entries;
+
+    /** The entries spanning too many cells. */
+    private final List<Entry<T>> large;
+
+    /** The order of the next object added. */
+    private long next;
+
+    /**
+     * Returns the key of the specified cell.
+     *
+     * @param col The column of the cell.
+     * @param row The row of the cell.
+     * @return See above.
+     */
+    private static long key(int col, int row)
+    {
+        return (((long) col) << 32) | (row & 0xffffffffL);
+    }
+
+    /**
+     * Returns the column or row of the cell hosting the coordinate.
+     *
+     * @param v The coordinate.
+     * @return See above.
+     */
+    private int cell(double v)
+    {
+        return (int) Math.floor(v/cellSize);
+    }
+
+    /**
+     * Returns <code>true</code> if the rectangles overlap, including their
+     * edges so that empty bounds e.g. points are found,
+     * <code>false</code> otherwise.
+     *
+     * @param a The first rectangle.
+     * @param b The second rectangle.
+     * @return See above.
+     */
+    private static boolean overlaps(Rectangle2D a, Rectangle2D b)
+    {
+        return a.getMinX() <= b.getMaxX() && b.getMinX() <= a.getMaxX() &&
+                a.getMinY() <= b.getMaxY() && b.getMinY() <= a.getMaxY();
+    }
+
+    /**
+     * Registers the entry in the cells overlapped by its bounds.
+     *
+     * @param e The entry to register.
+     */
+    private void register(Entry<T> e)
+    {
+        Rectangle2D b = e.bounds;
+        e.col0 = cell(b.getMinX());
+        e.row0 = cell(b.getMinY());
+        e.col1 = cell(b.getMaxX());
+        e.row1 = cell(b.getMaxY());
+        long n = ((long) e.col1-e.col0+1)*((long) e.row1-e.row0+1);
+        e.large = n > MAX_CELLS;
+        if (e.large) {
+            large.add(e);
+            return;
+        }
+        Long k;
+        List<Entry<T>> l;
+        for (int col = e.col0; col <= e.col1; col++) {
+            for (int row = e.row0; row <= e.row1; row++) {
+                k = key(col, row);
+                l = cells.get(k);
+                if (l == null) {
+                    l = new ArrayList<Entry<T>>(4);
+                    cells.put(k, l);
+                }
+                l.add(e);
+            }
+        }
+    }
+
+    /**
+     * Removes the entry from the cells it is registered in.
+     *
+     * @param e The entry to remove.
+     */
+    private void unregister(Entry<T> e)
+    {
+        if (e.large) {
+            large.remove(e);
+            return;
+        }
+        Long k;
+        List<Entry<T>> l;
+        for (int col = e.col0; col <= e.col1; col++) {
+            for (int row = e.row0; row <= e.row1; row++) {
+                k = key(col, row);
+                l = cells.get(k);
+                if (l == null) continue;
+                l.remove(e);
+                if (l.isEmpty()) cells.remove(k);
+            }
+        }
+    }
+
+    /** Creates a new instance with the default cell size. */
+    public GridIndex()
+    {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param cellSize The size of a cell, should be of the order of the
+     *                 size of the objects indexed.
+     */
+    public GridIndex(double cellSize)
+    {
+        if (cellSize <= 0)
+            throw new IllegalArgumentException("Cell size must be positive.");
+        this.cellSize = cellSize;
+        cells = new HashMap<Long, List<Entry<T>>>();
+        entries = new IdentityHashMap<T, Entry<T>>();
+        large = new ArrayList<Entry<T>>();
+    }
+
+    /**
+     * Adds the object or updates its bounds if already indexed. The order
+     * of an object already indexed is not modified.
+     *
+     * @param object The object to add.
+     * @param bounds The bounds of the object.
+     */
+    public void add(T object, Rectangle2D bounds)
+    {
+        if (object == null || bounds == null) return;
+        Entry<T> e = entries.get(object);
+        if (e == null) {
+            e = new Entry<T>(object, next++);
+            entries.put(object, e);
+        } else unregister(e);
+        e.bounds = (Rectangle2D) bounds.clone();
+        register(e);
+    }
+
+    /**
+     * Removes the object.
+     *
+     * @param object The object to remove.
+     * @return <code>true</code> if the object was indexed,
+     *         <code>false</code> otherwise.
+     */
+    public boolean remove(T object)
+    {
+        Entry<T> e = entries.remove(object);
+        if (e == null) return false;
+        unregister(e);
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> if the object is indexed,
+     * <code>false</code> otherwise.
+     *
+     * @param object The object to check.
+     * @return See above.
+     */
+    public boolean contains(T object) { return entries.containsKey(object); }
+
+    /**
+     * Returns the bounds the object was last indexed with or
+     * <code>null</code> if the object is not indexed.
+     *
+     * @param object The object to handle.
+     * @return See above.
+     */
+    public Rectangle2D getBounds(T object)
+    {
+        Entry<T> e = entries.get(object);
+        if (e == null) return null;
+        return (Rectangle2D) e.bounds.clone();
+    }
+
+    /**
+     * Returns the number of objects indexed.
+     *
+     * @return See above.
+     */
+    public int size() { return entries.size(); }
+
+    /** Removes all the objects. */
+    public void clear()
+    {
+        cells.clear();
+        entries.clear();
+        large.clear();
+    }
+
+    /**
+     * Returns the objects indexed, in the order they were added.
+     *
+     * @return See above.
+     */
+    public List<T> getObjects()
+    {
+        List<Entry<T>> l = new ArrayList<Entry<T>>(entries.values());
+        Collections.sort(l, ORDER);
+        List<T> objects = new ArrayList<T>(l.size());
+        Iterator<Entry<T>> i = l.iterator();
+        while (i.hasNext())
+            objects.add(i.next().object);
+        return objects;
+    }
+
+    /**
+     * Returns the objects whose bounds intersect the specified region, in
+     * the order they were added.
+     *
+     * @param region The region to query.
+     * @return See above.
+     */
+    public List<T> query(Rectangle2D region)
+    {
+        List<Entry<T>> found = new ArrayList<Entry<T>>();
+        if (region == null) return new ArrayList<T>();
+        Map<Entry<T>, Boolean> seen = new IdentityHashMap<Entry<T>, Boolean>();
+        int col0 = cell(region.getMinX());
+        int row0 = cell(region.getMinY());
+        int col1 = cell(region.getMaxX());
+        int row1 = cell(region.getMaxY());
+        long n = ((long) col1-col0+1)*((long) row1-row0+1);
+        Iterator<Entry<T>> j;
+        Entry<T> e;
+        if (n > cells.size()) {
+            //region larger than the populated area, visit the cells.
+            Iterator<List<Entry<T>>> i = cells.values().iterator();
+            while (i.hasNext()) {
+                j = i.next().iterator();
+                while (j.hasNext()) {
+                    e = j.next();
+                    if (seen.put(e, Boolean.TRUE) == null &&
+                            overlaps(e.bounds, region))
+                        found.add(e);
+                }
+            }
+        } else {
+            List<Entry<T>> l;
+            for (int col = col0; col <= col1; col++) {
+                for (int row = row0; row <= row1; row++) {
+                    l = cells.get(key(col, row));
+                    if (l == null) continue;
+                    j = l.iterator();
+                    while (j.hasNext()) {
+                        e = j.next();
+                        if (seen.put(e, Boolean.TRUE) == null &&
+                                overlaps(e.bounds, region))
+                            found.add(e);
+                    }
+                }
+            }
+        }
+        j = large.iterator();
+        while (j.hasNext()) {
+            e = j.next();
+            if (overlaps(e.bounds, region)) found.add(e);
+        }
+        Collections.sort(found, ORDER);
+        List<T> objects = new ArrayList<T>(found.size());
+        j = found.iterator();
+        while (j.hasNext())
+            objects.add(j.next().object);
+        return objects;
+    }
+
+    /**
+     * Returns the objects whose bounds, enlarged by the specified tolerance,
+     * contain the point, in the order they were added.
+     *
+     * @param p The point to query.
+     * @param tolerance The tolerance.
+     * @return See above.
+     */
+    public List<T> query(Point2D p, double tolerance)
+    {
+        if (p == null) return new ArrayList<T>();
+        double t = Math.max(0, tolerance);
+        return query(new Rectangle2D.Double(p.getX()-t, p.getY()-t, 2*t, 2*t));
+    }
+
+}
@@ -97,6 +97,12 @@ public class ROIComponent
 	/** Flag indicating to check if the roi can be edited.*/
 	public static final int EDIT = 5;
 	
+	/** 
+	 * Flag indicating to check if the roi can be edited and has been 
+	 * modified since it was last saved or loaded.
+	 */
+	public static final int EDIT_DIRTY = 6;
+	
 	/** The main object for storing and manipulating ROIs. */
 	private ROICollection				roiCollection;
 
@@ -445,6 +451,19 @@ public class ROIComponent
 		return roiCollection.getROIMap();
 	}
 
+	/**
+	 * Maps the ROI with id under the id it has been saved with on the server.
+	 * 
+	 * @param id The current id of the ROI.
+	 * @param serverID The id of the ROI on the server.
+	 * @throws NoSuchROIException Thrown if a ROI.id does not exist.
+	 */
+	public void setServerID(long id, long serverID)
+		throws NoSuchROIException
+	{
+		roiCollection.setServerID(id, serverID);
+	}
+
 	/**
 	 * Returns the ROI with the id == id. 
 	 * This is obtained by a search of the ROIMap. 
@@ -27,6 +27,7 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.Shape;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
@@ -34,7 +35,10 @@ import java.util.List;
 //Third-party libraries
 import org.jhotdraw.draw.FigureListener;
 
+import omero.gateway.model.ShapeSettingsData;
+
 //Application-internal dependencies
+import org.openmicroscopy.shoola.util.math.geom2D.BitMask;
 import org.openmicroscopy.shoola.util.roi.model.annotation.MeasurementAttributes;
 import org.openmicroscopy.shoola.util.ui.drawingtools.figures.FigureUtil;
 
@@ -56,9 +60,21 @@ public class MeasureMaskFigure
 	implements ROIFigure
 {
 	
-	/** The BufferedImage of the Mask. */
+	/** 
+	 * The image painted, built from the packed mask when needed or the 
+	 * image set by the caller. 
+	 */
 	protected BufferedImage 			mask;
 	
+	/** The packed mask, one bit per pixel. */
+	private BitMask						bitMask;
+	
+	/** 
+	 * The colour the image was built with or <code>null</code> if the image
+	 * was set by the caller.
+	 */
+	private Color						maskColour;
+	
 	/** Flag indicating if the user can move or resize the shape.*/
 	private boolean interactable;
 	
@@ -138,22 +154,84 @@ public class MeasureMaskFigure
 		interactable = true;
     }
     
+    /** 
+     * Creates a new instance.
+     * 
+     * @param x    coordinate of the figure. 
+     * @param y    coordinate of the figure. 
+     * @param width of the figure. 
+     * @param height of the figure. 
+     * @param mask The packed mask.
+     * @param readOnly Is the figure read only.
+     * @param clientObject the figure is a client object.
+     * @param editable Flag indicating the figure can/cannot be edited.
+	 * @param deletable Flag indicating the figure can/cannot be deleted.
+	 * @param annotatable Flag indicating the figure can/cannot be annotated.
+     * */
+    public MeasureMaskFigure(double x, double y, double width, 
+			double height, BitMask mask, boolean readOnly, 
+			boolean clientObject, boolean editable, boolean deletable,
+	    	boolean annotatable) 
+    {
+		super(DEFAULT_TEXT, x, y, width, height, readOnly, clientObject,
+				editable, deletable, annotatable);
+		setAttribute(MeasurementAttributes.FONT_FACE, DEFAULT_FONT);
+		setAttribute(MeasurementAttributes.FONT_SIZE, new Double(FONT_SIZE));
+		setBitMask(mask);
+		interactable = true;
+    }
+    
     /**
      * Set the mask of the maskFigure to the mask parameter.
+     * The image is converted to a packed mask, the pixels whose alpha is not
+     * <code>0</code> being part of the mask.
      * @param mask See above.
      */
     public void setMask(BufferedImage mask)
     {
     	if (mask == null)
     		throw new IllegalArgumentException("No Mask");
+    	bitMask = BitMask.fromImage(mask);
     	this.mask = mask;
+    	maskColour = null;
     }    
     
     /**
-     * get the mask of the maskFigure.
+     * Sets the packed mask of the figure.
+     * @param mask See above.
+     */
+    public void setBitMask(BitMask mask)
+    {
+    	if (mask == null)
+    		throw new IllegalArgumentException("No Mask");
+    	bitMask = mask;
+    	this.mask = null;
+    	maskColour = null;
+    }
+    
+    /**
+     * Returns the packed mask of the figure.
+     * @return See above.
+     */
+    public BitMask getBitMask() { return bitMask; }
+    
+    /**
+     * get the mask of the maskFigure. The image is built from the packed mask
+     * using the fill colour of the figure and rebuilt when the colour 
+     * changes.
      * return See above.
      */
-    public BufferedImage getMask() { return mask; }
+    public BufferedImage getMask()
+    {
+    	if (mask != null && maskColour == null) return mask;
+    	Color c = MeasurementAttributes.FILL_COLOR.get(this);
+    	if (c == null) c = ShapeSettingsData.DEFAULT_FILL_COLOUR;
+    	if (mask == null || !c.equals(maskColour)) {
+    		mask = bitMask.toImage(c);
+    		maskColour = c;
+    	}
+    	return mask;
+    }
     
 	/**
 	 * Implemented as specified by the {@link ROIFigure} interface.
@@ -167,21 +245,17 @@ public class MeasureMaskFigure
 	 */
 	public void draw(Graphics2D g)
 	{
-		g.drawImage(mask, (int) getX(), (int) getY(), (int) getWidth(), 
+		g.drawImage(getMask(), (int) getX(), (int) getY(), (int) getWidth(), 
 				(int) getHeight(), null);
 	}
     
 	/**
-	 * Has the mask got a pixel.
-	 * @param rgb
-	 * @return
+	 * Overridden to return <code>null</code>, the mask is painted as an
+	 * image.
+	 * @see MeasureRectangleFigure#getOutline(double)
 	 */
-	private boolean hasColour(int rgb)
-	{
-		Color toColor = new Color(rgb);
-		return (toColor.getAlpha() != 0);
-	}
-	
+	public Shape getOutline(double tolerance) { return null; }
+    
 	/**
 	 * Implemented as specified by the {@link ROIFigure} interface.
 	 * @see ROIFigure#getPoints()
@@ -189,34 +263,14 @@ public class MeasureMaskFigure
 	public List<Point> getPoints()
 	{
 		Rectangle r = rectangle.getBounds();
-		List<Point> vector = new ArrayList<Point>(r.height*r.width);
-		int xEnd = r.x+r.width, yEnd = r.y+r.height;
-		int x, y;
-		for (y = r.y; y < yEnd; ++y) 
-			for (x = r.x; x < xEnd; ++x) 
-				if (hasColour(mask.getRGB(x-r.x,y-r.y))) 
-					vector.add(new Point(x, y));
-						
-		return vector;
+		return bitMask.getPoints(r.x, r.y);
 	}
 
 	/**
 	 * Implemented as specified by the {@link ROIFigure} interface.
 	 * @see ROIFigure#getSize()
 	 */
-	public int getSize()
-	{
-		Rectangle r = rectangle.getBounds();
-		int total = 0;
-		int xEnd = r.x+r.width, yEnd = r.y+r.height;
-		int x, y;
-		for (y = r.y; y < yEnd; ++y) 
-			for (x = r.x; x < xEnd; ++x) 
-				if (hasColour(mask.getRGB(x-r.x,y-r.y))) 
-					total++;
-
-		return total;
-	}
+	public int getSize() { return bitMask.getArea(); }
 	
 	/**
 	 * Clones the mask.
@@ -228,7 +282,7 @@ public class MeasureMaskFigure
 		that.setReadOnly(this.isReadOnly());
 		that.setClientObject(this.isClientObject());
 		that.setObjectDirty(true);
-		that.setMask(this.getMask());
+		that.setBitMask(new BitMask(bitMask));
 		that.setInteractable(true);
 		return that;
 	}
@@ -100,6 +100,8 @@ public class IOConstants
 	public final static String SIZE_ATTRIBUTE = "size"; 
 	public final static String VALUE_ATTRIBUTE = "value";
 	public final static String POINTS_MASK_ATTRIBUTE = "mask";
+	/** The packed bits of a mask, base64 encoded, on a rectangle. */
+	public final static String MASK_DATA_ATTRIBUTE = "mask-data";
 	public final static String POINTS_ATTRIBUTE = "points";
 	public final static String POINTS_CONTROL1_ATTRIBUTE = "points-c1";
 	public final static String POINTS_CONTROL2_ATTRIBUTE = "points-c2";
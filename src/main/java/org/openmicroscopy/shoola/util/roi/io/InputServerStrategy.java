@@ -26,7 +26,6 @@ package org.openmicroscopy.shoola.util.roi.io;
 import java.awt.Font;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
-import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -51,6 +50,7 @@ import omero.model.Length;
 import omero.model.enums.UnitsLength;
 
 import org.openmicroscopy.shoola.util.CommonsLangUtils;
+import org.openmicroscopy.shoola.util.math.geom2D.BitMask;
 import org.openmicroscopy.shoola.util.roi.ROIComponent;
 import org.openmicroscopy.shoola.util.roi.exception.NoSuchROIException;
 import org.openmicroscopy.shoola.util.roi.exception.ROICreationException;
@@ -195,6 +195,7 @@ class InputServerStrategy
 				}
 			}
 		}
+		newROI.setDirty(false);
 		return newROI;
 	}
 	
@@ -360,7 +361,8 @@ class InputServerStrategy
 		double y = data.getY();
 		double width = data.getWidth();
 		double height = data.getHeight();
-		BufferedImage mask = data.getMaskAsBufferedImage();
+		BitMask mask = BitMask.fromBytes(data.getMask(), (int) width, 
+				(int) height);
 		MeasureMaskFigure fig = new MeasureMaskFigure(x, y, width, 
 				height, mask, data.isReadOnly(), data.isClientObject(),
 				data.canEdit(), data.canDelete(), data.canAnnotate());
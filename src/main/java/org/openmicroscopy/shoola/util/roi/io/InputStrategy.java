@@ -25,6 +25,7 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -32,14 +33,17 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.StringTokenizer;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import net.n3.nanoxml.IXMLElement;
-import net.n3.nanoxml.IXMLParser;
-import net.n3.nanoxml.IXMLReader;
-import net.n3.nanoxml.StdXMLReader;
-import net.n3.nanoxml.XMLParserFactory;
+import net.n3.nanoxml.XMLElement;
 import org.jhotdraw.draw.AttributeKey;
 import org.jhotdraw.geom.BezierPath.Node;
 
+import org.openmicroscopy.shoola.util.math.geom2D.BitMask;
 import org.openmicroscopy.shoola.util.roi.ROIComponent;
 import org.openmicroscopy.shoola.util.roi.model.ROI;
 import org.openmicroscopy.shoola.util.roi.model.ROIShape;
@@ -53,6 +57,7 @@ import org.openmicroscopy.shoola.util.roi.figures.MeasureBezierFigure;
 import org.openmicroscopy.shoola.util.roi.figures.MeasureEllipseFigure;
 import org.openmicroscopy.shoola.util.roi.figures.MeasureLineConnectionFigure;
 import org.openmicroscopy.shoola.util.roi.figures.MeasureLineFigure;
+import org.openmicroscopy.shoola.util.roi.figures.MeasureMaskFigure;
 import org.openmicroscopy.shoola.util.roi.figures.MeasurePointFigure;
 import org.openmicroscopy.shoola.util.roi.figures.MeasureRectangleFigure;
 import org.openmicroscopy.shoola.util.roi.figures.MeasureTextFigure;
@@ -252,11 +257,6 @@ public class InputStrategy
 		basicSVGAttribute.put(IOConstants.ALPHA_ATTRIBUTE, true);
 	}
 			
-	/**
-	 * Holds the document that is currently being read.
-	 */
-	private IXMLElement										document;
-		
 	/**
 	 * Holds the ROIs which have been created.
 	 */
@@ -768,7 +768,7 @@ public class InputStrategy
 	
 	/**
 	 * Created from the create Parent figure method, this will create an 
-	 * Rectangle figure.
+	 * Rectangle figure or a mask figure if the element has mask data.
 	 * @param rectElement the text element.
 	 * @return the figure.
 	 */
@@ -787,7 +787,19 @@ public class InputStrategy
 				rectElement.getAttribute(IOConstants.HEIGHT_ATTRIBUTE,
 					IOConstants.VALUE_NULL);
 		
-		MeasureRectangleFigure rectFigure=
+		MeasureRectangleFigure rectFigure;
+		if (rectElement.hasAttribute(IOConstants.MASK_DATA_ATTRIBUTE))
+		{
+			double width = new Double(widthValue);
+			double height = new Double(heightValue);
+			BitMask mask = BitMask.fromBytes(Base64.getDecoder().decode(
+					rectElement.getAttribute(IOConstants.MASK_DATA_ATTRIBUTE,
+						IOConstants.VALUE_NULL)), (int) width, (int) height);
+			rectFigure = new MeasureMaskFigure(new Double(xValue),
+					new Double(yValue), width, height, mask, false, true,
+					true, true, true);
+		}
+		else rectFigure=
 				new MeasureRectangleFigure(new Double(xValue),
 					new Double(yValue), new Double(widthValue), new Double(
 						heightValue));
@@ -848,16 +860,16 @@ public class InputStrategy
 				Point2D.Double[] points=toPoints(pointsValues);
 				for (int i=0; i<points.length; i++)
 					lineFigure.addNode(new Node(points[i].x, points[i].y));
-				lineFigure.setStartConnector(toFigure.findCompatibleConnector(
+				lineFigure.setStartConnector(fromFigure.findCompatibleConnector(
 					lineFigure.getStartConnector(), true));
-				lineFigure.setEndConnector(fromFigure.findCompatibleConnector(
+				lineFigure.setEndConnector(toFigure.findCompatibleConnector(
 					lineFigure.getEndConnector(), false));
 			}
 			else
 			{
-				lineFigure.setStartConnector(toFigure.findCompatibleConnector(
+				lineFigure.setStartConnector(fromFigure.findCompatibleConnector(
 					lineFigure.getStartConnector(), true));
-				lineFigure.setEndConnector(fromFigure.findCompatibleConnector(
+				lineFigure.setEndConnector(toFigure.findCompatibleConnector(
 					lineFigure.getEndConnector(), false));
 			}
 		}
@@ -1065,6 +1077,60 @@ public class InputStrategy
 		
 	}
 	
+	/**
+	 * Returns the qualified name.
+	 * 
+	 * @param prefix The prefix of the name, may be <code>null</code>.
+	 * @param localName The local name.
+	 * @return See above.
+	 */
+	private static String getName(String prefix, String localName)
+	{
+		if (prefix == null || prefix.length() == 0) return localName;
+		return prefix+":"+localName;
+	}
+	
+	/**
+	 * Reads the element the reader is positioned on and its children.
+	 * The reader is positioned on the end of the element when the method
+	 * returns.
+	 * 
+	 * @param reader The reader positioned on the start of an element.
+	 * @return See above.
+	 * @throws XMLStreamException If the XML is malformed.
+	 */
+	private IXMLElement readElement(XMLStreamReader reader)
+			throws XMLStreamException
+	{
+		IXMLElement element = new XMLElement(getName(reader.getPrefix(),
+				reader.getLocalName()));
+		int n = reader.getAttributeCount();
+		for (int i = 0; i < n; i++)
+			element.setAttribute(getName(reader.getAttributePrefix(i),
+					reader.getAttributeLocalName(i)),
+					reader.getAttributeValue(i));
+		StringBuilder text = null;
+		while (true)
+		{
+			switch (reader.next())
+			{
+				case XMLStreamConstants.START_ELEMENT:
+					element.addChild(readElement(reader));
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+					if (text == null) text = new StringBuilder();
+					text.append(reader.getText());
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (text != null && element.getChildrenCount() == 0 &&
+							text.toString().trim().length() > 0)
+						element.setContent(text.toString());
+					return element;
+			}
+		}
+	}
+	
 	/** Create instance. */
 	InputStrategy()
 	{
@@ -1073,6 +1139,8 @@ public class InputStrategy
 		
 	/**
 	 * Read the input stream and creat ROI from it, add to ROIComponent.
+	 * The stream is read one ROI at a time, only the elements of the ROI
+	 * being created are held in memory.
 	 * @param in input stream.
 	 * @param component ROIComponent.
 	 * @return see above.
@@ -1087,38 +1155,44 @@ public class InputStrategy
 	{
 		roiList = new ArrayList<ROI>();
 		this.component = component;
-		IXMLParser parser;
+		XMLStreamReader reader = null;
 		try
 		{
-			parser=XMLParserFactory.createDefaultXMLParser();
+			XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+			reader = factory.createXMLStreamReader(in);
+			int depth = 0;
+			while (reader.hasNext())
+			{
+				switch (reader.next())
+				{
+					case XMLStreamConstants.START_ELEMENT:
+						if (depth == 1 && IOConstants.ROI_TAG.equals(
+								reader.getLocalName()))
+							roiList.add(createROI(readElement(reader),
+									component));
+						else depth++;
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						depth--;
+				}
+			}
 		}
-		catch (Exception ex)
+		catch (XMLStreamException ex)
 		{
-			InternalError e=
-					new InternalError("Unable to instantiate NanoXML Parser");
+			ParsingException e = new ParsingException(ex.getMessage());
 			e.initCause(ex);
 			throw e;
 		}
-		
-		try
+		finally
 		{
-			IXMLReader reader = new StdXMLReader(in);
-			parser.setReader(reader);
-			document=(IXMLElement) parser.parse();
-		}
-		catch (Exception ex)
-		{
-			ParsingException e = new ParsingException(ex.getMessage());
-			e.initCause(ex);
-			throw e;
+			try
+			{
+				if (reader != null) reader.close();
+			}
+			catch (XMLStreamException ex) {}
 		}
 		
-		List<IXMLElement> roiElements =
-				document.getChildrenNamed(IOConstants.ROI_TAG);
-		
-		for (IXMLElement roi : roiElements)
-			roiList.add(createROI(roi, component));
-		
 		return roiList;
 	}
 
@@ -33,6 +33,7 @@ import java.util.TreeMap;
 import org.jhotdraw.draw.AttributeKeys;
 import org.jhotdraw.draw.LineDecoration;
 import org.jhotdraw.geom.BezierPath;
+import org.openmicroscopy.shoola.util.math.geom2D.BitMask;
 import org.openmicroscopy.shoola.util.roi.ROIComponent;
 import org.openmicroscopy.shoola.util.roi.exception.ParsingException;
 import org.openmicroscopy.shoola.util.roi.figures.Cap;
@@ -117,6 +118,14 @@ public class OutputServerStrategy
 						ROIList.add(createServerROI(roi, image));
 				}
 				break;
+			case ROIComponent.EDIT_DIRTY:
+				while (i.hasNext())
+				{
+					roi = i.next();
+					if (roi.canEdit() && roi.isDirty())
+						ROIList.add(createServerROI(roi, image));
+				}
+				break;
 			case ROIComponent.DELETE:
 				while (i.hasNext())
 				{
@@ -265,14 +274,25 @@ public class OutputServerStrategy
 
 	/**
 	 * Creates a mask figure server side object from a MeasureMaskFigure 
-	 * client side object.
+	 * client side object. The packed mask is sent as is.
 	 * 
 	 * @param shape See above.
 	 * @return See above.
 	 */
 	private MaskData createMaskFigure(ROIShape shape)
 	{
-		return null;
+		MeasureMaskFigure fig = (MeasureMaskFigure) shape.getFigure();
+		BitMask mask = fig.getBitMask();
+		MaskData data = new MaskData(fig.getX(), fig.getY(), mask.getWidth(),
+				mask.getHeight(), mask.toBytes());
+		String text = fig.getText();
+		if (text != null && text.trim().length() > 0 && 
+				!text.equals(ROIFigure.DEFAULT_TEXT))
+			data.setText(text);
+		AffineTransform t = AttributeKeys.TRANSFORM.get(fig);
+		if (t != null)
+			data.setTransform(toTransform(t));
+		return data;
 	}
 	
 	/**
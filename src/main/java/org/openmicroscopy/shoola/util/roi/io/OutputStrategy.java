@@ -29,8 +29,13 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -61,6 +66,7 @@ import org.openmicroscopy.shoola.util.roi.figures.MeasureBezierFigure;
 import org.openmicroscopy.shoola.util.roi.figures.MeasureEllipseFigure;
 import org.openmicroscopy.shoola.util.roi.figures.MeasureLineConnectionFigure;
 import org.openmicroscopy.shoola.util.roi.figures.MeasureLineFigure;
+import org.openmicroscopy.shoola.util.roi.figures.MeasureMaskFigure;
 import org.openmicroscopy.shoola.util.roi.figures.MeasurePointFigure;
 import org.openmicroscopy.shoola.util.roi.figures.MeasureRectangleFigure;
 import org.openmicroscopy.shoola.util.roi.figures.MeasureTextFigure;
@@ -150,6 +156,15 @@ public class OutputStrategy
 	}
 	
 	
+	/**
+	 * Writes the ROIs of the component to the stream. The ROIs are written
+	 * one at a time so that only the elements of the ROI being written are
+	 * held in memory.
+	 * 
+	 * @param out The stream to write to.
+	 * @param roiComponent The component hosting the ROIs.
+	 * @throws ParsingException If the ROIs cannot be written.
+	 */
 	public void write(OutputStream out, ROIComponent roiComponent)
 			throws ParsingException
 	{
@@ -158,30 +173,53 @@ public class OutputStrategy
 					IOConstants.ROI_NAMESPACE);
 		document.setAttribute(IOConstants.VERSION_TAG, IOConstants.ROI_VERSION);
 		defs=new XMLElement(IOConstants.DEFS_TAG);
-		document.addChild(defs);
 		ROIComponent collection=roiComponent;
 		
 		TreeMap<Long, ROI> roiMap=collection.getROIMap();
 		Iterator iterator=roiMap.values().iterator();
 		try
 		{
+			PrintWriter writer = new PrintWriter(new BufferedWriter(
+					new OutputStreamWriter(out, "UTF-8")));
+			XMLWriter xmlWriter = new XMLWriter(writer);
+			writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+			writer.println("<"+IOConstants.ROISET_TAG+" xmlns=\""+
+					IOConstants.ROI_NAMESPACE+"\" "+IOConstants.VERSION_TAG+
+					"=\""+IOConstants.ROI_VERSION+"\">");
 			while (iterator.hasNext())
 			{
-				write(document, (ROI) iterator.next());
+				xmlWriter.write(createROIElement((ROI) iterator.next()),
+						true, 2);
 			}
-			new XMLWriter(out).write(document,true);
+			//The gradients are collected while writing the figures.
+			if (defs.hasChildren()) xmlWriter.write(defs, true, 2);
+			writer.println("</"+IOConstants.ROISET_TAG+">");
+			writer.flush();
+			if (writer.checkError())
+				throw new IOException("Cannot write to the output stream.");
 		}
 		catch (Exception e)
 		{
 			throw new ParsingException("Cannot create XML output", e);
 		}
+		finally
+		{
+			document = null;
+			defs = null;
+			identifiedElements.clear();
+		}
 	}
 	
-	
-	private void write(IXMLElement document, ROI roi) throws ParsingException
+	/**
+	 * Creates the element hosting the specified ROI.
+	 * 
+	 * @param roi The ROI to handle.
+	 * @return See above.
+	 * @throws ParsingException If the ROI cannot be converted.
+	 */
+	private IXMLElement createROIElement(ROI roi) throws ParsingException
 	{
 		XMLElement roiElement=new XMLElement(IOConstants.ROI_TAG);
-		document.addChild(roiElement);
 		
 		writeROIAnnotations(roiElement, roi);
 		
@@ -190,6 +228,7 @@ public class OutputStrategy
 		
 		while (iterator.hasNext())
 			writeROIShape(roiElement, (ROIShape) iterator.next());
+		return roiElement;
 	}
 	
 	/**
@@ -707,6 +746,11 @@ public class OutputStrategy
 			.setAttribute(IOConstants.WIDTH_ATTRIBUTE, fig.getWidth()+"");
 		rectElement.setAttribute(IOConstants.HEIGHT_ATTRIBUTE, fig.getHeight()
 				+"");
+		//The readers not aware of masks read the rectangle.
+		if (fig instanceof MeasureMaskFigure)
+			rectElement.setAttribute(IOConstants.MASK_DATA_ATTRIBUTE,
+				Base64.getEncoder().encodeToString(
+					((MeasureMaskFigure) fig).getBitMask().toBytes()));
 		writeShapeAttributes(rectElement, fig.getAttributes());
 		writeTransformAttribute(rectElement, fig.getAttributes());
 	}
@@ -103,6 +103,12 @@ public class ROI
 	/** An UUID (can be used to link an {@link ROI} to an according {@link ROIData} object)*/
 	private String uuid;
 	
+	/** 
+	 * Flag indicating that shapes have been added to or removed from the ROI
+	 * since it was last saved or loaded.
+	 */
+	private boolean dirty;
+	
 	/** 
 	 * Initializes the ROI with id and construct the TreeMap to contain 
 	 * the ROIShapes of the ROI and there mapping the coord3D they exist on.
@@ -125,6 +131,7 @@ public class ROI
 		roiShapes = new TreeMap<Coord3D, ROIShape>(new Coord3D());
 		attachments = new AttachmentMap();
 		this.uuid = UUID.randomUUID().toString();
+		dirty = clientSide;
 	}
 	
     /**
@@ -170,6 +177,7 @@ public class ROI
 	{
 		init(id, clientSide, editable, deletable, annotatable);
 		roiShapes.put(coord, shape);
+		dirty = true;
 	}
 	
 	/**
@@ -217,6 +225,21 @@ public class ROI
 	 */
 	public boolean isClientSide() { return clientSide; }
 	
+	/**
+	 * Sets the id of the ROI and whether it is a client side object, e.g.
+	 * once the ROI has been saved. Use {@link ROICollection#setServerID(long,
+	 * long)} so that the ROI is mapped under its new id.
+	 * 
+	 * @param id The new id of the ROI.
+	 * @param clientSide Flag indicating that the ROI has been created 
+	 *          on the client side and not stored yet.
+	 */
+	void setID(long id, boolean clientSide)
+	{
+		this.id = id;
+		this.clientSide = clientSide;
+	}
+	
 	/** 
 	 * Gets the range of the T sections this ROI spans. 
 	 * 
@@ -413,6 +436,7 @@ public class ROI
 		if (roiShapes.containsKey(shape.getCoord3D()))
 			throw new ROICreationException();
 		roiShapes.put(shape.getCoord3D(), shape);
+		dirty = true;
 	}
 
 	/** 
@@ -429,6 +453,40 @@ public class ROI
 			throw new NoSuchROIException("ROI " + id + " does not contain " +
 					"ROIShape on Coord " + coord.toString());
 			roiShapes.remove(coord);
+			dirty = true;
+	}
+	
+	/**
+	 * Returns <code>true</code> if the ROI has to be saved i.e. shapes have
+	 * been added, removed or modified since the ROI was last saved or loaded,
+	 * <code>false</code> otherwise.
+	 * 
+	 * @return See above.
+	 */
+	public boolean isDirty()
+	{
+		if (dirty) return true;
+		Iterator<ROIShape> i = roiShapes.values().iterator();
+		while (i.hasNext()) {
+			if (i.next().getFigure().isDirty()) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Marks the ROI as modified or not. Passing <code>false</code> also marks
+	 * the figures of the ROI as not modified e.g. when the ROI has been saved
+	 * or loaded.
+	 * 
+	 * @param dirty The value to set.
+	 */
+	public void setDirty(boolean dirty)
+	{
+		this.dirty = dirty;
+		if (dirty) return;
+		Iterator<ROIShape> i = roiShapes.values().iterator();
+		while (i.hasNext())
+			i.next().getFigure().setObjectDirty(false);
 	}
 
 	/**
@@ -149,6 +149,24 @@ public class ROICollection
 		return newROI;
 	}
 	
+	/**
+	 * Maps the ROI with id under the id it has been saved with on the server
+	 * and marks it as a server side object. A client side ROI already mapped
+	 * under that id is given the next id in the system.
+	 * 
+	 * @param id The current id of the ROI.
+	 * @param serverID The id of the ROI on the server.
+	 * @throws NoSuchROIException If there is no ROI with id.
+	 */
+	public void setServerID(long id, long serverID)
+		throws NoSuchROIException
+	{
+		if (lastID < serverID) lastID = serverID+1;
+		if (id != serverID && roiMap.containsROI(serverID))
+			roiMap.changeID(serverID, getNextID(), true);
+		roiMap.changeID(id, serverID, false);
+	}
+	
 	/**
 	 * Create a new ROI, assign it an id and add it to the ROIMap.
 	 * @return newly created ROI.
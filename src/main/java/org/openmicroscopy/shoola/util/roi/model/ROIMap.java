@@ -82,6 +82,24 @@ public class ROIMap
 		roiCoordMap.add(roi);
 	}
 
+	/**
+	 * Maps the ROI with id under a new id.
+	 * 
+	 * @param id The current id of the ROI.
+	 * @param newID The new id of the ROI.
+	 * @param clientSide Flag indicating that the ROI has not been stored yet.
+	 * @throws NoSuchROIException If there is no ROI with id.
+	 */
+	public void changeID(long id, long newID, boolean clientSide)
+		throws NoSuchROIException
+	{
+		ROI roi = roiIDMap.getROI(id);
+		roiCoordMap.deleteROI(roi);
+		roiIDMap.deleteROI(id);
+		roi.setID(newID, clientSide);
+		add(newID, roi);
+	}
+
 	/**
 	 * Get the ROIID map of the ROIIDMap class. This is used to 
 	 * @return see above. 
@@ -0,0 +1,443 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.ui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental trigram index over the text fields (e.g. name, description)
+ * of the nodes displayed in a browser.
+ * Nodes are added, updated or removed as the browser changes. A search
+ * extracts the literal part of the {@link Pattern} and intersects the
+ * posting lists of its trigrams; the pattern is only evaluated against
+ * the remaining candidates. Patterns without a usable literal are
+ * evaluated against the indexed values, never by visiting the nodes again.
+ * <p>
+ * The values are trimmed before being indexed, as the browsers did when
+ * matching the names and descriptions, so <code>^</code> and <code>$</code>
+ * anchor to the first and last non-blank characters.
+ * <p>
+ * Nodes are compared by identity. This class is not thread-safe and is
+ * meant to be used from the Swing thread.
+ *
+ * @since 5.8
+ */
+public class TextIndex<T>
+{
+
+    /** The number of characters in a gram. */
+    private static final int GRAM = 3;
+
+    /** The regular expression meta characters. */
+    private static final String META_CHARS = ".[]{}()*+?^$|";
+
+    /** The minimum number of dead entries before compacting. */
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    /** Hosts an indexed node and the values of its fields. */
+    private static class Entry<T>
+    {
+
+        /** The indexed node. */
+        private final T node;
+
+        /** The indexed values, one per field. */
+        private final String[] values;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param node The indexed node.
+         * @param values The indexed values.
+         */
+        Entry(T node, String[] values)
+        {
+            this.node = node;
+            this.values = values;
+        }
+    }
+
+    /** Sorted list of entry identifiers sharing a gram. */
+    private static class Postings
+    {
+
+        /** The identifiers. */
+        private int[] ids = new int[4];
+
+        /** The number of identifiers. */
+        private int size;
+
+        /**
+         * Appends the specified identifier. Identifiers are allocated in
+         * increasing order so the list stays sorted.
+         *
+         * @param id The identifier to add.
+         */
+        void add(int id)
+        {
+            if (size > 0 && ids[size-1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size*2);
+            ids[size++] = id;
+        }
+    }
+
+    /** The number of fields per node. */
+    private final int fields;
+
+    /** The entries, indexed by identifier; removed entries are null. */
+    private final List<Entry<T>> entries;
+
+    /** Maps a node to the identifier of its current entry. */
+    private final Map<T, Integer> ids;
+
+    /** Maps a field and gram key to the entries containing the gram. */
+    private final Map<Long, Postings> postings;
+
+    /** The number of removed entries still referenced by the postings. */
+    private int dead;
+
+    /**
+     * Returns the key of the gram starting at the specified index.
+     *
+     * @param field The index of the field.
+     * @param text The lower case text.
+     * @param index The index of the first character.
+     * @return See above.
+     */
+    private static long key(int field, String text, int index)
+    {
+        long k = field;
+        for (int i = 0; i < GRAM; i++)
+            k = (k << 16) | text.charAt(index+i);
+        return k;
+    }
+
+    /**
+     * Normalizes the text before computing the grams.
+     *
+     * @param text The text to handle.
+     * @return See above.
+     */
+    private static String normalize(String text)
+    {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the literal text every match of the specified pattern
+     * contains or <code>null</code> if it cannot be determined.
+     *
+     * @param pattern The pattern to handle.
+     * @return See above.
+     */
+    static String getLiteral(Pattern pattern)
+    {
+        String regex = pattern.pattern();
+        if ((pattern.flags() & Pattern.LITERAL) != 0) return regex;
+        if ((pattern.flags() & Pattern.COMMENTS) != 0) return null;
+        StringBuilder buffer = new StringBuilder(regex.length());
+        char c;
+        for (int i = 0; i < regex.length(); i++) {
+            c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+                if (i == regex.length()) return null;
+                c = regex.charAt(i);
+                if (Character.isLetterOrDigit(c)) return null;
+                buffer.append(c);
+            } else if (META_CHARS.indexOf(c) >= 0) return null;
+            else buffer.append(c);
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Adds the grams of the specified entry to the posting lists.
+     *
+     * @param id The identifier of the entry.
+     * @param values The values to index.
+     */
+    private void addPostings(int id, String[] values)
+    {
+        String text;
+        Long k;
+        Postings p;
+        for (int f = 0; f < values.length; f++) {
+            if (values[f] == null) continue;
+            text = normalize(values[f]);
+            for (int i = 0; i+GRAM <= text.length(); i++) {
+                k = key(f, text, i);
+                p = postings.get(k);
+                if (p == null) {
+                    p = new Postings();
+                    postings.put(k, p);
+                }
+                p.add(id);
+            }
+        }
+    }
+
+    /** Rebuilds the posting lists once too many entries are dead. */
+    private void compact()
+    {
+        if (dead < COMPACT_THRESHOLD || dead < ids.size()) return;
+        List<Entry<T>> live = new ArrayList<Entry<T>>(ids.size());
+        Iterator<Entry<T>> i = entries.iterator();
+        Entry<T> e;
+        while (i.hasNext()) {
+            e = i.next();
+            if (e != null) live.add(e);
+        }
+        entries.clear();
+        ids.clear();
+        postings.clear();
+        dead = 0;
+        i = live.iterator();
+        while (i.hasNext()) {
+            e = i.next();
+            ids.put(e.node, entries.size());
+            addPostings(entries.size(), e.values);
+            entries.add(e);
+        }
+    }
+
+    /**
+     * Returns the identifiers of the candidate entries for the specified
+     * literal in the specified field, or <code>null</code> if the literal
+     * is too short to use the grams.
+     *
+     * @param field The index of the field.
+     * @param literal The lower case literal.
+     * @return See above.
+     */
+    private int[] candidates(int field, String literal)
+    {
+        if (literal.length() < GRAM) return null;
+        Set<Long> keys = new HashSet<Long>();
+        List<Postings> lists = new ArrayList<Postings>();
+        Postings p;
+        long k;
+        for (int i = 0; i+GRAM <= literal.length(); i++) {
+            k = key(field, literal, i);
+            if (!keys.add(k)) continue;
+            p = postings.get(k);
+            if (p == null) return new int[0];
+            lists.add(p);
+        }
+        //Intersect starting with the shortest list.
+        Postings shortest = lists.get(0);
+        for (Postings l : lists) {
+            if (l.size < shortest.size) shortest = l;
+        }
+        int[] result = Arrays.copyOf(shortest.ids, shortest.size);
+        int n = result.length;
+        int j, m;
+        for (Postings l : lists) {
+            if (l == shortest) continue;
+            m = 0;
+            j = 0;
+            for (int i = 0; i < n; i++) {
+                while (j < l.size && l.ids[j] < result[i]) j++;
+                if (j == l.size) break;
+                if (l.ids[j] == result[i]) result[m++] = result[i];
+            }
+            n = m;
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param fields The number of text fields indexed per node.
+     */
+    public TextIndex(int fields)
+    {
+        if (fields <= 0)
+            throw new IllegalArgumentException("No fields to index.");
+        this.fields = fields;
+        entries = new ArrayList<Entry<T>>();
+        ids = new IdentityHashMap<T, Integer>();
+        postings = new HashMap<Long, Postings>();
+    }
+
+    /**
+     * Adds the specified node or updates its values if the node is already
+     * indexed. Nothing is re-indexed if the values did not change.
+     * The values are trimmed.
+     *
+     * @param node The node to index. Mustn't be <code>null</code>.
+     * @param values The values of the fields, <code>null</code> if not set.
+     * @return <code>true</code> if the index has been modified,
+     *         <code>false</code> otherwise.
+     */
+    public boolean update(T node, String... values)
+    {
+        if (node == null) throw new IllegalArgumentException("No node.");
+        String[] v = new String[fields];
+        for (int i = 0; i < fields && values != null && i < values.length;
+                i++) {
+            if (values[i] != null) v[i] = values[i].trim();
+        }
+        Integer id = ids.get(node);
+        if (id != null) {
+            if (Arrays.equals(entries.get(id).values, v)) return false;
+            entries.set(id, null);
+            dead++;
+        }
+        int newID = entries.size();
+        entries.add(new Entry<T>(node, v));
+        ids.put(node, newID);
+        addPostings(newID, v);
+        compact();
+        return true;
+    }
+
+    /**
+     * Removes the specified node from the index.
+     *
+     * @param node The node to remove.
+     * @return <code>true</code> if the node was indexed,
+     *         <code>false</code> otherwise.
+     */
+    public boolean remove(T node)
+    {
+        Integer id = ids.remove(node);
+        if (id == null) return false;
+        entries.set(id, null);
+        dead++;
+        compact();
+        return true;
+    }
+
+    /**
+     * Removes the nodes that are not contained in the passed collection.
+     *
+     * @param nodes The nodes to keep.
+     */
+    public void retainAll(Collection<T> nodes)
+    {
+        if (nodes == null || nodes.isEmpty()) {
+            clear();
+            return;
+        }
+        Set<T> keep = Collections.newSetFromMap(
+                new IdentityHashMap<T, Boolean>(nodes.size()));
+        keep.addAll(nodes);
+        List<T> toRemove = new ArrayList<T>();
+        Iterator<T> i = ids.keySet().iterator();
+        T node;
+        while (i.hasNext()) {
+            node = i.next();
+            if (!keep.contains(node)) toRemove.add(node);
+        }
+        i = toRemove.iterator();
+        while (i.hasNext())
+            remove(i.next());
+    }
+
+    /** Removes all the nodes from the index. */
+    public void clear()
+    {
+        entries.clear();
+        ids.clear();
+        postings.clear();
+        dead = 0;
+    }
+
+    /**
+     * Returns <code>true</code> if the node is indexed,
+     * <code>false</code> otherwise.
+     *
+     * @param node The node to check.
+     * @return See above.
+     */
+    public boolean contains(T node) { return ids.containsKey(node); }
+
+    /**
+     * Returns the number of indexed nodes.
+     *
+     * @return See above.
+     */
+    public int size() { return ids.size(); }
+
+    /**
+     * Returns the nodes whose value in one of the specified fields matches
+     * the pattern, in the order the nodes were last indexed.
+     *
+     * @param pattern The pattern to find. Mustn't be <code>null</code>.
+     * @param fieldIndexes The indexes of the fields to search.
+     * @return See above.
+     */
+    public Set<T> find(Pattern pattern, int... fieldIndexes)
+    {
+        if (pattern == null)
+            throw new IllegalArgumentException("No pattern specified.");
+        Set<T> found = new LinkedHashSet<T>();
+        if (fieldIndexes == null || fieldIndexes.length == 0) return found;
+        String literal = getLiteral(pattern);
+        if (literal != null) literal = normalize(literal);
+        boolean[] matched = new boolean[entries.size()];
+        int[] candidates;
+        Entry<T> e;
+        int field;
+        for (int f = 0; f < fieldIndexes.length; f++) {
+            field = fieldIndexes[f];
+            if (field < 0 || field >= fields) continue;
+            candidates = literal == null ? null : candidates(field, literal);
+            if (candidates == null) {
+                for (int id = 0; id < entries.size(); id++) {
+                    e = entries.get(id);
+                    if (e != null && !matched[id]
+                            && e.values[field] != null
+                            && RegExFactory.find(pattern, e.values[field]))
+                        matched[id] = true;
+                }
+            } else {
+                for (int j = 0; j < candidates.length; j++) {
+                    e = entries.get(candidates[j]);
+                    if (e != null && !matched[candidates[j]]
+                            && e.values[field] != null
+                            && RegExFactory.find(pattern, e.values[field]))
+                        matched[candidates[j]] = true;
+                }
+            }
+        }
+        for (int id = 0; id < matched.length; id++) {
+            if (matched[id]) found.add(entries.get(id).node);
+        }
+        return found;
+    }
+
+}
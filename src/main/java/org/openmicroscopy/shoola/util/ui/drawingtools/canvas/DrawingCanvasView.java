@@ -28,16 +28,51 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 //Third-party libraries
+import org.jhotdraw.draw.AttributeKeys;
+import org.jhotdraw.draw.BezierFigure;
 import org.jhotdraw.draw.DefaultDrawingView;
+import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.DrawingEvent;
+import org.jhotdraw.draw.DrawingListener;
+import org.jhotdraw.draw.Figure;
+import org.jhotdraw.draw.FigureEvent;
+import org.jhotdraw.draw.FigureListener;
+import org.jhotdraw.draw.FigureSelectionEvent;
+import org.jhotdraw.draw.FigureSelectionListener;
 
 //Application-internal dependencies
+import org.openmicroscopy.shoola.util.math.geom2D.GridIndex;
+import org.openmicroscopy.shoola.util.ui.drawingtools.figures.OutlineFigure;
 
 /** 
  * Basic class suited for viewing drawings with a small number
- * of Figures.
+ * of Figures. When the drawing hosts many figures, e.g. segmentation
+ * masks, the figures are indexed by location so that only the figures
+ * in the visible area are painted and hit testing does not visit all
+ * the figures.
+ * When the visible area hosts a very large number of figures, the figures
+ * sharing the same style are painted at once as plain outlines, the
+ * figures smaller than a few pixels are painted as dots and the result is
+ * kept in an image until the figures in it, the selection or the zoom
+ * change.
  *
  * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -65,6 +100,648 @@ public class DrawingCanvasView
 	 */
 	private static final Point2D.Double	ORIGIN = new Point2D.Double(0, 0);
 	
+	/** The number of figures from which the figures are indexed. */
+	private static final int			INDEX_THRESHOLD = 200;
+	
+	/** The tolerance, in pixels of the view, used to find a figure. */
+	private static final double			HIT_TOLERANCE = 2;
+	
+	/** 
+	 * The number of figures in the visible area from which the figures are
+	 * painted as outlines.
+	 */
+	private static final int			DENSE_THRESHOLD = 1000;
+	
+	/** 
+	 * The size, in pixels of the view, below which a figure is painted
+	 * as a dot.
+	 */
+	private static final double			SPRITE_SIZE = 3;
+	
+	/** 
+	 * The fraction of the visible area painted on each side of it so that
+	 * the figures do not have to be painted again when scrolling a little.
+	 */
+	private static final int			OVERLAY_MARGIN = 4;
+	
+	/** The attributes used to paint the outline of a figure. */
+	private static class Style
+	{
+		
+		/** The colour of the outline or <code>null</code>. */
+		private final Color		stroke;
+		
+		/** The colour used to fill the outline or <code>null</code>. */
+		private final Color		fill;
+		
+		/** The stroke of the outline. */
+		private final Stroke	line;
+		
+		/**
+		 * Creates a new instance.
+		 * 
+		 * @param f The figure to handle.
+		 */
+		Style(Figure f)
+		{
+			stroke = AttributeKeys.STROKE_COLOR.get(f);
+			line = AttributeKeys.getStroke(f);
+			if (f instanceof BezierFigure && !((BezierFigure) f).isClosed())
+				fill = null;
+			else fill = AttributeKeys.FILL_COLOR.get(f);
+		}
+		
+		/**
+		 * Paints the specified outlines.
+		 * 
+		 * @param g The graphics context.
+		 * @param path The outlines to paint.
+		 */
+		void paint(Graphics2D g, Shape path)
+		{
+			if (fill != null) {
+				g.setColor(fill);
+				g.fill(path);
+			}
+			if (stroke != null) {
+				g.setColor(stroke);
+				g.setStroke(line);
+				g.draw(path);
+			}
+		}
+		
+		/**
+		 * Overridden to compare the colours and the stroke.
+		 * @see Object#equals(Object)
+		 */
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof Style)) return false;
+			Style s = (Style) o;
+			return equals(stroke, s.stroke) && equals(fill, s.fill) &&
+					equals(line, s.line);
+		}
+		
+		/**
+		 * Overridden to be consistent with {@link #equals(Object)}.
+		 * @see Object#hashCode()
+		 */
+		public int hashCode()
+		{
+			int h = stroke == null ? 0 : stroke.hashCode();
+			h = 31*h+(fill == null ? 0 : fill.hashCode());
+			return 31*h+(line == null ? 0 : line.hashCode());
+		}
+		
+		/**
+		 * Returns <code>true</code> if the objects are both <code>null</code>
+		 * or equal, <code>false</code> otherwise.
+		 * 
+		 * @param a The first object.
+		 * @param b The second object.
+		 * @return See above.
+		 */
+		private static boolean equals(Object a, Object b)
+		{
+			return a == null ? b == null : a.equals(b);
+		}
+	}
+	
+	/** Keeps the index in sync with the drawing. */
+	private class IndexUpdater
+		implements DrawingListener, FigureListener, FigureSelectionListener
+	{
+		
+		/**
+		 * Discards the painted figures if the figure was or is now in the
+		 * area they cover, unless the figure is selected, the selected
+		 * figures being painted on their own. The bounds the figure was
+		 * indexed with are checked so that moving a figure out of the area
+		 * is seen.
+		 * 
+		 * @param f The figure which has changed.
+		 */
+		private void invalidate(Figure f)
+		{
+			if (overlay == null || getSelectedFigures().contains(f)) return;
+			Rectangle2D r = index == null ? null : index.getBounds(f);
+			if ((r != null && r.intersects(overlayDrawingArea)) ||
+					f.getDrawingArea().intersects(overlayDrawingArea))
+				overlay = null;
+		}
+		
+		/**
+		 * Indexes the figure added.
+		 * @see DrawingListener#figureAdded(DrawingEvent)
+		 */
+		public void figureAdded(DrawingEvent e)
+		{
+			overlay = null;
+			if (index != null) addToIndex(e.getFigure());
+		}
+
+		/**
+		 * Removes the figure from the index.
+		 * @see DrawingListener#figureRemoved(DrawingEvent)
+		 */
+		public void figureRemoved(DrawingEvent e)
+		{
+			Figure f = e.getFigure();
+			invalidate(f);
+			if (index != null && index.remove(f))
+				f.removeFigureListener(this);
+		}
+
+		/**
+		 * Updates the location of the figure.
+		 * @see FigureListener#figureChanged(FigureEvent)
+		 */
+		public void figureChanged(FigureEvent e)
+		{
+			Figure f = e.getFigure();
+			invalidate(f);
+			if (index != null && index.contains(f))
+				index.add(f, f.getDrawingArea());
+		}
+
+		/**
+		 * Discards the painted figures, the selected figures are painted
+		 * on their own.
+		 * @see FigureSelectionListener#selectionChanged(FigureSelectionEvent)
+		 */
+		public void selectionChanged(FigureSelectionEvent e)
+		{
+			overlay = null;
+		}
+		
+		/**
+		 * Discards the painted figures if the figure is not selected.
+		 * @see FigureListener#figureAttributeChanged(FigureEvent)
+		 */
+		public void figureAttributeChanged(FigureEvent e)
+		{
+			invalidate(e.getFigure());
+		}
+
+		/**
+		 * Required by the {@link DrawingListener} I/F but no-op
+		 * implementation in our case.
+		 * @see DrawingListener#areaInvalidated(DrawingEvent)
+		 */
+		public void areaInvalidated(DrawingEvent e) {}
+
+		/**
+		 * Required by the {@link FigureListener} I/F but no-op
+		 * implementation in our case.
+		 * @see FigureListener#figureAdded(FigureEvent)
+		 */
+		public void figureAdded(FigureEvent e) {}
+
+		/**
+		 * Required by the {@link FigureListener} I/F but no-op
+		 * implementation in our case.
+		 * @see FigureListener#figureAreaInvalidated(FigureEvent)
+		 */
+		public void figureAreaInvalidated(FigureEvent e) {}
+
+		/**
+		 * Required by the {@link FigureListener} I/F but no-op
+		 * implementation in our case.
+		 * @see FigureListener#figureRemoved(FigureEvent)
+		 */
+		public void figureRemoved(FigureEvent e) {}
+
+		/**
+		 * Required by the {@link FigureListener} I/F but no-op
+		 * implementation in our case.
+		 * @see FigureListener#figureRequestRemove(FigureEvent)
+		 */
+		public void figureRequestRemove(FigureEvent e) {}
+
+		/**
+		 * Required by the {@link FigureListener} I/F but no-op
+		 * implementation in our case.
+		 * @see FigureListener#figureHandlesChanged(FigureEvent)
+		 */
+		public void figureHandlesChanged(FigureEvent e) {}
+	}
+	
+	/** 
+	 * The index of the figures by location or <code>null</code> if the
+	 * drawing has not enough figures.
+	 */
+	private GridIndex<Figure>			index;
+	
+	/** Keeps the index in sync with the drawing. */
+	private final IndexUpdater			updater = new IndexUpdater();
+	
+	/** 
+	 * Flag indicating to paint the figures as outlines when the visible
+	 * area hosts many figures.
+	 */
+	private boolean						levelOfDetail = true;
+	
+	/** 
+	 * The figures, other than the selected ones, painted as outlines or
+	 * <code>null</code> if they have to be painted again.
+	 */
+	private BufferedImage				overlay;
+	
+	/** The area of the view covered by the {@link #overlay}. */
+	private Rectangle					overlayArea;
+	
+	/** 
+	 * The area covered by the {@link #overlay} in the coordinates of the
+	 * drawing.
+	 */
+	private Rectangle2D					overlayDrawingArea;
+	
+	/** 
+	 * The figures in the area covered by the {@link #overlay} which were
+	 * hidden when it was painted.
+	 */
+	private Set<Figure>					overlayHidden;
+	
+	/** The location of the drawing's origin when the overlay was painted. */
+	private Point						overlayOrigin;
+	
+	/** The scale factor used when the overlay was painted. */
+	private double						overlayScale;
+	
+	/**
+	 * Adds the figure to the index.
+	 * 
+	 * @param f The figure to add.
+	 */
+	private void addToIndex(Figure f)
+	{
+		if (index.contains(f)) return;
+		index.add(f, f.getDrawingArea());
+		f.addFigureListener(updater);
+	}
+	
+	/** Discards the index. */
+	private void clearIndex()
+	{
+		if (index == null) return;
+		Iterator<Figure> i = index.getObjects().iterator();
+		while (i.hasNext())
+			i.next().removeFigureListener(updater);
+		index = null;
+		overlay = null;
+	}
+	
+	/**
+	 * Returns the graphics context used to paint the figures in the
+	 * coordinates of the drawing.
+	 * 
+	 * @param gr The graphics context of the view.
+	 * @param dx The offset to apply along the x-axis.
+	 * @param dy The offset to apply along the y-axis.
+	 * @return See above.
+	 */
+	private Graphics2D createDrawingGraphics(Graphics2D gr, int dx, int dy)
+	{
+		Graphics2D g = (Graphics2D) gr.create();
+		Point p = drawingToView(ORIGIN);
+		AffineTransform tx = g.getTransform();
+		tx.translate(p.x+dx, p.y+dy);
+		tx.scale(getScaleFactor(), getScaleFactor());
+		g.setTransform(tx);
+		return g;
+	}
+	
+	/**
+	 * Paints the figures, other than the selected ones, intersecting the
+	 * visible area and its margin in the {@link #overlay}.
+	 * The figures sharing the same style are painted at once. The figures
+	 * with no outline e.g. masks are painted first.
+	 * 
+	 * @param idx The index of the figures.
+	 * @param visible The visible area.
+	 */
+	private void paintOverlay(GridIndex<Figure> idx, Rectangle visible)
+	{
+		int mx = visible.width/OVERLAY_MARGIN;
+		int my = visible.height/OVERLAY_MARGIN;
+		Rectangle area = new Rectangle(visible.x-mx, visible.y-my,
+				visible.width+2*mx, visible.height+2*my);
+		area = area.intersection(new Rectangle(0, 0, getWidth(), getHeight()));
+		if (area.isEmpty()) area = visible;
+		BufferedImage image = new BufferedImage(area.width, area.height,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D gi = image.createGraphics();
+		Graphics2D g = createDrawingGraphics(gi, -area.x, -area.y);
+		double f = getScaleFactor();
+		if (f <= 0) f = 1;
+		double size = SPRITE_SIZE/f;
+		Set<Figure> selected = getSelectedFigures();
+		Map<Style, Path2D.Double> outlines =
+			new LinkedHashMap<Style, Path2D.Double>();
+		Map<Color, Path2D.Double> dots = new LinkedHashMap<Color, Path2D.Double>();
+		Rectangle2D drawingArea = viewToDrawing(area);
+		Set<Figure> hidden = new HashSet<Figure>();
+		Iterator<Figure> i = idx.query(drawingArea).iterator();
+		Figure fig;
+		Shape shape;
+		Rectangle2D b;
+		Style style;
+		Color c;
+		Path2D.Double path;
+		while (i.hasNext()) {
+			fig = i.next();
+			if (!fig.isVisible()) {
+				hidden.add(fig);
+				continue;
+			}
+			if (selected.contains(fig)) continue;
+			shape = null;
+			if (fig instanceof OutlineFigure)
+				shape = ((OutlineFigure) fig).getOutline(1/f);
+			if (shape == null) {
+				fig.draw(g);
+				continue;
+			}
+			b = shape.getBounds2D();
+			if (b.getWidth() < size && b.getHeight() < size) {
+				c = AttributeKeys.STROKE_COLOR.get(fig);
+				if (c == null) c = AttributeKeys.FILL_COLOR.get(fig);
+				if (c == null) continue;
+				path = dots.get(c);
+				if (path == null) {
+					path = new Path2D.Double();
+					dots.put(c, path);
+				}
+				path.append(new Rectangle2D.Double(b.getCenterX()-size/2,
+						b.getCenterY()-size/2, size, size), false);
+				continue;
+			}
+			style = new Style(fig);
+			path = outlines.get(style);
+			if (path == null) {
+				path = new Path2D.Double();
+				outlines.put(style, path);
+			}
+			path.append(shape, false);
+		}
+		Iterator<Map.Entry<Style, Path2D.Double>> j =
+			outlines.entrySet().iterator();
+		Map.Entry<Style, Path2D.Double> e;
+		while (j.hasNext()) {
+			e = j.next();
+			e.getKey().paint(g, e.getValue());
+		}
+		Iterator<Map.Entry<Color, Path2D.Double>> k =
+			dots.entrySet().iterator();
+		Map.Entry<Color, Path2D.Double> d;
+		while (k.hasNext()) {
+			d = k.next();
+			g.setColor(d.getKey());
+			g.fill(d.getValue());
+		}
+		g.dispose();
+		gi.dispose();
+		overlay = image;
+		overlayArea = area;
+		overlayDrawingArea = drawingArea;
+		overlayHidden = hidden;
+		overlayOrigin = drawingToView(ORIGIN);
+		overlayScale = getScaleFactor();
+	}
+	
+	/**
+	 * Returns <code>true</code> if the {@link #overlay} can be used to
+	 * paint the specified area, <code>false</code> otherwise.
+	 * 
+	 * @param visible The area to paint.
+	 * @return See above.
+	 */
+	private boolean isOverlayValid(Rectangle visible)
+	{
+		return overlay != null && overlayArea.contains(visible) &&
+			overlayScale == getScaleFactor() &&
+			overlayOrigin.equals(drawingToView(ORIGIN));
+	}
+	
+	/**
+	 * Returns <code>true</code> if none of the specified figures has been
+	 * shown or hidden since the {@link #overlay} was painted,
+	 * <code>false</code> otherwise. Showing or hiding a figure does not
+	 * always notify the listeners so the figures painted are checked.
+	 * 
+	 * @param figures The figures in the area to paint.
+	 * @return See above.
+	 */
+	private boolean isVisibilityValid(List<Figure> figures)
+	{
+		Set<Figure> selected = getSelectedFigures();
+		Iterator<Figure> i = figures.iterator();
+		Figure f;
+		while (i.hasNext()) {
+			f = i.next();
+			if (f.isVisible() == overlayHidden.contains(f) &&
+					!selected.contains(f))
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns the figures painted as outlines or <code>null</code> if they
+	 * have to be painted again.
+	 * 
+	 * @return See above.
+	 */
+	BufferedImage getOverlay() { return overlay; }
+	
+	/**
+	 * Returns the index of the figures or <code>null</code> if the drawing
+	 * has not enough figures to be indexed. The index is rebuilt if it is
+	 * out of sync with the drawing e.g. after the drawing has been cleared.
+	 * 
+	 * @return See above.
+	 */
+	private GridIndex<Figure> getIndex()
+	{
+		Drawing drawing = getDrawing();
+		if (drawing == null) return null;
+		List<Figure> figures = drawing.getFigures();
+		if (figures.size() < INDEX_THRESHOLD) {
+			clearIndex();
+			return null;
+		}
+		if (index != null && index.size() == figures.size()) return index;
+		clearIndex();
+		index = new GridIndex<Figure>();
+		Iterator<Figure> i = figures.iterator();
+		while (i.hasNext())
+			addToIndex(i.next());
+		return index;
+	}
+	
+	/**
+	 * Returns the tolerance used to find a figure, in the coordinates of
+	 * the drawing.
+	 * 
+	 * @return See above.
+	 */
+	private double getHitTolerance()
+	{
+		double f = getScaleFactor();
+		return f > 0 ? HIT_TOLERANCE/f : HIT_TOLERANCE;
+	}
+	
+	/**
+	 * Overridden to keep the index of the figures in sync with the drawing.
+	 * @see DefaultDrawingView#setDrawing(Drawing)
+	 */
+	public void setDrawing(Drawing drawing)
+	{
+		//may be invoked while the super class is initialized
+		if (updater == null) {
+			super.setDrawing(drawing);
+			return;
+		}
+		removeFigureSelectionListener(updater);
+		addFigureSelectionListener(updater);
+		Drawing old = getDrawing();
+		if (old != null) old.removeDrawingListener(updater);
+		clearIndex();
+		super.setDrawing(drawing);
+		if (drawing != null) drawing.addDrawingListener(updater);
+	}
+	
+	/**
+	 * Sets to <code>true</code> to paint the figures as outlines when the
+	 * visible area hosts many figures, to <code>false</code> to always
+	 * paint the figures in full.
+	 * 
+	 * @param levelOfDetail The value to set.
+	 */
+	public void setLevelOfDetail(boolean levelOfDetail)
+	{
+		if (this.levelOfDetail == levelOfDetail) return;
+		this.levelOfDetail = levelOfDetail;
+		overlay = null;
+		repaint();
+	}
+	
+	/**
+	 * Returns <code>true</code> if the figures are painted as outlines when
+	 * the visible area hosts many figures, <code>false</code> otherwise.
+	 * 
+	 * @return See above.
+	 */
+	public boolean isLevelOfDetail() { return levelOfDetail; }
+	
+	/**
+	 * Overridden to only paint the figures intersecting the visible area
+	 * when the drawing hosts many figures. When the visible area hosts
+	 * a very large number of figures, the figures are painted as outlines
+	 * and the selected figures are painted in full on top of them.
+	 * @see DefaultDrawingView#drawDrawing(Graphics2D)
+	 */
+	protected void drawDrawing(Graphics2D gr)
+	{
+		GridIndex<Figure> idx = getIndex();
+		if (idx == null) {
+			super.drawDrawing(gr);
+			return;
+		}
+		Rectangle visible = getVisibleRect();
+		Rectangle r = visible;
+		Rectangle clip = gr.getClipBounds();
+		if (clip != null) r = r.intersection(clip);
+		if (r.isEmpty()) return;
+		List<Figure> figures = idx.query(viewToDrawing(r));
+		Iterator<Figure> i;
+		Figure f;
+		if (overlay != null && !isVisibilityValid(figures)) overlay = null;
+		if (levelOfDetail && !visible.isEmpty() &&
+				(isOverlayValid(visible) || 
+				idx.query(viewToDrawing(visible)).size() >= DENSE_THRESHOLD)) {
+			if (!isOverlayValid(visible)) paintOverlay(idx, visible);
+			gr.drawImage(overlay, overlayArea.x, overlayArea.y, null);
+			Set<Figure> selected = getSelectedFigures();
+			if (selected.isEmpty()) return;
+			Graphics2D g = createDrawingGraphics(gr, 0, 0);
+			i = figures.iterator();
+			while (i.hasNext()) {
+				f = i.next();
+				if (f.isVisible() && selected.contains(f)) f.draw(g);
+			}
+			g.dispose();
+			return;
+		}
+		overlay = null;
+		Graphics2D g = createDrawingGraphics(gr, 0, 0);
+		i = figures.iterator();
+		while (i.hasNext()) {
+			f = i.next();
+			if (f.isVisible()) f.draw(g);
+		}
+		g.dispose();
+	}
+	
+	/**
+	 * Overridden to only check the figures around the point when the
+	 * drawing hosts many figures. The front most figure is returned.
+	 * @see DefaultDrawingView#findFigure(Point)
+	 */
+	public Figure findFigure(Point p)
+	{
+		GridIndex<Figure> idx = getIndex();
+		if (idx == null) return super.findFigure(p);
+		Point2D.Double d = viewToDrawing(p);
+		List<Figure> figures = idx.query(d, getHitTolerance());
+		Figure f;
+		for (int i = figures.size()-1; i >= 0; i--) {
+			f = figures.get(i);
+			if (f.contains(d)) return f;
+		}
+		return null;
+	}
+	
+	/**
+	 * Overridden to only check the figures in the area when the drawing
+	 * hosts many figures.
+	 * @see DefaultDrawingView#findFigures(Rectangle)
+	 */
+	public Collection<Figure> findFigures(Rectangle r)
+	{
+		GridIndex<Figure> idx = getIndex();
+		if (idx == null) return super.findFigures(r);
+		Rectangle2D.Double d = viewToDrawing(r);
+		List<Figure> figures = new ArrayList<Figure>();
+		Iterator<Figure> i = idx.query(d).iterator();
+		Figure f;
+		while (i.hasNext()) {
+			f = i.next();
+			if (f.getDrawingArea().intersects(d)) figures.add(f);
+		}
+		return figures;
+	}
+	
+	/**
+	 * Overridden to only check the figures in the area when the drawing
+	 * hosts many figures.
+	 * @see DefaultDrawingView#findFiguresWithin(Rectangle)
+	 */
+	public Collection<Figure> findFiguresWithin(Rectangle r)
+	{
+		GridIndex<Figure> idx = getIndex();
+		if (idx == null) return super.findFiguresWithin(r);
+		Rectangle2D.Double d = viewToDrawing(r);
+		List<Figure> figures = new ArrayList<Figure>();
+		Iterator<Figure> i = idx.query(d).iterator();
+		Figure f;
+		while (i.hasNext()) {
+			f = i.next();
+			if (d.contains(f.getBounds())) figures.add(f);
+		}
+		return figures;
+	}
+	
 	/**
 	 * Sets the size of the component. This method takes in the original size
 	 * of the image and the scale factor and sets the size of the component 
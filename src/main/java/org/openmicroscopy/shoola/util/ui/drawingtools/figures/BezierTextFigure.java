@@ -24,9 +24,11 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
+import java.awt.Shape;
 import java.awt.font.FontRenderContext;
 import java.awt.font.LineBreakMeasurer;
 import java.awt.font.TextLayout;
+import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.text.AttributedCharacterIterator;
@@ -54,7 +56,7 @@ import org.openmicroscopy.shoola.util.ui.drawingtools.texttools.DrawingTextTool;
  */
 public class BezierTextFigure
 	extends BezierFigure
-	implements TextHolderFigure
+	implements TextHolderFigure, OutlineFigure
 {	
 	
 	/** Flag indicating if the figure is editable or not. */
@@ -336,6 +338,33 @@ public class BezierTextFigure
 		return that;
 	}
 	
+	/**
+	 * Implemented as specified by the {@link OutlineFigure} interface.
+	 * The path is approximated by the segments joining the nodes.
+	 * @see OutlineFigure#getOutline(double)
+	 */
+	public Shape getOutline(double tolerance)
+	{
+		Path2D.Double outline = new Path2D.Double();
+		int n = path.size();
+		if (n == 0) return outline;
+		BezierPath.Node node = path.get(0);
+		double x = node.x[0], y = node.y[0];
+		double dx, dy, t = tolerance*tolerance;
+		outline.moveTo(x, y);
+		for (int i = 1; i < n; i++) {
+			node = path.get(i);
+			dx = node.x[0]-x;
+			dy = node.y[0]-y;
+			if (i < n-1 && dx*dx+dy*dy < t) continue;
+			x = node.x[0];
+			y = node.y[0];
+			outline.lineTo(x, y);
+		}
+		if (isClosed()) outline.closePath();
+		return outline;
+	}
+	
 	public BezierPath.Node removeNode(int node)
 	{
 		return super.removeNode(node);
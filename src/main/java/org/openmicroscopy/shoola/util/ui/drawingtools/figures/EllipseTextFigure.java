@@ -26,6 +26,7 @@ import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
+import java.awt.Shape;
 import java.awt.font.FontRenderContext;
 import java.awt.font.LineBreakMeasurer;
 import java.awt.font.TextLayout;
@@ -62,7 +63,7 @@ import org.openmicroscopy.shoola.util.ui.drawingtools.texttools.TransformedDrawi
  */
 public class EllipseTextFigure
 	extends RotateEllipseFigure
-	implements TextHolderFigure
+	implements TextHolderFigure, OutlineFigure
 {
 	
 	/** Is the attribute update from a transform update. */
@@ -412,4 +413,13 @@ public class EllipseTextFigure
 		return that;
 	}
 	
+	/**
+	 * Implemented as specified by the {@link OutlineFigure} interface.
+	 * @see OutlineFigure#getOutline(double)
+	 */
+	public Shape getOutline(double tolerance)
+	{
+		return getTransformedShape();
+	}
+	
 }
\ No newline at end of file
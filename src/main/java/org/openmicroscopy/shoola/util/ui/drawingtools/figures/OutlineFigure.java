@@ -0,0 +1,50 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.ui.drawingtools.figures;
+
+import java.awt.Shape;
+
+import org.jhotdraw.draw.Figure;
+
+/**
+ * Figure whose geometry can be painted as a plain outline, without text
+ * or decorations. Used to paint many figures at once when the drawing is
+ * dense.
+ *
+ * @since 5.8
+ */
+public interface OutlineFigure
+	extends Figure
+{
+
+	/**
+	 * Returns the outline of the figure in the coordinates of the drawing
+	 * or <code>null</code> if the figure has to be painted by itself.
+	 * The nodes closer than the specified tolerance to the previous node
+	 * may be skipped.
+	 *
+	 * @param tolerance The distance, in the coordinates of the drawing,
+	 *                  below which nodes may be merged.
+	 * @return See above.
+	 */
+	public Shape getOutline(double tolerance);
+
+}
@@ -25,9 +25,11 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
+import java.awt.Shape;
 import java.awt.font.FontRenderContext;
 import java.awt.font.LineBreakMeasurer;
 import java.awt.font.TextLayout;
+import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.text.AttributedCharacterIterator;
@@ -54,7 +56,7 @@ import org.openmicroscopy.shoola.util.ui.drawingtools.texttools.DrawingTextTool;
  */
 public class PointTextFigure
 	extends PointFigure
-	implements TextHolderFigure
+	implements TextHolderFigure, OutlineFigure
 {	
 	
 	/** Flag indicating if the figure is editable or not. */
@@ -300,6 +302,17 @@ public class PointTextFigure
 		that.setText(this.getText());
 		return that;
 	}
+	
+	/**
+	 * Implemented as specified by the {@link OutlineFigure} interface.
+	 * The cross hairs are not part of the outline.
+	 * @see OutlineFigure#getOutline(double)
+	 */
+	public Shape getOutline(double tolerance)
+	{
+		return new Ellipse2D.Double(ellipse.getCenterX()-POINT_SIZE, 
+				ellipse.getCenterY()-POINT_SIZE, POINT_SIZE*2, POINT_SIZE*2);
+	}
 }
 
 
@@ -24,6 +24,7 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
+import java.awt.Shape;
 import java.awt.font.FontRenderContext;
 import java.awt.font.LineBreakMeasurer;
 import java.awt.font.TextLayout;
@@ -56,7 +57,7 @@ import org.openmicroscopy.shoola.util.ui.drawingtools.texttools.DrawingTextTool;
  */
 public class RectangleTextFigure 
 	extends RectangleFigure 
-	implements TextHolderFigure
+	implements TextHolderFigure, OutlineFigure
 {
 	
 	private boolean 				fromAttributeUpdate;
@@ -388,4 +389,13 @@ public class RectangleTextFigure
 		that.setText(this.getText());
 		return that;
 	}
+	
+	/**
+	 * Implemented as specified by the {@link OutlineFigure} interface.
+	 * @see OutlineFigure#getOutline(double)
+	 */
+	public Shape getOutline(double tolerance)
+	{
+		return (Rectangle2D.Double) rectangle.clone();
+	}
 }
@@ -102,6 +102,20 @@ public class NullRenderingService
      * @see OmeroImageService#shutDown(long)
      */
     public void shutDown(SecurityContext ctx, long pixelsID) {}
+
+    /**
+     * No-op implementation
+     * @see OmeroImageService#prefetchImage(SecurityContext, long, Object)
+     */
+    public void prefetchImage(SecurityContext ctx, long pixelsID,
+            Object owner) {}
+
+    /**
+     * No-op implementation
+     * @see OmeroImageService#releasePrefetchedImages(Object, Collection)
+     */
+    public void releasePrefetchedImages(Object owner, Collection<Long> keep)
+    {}
     
 	/**
      * No-op implementation
@@ -226,6 +240,17 @@ public class NullRenderingService
 
 	/**
      * No-op implementation
+     * @see OmeroImageService#isProjectedLocally(SecurityContext, long, int,
+     * List)
+     */
+	public boolean isProjectedLocally(SecurityContext ctx, long pixelsID,
+			int type, List<Integer> channels)
+	{
+		return false;
+	}
+
+	/**
+     * No-op implementation
      * @see OmeroImageService#projectImage(ProjectionParam)
      */
 	public ImageData projectImage(SecurityContext ctx, ProjectionParam ref)
@@ -285,6 +310,16 @@ public class NullRenderingService
 
 	/**
      * No-op implementation
+     * @see OmeroImageService#getUsedFiles(File)
+     */
+	public Set<File> getUsedFiles(File file)
+		throws ImportException
+	{
+		return null;
+	}
+
+	/**
+     * No-op implementation
      * @see OmeroImageService#getFSFileSystemView()
      */
 	public FileSystemView getFSFileSystemView(SecurityContext ctx)
@@ -366,6 +401,17 @@ public class NullRenderingService
 
 	/**
      * No-op implementation
+     * @see OmeroImageService#loadROIByPlane(SecurityContext, long, int, int)
+     */
+	public List<ROIResult> loadROIByPlane(SecurityContext ctx, long imageID,
+			int z, int t)
+			throws DSOutOfServiceException, DSAccessException
+	{
+		return null;
+	}
+
+	/**
+     * No-op implementation
      * @see OmeroImageService#renderOverLays(SecurityContext, long, PlaneDef, long, Map)
      */
 	public Object renderOverLays(SecurityContext ctx, long pixelsID,
@@ -472,6 +518,12 @@ public class NullRenderingService
 
 	/**
      * No-op implementation
+     * @see OmeroImageService#invalidateScripts()
+     */
+	public void invalidateScripts() {}
+
+	/**
+     * No-op implementation
      * @see OmeroImageService#setOwnerRenderingSettings(Class, List)
      */
 	public Map setOwnerRenderingSettings(SecurityContext ctx,
@@ -499,6 +551,9 @@ public class NullRenderingService
 			Target target) throws DSOutOfServiceException, DSAccessException {
 		return null;
 	}
+
+	public void prepareExport(SecurityContext ctx, int index, long imageID)
+		throws DSOutOfServiceException, DSAccessException {}
 	
 	public Set<DataObject> getFileSet(SecurityContext ctx, long imageId)
 	throws DSAccessException, DSOutOfServiceException
@@ -0,0 +1,212 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import omero.api.RenderingEnginePrx;
+import omero.gateway.SecurityContext;
+
+/**
+ * Unit test for {@link RenderingEnginePool}.
+ *
+ * @since 5.8
+ */
+public class TestRenderingEnginePool
+    extends TestCase
+{
+
+    /** The object under test. */
+    private RenderingEnginePool pool;
+
+    /** The security context. */
+    private SecurityContext ctx;
+
+    /**
+     * Creates a rendering engine that does nothing.
+     *
+     * @return See above.
+     */
+    private RenderingEnginePrx createEngine()
+    {
+        return (RenderingEnginePrx) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {RenderingEnginePrx.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args)
+                    {
+                        if ("hashCode".equals(method.getName()))
+                            return System.identityHashCode(proxy);
+                        if ("equals".equals(method.getName()))
+                            return proxy == args[0];
+                        return null;
+                    }
+                });
+    }
+
+    @Override
+    protected void setUp()
+    {
+        pool = new RenderingEnginePool();
+        ctx = new SecurityContext(1);
+    }
+
+    /** Tests that a released engine is handed out for another image. */
+    public void testAcquireOtherPixels()
+    {
+        assertNull(pool.acquire(ctx, 1));
+        assertEquals(1, pool.getMisses());
+        RenderingEnginePrx engine = createEngine();
+        pool.register(ctx, 1, engine);
+        assertNull(pool.release(engine));
+        assertEquals(1, pool.getIdleCount());
+        assertNull(pool.acquire(new SecurityContext(2), 2));
+        assertSame(engine, pool.acquire(ctx, 2));
+        assertEquals(1, pool.getHits());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, pool.getTrackedCount());
+    }
+
+    /**
+     * Tests that an engine pointed at the pixels set is handed out before
+     * the most recently released one.
+     */
+    public void testAcquireSamePixels()
+    {
+        RenderingEnginePrx first = createEngine();
+        RenderingEnginePrx second = createEngine();
+        pool.register(ctx, 1, first);
+        pool.register(ctx, 2, second);
+        pool.release(first);
+        pool.release(second);
+        assertSame(first, pool.acquire(ctx, 1));
+        assertSame(second, pool.acquire(ctx, 3));
+        assertNull(pool.acquire(ctx, 3));
+    }
+
+    /** Tests that an engine not created by the pool is returned. */
+    public void testReleaseUnknown()
+    {
+        RenderingEnginePrx engine = createEngine();
+        assertSame(engine, pool.release(engine));
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    /** Tests that the oldest engine is removed when the pool is full. */
+    public void testEviction()
+    {
+        List<RenderingEnginePrx> engines = new ArrayList<RenderingEnginePrx>();
+        RenderingEnginePrx engine;
+        for (int i = 0; i <= RenderingEnginePool.DEFAULT_SIZE; i++) {
+            engine = createEngine();
+            pool.register(ctx, i, engine);
+            engines.add(engine);
+        }
+        for (int i = 0; i < RenderingEnginePool.DEFAULT_SIZE; i++)
+            assertNull(pool.release(engines.get(i)));
+        assertSame(engines.get(0), pool.release(engines.get(
+                RenderingEnginePool.DEFAULT_SIZE)));
+        assertEquals(RenderingEnginePool.DEFAULT_SIZE, pool.getIdleCount());
+        Map<SecurityContext, List<RenderingEnginePrx>> m = pool.setSize(1);
+        assertEquals(RenderingEnginePool.DEFAULT_SIZE-1, m.get(ctx).size());
+        assertEquals(1, pool.getIdleCount());
+        pool.setSize(0);
+        assertFalse(pool.isEnabled());
+        assertEquals(0, pool.getTrackedCount());
+    }
+
+    /** Tests that the engines idle for too long are removed. */
+    public void testExpiry()
+    {
+        RenderingEnginePrx engine = createEngine();
+        pool.register(ctx, 1, engine);
+        pool.release(engine);
+        assertTrue(pool.expire(0).isEmpty());
+        assertEquals(1, pool.getIdleCount());
+        Map<SecurityContext, List<RenderingEnginePrx>> m =
+                pool.evict(System.currentTimeMillis()+1);
+        assertEquals(1, m.size());
+        assertSame(engine, m.get(ctx).get(0));
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, pool.getTrackedCount());
+        assertNull(pool.acquire(ctx, 1));
+    }
+
+    /**
+     * Tests that the engines of a pixels set are not shut down together
+     * while one of them is used for another pixels set.
+     */
+    public void testRemove()
+    {
+        RenderingEnginePrx moved = createEngine();
+        RenderingEnginePrx other = createEngine();
+        pool.register(ctx, 1, moved);
+        pool.register(ctx, 1, other);
+        pool.release(moved);
+        assertSame(moved, pool.acquire(ctx, 2));
+        List<RenderingEnginePrx> close = new ArrayList<RenderingEnginePrx>();
+        assertFalse(pool.remove(ctx, 1, close));
+        assertEquals(1, close.size());
+        assertSame(other, close.get(0));
+        close.clear();
+        assertTrue(pool.remove(ctx, 2, close));
+        assertEquals(1, close.size());
+        assertSame(moved, close.get(0));
+        assertEquals(0, pool.getTrackedCount());
+        close.clear();
+        pool.register(ctx, 3, createEngine());
+        assertTrue(pool.remove(ctx, 3, close));
+        assertTrue(close.isEmpty());
+    }
+
+    /** Tests that a closed engine is no longer handed out. */
+    public void testForget()
+    {
+        RenderingEnginePrx engine = createEngine();
+        pool.register(ctx, 1, engine);
+        pool.release(engine);
+        pool.forget(engine);
+        assertEquals(0, pool.getIdleCount());
+        assertNull(pool.acquire(ctx, 1));
+        assertSame(engine, pool.release(engine));
+    }
+
+    /** Tests that the idle engines of a context are returned when cleared. */
+    public void testClear()
+    {
+        RenderingEnginePrx idle = createEngine();
+        pool.register(ctx, 1, idle);
+        pool.register(ctx, 2, createEngine());
+        pool.release(idle);
+        List<RenderingEnginePrx> l = pool.clear(ctx);
+        assertEquals(1, l.size());
+        assertSame(idle, l.get(0));
+        assertEquals(0, pool.getTrackedCount());
+    }
+
+}
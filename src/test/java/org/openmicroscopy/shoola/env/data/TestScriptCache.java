@@ -0,0 +1,135 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+import omero.grid.JobParams;
+import omero.model.OriginalFile;
+import omero.model.OriginalFileI;
+
+import static omero.rtypes.rstring;
+
+/**
+ * Tests for the {@link ScriptCache} class.
+ *
+ * @since 5.8
+ */
+public class TestScriptCache
+    extends TestCase
+{
+
+    /** The object under test. */
+    private ScriptCache cache;
+
+    /**
+     * Creates a script file.
+     *
+     * @param id The id of the script.
+     * @param hash The hash of the file.
+     * @return See above.
+     */
+    private static OriginalFile createScript(long id, String hash)
+    {
+        OriginalFile file = new OriginalFileI(id, true);
+        file.setHash(rstring(hash));
+        return file;
+    }
+
+    /**
+     * Sets the official scripts.
+     *
+     * @param scripts The scripts.
+     */
+    private void setScripts(OriginalFile... scripts)
+    {
+        List<OriginalFile> empty = Collections.emptyList();
+        cache.setScripts(Arrays.asList(scripts), empty);
+    }
+
+    @Override
+    protected void setUp()
+    {
+        cache = new ScriptCache();
+    }
+
+    /** Tests that the parameters are kept if the script is unchanged. */
+    public void testParamsKept()
+    {
+        setScripts(createScript(1, "a"));
+        JobParams params = new JobParams();
+        cache.setParams(1, params);
+        setScripts(createScript(1, "a"));
+        assertSame(params, cache.getParams(1));
+    }
+
+    /** Tests that the parameters are dropped if the file is modified. */
+    public void testHashInvalidation()
+    {
+        setScripts(createScript(1, "a"), createScript(2, "b"));
+        JobParams p1 = new JobParams();
+        JobParams p2 = new JobParams();
+        cache.setParams(1, p1);
+        cache.setParams(2, p2);
+        setScripts(createScript(1, "c"), createScript(2, "b"));
+        assertNull(cache.getParams(1));
+        assertSame(p2, cache.getParams(2));
+    }
+
+    /** Tests that the parameters of a removed script are dropped. */
+    public void testRemovedScript()
+    {
+        setScripts(createScript(1, "a"), createScript(2, "b"));
+        cache.setParams(1, new JobParams());
+        cache.setParams(2, new JobParams());
+        setScripts(createScript(2, "b"));
+        assertNull(cache.getParams(1));
+        assertNotNull(cache.getParams(2));
+        assertEquals(1, cache.getScripts().size());
+    }
+
+    /** Tests that the parameters of an unknown script are not cached. */
+    public void testUnknownScript()
+    {
+        setScripts(createScript(1, "a"));
+        cache.setParams(2, new JobParams());
+        assertNull(cache.getParams(2));
+    }
+
+    /** Tests the validity of the lists. */
+    public void testValidity()
+    {
+        assertFalse(cache.isValid(Long.MAX_VALUE));
+        setScripts(createScript(1, "a"));
+        assertTrue(cache.isValid(Long.MAX_VALUE));
+        cache.invalidate();
+        assertFalse(cache.isValid(Long.MAX_VALUE));
+        setScripts(createScript(1, "a"));
+        assertTrue(cache.isValid(Long.MAX_VALUE));
+        cache.clear();
+        assertFalse(cache.isValid(Long.MAX_VALUE));
+        assertTrue(cache.getScripts().isEmpty());
+    }
+
+}
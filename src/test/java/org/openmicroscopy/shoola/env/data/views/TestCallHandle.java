@@ -79,4 +79,24 @@ public class TestCallHandle
         delegate.verify();
     }
 
+    //Verify the tree is told before the delegate is cancelled.
+    public void testCancelNotifiesTree()
+    {
+        MockExecHandle delegate = new MockExecHandle();
+        delegate.cancelExecution();
+        delegate.activate();
+        final boolean[] notified = new boolean[1];
+        BatchCallTree tree = new BatchCallTree() {
+            protected void buildTree() {}
+            protected Object getResult() { return null; }
+            protected void onCancel() { notified[0] = true; }
+        };
+        
+        CallHandle target = new CallHandle(delegate, tree);
+        target.cancel();
+        
+        assertTrue("Tree not notified.", notified[0]);
+        delegate.verify();
+    }
+
 }
@@ -0,0 +1,133 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data.views;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the {@link CommandTracker} class.
+ *
+ * @since 5.8
+ */
+public class TestCommandTracker
+    extends TestCase
+{
+
+    /** Command finishing after a given number of polls. */
+    private static class FakeCommand
+        implements CommandTracker.Command
+    {
+
+        /** The number of polls after which the command finishes. */
+        private final int length;
+
+        /** Flag indicating that the polls fail. */
+        private final boolean failing;
+
+        /** The number of polls. */
+        private volatile int polls;
+
+        /** Flag indicating that the command has been closed. */
+        private volatile boolean closed;
+
+        FakeCommand(int length, boolean failing)
+        {
+            this.length = length;
+            this.failing = failing;
+        }
+
+        public boolean isDone() { return !failing && polls >= length; }
+
+        public void poll()
+            throws Exception
+        {
+            polls++;
+            if (failing) throw new Exception("Poll failed");
+        }
+
+        public void close() { closed = true; }
+    }
+
+    /** The object under test. */
+    private CommandTracker tracker;
+
+    /**
+     * Waits until no command is tracked or the time out is reached.
+     *
+     * @param timeout The time out in milliseconds.
+     */
+    private void waitForCompletion(long timeout)
+        throws InterruptedException
+    {
+        long end = System.currentTimeMillis()+timeout;
+        while (tracker.getCount() > 0 && System.currentTimeMillis() < end)
+            Thread.sleep(50);
+    }
+
+    @Override
+    protected void setUp()
+    {
+        tracker = new CommandTracker();
+    }
+
+    /** Tests that a finished command is not tracked. */
+    public void testDoneCommandNotTracked()
+    {
+        tracker.track(new FakeCommand(0, false));
+        assertEquals(0, tracker.getCount());
+    }
+
+    /**
+     * Tests that the commands are polled by one thread until they finish
+     * and are closed once finished.
+     */
+    public void testCommandsPolledUntilDone()
+        throws Exception
+    {
+        FakeCommand c1 = new FakeCommand(1, false);
+        FakeCommand c2 = new FakeCommand(2, false);
+        tracker.track(c1);
+        tracker.track(c2);
+        assertEquals(2, tracker.getCount());
+        waitForCompletion(5000);
+        assertEquals(0, tracker.getCount());
+        assertEquals(1, c1.polls);
+        assertEquals(2, c2.polls);
+        assertTrue(c1.closed);
+        assertTrue(c2.closed);
+    }
+
+    /** Tests that the interval increases while no command finishes. */
+    public void testIntervalIncreases()
+        throws Exception
+    {
+        FakeCommand c = new FakeCommand(Integer.MAX_VALUE, false);
+        tracker.track(c);
+        assertEquals(CommandTracker.MIN_INTERVAL, tracker.getInterval());
+        long end = System.currentTimeMillis()+5000;
+        while (c.polls < 2 && System.currentTimeMillis() < end)
+            Thread.sleep(50);
+        assertTrue(tracker.getInterval() > CommandTracker.MIN_INTERVAL);
+        tracker.track(new FakeCommand(1, false));
+        assertEquals(CommandTracker.MIN_INTERVAL, tracker.getInterval());
+    }
+
+}
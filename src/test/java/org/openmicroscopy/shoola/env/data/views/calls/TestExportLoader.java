@@ -0,0 +1,190 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data.views.calls;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.openmicroscopy.shoola.env.Container;
+import org.openmicroscopy.shoola.env.LookupNames;
+import org.openmicroscopy.shoola.env.config.Registry;
+import org.openmicroscopy.shoola.env.config.RegistryFactory;
+import org.openmicroscopy.shoola.env.data.NullRenderingService;
+import org.openmicroscopy.shoola.env.data.util.Target;
+import org.openmicroscopy.shoola.env.data.views.CallHandle;
+import org.openmicroscopy.shoola.env.data.views.DataViewsFactory;
+import org.openmicroscopy.shoola.env.data.views.ImageDataView;
+import org.openmicroscopy.shoola.env.data.views.MonitorFactory;
+import org.openmicroscopy.shoola.env.event.AgentEvent;
+import org.openmicroscopy.shoola.env.event.AgentEventListener;
+import org.openmicroscopy.shoola.env.log.NullLogger;
+import org.openmicroscopy.shoola.util.concur.tasks.AsyncProcessor;
+
+import omero.gateway.SecurityContext;
+
+/**
+ * Tests that the file of a cancelled export is removed by
+ * {@link ExportLoader}.
+ *
+ * @since 5.8
+ */
+public class TestExportLoader
+    extends TestCase
+{
+
+    /** Service writing the file once the export has been cancelled. */
+    private static class BlockingService
+        extends NullRenderingService
+    {
+
+        /** Released when the export has started. */
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        /** Released to complete the export. */
+        private final CountDownLatch proceed = new CountDownLatch(1);
+
+        /** Released once the file has been written. */
+        private final CountDownLatch written = new CountDownLatch(1);
+
+        /**
+         * Writes the file once allowed to, ignoring the interruptions
+         * like a transfer.
+         * @see NullRenderingService#exportImageAsOMEFormat(SecurityContext,
+         * int, long, File, Target)
+         */
+        public Object exportImageAsOMEFormat(SecurityContext ctx, int index,
+                long imageID, File file, Target target)
+        {
+            started.countDown();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    proceed.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            try {
+                FileOutputStream out = new FileOutputStream(file);
+                try {
+                    out.write(new byte[16]);
+                } finally {
+                    out.close();
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            } finally {
+                written.countDown();
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            return file;
+        }
+    }
+
+    /** The folder where the images are exported. */
+    private File dir;
+
+    /** The service exporting the images. */
+    private BlockingService service;
+
+    /**
+     * Waits until the file is removed.
+     *
+     * @param f The file to check.
+     * @return <code>true</code> if the file was removed.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private boolean waitForRemoval(File f)
+        throws InterruptedException
+    {
+        long end = System.currentTimeMillis()+5000;
+        while (f.exists() && System.currentTimeMillis() < end)
+            Thread.sleep(20);
+        return !f.exists();
+    }
+
+    /**
+     * Registers the service and the processor used by the views.
+     * @see TestCase#setUp()
+     */
+    protected void setUp()
+        throws Exception
+    {
+        Constructor<Container> c = Container.class.getDeclaredConstructor(
+                String.class, String.class, String.class);
+        c.setAccessible(true);
+        Container container = c.newInstance(
+                System.getProperty("java.io.tmpdir"), null, null);
+        Registry reg = container.getRegistry();
+        RegistryFactory.linkLogger(new NullLogger(), reg);
+        service = new BlockingService();
+        RegistryFactory.linkIS(service, reg);
+        reg.bind(LookupNames.CMD_PROCESSOR, new AsyncProcessor());
+        reg.bind(LookupNames.MONITOR_FACTORY, new MonitorFactory());
+        DataViewsFactory.initialize(container);
+        dir = Files.createTempDirectory("export").toFile();
+    }
+
+    /**
+     * Deletes the folder.
+     * @see TestCase#tearDown()
+     */
+    protected void tearDown()
+    {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (int i = 0; i < files.length; i++)
+                files[i].delete();
+        }
+        dir.delete();
+    }
+
+    /**
+     * Tests that the file of a single image is removed when the export is
+     * cancelled during the transfer.
+     * @throws Exception If an error occurred.
+     */
+    public void testCancelSingleExport()
+        throws Exception
+    {
+        ImageDataView view = (ImageDataView)
+                DataViewsFactory.makeView(ImageDataView.class);
+        File f = new File(dir, "image.ome.tif");
+        AgentEventListener observer = new AgentEventListener() {
+            public void eventFired(AgentEvent e) {}
+        };
+        CallHandle handle = view.exportImageAsOMETiff(new SecurityContext(1),
+                1, f, null, observer);
+        assertTrue(service.started.await(5, TimeUnit.SECONDS));
+        handle.cancel();
+        service.proceed.countDown();
+        assertTrue(service.written.await(5, TimeUnit.SECONDS));
+        assertTrue("The file should be removed.", waitForRemoval(f));
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data.views.calls;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the previews added by {@link ProjectionSaver}.
+ *
+ * @since 5.8
+ */
+public class TestProjectionSaver
+    extends TestCase
+{
+
+    /** Tests the sections at which a preview is delivered. */
+    public void testPreviewSections()
+    {
+        List<Integer> ends = ProjectionSaver.getPreviewSections(0, 20, 1);
+        assertEquals(Arrays.asList(7, 15), ends);
+        ends = ProjectionSaver.getPreviewSections(2, 40, 2);
+        assertEquals(Arrays.asList(17, 33), ends);
+    }
+
+    /** Tests that no preview is delivered for short intervals. */
+    public void testNoPreview()
+    {
+        assertTrue(ProjectionSaver.getPreviewSections(0, 7, 1).isEmpty());
+        assertTrue(ProjectionSaver.getPreviewSections(3, 3, 1).isEmpty());
+    }
+
+}
@@ -54,7 +54,8 @@ public class FakeInitializer
     
     /**
      * Replaces the specified container's intialization tasks
-     * with a new one.
+     * with a new one. The new task takes the slot of the old one so that
+     * it is ordered like the task it replaces.
      * To be effective, this method has to be called before the 
      * <code>startupInTestMode</code> method of the container is
      * invoked.
@@ -73,6 +74,8 @@ public class FakeInitializer
         for (int i = 0; i < initList.size(); ++i) {
             if (oldTaskType.equals(initList.get(i))) {
                 initList.set(i, newTaskType);
+                Class<?> slot = initSlots.get(oldTaskType);
+                initSlots.put(newTaskType, slot != null ? slot : oldTaskType);
                 replaced = true;
                 break;
             }
@@ -0,0 +1,211 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.init;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.openmicroscopy.shoola.env.Container;
+import org.openmicroscopy.shoola.env.config.RegistryFactory;
+import org.openmicroscopy.shoola.env.log.NullLogger;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the scheduling of the initialization tasks by
+ * {@link Initializer#doInit()}.
+ *
+ * @since 5.8
+ */
+public class TestInitializer
+    extends TestCase
+{
+
+    /** Task recording its execution and roll back. */
+    private static class FakeTask
+        extends InitializationTask
+    {
+
+        /** The events recorded by the tasks. */
+        private final List<String> log;
+
+        /** The tasks to execute before this one. */
+        private final Class<?>[] prerequisites;
+
+        /** Flag indicating that the execution fails. */
+        private final boolean failing;
+
+        FakeTask(List<String> log, boolean failing, Class<?>... prerequisites)
+        {
+            this.log = log;
+            this.failing = failing;
+            this.prerequisites = prerequisites;
+        }
+
+        String getName() { return getClass().getSimpleName(); }
+
+        Class<?>[] getPrerequisites() { return prerequisites; }
+
+        void configure() {}
+
+        void execute()
+            throws StartupException
+        {
+            if (failing) throw new StartupException("Failed: "+getName());
+            log.add("execute "+getName());
+        }
+
+        void rollback() { log.add("rollback "+getName()); }
+    }
+
+    /** A task type. */
+    private static class TaskA extends FakeTask
+    {
+        TaskA(List<String> log, boolean failing, Class<?>... prerequisites)
+        {
+            super(log, failing, prerequisites);
+        }
+    }
+
+    /** A task type. */
+    private static class TaskB extends FakeTask
+    {
+        TaskB(List<String> log, boolean failing, Class<?>... prerequisites)
+        {
+            super(log, failing, prerequisites);
+        }
+    }
+
+    /** A task type. */
+    private static class TaskC extends FakeTask
+    {
+        TaskC(List<String> log, boolean failing, Class<?>... prerequisites)
+        {
+            super(log, failing, prerequisites);
+        }
+    }
+
+    /** A task type. */
+    private static class TaskD extends FakeTask
+    {
+        TaskD(List<String> log, boolean failing, Class<?>... prerequisites)
+        {
+            super(log, failing, prerequisites);
+        }
+    }
+
+    /** The events recorded by the tasks. */
+    private List<String> log;
+
+    /** The object under test. */
+    private Initializer initializer;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        Constructor<Container> c = Container.class.getDeclaredConstructor(
+                String.class, String.class, String.class);
+        c.setAccessible(true);
+        Container container = c.newInstance(
+                System.getProperty("java.io.tmpdir"), null, null);
+        RegistryFactory.linkLogger(new NullLogger(), container.getRegistry());
+        initializer = new Initializer(container);
+        log = Collections.synchronizedList(new ArrayList<String>());
+    }
+
+    /** Tests that the tasks are executed after their prerequisites. */
+    public void testPrerequisites()
+        throws Exception
+    {
+        initializer.addTask(new TaskC(log, false, TaskB.class));
+        initializer.addTask(new TaskB(log, false, TaskA.class));
+        initializer.addTask(new TaskD(log, false));
+        initializer.addTask(new TaskA(log, false));
+        initializer.doInit();
+        assertEquals(4, log.size());
+        assertTrue(log.indexOf("execute TaskA") <
+                log.indexOf("execute TaskB"));
+        assertTrue(log.indexOf("execute TaskB") <
+                log.indexOf("execute TaskC"));
+        assertTrue(log.contains("execute TaskD"));
+    }
+
+    /**
+     * Tests that a task replacing another one is executed before the tasks
+     * requiring the replaced task.
+     */
+    public void testReplacedPrerequisites()
+        throws Exception
+    {
+        Initializer.initSlots.put(TaskD.class, TaskA.class);
+        try {
+            initializer.addTask(new TaskC(log, false, TaskB.class));
+            initializer.addTask(new TaskB(log, false, TaskA.class));
+            initializer.addTask(new TaskD(log, false));
+            initializer.doInit();
+        } finally {
+            Initializer.initSlots.remove(TaskD.class);
+        }
+        assertEquals(Arrays.asList("execute TaskD", "execute TaskB",
+                "execute TaskC"), log);
+    }
+
+    /**
+     * Tests that no task is started after a failure and that the executed
+     * tasks are rolled back.
+     */
+    public void testFailureAndRollback()
+    {
+        initializer.addTask(new TaskA(log, false));
+        initializer.addTask(new TaskB(log, true, TaskA.class));
+        initializer.addTask(new TaskC(log, false, TaskB.class));
+        try {
+            initializer.doInit();
+            fail("The failure should have been reported.");
+        } catch (StartupException e) {
+            assertEquals("Failed: TaskB", e.getMessage());
+        }
+        assertEquals(Collections.singletonList("execute TaskA"), log);
+        initializer.rollback();
+        assertEquals(2, log.size());
+        assertEquals("rollback TaskA", log.get(1));
+    }
+
+    /** Tests that a cycle between the tasks is detected. */
+    public void testCycle()
+    {
+        initializer.addTask(new TaskA(log, false, TaskB.class));
+        initializer.addTask(new TaskB(log, false, TaskA.class));
+        initializer.addTask(new TaskC(log, false));
+        try {
+            initializer.doInit();
+            fail("The cycle should have been detected.");
+        } catch (StartupException e) {
+            assertTrue(e.getMessage().startsWith("Circular dependency"));
+        }
+        assertEquals(Collections.singletonList("execute TaskC"), log);
+    }
+
+}
@@ -0,0 +1,313 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.openmicroscopy.shoola.env.rnd.data.RawPlane;
+
+import junit.framework.TestCase;
+import omero.gateway.SecurityContext;
+import omero.model.PixelsI;
+import omero.model.PixelsTypeI;
+
+/**
+ * Unit test for {@link LocalRenderer}. The planes rendered on the client
+ * are compared with a reference implementation of the rendering done by
+ * the server: the lookup table built by the 8/16-bit quantization strategy
+ * followed by the grey scale or RGB blending strategy.
+ *
+ * @since 5.8
+ */
+public class TestLocalRenderer
+    extends TestCase
+{
+
+    /** The size of the synthetic planes along the X-axis. */
+    private static final int SIZE_X = 16;
+
+    /** The size of the synthetic planes along the Y-axis. */
+    private static final int SIZE_Y = 12;
+
+    /**
+     * Creates a synthetic unsigned 16-bit plane, a ramp with an offset.
+     *
+     * @param offset The value of the first pixel.
+     * @param step The difference between two consecutive pixels.
+     * @return See above.
+     */
+    private RawPlane createPlane(int offset, int step)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(2*SIZE_X*SIZE_Y);
+        for (int i = 0; i < SIZE_X*SIZE_Y; i++)
+            buffer.putShort((short) (offset+i*step));
+        return RawPlane.decode(buffer.array(), RawPlane.UINT16, SIZE_X,
+                SIZE_Y);
+    }
+
+    /**
+     * Creates the settings of a channel.
+     *
+     * @param start The lower bound of the input window.
+     * @param end The upper bound of the input window.
+     * @param rgba The colour of the channel.
+     * @return See above.
+     */
+    private ChannelBindingsProxy createChannel(double start, double end,
+            int[] rgba)
+    {
+        ChannelBindingsProxy channel = new ChannelBindingsProxy();
+        channel.setActive(true);
+        channel.setInterval(start, end);
+        channel.setRGBA(rgba);
+        channel.setQuantization(RenderingControl.LINEAR, 1.0, false);
+        return channel;
+    }
+
+    /**
+     * Creates the rendering settings.
+     *
+     * @param model The colour model.
+     * @param channels The settings of the channels.
+     * @return See above.
+     */
+    private RndProxyDef createDef(String model,
+            ChannelBindingsProxy... channels)
+    {
+        RndProxyDef def = new RndProxyDef(null);
+        def.setBitResolution(255);
+        def.setCodomain(0, 255);
+        def.setColorModel(model);
+        for (int i = 0; i < channels.length; i++)
+            def.setChannel(i, channels[i]);
+        return def;
+    }
+
+    /**
+     * Returns the codomain value of the specified raw value as done by the
+     * linear 8/16-bit quantization strategy of the server.
+     *
+     * @param def The rendering settings.
+     * @param channel The settings of the channel.
+     * @param x The raw value.
+     * @return See above.
+     */
+    private int serverQuantize(RndProxyDef def, ChannelBindingsProxy channel,
+            int x)
+    {
+        double start = channel.getInputStart();
+        double end = channel.getInputEnd();
+        int cdStart = def.getCdStart();
+        int cdEnd = def.getCdEnd();
+        int q;
+        if (x < start) q = cdStart;
+        else if (x >= end) q = cdEnd;
+        else {
+            double a0 = def.getBitResolution()/(end-start);
+            double a1 = (double) (cdEnd-cdStart)/def.getBitResolution();
+            double v = Math.round(a0*(x-start));
+            q = (int) Math.round(a1*v+cdStart);
+        }
+        if (channel.getReverseIntensity()) q = cdEnd-q+cdStart;
+        return q;
+    }
+
+    /**
+     * Renders the planes as done by the grey scale and RGB strategies of
+     * the server.
+     *
+     * @param def The rendering settings.
+     * @param planes The planes of the active channels.
+     * @return The packed RGB values.
+     */
+    private int[] serverRender(RndProxyDef def, RawPlane[] planes)
+    {
+        boolean grey = RenderingControl.GREY_SCALE.equals(def.getColorModel());
+        int[] out = new int[SIZE_X*SIZE_Y];
+        ChannelBindingsProxy channel;
+        int[] rgba;
+        int q, r, g, b;
+        float alpha;
+        for (int i = 0; i < out.length; i++) {
+            r = 0;
+            g = 0;
+            b = 0;
+            for (int c = 0; c < planes.length; c++) {
+                channel = def.getChannel(c);
+                q = serverQuantize(def, channel, planes[c].getInt(i));
+                if (grey) {
+                    r = g = b = q;
+                    break;
+                }
+                rgba = channel.getRGBA();
+                alpha = rgba[3]/255f;
+                r += (int) (q*rgba[0]/255f*alpha);
+                g += (int) (q*rgba[1]/255f*alpha);
+                b += (int) (q*rgba[2]/255f*alpha);
+            }
+            out[i] = 0xFF000000 | (Math.min(r, 255) << 16) |
+                    (Math.min(g, 255) << 8) | Math.min(b, 255);
+        }
+        return out;
+    }
+
+    /**
+     * Renders the planes on the client.
+     *
+     * @param def The rendering settings.
+     * @param planes The planes of the active channels.
+     * @return The packed RGB values.
+     */
+    private int[] localRender(RndProxyDef def, RawPlane[] planes)
+    {
+        boolean grey = RenderingControl.GREY_SCALE.equals(def.getColorModel());
+        int n = grey ? 1 : planes.length;
+        LocalRenderer.ChannelMap[] maps = new LocalRenderer.ChannelMap[n];
+        RawPlane[] p = new RawPlane[n];
+        for (int c = 0; c < n; c++) {
+            maps[c] = new LocalRenderer.ChannelMap(def, def.getChannel(c),
+                    grey);
+            p[c] = planes[c];
+        }
+        return LocalRenderer.render(maps, p, 0, 0, SIZE_X, SIZE_Y);
+    }
+
+    /**
+     * Checks that the client and the server render the same image.
+     *
+     * @param def The rendering settings.
+     * @param planes The planes of the active channels.
+     */
+    private void assertSameRendering(RndProxyDef def, RawPlane[] planes)
+    {
+        int[] expected = serverRender(def, planes);
+        int[] result = localRender(def, planes);
+        assertEquals(expected.length, result.length);
+        for (int i = 0; i < expected.length; i++)
+            assertEquals("Pixel "+i, Integer.toHexString(expected[i]),
+                    Integer.toHexString(result[i]));
+    }
+
+    /** Tests the grey scale rendering of a channel. */
+    public void testGreyScale()
+    {
+        RawPlane plane = createPlane(100, 37);
+        RndProxyDef def = createDef(RenderingControl.GREY_SCALE,
+                createChannel(1000, 6000, new int[] {255, 0, 0, 255}));
+        assertSameRendering(def, new RawPlane[] {plane});
+    }
+
+    /** Tests the blending of two coloured channels. */
+    public void testRGB()
+    {
+        RawPlane red = createPlane(0, 300);
+        RawPlane green = createPlane(60000, -250);
+        RndProxyDef def = createDef(RenderingControl.RGB,
+                createChannel(5000, 50000, new int[] {255, 0, 0, 255}),
+                createChannel(2000, 60000, new int[] {0, 255, 128, 200}));
+        assertSameRendering(def, new RawPlane[] {red, green});
+    }
+
+    /** Tests the reverse intensity codomain map. */
+    public void testReverseIntensity()
+    {
+        ChannelBindingsProxy channel = createChannel(500, 4000,
+                new int[] {255, 255, 255, 255});
+        channel.setReverseIntensity(true);
+        RndProxyDef def = createDef(RenderingControl.RGB, channel);
+        assertSameRendering(def, new RawPlane[] {createPlane(0, 25)});
+    }
+
+    /** Tests the rendering of a region of the plane. */
+    public void testRegion()
+    {
+        RawPlane plane = createPlane(0, 100);
+        RndProxyDef def = createDef(RenderingControl.GREY_SCALE,
+                createChannel(0, 20000, new int[] {255, 255, 255, 255}));
+        int[] all = localRender(def, new RawPlane[] {plane});
+        LocalRenderer.ChannelMap[] maps = {new LocalRenderer.ChannelMap(def,
+                def.getChannel(0), true)};
+        int[] region = LocalRenderer.render(maps, new RawPlane[] {plane}, 3,
+                2, 5, 4);
+        for (int y = 0; y < 4; y++)
+            for (int x = 0; x < 5; x++)
+                assertEquals(all[(y+2)*SIZE_X+x+3], region[y*5+x]);
+    }
+
+    /**
+     * Creates a renderer for a pixels set of the specified type.
+     *
+     * @param pixelsType The pixels type.
+     * @return See above.
+     */
+    private LocalRenderer createRenderer(String pixelsType)
+    {
+        PixelsI pixels = new PixelsI();
+        PixelsTypeI type = new PixelsTypeI();
+        type.setValue(omero.rtypes.rstring(pixelsType));
+        pixels.setPixelsType(type);
+        pixels.setSizeX(omero.rtypes.rint(SIZE_X));
+        pixels.setSizeY(omero.rtypes.rint(SIZE_Y));
+        return new LocalRenderer(new SecurityContext(1), pixels);
+    }
+
+    /** Tests that the settings applied by the server only are rejected. */
+    public void testCanRender()
+    {
+        ChannelBindingsProxy channel = createChannel(0, 100,
+                new int[] {255, 0, 0, 255});
+        RndProxyDef def = createDef(RenderingControl.RGB, channel);
+        LocalRenderer renderer = createRenderer(RawPlane.UINT16);
+        assertTrue(renderer.canRender(def));
+        channel.setLookupTable("fire.lut");
+        assertFalse(renderer.canRender(def));
+        channel.setLookupTable(null);
+        channel.setQuantization(RenderingControl.LINEAR, 1.0, true);
+        assertFalse(renderer.canRender(def));
+        channel.setQuantization(RenderingControl.LINEAR, 1.0, false);
+        assertFalse(createRenderer("complex").canRender(def));
+    }
+
+    /**
+     * Tests that only the projected channels are checked, whether they
+     * are active or not, so that the previews of a projection are only
+     * computed when the client can project the channels.
+     */
+    public void testCanRenderProjected()
+    {
+        ChannelBindingsProxy c0 = createChannel(0, 100,
+                new int[] {255, 0, 0, 255});
+        ChannelBindingsProxy c1 = createChannel(0, 100,
+                new int[] {0, 255, 0, 255});
+        c1.setActive(false);
+        c1.setLookupTable("fire.lut");
+        RndProxyDef def = createDef(RenderingControl.RGB, c0, c1);
+        LocalRenderer renderer = createRenderer(RawPlane.UINT8);
+        assertTrue(renderer.canRender(def));
+        assertTrue(renderer.canRender(def, Arrays.asList(0)));
+        assertFalse(renderer.canRender(def, Arrays.asList(0, 1)));
+        assertFalse(renderer.canRender(def, Arrays.asList(2)));
+        assertFalse(createRenderer("complex").canRender(def,
+                Arrays.asList(0)));
+    }
+
+}
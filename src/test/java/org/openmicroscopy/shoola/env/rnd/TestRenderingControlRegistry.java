@@ -0,0 +1,149 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openmicroscopy.shoola.env.config.NullRegistry;
+
+import junit.framework.TestCase;
+import omero.api.RenderingEnginePrx;
+import omero.gateway.SecurityContext;
+import omero.gateway.model.ChannelData;
+import omero.model.PixelsI;
+
+/**
+ * Unit test for {@link RenderingControlRegistry}.
+ *
+ * @since 5.8
+ */
+public class TestRenderingControlRegistry
+    extends TestCase
+{
+
+    /** The object under test. */
+    private RenderingControlRegistry registry;
+
+    /**
+     * Creates a control whose rendering engine does nothing.
+     *
+     * @return See above.
+     */
+    private RenderingControlProxy createControl()
+    {
+        RenderingEnginePrx re = (RenderingEnginePrx) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {RenderingEnginePrx.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args)
+                    {
+                        return null;
+                    }
+                });
+        return new RenderingControlProxy(new NullRegistry(),
+                new SecurityContext(1), re, new PixelsI(),
+                new ArrayList<ChannelData>(), 0,
+                new ArrayList<RndProxyDef>());
+    }
+
+    @Override
+    protected void setUp()
+    {
+        registry = new RenderingControlRegistry();
+    }
+
+    /** Tests that the control is removed when no longer used. */
+    public void testReferenceCounting()
+    {
+        RenderingControlProxy control = createControl();
+        assertNull(registry.acquire(1));
+        assertSame(control, registry.register(1, control));
+        assertFalse(registry.isShared(1));
+        assertSame(control, registry.acquire(1));
+        assertTrue(registry.isShared(1));
+        assertNull(registry.release(1));
+        assertTrue(registry.contains(1));
+        assertFalse(registry.isShared(1));
+        assertSame(control, registry.release(1));
+        assertFalse(registry.contains(1));
+        assertNull(registry.release(1));
+        assertEquals(0, registry.getLiveCount());
+    }
+
+    /** Tests that a control created twice is counted as duplicate. */
+    public void testDuplicates()
+    {
+        RenderingControlProxy control = createControl();
+        RenderingControlProxy other = createControl();
+        assertSame(control, registry.register(1, control));
+        assertSame(control, registry.register(1, other));
+        assertSame(other, registry.register(2, other));
+        assertEquals(3, registry.getCreatedCount());
+        assertEquals(1, registry.getDuplicateCount());
+        assertTrue(registry.isShared(1));
+        assertEquals(2, registry.getLiveCount());
+    }
+
+    /** Tests that the inactive controls are shut down and kept. */
+    public void testExpire()
+    {
+        RenderingControlProxy control = createControl();
+        registry.register(1, control);
+        assertTrue(registry.expire(Long.MAX_VALUE).isEmpty());
+        assertFalse(control.isShutDown());
+        assertEquals(1, registry.getEngineCount());
+        List<Long> ids = registry.expire(0);
+        assertEquals(1, ids.size());
+        assertEquals(Long.valueOf(1), ids.get(0));
+        assertTrue(control.isShutDown());
+        assertTrue(registry.contains(1));
+        assertEquals(0, registry.getEngineCount());
+        assertTrue(registry.expire(0).isEmpty());
+    }
+
+    /** Tests that only one thread creates the control of a pixels set. */
+    public void testCreation()
+        throws Exception
+    {
+        assertTrue(registry.startCreation(1));
+        final boolean[] claimed = new boolean[1];
+        Thread t = new Thread(new Runnable() {
+            public void run() { claimed[0] = registry.startCreation(1); }
+        });
+        t.start();
+        t.join(200);
+        assertTrue(t.isAlive());
+        assertTrue(registry.startCreation(2));
+        registry.endCreation(2);
+        registry.register(1, createControl());
+        registry.endCreation(1);
+        t.join(5000);
+        assertFalse(t.isAlive());
+        assertFalse(claimed[0]);
+        assertFalse(registry.startCreation(1));
+    }
+
+}
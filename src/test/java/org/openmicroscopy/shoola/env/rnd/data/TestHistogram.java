@@ -0,0 +1,122 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd.data;
+
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link Histogram}.
+ *
+ * @since 5.8
+ */
+public class TestHistogram
+    extends TestCase
+{
+
+    /**
+     * Creates an unsigned 16-bit plane with the specified values.
+     *
+     * @param values The values of the plane.
+     * @return See above.
+     */
+    private RawPlane createPlane(int... values)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(2*values.length);
+        for (int i = 0; i < values.length; i++)
+            buffer.putShort((short) values[i]);
+        return RawPlane.decode(buffer.array(), RawPlane.UINT16,
+                values.length, 1);
+    }
+
+    /** Tests the binning over the range of the plane. */
+    public void testCompute()
+    {
+        Histogram h = Histogram.compute(createPlane(0, 10, 25, 50, 99, 100),
+                4);
+        assertEquals(0.0, h.getMin());
+        assertEquals(100.0, h.getMax());
+        int[] bins = h.getBins();
+        assertEquals(2, bins[0]);
+        assertEquals(1, bins[1]);
+        assertEquals(1, bins[2]);
+        assertEquals(2, bins[3]);
+        assertEquals(1, h.getPlaneCount());
+    }
+
+    /** Tests that the values outside the range are ignored. */
+    public void testRange()
+    {
+        Histogram h = new Histogram(2, 10, 20);
+        h.add(createPlane(5, 10, 14, 15, 20, 21, 40000));
+        int[] bins = h.getBins();
+        assertEquals(2, bins[0]);
+        assertEquals(2, bins[1]);
+    }
+
+    /** Tests the accumulation of several planes in a single pass. */
+    public void testStack()
+    {
+        double[] range = RawPlane.getTypeRange(RawPlane.UINT16);
+        Histogram h = new Histogram(256, range[0], range[1]);
+        h.add(createPlane(0, 1, 2));
+        h.add(createPlane(65535, 65535, 300));
+        int[] bins = h.getBins();
+        assertEquals(3, bins[0]);
+        assertEquals(1, bins[1]);
+        assertEquals(2, bins[255]);
+        assertEquals(2, h.getPlaneCount());
+    }
+
+    /** Tests that the large planes are binned in parallel. */
+    public void testParallel()
+    {
+        int n = 300000;
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++)
+            values[i] = i % 1000;
+        Histogram h = new Histogram(10, 0, 1000);
+        h.add(createPlane(values));
+        int[] bins = h.getBins();
+        for (int i = 0; i < bins.length; i++)
+            assertEquals(n/10, bins[i]);
+    }
+
+    /** Tests the percentiles. */
+    public void testPercentile()
+    {
+        Histogram h = new Histogram(10, 0, 100);
+        h.add(createPlane(5, 15, 25, 35, 45, 55, 65, 75, 85, 95));
+        assertEquals(0.0, h.getPercentile(0));
+        assertEquals(40.0, h.getPercentile(0.5));
+        assertEquals(90.0, h.getPercentile(1));
+    }
+
+    /** Tests the range of the pixels types. */
+    public void testTypeRange()
+    {
+        assertEquals(255.0, RawPlane.getTypeRange(RawPlane.UINT8)[1]);
+        assertEquals(-32768.0, RawPlane.getTypeRange(RawPlane.INT16)[0]);
+        assertNull(RawPlane.getTypeRange(RawPlane.FLOAT));
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd.data;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link PlaneCache}.
+ *
+ * @since 5.8
+ */
+public class TestPlaneCache
+    extends TestCase
+{
+
+    /**
+     * Creates an unsigned 8-bit plane of the specified number of bytes.
+     *
+     * @param size The number of pixels.
+     * @return See above.
+     */
+    private RawPlane createPlane(int size)
+    {
+        return RawPlane.decode(new byte[size], RawPlane.UINT8, size, 1);
+    }
+
+    /** Tests that the planes are found by pixels set and indexes. */
+    public void testGet()
+    {
+        PlaneCache cache = new PlaneCache(100);
+        RawPlane plane = createPlane(10);
+        cache.put(1, 0, 0, 0, plane);
+        assertSame(plane, cache.get(1, 0, 0, 0));
+        assertNull(cache.get(1, 1, 0, 0));
+        assertNull(cache.get(1, 0, 1, 0));
+        assertNull(cache.get(1, 0, 0, 1));
+        assertNull(cache.get(2, 0, 0, 0));
+        assertEquals(1, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(10, cache.getSize());
+    }
+
+    /** Tests that the least recently used planes are evicted first. */
+    public void testEviction()
+    {
+        PlaneCache cache = new PlaneCache(30);
+        cache.put(1, 0, 0, 0, createPlane(10));
+        cache.put(1, 1, 0, 0, createPlane(10));
+        cache.put(1, 2, 0, 0, createPlane(10));
+        assertNotNull(cache.get(1, 0, 0, 0));
+        cache.put(1, 3, 0, 0, createPlane(10));
+        assertEquals(30, cache.getSize());
+        assertNull(cache.get(1, 1, 0, 0));
+        assertNotNull(cache.get(1, 0, 0, 0));
+        cache.put(1, 4, 0, 0, createPlane(40));
+        assertNull(cache.get(1, 4, 0, 0));
+        cache.setMaxSize(10);
+        assertEquals(10, cache.getSize());
+        assertNotNull(cache.get(1, 0, 0, 0));
+    }
+
+    /** Tests that a plane replaced is no longer counted. */
+    public void testReplace()
+    {
+        PlaneCache cache = new PlaneCache(100);
+        cache.put(1, 0, 0, 0, createPlane(10));
+        cache.put(1, 0, 0, 0, createPlane(20));
+        assertEquals(20, cache.getSize());
+    }
+
+    /** Tests the removal of the planes of a pixels set. */
+    public void testRemove()
+    {
+        PlaneCache cache = new PlaneCache(100);
+        cache.put(1, 0, 0, 0, createPlane(10));
+        cache.put(2, 0, 0, 0, createPlane(10));
+        cache.remove(1);
+        assertEquals(10, cache.getSize());
+        assertNull(cache.get(1, 0, 0, 0));
+        assertNotNull(cache.get(2, 0, 0, 0));
+        cache.clear();
+        assertEquals(0, cache.getSize());
+    }
+
+}
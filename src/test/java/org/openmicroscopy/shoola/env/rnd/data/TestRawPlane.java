@@ -0,0 +1,115 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd.data;
+
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link RawPlane}.
+ *
+ * @since 5.8
+ */
+public class TestRawPlane
+    extends TestCase
+{
+
+    /** Tests the decoding of the unsigned 8-bit planes. */
+    public void testUint8()
+    {
+        byte[] data = {0, 1, (byte) 127, (byte) 128, (byte) 200, (byte) 255};
+        RawPlane plane = RawPlane.decode(data, RawPlane.UINT8, 3, 2);
+        assertTrue(plane.isIntegral());
+        assertEquals(6, plane.getByteSize());
+        assertEquals(128, plane.getInt(3));
+        assertEquals(255, plane.getInt(5));
+        assertEquals(0.0, plane.getMin());
+        assertEquals(255.0, plane.getMax());
+    }
+
+    /** Tests the decoding of the signed 8-bit planes. */
+    public void testInt8()
+    {
+        byte[] data = {0, (byte) -128, 127, (byte) -1};
+        RawPlane plane = RawPlane.decode(data, RawPlane.INT8, 2, 2);
+        assertEquals(-128, plane.getInt(1));
+        assertEquals(-1, plane.getInt(3));
+        assertEquals(-128.0, plane.getMin());
+        assertEquals(127.0, plane.getMax());
+    }
+
+    /** Tests the decoding of the 16-bit planes. */
+    public void testShorts()
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putShort((short) 0).putShort((short) 1000)
+            .putShort((short) 40000).putShort((short) 65535);
+        byte[] data = buffer.array();
+        RawPlane plane = RawPlane.decode(data, RawPlane.UINT16, 2, 2);
+        assertEquals(8, plane.getByteSize());
+        assertEquals(1000, plane.getInt(1));
+        assertEquals(40000, plane.getInt(2));
+        assertEquals(65535.0, plane.getMax());
+        plane = RawPlane.decode(data, RawPlane.INT16, 2, 2);
+        assertEquals(40000-65536, plane.getInt(2));
+        assertEquals(-1, plane.getInt(3));
+        assertEquals(40000.0-65536, plane.getMin());
+        assertEquals(1000.0, plane.getMax());
+    }
+
+    /** Tests the decoding of the bit planes. */
+    public void testBit()
+    {
+        byte[] data = {(byte) 0xa0};
+        RawPlane plane = RawPlane.decode(data, RawPlane.BIT, 2, 2);
+        assertEquals(1, plane.getInt(0));
+        assertEquals(0, plane.getInt(1));
+        assertEquals(1, plane.getInt(2));
+        assertEquals(0, plane.getInt(3));
+    }
+
+    /** Tests the decoding of the 32-bit and floating point planes. */
+    public void testOtherTypes()
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putInt(-5).putInt(-1);
+        RawPlane plane = RawPlane.decode(buffer.array(), RawPlane.INT32, 2,
+                1);
+        assertTrue(plane.isIntegral());
+        assertEquals(8, plane.getByteSize());
+        assertEquals(-5, plane.getInt(0));
+        plane = RawPlane.decode(buffer.array(), RawPlane.UINT32, 2, 1);
+        assertFalse(plane.isIntegral());
+        assertEquals(4294967295.0, plane.getValue(1));
+        buffer = ByteBuffer.allocate(8);
+        buffer.putFloat(1.5f).putFloat(-2.25f);
+        plane = RawPlane.decode(buffer.array(), RawPlane.FLOAT, 2, 1);
+        assertEquals(1.5, plane.getValue(0));
+        assertEquals(-2.25, plane.getMin());
+        assertEquals(16, plane.getByteSize());
+        try {
+            RawPlane.decode(new byte[1], "complex", 1, 1);
+            fail("Type not supported.");
+        } catch (IllegalArgumentException e) {}
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.file;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the files found by the {@link DirectoryScanner}.
+ *
+ * @since 5.8
+ */
+public class TestDirectoryScanner
+    extends TestCase
+{
+
+    /** The folder scanned. */
+    private File dir;
+
+    /**
+     * Creates a file of the specified size.
+     *
+     * @param f The file to create.
+     * @param n The number of bytes.
+     * @throws Exception If an error occurred.
+     */
+    private void create(File f, int n)
+        throws Exception
+    {
+        f.getParentFile().mkdirs();
+        FileOutputStream out = new FileOutputStream(f);
+        try {
+            out.write(new byte[n]);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Deletes the file or folder.
+     *
+     * @param f The file to delete.
+     */
+    private void delete(File f)
+    {
+        File[] files = f.listFiles();
+        if (files != null) {
+            for (int i = 0; i < files.length; i++)
+                delete(files[i]);
+        }
+        f.delete();
+    }
+
+    /**
+     * Creates the tree <code>a, b/c, b/d/e</code>.
+     * @see TestCase#setUp()
+     */
+    protected void setUp()
+        throws Exception
+    {
+        dir = Files.createTempDirectory("scan").toFile();
+        create(new File(dir, "a"), 1);
+        create(new File(dir, "b/c"), 10);
+        create(new File(dir, "b/d/e"), 100);
+        new File(dir, "empty").mkdir();
+    }
+
+    /**
+     * Deletes the folder.
+     * @see TestCase#tearDown()
+     */
+    protected void tearDown()
+    {
+        delete(dir);
+    }
+
+    /**
+     * Tests that the whole tree is scanned and the files passed to the
+     * listener.
+     */
+    public void testScanTree()
+    {
+        final Set<String> names = Collections.synchronizedSet(
+                new HashSet<String>());
+        DirectoryScanner scanner = new DirectoryScanner(dir, -1);
+        scanner.scan(new DirectoryScanner.Listener() {
+            public void fileFound(File file, long size)
+            {
+                names.add(file.getName());
+            }
+        });
+        assertEquals(3, scanner.getFileCount());
+        assertEquals(111, scanner.getSize());
+        assertEquals(3, names.size());
+        assertTrue(names.contains("e"));
+        assertFalse(scanner.isCancelled());
+    }
+
+    /** Tests that the depth of the scan is respected. */
+    public void testScanDepth()
+    {
+        DirectoryScanner scanner = new DirectoryScanner(dir, 0);
+        scanner.scan(null);
+        assertEquals(1, scanner.getFileCount());
+        scanner = new DirectoryScanner(dir, 1);
+        scanner.scan(null);
+        assertEquals(2, scanner.getFileCount());
+        assertEquals(11, scanner.getSize());
+    }
+
+    /** Tests that the scan stops once the limit is reached. */
+    public void testLimit()
+    {
+        DirectoryScanner scanner = new DirectoryScanner(dir, -1);
+        scanner.setLimit(1);
+        scanner.scan(null);
+        assertTrue(scanner.getFileCount() >= 1);
+        assertTrue(scanner.isCancelled());
+    }
+
+    /** Tests the scan of a file and the check for empty directories. */
+    public void testFile()
+    {
+        DirectoryScanner scanner = new DirectoryScanner(new File(dir, "a"), -1);
+        scanner.scan(null);
+        assertEquals(1, scanner.getFileCount());
+        assertTrue(DirectoryScanner.isEmptyDirectory(new File(dir, "empty")));
+        assertFalse(DirectoryScanner.isEmptyDirectory(dir));
+    }
+
+}
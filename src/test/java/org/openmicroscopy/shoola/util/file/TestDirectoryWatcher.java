@@ -0,0 +1,227 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.file;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the filesets handed out by the {@link DirectoryWatcher}.
+ *
+ * @since 5.8
+ */
+public class TestDirectoryWatcher
+    extends TestCase
+{
+
+    /** The delay after which a fileset is stable. */
+    private static final long STABLE_TIME = 300;
+
+    /** The folder watched. */
+    private File dir;
+
+    /**
+     * Writes the specified number of bytes at the end of the file.
+     *
+     * @param f The file to write.
+     * @param n The number of bytes.
+     * @throws Exception If an error occurred.
+     */
+    private void append(File f, int n)
+        throws Exception
+    {
+        FileOutputStream out = new FileOutputStream(f, true);
+        try {
+            out.write(new byte[n]);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Deletes the file or folder.
+     *
+     * @param f The file to delete.
+     */
+    private void delete(File f)
+    {
+        File[] files = f.listFiles();
+        if (files != null) {
+            for (int i = 0; i < files.length; i++)
+                delete(files[i]);
+        }
+        f.delete();
+    }
+
+    /**
+     * Checks the filesets handed out with or without a watch service.
+     *
+     * @param polling Pass <code>true</code> to poll the directory.
+     * @throws Exception If an error occurred.
+     */
+    private void checkFilesets(boolean polling)
+        throws Exception
+    {
+        append(new File(dir, "old.tif"), 10);
+        DirectoryWatcher watcher = new DirectoryWatcher(dir, STABLE_TIME, 10,
+                polling);
+        try {
+            watcher.start();
+            assertTrue(watcher.isHandled(new File(dir, "old.tif")));
+            File tif = new File(dir, "a.ome.tif");
+            File companion = new File(dir, "a.companion.ome");
+            append(tif, 10);
+            append(companion, 10);
+            append(new File(dir, ".hidden"), 10);
+            File sub = new File(dir, "plate");
+            sub.mkdir();
+            append(new File(sub, "well.tif"), 10);
+            List<File> first = watcher.take(10, TimeUnit.SECONDS);
+            List<File> second = watcher.take(10, TimeUnit.SECONDS);
+            assertNotNull(first);
+            assertNotNull(second);
+            if (first.size() == 1) {
+                List<File> l = first;
+                first = second;
+                second = l;
+            }
+            assertEquals(2, first.size());
+            assertTrue(first.contains(tif));
+            assertTrue(first.contains(companion));
+            assertEquals(1, second.size());
+            assertEquals(sub, second.get(0));
+            append(tif, 10);
+            assertNull(watcher.take(3*STABLE_TIME, TimeUnit.MILLISECONDS));
+        } finally {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Creates the folder.
+     * @see TestCase#setUp()
+     */
+    protected void setUp()
+        throws Exception
+    {
+        dir = Files.createTempDirectory("watch").toFile();
+    }
+
+    /**
+     * Deletes the folder.
+     * @see TestCase#tearDown()
+     */
+    protected void tearDown()
+    {
+        delete(dir);
+    }
+
+    /**
+     * Tests the filesets handed out when polling the directory.
+     * @throws Exception If an error occurred.
+     */
+    public void testPolling()
+        throws Exception
+    {
+        checkFilesets(true);
+    }
+
+    /**
+     * Tests the filesets handed out when using a watch service.
+     * @throws Exception If an error occurred.
+     */
+    public void testWatchService()
+        throws Exception
+    {
+        checkFilesets(false);
+    }
+
+    /**
+     * Tests that a file still being written is not handed out.
+     * @throws Exception If an error occurred.
+     */
+    public void testPartialWrite()
+        throws Exception
+    {
+        DirectoryWatcher watcher = new DirectoryWatcher(dir, STABLE_TIME, 10,
+                true);
+        try {
+            watcher.start();
+            File f = new File(dir, "image.tif");
+            long end = System.currentTimeMillis()+3*STABLE_TIME;
+            while (System.currentTimeMillis() < end) {
+                append(f, 10);
+                f.setLastModified(System.currentTimeMillis());
+                assertNull(watcher.take(50, TimeUnit.MILLISECONDS));
+            }
+            List<File> l = watcher.take(10, TimeUnit.SECONDS);
+            assertNotNull(l);
+            assertEquals(f, l.get(0));
+        } finally {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Tests that a file and its data directory are handed out together.
+     * @throws Exception If an error occurred.
+     */
+    public void testDataDirectory()
+        throws Exception
+    {
+        DirectoryWatcher watcher = new DirectoryWatcher(dir, STABLE_TIME, 10,
+                true);
+        try {
+            watcher.start();
+            File file = new File(dir, "b.mrxs");
+            File data = new File(dir, "b");
+            data.mkdir();
+            append(new File(data, "Data0000.dat"), 10);
+            append(file, 10);
+            List<File> l = watcher.take(10, TimeUnit.SECONDS);
+            assertNotNull(l);
+            assertEquals(2, l.size());
+            assertTrue(l.contains(file));
+            assertTrue(l.contains(data));
+            assertNull(watcher.take(3*STABLE_TIME, TimeUnit.MILLISECONDS));
+        } finally {
+            watcher.close();
+        }
+    }
+
+    /** Tests the keys grouping the entries handed out together. */
+    public void testGetKey()
+    {
+        File data = new File(dir, "b");
+        data.mkdir();
+        assertEquals("b", DirectoryWatcher.getKey(data));
+        assertEquals("b", DirectoryWatcher.getKey(new File(dir, "b.mrxs")));
+        assertEquals("a", DirectoryWatcher.getKey(new File(dir, "a.ome.tif")));
+        assertEquals("a", DirectoryWatcher.getKey(new File(dir, "a.jpg")));
+        assertEquals("image", DirectoryWatcher.getKey(new File(dir, "image")));
+    }
+
+}
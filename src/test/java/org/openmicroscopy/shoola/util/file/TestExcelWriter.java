@@ -0,0 +1,210 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.file;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the formats written by the {@link ExcelWriter}.
+ *
+ * @since 5.8
+ */
+public class TestExcelWriter
+    extends TestCase
+{
+
+    /** The folder where the files are written. */
+    private File dir;
+
+    /**
+     * Creates the folder.
+     * @see TestCase#setUp()
+     */
+    protected void setUp()
+        throws Exception
+    {
+        dir = Files.createTempDirectory("excel").toFile();
+    }
+
+    /**
+     * Deletes the folder.
+     * @see TestCase#tearDown()
+     */
+    protected void tearDown()
+    {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (int i = 0; i < files.length; i++)
+                files[i].delete();
+        }
+        dir.delete();
+    }
+
+    /**
+     * Tests that a <code>xlsx</code> file is not limited to 65536 rows.
+     * @throws Exception If an error occurred.
+     */
+    public void testStreamedWorkbook()
+        throws Exception
+    {
+        File f = new File(dir, "rows.xlsx");
+        ExcelWriter writer = new ExcelWriter(f.getAbsolutePath());
+        writer.openFile();
+        writer.createSheet("Values");
+        int n = 70000;
+        for (int i = 0; i < n; i++)
+            writer.writeArrayToRow(i, 0, new Object[] {i, "v"+i});
+        writer.setCellStyle(n-1, 0, ExcelWriter.INTEGER);
+        assertEquals(2, writer.getMaxColumn(0));
+        writer.close();
+        InputStream in = new FileInputStream(f);
+        try {
+            Workbook wb = WorkbookFactory.create(in);
+            Sheet sheet = wb.getSheet("Values");
+            assertEquals(n-1, sheet.getLastRowNum());
+            assertEquals(n-1.0,
+                    sheet.getRow(n-1).getCell(0).getNumericCellValue());
+            assertEquals("v0",
+                    sheet.getRow(0).getCell(1).getStringCellValue());
+            wb.close();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Tests the values written in a <code>csv</code> file.
+     * @throws Exception If an error occurred.
+     */
+    public void testDelimitedValues()
+        throws Exception
+    {
+        File f = new File(dir, "values.csv");
+        ExcelWriter writer = new ExcelWriter(f.getAbsolutePath());
+        writer.openFile();
+        writer.createSheet("First");
+        writer.writeArrayToRow(0, 0, new Object[] {"a", "b,c", "d\"e"});
+        writer.writeElement(2, 1, 1.5);
+        writer.setCellStyle(2, 1, ExcelWriter.BOLD_DEFAULT);
+        writer.createSheet("Second");
+        writer.writeElement(0, 0, "x");
+        writer.close();
+        List<String> lines = Files.readAllLines(f.toPath(),
+                StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        assertEquals("a,\"b,c\",\"d\"\"e\"", lines.get(0));
+        assertEquals("", lines.get(1));
+        assertEquals(",1.5", lines.get(2));
+        File second = new File(dir, "values_Second.csv");
+        assertTrue(second.exists());
+    }
+
+    /**
+     * Tests that the rows outside the window are written to a
+     * <code>tsv</code> file and cannot be modified.
+     * @throws Exception If an error occurred.
+     */
+    public void testDelimitedWindow()
+        throws Exception
+    {
+        File f = new File(dir, "values.tsv");
+        ExcelWriter writer = new ExcelWriter(f.getAbsolutePath());
+        writer.openFile();
+        writer.createSheet(null);
+        for (int i = 0; i < 1000; i++)
+            writer.writeArrayToRow(i, 0, new Object[] {i, i*2});
+        try {
+            writer.writeElement(0, 2, "late");
+            fail("The row should have been written.");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        assertEquals(2, writer.getMaxColumn(0));
+        writer.close();
+        List<String> lines = Files.readAllLines(f.toPath(),
+                StandardCharsets.UTF_8);
+        assertEquals(1000, lines.size());
+        assertEquals("999\t1998", lines.get(999));
+    }
+
+    /**
+     * Tests that the extension selected by the user is kept and that
+     * the templates and macro-enabled workbooks are rejected.
+     */
+    public void testOutputFile()
+    {
+        File f = new File(dir, "results.xlsx");
+        assertEquals(f, ExcelWriter.getOutputFile(f));
+        f = new File(dir, "results.XLS");
+        assertEquals(f, ExcelWriter.getOutputFile(f));
+        f = new File(dir, "results.csv");
+        assertEquals(f, ExcelWriter.getOutputFile(f));
+        assertEquals(new File(dir, "results.xls"),
+                ExcelWriter.getOutputFile(new File(dir, "results")));
+        assertNull(ExcelWriter.getOutputFile(new File(dir, "results.xlsm")));
+        assertNull(ExcelWriter.getOutputFile(new File(dir, "results.xltx")));
+        assertNull(ExcelWriter.getOutputFile(new File(dir, "results.xltm")));
+        try {
+            new ExcelWriter(new File(dir, "results.xlsm").getAbsolutePath());
+            fail("Macro-enabled workbooks should not be written.");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+
+    /**
+     * Tests that the workbook type is selected from the extension.
+     * @throws Exception If an error occurred.
+     */
+    public void testWorkbookType()
+        throws Exception
+    {
+        File xls = new File(dir, "a.xls");
+        File xlsx = new File(dir, "a.xlsx");
+        File[] files = {xls, xlsx};
+        ExcelWriter writer;
+        for (int i = 0; i < files.length; i++) {
+            writer = new ExcelWriter(files[i].getAbsolutePath());
+            writer.openFile();
+            writer.createSheet("Sheet");
+            writer.writeElement(0, 0, "value");
+            writer.close();
+        }
+        byte[] header = Files.readAllBytes(xls.toPath());
+        assertEquals((byte) 0xD0, header[0]);
+        assertEquals((byte) 0xCF, header[1]);
+        header = Files.readAllBytes(xlsx.toPath());
+        assertEquals('P', header[0]);
+        assertEquals('K', header[1]);
+    }
+
+}
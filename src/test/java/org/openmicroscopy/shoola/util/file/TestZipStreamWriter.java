@@ -0,0 +1,180 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the {@link ZipStreamWriter} class.
+ *
+ * @since 5.8
+ */
+public class TestZipStreamWriter
+    extends TestCase
+{
+
+    /**
+     * Reads the archive and returns the entries in the order they were
+     * written.
+     *
+     * @param data The archive.
+     * @param contents The content of the entries, filled by this method.
+     * @return See above.
+     */
+    private List<ZipEntry> read(byte[] data, List<byte[]> contents)
+        throws IOException
+    {
+        List<ZipEntry> entries = new ArrayList<ZipEntry>();
+        ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(data));
+        try {
+            ZipEntry entry;
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((entry = in.getNextEntry()) != null) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                while ((n = in.read(buffer)) != -1)
+                    content.write(buffer, 0, n);
+                entries.add(entry);
+                contents.add(content.toByteArray());
+            }
+        } finally {
+            in.close();
+        }
+        return entries;
+    }
+
+    /** Tests that the entries are written one after the other. */
+    public void testEntries()
+        throws IOException
+    {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        ZipStreamWriter writer = new ZipStreamWriter(data, true);
+        byte[] a = new byte[10000];
+        Arrays.fill(a, (byte) 7);
+        OutputStream out = writer.putNextEntry("a.txt");
+        out.write(a, 0, 5000);
+        out.write(a, 5000, 5000);
+        out.close();
+        out = writer.putNextEntry("b.txt");
+        out.write(3);
+        writer.close();
+        List<byte[]> contents = new ArrayList<byte[]>();
+        List<ZipEntry> entries = read(data.toByteArray(), contents);
+        assertEquals(2, entries.size());
+        assertEquals("a.txt", entries.get(0).getName());
+        assertTrue(Arrays.equals(a, contents.get(0)));
+        assertEquals("b.txt", entries.get(1).getName());
+        assertTrue(Arrays.equals(new byte[] {3}, contents.get(1)));
+    }
+
+    /** Tests that the entries with the same name are renamed. */
+    public void testDuplicateNames()
+        throws IOException
+    {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        ZipStreamWriter writer = new ZipStreamWriter(data, false);
+        writer.putNextEntry("a.txt").write(1);
+        writer.putNextEntry("a.txt").write(2);
+        writer.putNextEntry("a.txt").write(3);
+        writer.putNextEntry("b").write(4);
+        writer.putNextEntry("b").write(5);
+        writer.close();
+        List<ZipEntry> entries = read(data.toByteArray(),
+                new ArrayList<byte[]>());
+        assertEquals("a.txt", entries.get(0).getName());
+        assertEquals("a (1).txt", entries.get(1).getName());
+        assertEquals("a (2).txt", entries.get(2).getName());
+        assertEquals("b", entries.get(3).getName());
+        assertEquals("b (1)", entries.get(4).getName());
+    }
+
+    /**
+     * Tests that the entries are stored with their size and checksum when
+     * not compressed, including an entry larger than the memory buffer.
+     */
+    public void testStoredEntries()
+        throws IOException
+    {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        ZipStreamWriter writer = new ZipStreamWriter(data, true);
+        byte[] a = new byte[ZipStreamWriter.MAX_BUFFER_SIZE+10];
+        for (int i = 0; i < a.length; i++)
+            a[i] = (byte) i;
+        OutputStream out = writer.putNextEntry("a.jpg");
+        out.write(a, 0, 10);
+        out.write(a, 10, a.length-10);
+        out = writer.putNextEntry("b.png");
+        out.write(3);
+        out = writer.putNextEntry("c.txt");
+        out.write(4);
+        writer.close();
+        List<byte[]> contents = new ArrayList<byte[]>();
+        List<ZipEntry> entries = read(data.toByteArray(), contents);
+        assertEquals(3, entries.size());
+        assertEquals(ZipEntry.STORED, entries.get(0).getMethod());
+        assertEquals(a.length, entries.get(0).getSize());
+        assertTrue(Arrays.equals(a, contents.get(0)));
+        assertEquals(ZipEntry.STORED, entries.get(1).getMethod());
+        assertTrue(Arrays.equals(new byte[] {3}, contents.get(1)));
+        assertEquals(ZipEntry.DEFLATED, entries.get(2).getMethod());
+        assertTrue(Arrays.equals(new byte[] {4}, contents.get(2)));
+    }
+
+    /** Tests that the stream of a closed entry cannot be used. */
+    public void testClosedEntry()
+        throws IOException
+    {
+        ZipStreamWriter writer = new ZipStreamWriter(
+                new ByteArrayOutputStream(), true);
+        OutputStream first = writer.putNextEntry("a.txt");
+        OutputStream second = writer.putNextEntry("b.txt");
+        try {
+            first.write(1);
+            fail("The entry is closed.");
+        } catch (IOException e) {
+            //expected
+        }
+        first.close();
+        second.write(1);
+        writer.close();
+    }
+
+    /** Tests the detection of the formats already compressed. */
+    public void testIsCompressed()
+    {
+        assertTrue(ZipStreamWriter.isCompressed("image.JPG"));
+        assertTrue(ZipStreamWriter.isCompressed("archive.tar.gz"));
+        assertFalse(ZipStreamWriter.isCompressed("image.tif"));
+        assertFalse(ZipStreamWriter.isCompressed("readme"));
+        assertFalse(ZipStreamWriter.isCompressed(null));
+    }
+
+}
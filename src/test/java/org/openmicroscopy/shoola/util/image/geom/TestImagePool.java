@@ -0,0 +1,176 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.image.geom;
+
+import java.awt.image.BufferedImage;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link ImagePool}.
+ *
+ * @since 5.8
+ */
+public class TestImagePool
+    extends TestCase
+{
+
+    /** The size in bytes of a 10x10 <code>TYPE_INT_RGB</code> image. */
+    private static final long SIZE = 10*10*4;
+
+    /** Tests that a released image is handed out again. */
+    public void testReuse()
+    {
+        ImagePool pool = new ImagePool(10*SIZE);
+        BufferedImage image = pool.acquire(BufferedImage.TYPE_INT_RGB, 10, 10);
+        assertEquals(1, pool.getMisses());
+        assertTrue(pool.release(image));
+        assertEquals(1, pool.getCount());
+        assertEquals(SIZE, pool.getSize());
+        assertSame(image, pool.acquire(BufferedImage.TYPE_INT_RGB, 10, 10));
+        assertEquals(1, pool.getHits());
+        assertEquals(0, pool.getCount());
+        assertEquals(0, pool.getSize());
+    }
+
+    /** Tests that the images are kept by type and size. */
+    public void testKey()
+    {
+        ImagePool pool = new ImagePool(10*SIZE);
+        BufferedImage image = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_RGB);
+        pool.release(image);
+        BufferedImage other = pool.acquire(BufferedImage.TYPE_INT_ARGB, 10,
+                10);
+        assertNotSame(image, other);
+        assertEquals(BufferedImage.TYPE_INT_ARGB, other.getType());
+        other = pool.acquire(BufferedImage.TYPE_INT_RGB, 10, 11);
+        assertNotSame(image, other);
+        assertEquals(11, other.getHeight());
+        assertEquals(2, pool.getMisses());
+        assertEquals(1, pool.getCount());
+    }
+
+    /** Tests that an image released twice is kept once. */
+    public void testReleaseTwice()
+    {
+        ImagePool pool = new ImagePool(10*SIZE);
+        BufferedImage image = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_RGB);
+        assertTrue(pool.release(image));
+        assertTrue(pool.release(image));
+        assertEquals(1, pool.getCount());
+        assertEquals(1, pool.getReleaseCount());
+    }
+
+    /** Tests that the images which cannot be kept are dropped. */
+    public void testDrop()
+    {
+        ImagePool pool = new ImagePool(SIZE);
+        assertFalse(pool.release(null));
+        assertFalse(pool.release(new BufferedImage(11, 10,
+                BufferedImage.TYPE_INT_RGB)));
+        assertEquals(1, pool.getDropCount());
+        assertEquals(0, pool.getCount());
+    }
+
+    /** Tests that the sizes least recently used are removed first. */
+    public void testEviction()
+    {
+        ImagePool pool = new ImagePool(2*SIZE);
+        BufferedImage a = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_RGB);
+        BufferedImage b = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_ARGB);
+        BufferedImage c = new BufferedImage(5, 20,
+                BufferedImage.TYPE_INT_RGB);
+        pool.release(a);
+        pool.release(b);
+        pool.acquire(BufferedImage.TYPE_INT_RGB, 10, 10);
+        pool.release(a);
+        pool.release(c);
+        assertEquals(2, pool.getCount());
+        assertEquals(2*SIZE, pool.getSize());
+        assertEquals(1, pool.getDropCount());
+        assertSame(a, pool.acquire(BufferedImage.TYPE_INT_RGB, 10, 10));
+        assertSame(c, pool.acquire(BufferedImage.TYPE_INT_RGB, 5, 20));
+        assertNotSame(b, pool.acquire(BufferedImage.TYPE_INT_ARGB, 10, 10));
+    }
+
+    /**
+     * Tests that an image magnified into a released image is cleared first
+     * when it is not interpolated.
+     */
+    public void testMagnify()
+    {
+        ImagePool pool = new ImagePool(10*SIZE);
+        BufferedImage image = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(9, 9, 0xffff0000);
+        pool.release(image);
+        BufferedImage src = new BufferedImage(5, 5,
+                BufferedImage.TYPE_INT_ARGB);
+        BufferedImage result = Factory.magnifyImage(2, src, pool);
+        assertSame(image, result);
+        assertEquals(0, result.getRGB(9, 9));
+        pool.release(result);
+        image.setRGB(9, 9, 0xffff0000);
+        result = Factory.magnifyImage(src, 2, 0, false, pool);
+        assertSame(image, result);
+        assertEquals(0, result.getRGB(9, 9));
+    }
+
+    /** Tests that an interpolated image is written into a released image. */
+    public void testMagnifyInterpolated()
+    {
+        ImagePool pool = new ImagePool(10*SIZE);
+        BufferedImage image = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_RGB);
+        image.setRGB(9, 9, 0xffff0000);
+        pool.release(image);
+        BufferedImage src = new BufferedImage(5, 5,
+                BufferedImage.TYPE_INT_RGB);
+        BufferedImage result = Factory.magnifyImage(src, 2, 0, true, pool);
+        assertSame(image, result);
+        assertEquals(0xff000000, result.getRGB(9, 9));
+        assertNotSame(image, Factory.magnifyImage(src, 2, 0, true, null));
+    }
+
+    /** Tests that the images are removed when the pool is reduced. */
+    public void testSetMaxSize()
+    {
+        ImagePool pool = new ImagePool(2*SIZE);
+        pool.release(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB));
+        pool.release(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB));
+        pool.setMaxSize(SIZE);
+        assertEquals(1, pool.getCount());
+        pool.setMaxSize(0);
+        assertEquals(0, pool.getCount());
+        assertFalse(pool.release(new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_RGB)));
+        pool.setMaxSize(2*SIZE);
+        pool.release(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB));
+        pool.clear();
+        assertEquals(0, pool.getCount());
+        assertEquals(0, pool.getSize());
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.image.io;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link ImageDecoder}.
+ *
+ * @since 5.8
+ */
+public class TestImageDecoder
+    extends TestCase
+{
+
+    /**
+     * Creates an image made of four coloured quadrants.
+     *
+     * @param width The width of the image.
+     * @param height The height of the image.
+     * @return See above.
+     */
+    private BufferedImage createImage(int width, int height)
+    {
+        BufferedImage image = new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, width/2, height/2);
+        g.setColor(Color.GREEN);
+        g.fillRect(width/2, 0, width-width/2, height/2);
+        g.setColor(Color.BLUE);
+        g.fillRect(0, height/2, width/2, height-height/2);
+        g.setColor(Color.WHITE);
+        g.fillRect(width/2, height/2, width-width/2, height-height/2);
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * Asserts that the colour of the pixel is close to the expected one.
+     *
+     * @param expected The expected colour.
+     * @param rgb The colour of the pixel.
+     */
+    private void assertColour(Color expected, int rgb)
+    {
+        Color c = new Color(rgb);
+        assertTrue(Math.abs(expected.getRed()-c.getRed()) < 32);
+        assertTrue(Math.abs(expected.getGreen()-c.getGreen()) < 32);
+        assertTrue(Math.abs(expected.getBlue()-c.getBlue()) < 32);
+    }
+
+    /** Tests the recognition of the formats. */
+    public void testFormat()
+        throws Exception
+    {
+        BufferedImage image = createImage(16, 16);
+        assertEquals(ImageDecoder.JPEG, ImageDecoder.getFormat(
+                WriterImage.imageToByteStream(image, WriterImage.JPEG)));
+        assertEquals(ImageDecoder.PNG, ImageDecoder.getFormat(
+                WriterImage.imageToByteStream(image, WriterImage.PNG)));
+        assertNull(ImageDecoder.getFormat(new byte[] {1, 2, 3, 4}));
+        assertNull(ImageDecoder.getFormat(new byte[0]));
+    }
+
+    /** Tests the decoding of a JPEG image. */
+    public void testDecodeJPEG()
+        throws Exception
+    {
+        byte[] values = WriterImage.imageToByteStream(createImage(64, 48),
+                WriterImage.JPEG);
+        BufferedImage image = ImageDecoder.decode(values, 1, null);
+        assertEquals(64, image.getWidth());
+        assertEquals(48, image.getHeight());
+        assertColour(Color.RED, image.getRGB(8, 8));
+        assertColour(Color.WHITE, image.getRGB(56, 40));
+        //The reader of the thread is reused.
+        image = ImageDecoder.decode(values, 1, null);
+        assertColour(Color.GREEN, image.getRGB(56, 8));
+    }
+
+    /** Tests the subsampling. */
+    public void testSubsampling()
+        throws Exception
+    {
+        byte[] values = WriterImage.imageToByteStream(createImage(65, 48),
+                WriterImage.PNG);
+        BufferedImage image = ImageDecoder.decode(values, 4, null);
+        assertEquals(17, image.getWidth());
+        assertEquals(12, image.getHeight());
+        assertColour(Color.BLUE, image.getRGB(2, 10));
+        assertEquals(17, ImageDecoder.getSubsampledSize(65, 4));
+        try {
+            ImageDecoder.decode(values, 0, null);
+            fail("Subsampling must be positive.");
+        } catch (IllegalArgumentException e) {}
+    }
+
+    /** Tests the decoding into an existing image. */
+    public void testDestination()
+        throws Exception
+    {
+        byte[] values = WriterImage.imageToByteStream(createImage(64, 48),
+                WriterImage.JPEG);
+        BufferedImage image = ImageDecoder.decode(values, 2, null);
+        BufferedImage destination = new BufferedImage(32, 24,
+                image.getType());
+        image = ImageDecoder.decode(values, 2, destination);
+        assertSame(destination, image);
+        assertColour(Color.RED, image.getRGB(4, 4));
+        //Wrong type, a new image is created.
+        image = ImageDecoder.decode(values, 2, new BufferedImage(32, 24,
+                BufferedImage.TYPE_USHORT_GRAY));
+        assertEquals(destination.getType(), image.getType());
+        //Wrong size, a new image is created.
+        image = ImageDecoder.decode(values, 1, destination);
+        assertNotSame(destination, image);
+        assertEquals(64, image.getWidth());
+    }
+
+    /** Tests that an unknown format is not decoded. */
+    public void testUnknown()
+        throws Exception
+    {
+        assertNull(ImageDecoder.decode(new byte[] {1, 2, 3, 4}, 1, null));
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.math.geom2D;
+
+import java.awt.Color;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link BitMask}.
+ *
+ * @since 5.8
+ */
+public class TestBitMask
+    extends TestCase
+{
+
+    /**
+     * Creates a random mask.
+     *
+     * @param r The generator to use.
+     * @param width The width of the mask.
+     * @param height The height of the mask.
+     * @return See above.
+     */
+    private BitMask random(Random r, int width, int height)
+    {
+        BitMask mask = new BitMask(width, height);
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                mask.set(x, y, r.nextInt(3) == 0);
+        return mask;
+    }
+
+    /** Tests the conversion from and to the server byte array. */
+    public void testBytes()
+    {
+        //3x3 cross: 010 111 010 -> 01011101 0
+        byte[] data = {(byte) 0x5d, 0};
+        BitMask mask = BitMask.fromBytes(data, 3, 3);
+        assertEquals(5, mask.getArea());
+        assertFalse(mask.get(0, 0));
+        assertTrue(mask.get(1, 0));
+        assertTrue(mask.get(0, 1));
+        assertTrue(mask.get(2, 1));
+        assertTrue(mask.get(1, 2));
+        assertFalse(mask.get(2, 2));
+        byte[] result = mask.toBytes();
+        assertEquals(2, result.length);
+        assertEquals(data[0], result[0]);
+        assertEquals(data[1], result[1]);
+        Random r = new Random(7);
+        BitMask m = random(r, 131, 17);
+        assertEquals(m, BitMask.fromBytes(m.toBytes(), 131, 17));
+    }
+
+    /** Tests the spans and the points of the mask. */
+    public void testPoints()
+    {
+        Random r = new Random(11);
+        BitMask mask = random(r, 150, 9);
+        List<Point> points = mask.getPoints(10, 20);
+        assertEquals(mask.getArea(), points.size());
+        int n = 0;
+        for (int y = 0; y < 9; y++)
+            for (int x = 0; x < 150; x++)
+                if (mask.get(x, y)) {
+                    assertEquals(new Point(x+10, y+20), points.get(n));
+                    n++;
+                }
+        BitMask full = new BitMask(70, 1);
+        for (int x = 0; x < 70; x++)
+            full.set(x, 0, true);
+        assertEquals(0, full.nextSetBit(0, 0));
+        assertEquals(70, full.nextClearBit(0, 0));
+        full.set(64, 0, false);
+        assertEquals(64, full.nextClearBit(0, 3));
+        assertEquals(65, full.nextSetBit(0, 64));
+        assertEquals(-1, full.nextSetBit(0, 70));
+    }
+
+    /** Tests the conversion from and to an image. */
+    public void testImage()
+    {
+        Random r = new Random(3);
+        BitMask mask = random(r, 77, 13);
+        Color c = new Color(255, 0, 0, 128);
+        BufferedImage image = mask.toImage(c);
+        for (int y = 0; y < 13; y++)
+            for (int x = 0; x < 77; x++) {
+                if (mask.get(x, y))
+                    assertEquals(c.getRGB(), image.getRGB(x, y));
+                else assertEquals(0, image.getRGB(x, y) >>> 24);
+            }
+        assertEquals(mask, BitMask.fromImage(image));
+        BitMask copy = new BitMask(mask);
+        copy.set(0, 0, !copy.get(0, 0));
+        assertFalse(mask.equals(copy));
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.math.geom2D;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for {@link GridIndex}.
+ *
+ * @since 5.8
+ */
+public class TestGridIndex
+    extends TestCase
+{
+
+    /** Tests the objects found in a region. */
+    public void testQueryRegion()
+    {
+        GridIndex<String> index = new GridIndex<String>(10);
+        index.add("a", new Rectangle2D.Double(0, 0, 5, 5));
+        index.add("b", new Rectangle2D.Double(50, 50, 5, 5));
+        index.add("c", new Rectangle2D.Double(-20, -20, 40, 40));
+        List<String> l = index.query(new Rectangle2D.Double(1, 1, 2, 2));
+        assertEquals(2, l.size());
+        assertEquals("a", l.get(0));
+        assertEquals("c", l.get(1));
+        l = index.query(new Rectangle2D.Double(40, 40, 100, 100));
+        assertEquals(1, l.size());
+        assertEquals("b", l.get(0));
+        assertEquals(3, index.query(
+                new Rectangle2D.Double(-1000, -1000, 2000, 2000)).size());
+    }
+
+    /** Tests the objects found at a point. */
+    public void testQueryPoint()
+    {
+        GridIndex<String> index = new GridIndex<String>(10);
+        index.add("point", new Rectangle2D.Double(5, 5, 0, 0));
+        index.add("large", new Rectangle2D.Double(0, 0, 10000, 10000));
+        List<String> l = index.query(new Point2D.Double(5, 5), 0);
+        assertEquals(2, l.size());
+        assertEquals("point", l.get(0));
+        l = index.query(new Point2D.Double(7, 7), 1);
+        assertEquals(1, l.size());
+        assertEquals(2, index.query(new Point2D.Double(7, 7), 2).size());
+    }
+
+    /** Tests that the objects moved or removed are updated. */
+    public void testUpdate()
+    {
+        GridIndex<String> index = new GridIndex<String>(10);
+        index.add("a", new Rectangle2D.Double(0, 0, 5, 5));
+        index.add("b", new Rectangle2D.Double(0, 0, 5, 5));
+        index.add("a", new Rectangle2D.Double(100, 100, 5, 5));
+        assertEquals(new Rectangle2D.Double(100, 100, 5, 5),
+                index.getBounds("a"));
+        assertNull(index.getBounds("c"));
+        assertEquals(2, index.size());
+        assertEquals(1, index.query(new Point2D.Double(2, 2), 0).size());
+        List<String> l = index.getObjects();
+        assertEquals("a", l.get(0));
+        assertTrue(index.remove("b"));
+        assertFalse(index.remove("b"));
+        assertFalse(index.contains("b"));
+        assertEquals(0, index.query(new Point2D.Double(2, 2), 0).size());
+        index.clear();
+        assertEquals(0, index.size());
+    }
+
+    /** Compares the objects found with a linear scan. */
+    public void testRandom()
+    {
+        Random r = new Random(42);
+        GridIndex<Rectangle2D> index = new GridIndex<Rectangle2D>(32);
+        Rectangle2D[] rects = new Rectangle2D[2000];
+        for (int i = 0; i < rects.length; i++) {
+            rects[i] = new Rectangle2D.Double(r.nextInt(2000), r.nextInt(2000),
+                    r.nextInt(100), r.nextInt(100));
+            index.add(rects[i], rects[i]);
+        }
+        Rectangle2D region;
+        int n;
+        for (int k = 0; k < 50; k++) {
+            region = new Rectangle2D.Double(r.nextInt(2000), r.nextInt(2000),
+                    r.nextInt(300), r.nextInt(300));
+            n = 0;
+            for (int i = 0; i < rects.length; i++) {
+                if (rects[i].getMinX() <= region.getMaxX() &&
+                        region.getMinX() <= rects[i].getMaxX() &&
+                        rects[i].getMinY() <= region.getMaxY() &&
+                        region.getMinY() <= rects[i].getMaxY())
+                    n++;
+            }
+            assertEquals(n, index.query(region).size());
+        }
+    }
+
+}
@@ -0,0 +1,292 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.roi.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.jhotdraw.geom.BezierPath.Node;
+import org.openmicroscopy.shoola.util.math.geom2D.BitMask;
+import org.openmicroscopy.shoola.util.roi.ROIComponent;
+import org.openmicroscopy.shoola.util.roi.figures.MeasureBezierFigure;
+import org.openmicroscopy.shoola.util.roi.figures.MeasureEllipseFigure;
+import org.openmicroscopy.shoola.util.roi.figures.MeasureLineConnectionFigure;
+import org.openmicroscopy.shoola.util.roi.figures.MeasureLineFigure;
+import org.openmicroscopy.shoola.util.roi.figures.MeasureMaskFigure;
+import org.openmicroscopy.shoola.util.roi.figures.MeasurePointFigure;
+import org.openmicroscopy.shoola.util.roi.figures.MeasureRectangleFigure;
+import org.openmicroscopy.shoola.util.roi.figures.MeasureTextFigure;
+import org.openmicroscopy.shoola.util.roi.figures.ROIFigure;
+import org.openmicroscopy.shoola.util.roi.model.ROI;
+import org.openmicroscopy.shoola.util.roi.model.annotation.MeasurementAttributes;
+import org.openmicroscopy.shoola.util.roi.model.util.Coord3D;
+
+/**
+ * Unit test for {@link XMLFileIOStrategy}, the ROIs are written to a local
+ * file and read back.
+ *
+ * @since 5.8
+ */
+public class TestXMLFileIOStrategy
+    extends TestCase
+{
+
+    /**
+     * A file written before the ROIs were streamed, the whole document
+     * being written at once with the definitions first.
+     */
+    private static final String BASELINE_FILE =
+        "<roiset xmlns=\"https://www.openmicroscopy.org\" version=\"1.0\">\n"+
+        "  <defs/>\n"+
+        "  <roi id=\"1\">\n"+
+        "    <annotation/>\n"+
+        "    <roishape t=\"0\" z=\"2\">\n"+
+        "      <annotation/>\n"+
+        "      <svg xmlns=\"http://www.w3.org/2000/svg\""+
+        " xmlns:xlink=\"http://www.w3.org/1999/xlink\" version=\"1.2\">\n"+
+        "        <rect x=\"10.0\" y=\"20.0\" width=\"30.0\""+
+        " height=\"40.0\" stroke=\"#c4c4c4\" stroke-width=\"1.0\"/>\n"+
+        "        <text x=\"10.0\" y=\"20.0\">rectangle</text>\n"+
+        "      </svg>\n"+
+        "    </roishape>\n"+
+        "  </roi>\n"+
+        "  <roi id=\"2\">\n"+
+        "    <annotation/>\n"+
+        "    <roishape t=\"1\" z=\"0\">\n"+
+        "      <annotation/>\n"+
+        "      <svg xmlns=\"http://www.w3.org/2000/svg\""+
+        " xmlns:xlink=\"http://www.w3.org/1999/xlink\" version=\"1.2\">\n"+
+        "        <polyline points=\"10.0,10.0 20.0,20.0 30.0,10.0\""+
+        " points-c1=\"10.0,10.0 20.0,20.0 30.0,10.0\""+
+        " points-c2=\"10.0,10.0 20.0,20.0 30.0,10.0\" mask=\"0,0,0\"/>\n"+
+        "        <text x=\"10.0\" y=\"10.0\">polyline</text>\n"+
+        "      </svg>\n"+
+        "    </roishape>\n"+
+        "  </roi>\n"+
+        "  <roi id=\"3\">\n"+
+        "    <annotation/>\n"+
+        "    <roishape t=\"0\" z=\"0\">\n"+
+        "      <annotation/>\n"+
+        "      <svg xmlns=\"http://www.w3.org/2000/svg\""+
+        " xmlns:xlink=\"http://www.w3.org/1999/xlink\" version=\"1.2\">\n"+
+        "        <text x=\"5.0\" y=\"6.0\">text &amp; more</text>\n"+
+        "      </svg>\n"+
+        "    </roishape>\n"+
+        "  </roi>\n"+
+        "</roiset>\n";
+
+    /** The plane the figures are added to. */
+    private static final Coord3D PLANE = new Coord3D(1, 2);
+
+    /**
+     * Writes the ROIs of the component.
+     *
+     * @param component The component hosting the ROIs.
+     * @return See above.
+     * @throws Exception If the ROIs cannot be written.
+     */
+    private byte[] write(ROIComponent component)
+        throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XMLFileIOStrategy().write(out, component);
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads the ROIs into a new component.
+     *
+     * @param data The file content.
+     * @return See above.
+     * @throws Exception If the ROIs cannot be read.
+     */
+    private ROIComponent read(byte[] data)
+        throws Exception
+    {
+        ROIComponent component = new ROIComponent();
+        new XMLFileIOStrategy().read(new ByteArrayInputStream(data),
+                component);
+        return component;
+    }
+
+    /**
+     * Adds the figure with the specified text to the component.
+     *
+     * @param component The component hosting the ROIs.
+     * @param figure The figure to add.
+     * @param text The text of the figure.
+     * @return See above.
+     * @throws Exception If the ROI cannot be created.
+     */
+    private ROIFigure add(ROIComponent component, ROIFigure figure,
+            String text)
+        throws Exception
+    {
+        MeasurementAttributes.TEXT.set(figure, text);
+        component.addROI(figure, PLANE, true);
+        return figure;
+    }
+
+    /**
+     * Returns the ID of the ROI the figure is part of.
+     *
+     * @param figure The figure to handle.
+     * @return See above.
+     */
+    private long getROIID(ROIFigure figure)
+    {
+        return figure.getROI().getID();
+    }
+
+    /**
+     * Checks that the figures are of the same type, at the same position
+     * and with the same text.
+     *
+     * @param expected The figure written.
+     * @param result The figure read.
+     */
+    private void assertFigure(ROIFigure expected, ROIFigure result)
+    {
+        assertEquals(expected.getClass(), result.getClass());
+        assertEquals(expected.getType(), result.getType());
+        assertEquals(MeasurementAttributes.TEXT.get(expected),
+                MeasurementAttributes.TEXT.get(result));
+        assertEquals(expected.getBounds(), result.getBounds());
+    }
+
+    /**
+     * Tests that every type of figure, the text and the masks are read
+     * back as written.
+     *
+     * @throws Exception If an error occurred.
+     */
+    public void testRoundTrip()
+        throws Exception
+    {
+        ROIComponent component = new ROIComponent();
+        List<ROIFigure> figures = new ArrayList<ROIFigure>();
+        ROIFigure rectangle = add(component,
+                new MeasureRectangleFigure(10, 20, 30, 40), "rectangle");
+        figures.add(rectangle);
+        ROIFigure ellipse = add(component,
+                new MeasureEllipseFigure(50, 60, 20, 10), "ellipse");
+        figures.add(ellipse);
+        figures.add(add(component, new MeasurePointFigure(5, 5, 8, 8),
+                "point"));
+        MeasureLineFigure line = new MeasureLineFigure();
+        line.removeAllNodes();
+        line.addNode(new Node(0, 0));
+        line.addNode(new Node(40, 30));
+        figures.add(add(component, line, "line"));
+        MeasureLineFigure segments = new MeasureLineFigure();
+        segments.removeAllNodes();
+        segments.addNode(new Node(0, 0));
+        segments.addNode(new Node(10, 30));
+        segments.addNode(new Node(20, 0));
+        figures.add(add(component, segments, "segments"));
+        MeasureBezierFigure open = new MeasureBezierFigure(false);
+        open.addNode(new Node(10, 10));
+        open.addNode(new Node(20, 40));
+        open.addNode(new Node(30, 10));
+        figures.add(add(component, open, "polyline"));
+        MeasureBezierFigure closed = new MeasureBezierFigure(true);
+        closed.addNode(new Node(60, 10));
+        closed.addNode(new Node(80, 40));
+        closed.addNode(new Node(100, 10));
+        figures.add(add(component, closed, "polygon"));
+        figures.add(add(component, new MeasureTextFigure(70, 80),
+                "text <with> \"markup\" & accents \u00e9"));
+        BitMask bits = new BitMask(70, 3);
+        bits.set(0, 0, true);
+        bits.set(69, 1, true);
+        bits.set(33, 2, true);
+        MeasureMaskFigure mask = new MeasureMaskFigure(15, 25, 70, 3, bits,
+                false, true, true, true, true);
+        figures.add(add(component, mask, "mask"));
+        MeasureLineConnectionFigure connection =
+                new MeasureLineConnectionFigure();
+        connection.setStartConnector(rectangle.findCompatibleConnector(
+                null, true));
+        connection.setEndConnector(ellipse.findCompatibleConnector(
+                null, false));
+        figures.add(add(component, connection, "connection"));
+
+        ROIComponent result = read(write(component));
+        assertEquals(figures.size(), result.getROIMap().size());
+        Iterator<ROI> i = result.getROIMap().values().iterator();
+        ROIFigure figure;
+        for (ROIFigure expected : figures) {
+            figure = i.next().getFigure(PLANE);
+            assertEquals(getROIID(expected), getROIID(figure));
+            assertFigure(expected, figure);
+        }
+        figure = result.getROI(getROIID(mask)).getFigure(PLANE);
+        assertEquals(bits, ((MeasureMaskFigure) figure).getBitMask());
+        MeasureLineConnectionFigure c = (MeasureLineConnectionFigure)
+                result.getROI(getROIID(connection)).getFigure(PLANE);
+        assertEquals(getROIID(rectangle),
+                getROIID((ROIFigure) c.getStartConnector().getOwner()));
+        assertEquals(getROIID(ellipse),
+                getROIID((ROIFigure) c.getEndConnector().getOwner()));
+    }
+
+    /**
+     * Tests that a file written before the ROIs were streamed is read.
+     *
+     * @throws Exception If an error occurred.
+     */
+    public void testReadBaselineFile()
+        throws Exception
+    {
+        ROIComponent component = read(BASELINE_FILE.getBytes("UTF-8"));
+        assertEquals(3, component.getROIMap().size());
+        ROIFigure figure = component.getROI(1).getFigure(new Coord3D(2, 0));
+        assertEquals(MeasureRectangleFigure.class, figure.getClass());
+        assertEquals("rectangle", MeasurementAttributes.TEXT.get(figure));
+        assertEquals(10.0, figure.getBounds().getX(), 0);
+        assertEquals(20.0, figure.getBounds().getY(), 0);
+        assertEquals(30.0, figure.getBounds().getWidth(), 0);
+        assertEquals(40.0, figure.getBounds().getHeight(), 0);
+        figure = component.getROI(2).getFigure(new Coord3D(0, 1));
+        assertEquals(MeasureBezierFigure.class, figure.getClass());
+        assertFalse(((MeasureBezierFigure) figure).isClosed());
+        assertEquals(3, ((MeasureBezierFigure) figure).getNodeCount());
+        assertEquals("polyline", MeasurementAttributes.TEXT.get(figure));
+        figure = component.getROI(3).getFigure(new Coord3D(0, 0));
+        assertEquals(MeasureTextFigure.class, figure.getClass());
+        assertEquals("text & more", MeasurementAttributes.TEXT.get(figure));
+
+        //The file written by the streaming writer is read the same way.
+        ROIComponent result = read(write(component));
+        assertEquals(3, result.getROIMap().size());
+        for (ROI roi : component.getROIMap().values()) {
+            for (Coord3D coord : roi.getShapes().keySet())
+                assertFigure(roi.getFigure(coord),
+                        result.getROI(roi.getID()).getFigure(coord));
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.util.ui;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import junit.framework.TestCase;
+
+/**
+ * Verifies that {@link TextIndex} returns the same nodes as a linear scan.
+ *
+ * @since 5.8
+ */
+public class TestTextIndex extends TestCase
+{
+
+    private TextIndex<String> index;
+
+    protected void setUp()
+    {
+        index = new TextIndex<String>(2);
+        index.update("a", "Cell_001.tif", "nucleus stain");
+        index.update("b", "cell_002.TIF", null);
+        index.update("c", "Plate 1", "Cell line");
+    }
+
+    public void testLiteral()
+    {
+        assertEquals("a-b.c", TextIndex.getLiteral(
+                Pattern.compile("a\\-b\\.c")));
+        assertNull(TextIndex.getLiteral(Pattern.compile("a.c")));
+        assertNull(TextIndex.getLiteral(Pattern.compile("\\d+")));
+    }
+
+    public void testFindName()
+    {
+        Set<String> found = index.find(
+                RegExFactory.createPattern("Cell"), 0);
+        assertEquals(Arrays.asList("a"), Arrays.asList(found.toArray()));
+        found = index.find(
+                RegExFactory.createCaseInsensitivePattern("cell"), 0);
+        assertEquals(2, found.size());
+    }
+
+    public void testFindSeveralFields()
+    {
+        Set<String> found = index.find(
+                RegExFactory.createCaseInsensitivePattern("cell"), 0, 1);
+        assertEquals(3, found.size());
+        found = index.find(RegExFactory.createPattern("l.n"), 0, 1);
+        assertEquals(Arrays.asList("c"), Arrays.asList(found.toArray()));
+    }
+
+    public void testUpdateAndRemove()
+    {
+        assertFalse(index.update("a", "Cell_001.tif", "nucleus stain"));
+        assertTrue(index.update("a", "Other.tif", null));
+        Pattern p = RegExFactory.createCaseInsensitivePattern("cell");
+        assertFalse(index.find(p, 0).contains("a"));
+        assertTrue(index.remove("b"));
+        assertTrue(index.find(p, 0).isEmpty());
+        index.retainAll(Arrays.asList("c"));
+        assertEquals(1, index.size());
+        assertTrue(index.contains("c"));
+    }
+
+    public void testValuesTrimmed()
+    {
+        index.update("d", "  Plate 2\t", " ");
+        Set<String> found = index.find(
+                RegExFactory.createPattern("^Plate 2$"), 0);
+        assertEquals(Arrays.asList("d"), Arrays.asList(found.toArray()));
+        assertFalse(index.update("d", "Plate 2", ""));
+        assertTrue(index.find(RegExFactory.createPattern("^$"), 1)
+                .contains("d"));
+    }
+
+    public void testCompact()
+    {
+        for (int i = 0; i < 5000; i++)
+            index.update("a", "name"+i, null);
+        Set<String> found = index.find(
+                RegExFactory.createPattern("name4999"), 0);
+        assertEquals(1, found.size());
+        assertTrue(index.find(
+                RegExFactory.createPattern("name4998"), 0).isEmpty());
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2026 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.ui.drawingtools.canvas;
+
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+
+import junit.framework.TestCase;
+
+import org.jhotdraw.draw.DefaultDrawing;
+import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.Figure;
+import org.openmicroscopy.shoola.util.ui.drawingtools.figures.RectangleTextFigure;
+
+/**
+ * Unit test for {@link DrawingCanvasView}, checks when the figures painted
+ * as outlines in a dense drawing are painted again.
+ *
+ * @since 5.8
+ */
+public class TestDrawingCanvasView
+    extends TestCase
+{
+
+    /** The size of the view. */
+    private static final int SIZE = 500;
+
+    /** The view to test. */
+    private DrawingCanvasView view;
+
+    /** The figure in the visible area. */
+    private Figure inside;
+
+    /** The figure far from the visible area. */
+    private Figure outside;
+
+    /**
+     * Moves the specified figure.
+     *
+     * @param f The figure to move.
+     * @param x The new x-coordinate.
+     * @param y The new y-coordinate.
+     */
+    private void move(Figure f, double x, double y)
+    {
+        f.willChange();
+        f.setBounds(new Point2D.Double(x, y), new Point2D.Double(x+4, y+4));
+        f.changed();
+    }
+
+    /** Paints the view. */
+    private void paint()
+    {
+        BufferedImage image = new BufferedImage(SIZE, SIZE,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        view.drawDrawing(g);
+        g.dispose();
+    }
+
+    /**
+     * Creates a drawing with enough figures in the visible area to be
+     * painted as outlines.
+     */
+    protected void setUp()
+    {
+        Drawing drawing = new DefaultDrawing();
+        for (int x = 0; x < 40; x++) {
+            for (int y = 0; y < 30; y++) {
+                drawing.add(new RectangleTextFigure("", 10+x*12, 10+y*12,
+                        4, 4));
+            }
+        }
+        inside = drawing.getFigures().get(0);
+        outside = new RectangleTextFigure("", 10*SIZE, 10*SIZE, 4, 4);
+        drawing.add(outside);
+        view = new DrawingCanvasView();
+        view.setDrawing(drawing);
+        view.setBounds(0, 0, SIZE, SIZE);
+        paint();
+    }
+
+    /** Tests that the figures are painted once as outlines. */
+    public void testOverlayKept()
+    {
+        BufferedImage overlay = view.getOverlay();
+        assertNotNull(overlay);
+        paint();
+        assertSame(overlay, view.getOverlay());
+    }
+
+    /** Tests that a change away from the visible area keeps the outlines. */
+    public void testChangeOutside()
+    {
+        BufferedImage overlay = view.getOverlay();
+        move(outside, 20*SIZE, 20*SIZE);
+        assertSame(overlay, view.getOverlay());
+        view.getDrawing().remove(outside);
+        assertSame(overlay, view.getOverlay());
+    }
+
+    /** Tests that a change in the visible area discards the outlines. */
+    public void testChangeInside()
+    {
+        move(inside, 20, 20);
+        assertNull(view.getOverlay());
+        paint();
+        assertNotNull(view.getOverlay());
+    }
+
+    /** Tests that moving a figure out of the visible area is seen. */
+    public void testMoveOut()
+    {
+        move(inside, 20*SIZE, 20*SIZE);
+        assertNull(view.getOverlay());
+    }
+
+    /** Tests that a selected figure does not discard the outlines. */
+    public void testChangeSelected()
+    {
+        view.addToSelection(inside);
+        paint();
+        BufferedImage overlay = view.getOverlay();
+        assertNotNull(overlay);
+        move(inside, 20, 20);
+        assertSame(overlay, view.getOverlay());
+    }
+
+    /** Tests that hiding or showing a figure paints the outlines again. */
+    public void testVisibility()
+    {
+        BufferedImage overlay = view.getOverlay();
+        inside.setVisible(false);
+        paint();
+        assertNotSame(overlay, view.getOverlay());
+        overlay = view.getOverlay();
+        paint();
+        assertSame(overlay, view.getOverlay());
+        inside.setVisible(true);
+        paint();
+        assertNotSame(overlay, view.getOverlay());
+    }
+}